@@ -0,0 +1,54 @@
+package com.diagramme;
+
+import com.diagramme.dto.BatchExportOptions;
+import com.diagramme.dto.BatchExportReport;
+import com.diagramme.service.BatchExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Point d'entrée en ligne de commande pour exporter tous les diagrammes de la base
+ * sans démarrer l'interface JavaFX (profil Spring "batch").
+ *
+ * Exemple :
+ * <pre>
+ * java -cp ... com.diagramme.BatchExportLauncher \
+ *     --app.batch.export.output=./site/diagrams \
+ *     --app.batch.export.formats=SVG,PNG \
+ *     --app.batch.export.threads=8 \
+ *     --app.batch.export.limit.PNG=2
+ * </pre>
+ * Code de sortie : 0 si tout a été exporté, 1 si certains diagrammes sont en erreur, 2 en cas d'échec global.
+ */
+@Slf4j
+public class BatchExportLauncher {
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DiagrammeDesktopApplication.class)
+                .web(WebApplicationType.NONE)
+                .headless(true)
+                .profiles("batch")
+                .run(args);
+
+        int exitCode = runExport(context);
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static int runExport(ConfigurableApplicationContext context) {
+        try {
+            BatchExportOptions options = BatchExportOptions.fromEnvironment(context.getEnvironment());
+            BatchExportReport report = context.getBean(BatchExportService.class).exportAll(options);
+            return report.getFailedDiagrams() == 0 ? 0 : 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Export en lot interrompu");
+            return 2;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'export en lot", e);
+            return 2;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import javafx.fxml.FXMLLoader;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
@@ -27,6 +28,7 @@ public class AppConfig {
 
     @Bean
     @Lazy
+    @Profile("!batch")
     public FXMLLoader fxmlLoader() {
         return new FXMLLoader();
     }
@@ -0,0 +1,97 @@
+package com.diagramme.config;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.RelationshipElement;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Régions du cache de second niveau Hibernate, en mémoire (Caffeine via JCache).
+ * Les régions sont bornées, sauf celle des dates de modification ; les statistiques sont lues par CacheStatisticsService.
+ * L'invalidation suit les écritures JPA, complétée par {@link ElementCollectionCacheInvalidator} ;
+ * les écritures JDBC directes (BulkDiagramWriter) vident le cache des requêtes.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Région des résultats de requêtes mises en cache
+     */
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    /**
+     * Région des dates de dernière modification des tables, qui invalident les résultats de requêtes
+     */
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private final Environment env;
+
+    public CacheConfig(Environment env) {
+        this.env = env;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        long maxElements = env.getProperty("app.cache.max-elements", Long.class, 50_000L);
+        long maxMembers = env.getProperty("app.cache.max-members", Long.class, 200_000L);
+
+        Map<String, Long> regions = new LinkedHashMap<>();
+        regions.put(ClassDiagram.class.getName(), 1_000L);
+        regions.put(ClassDiagram.class.getName() + ".elements", 1_000L);
+        // Une seule région pour la hiérarchie des éléments (classes et relations)
+        regions.put(DiagramElement.class.getName(), maxElements);
+        regions.put(ClassElement.class.getName() + ".attributes", maxElements);
+        regions.put(ClassElement.class.getName() + ".methods", maxElements);
+        regions.put(RelationshipElement.class.getName() + ".controlPoints", maxElements);
+        regions.put(Attribute.class.getName(), maxMembers);
+        regions.put(Method.class.getName(), maxMembers);
+        regions.put(Method.class.getName() + ".parameters", maxMembers);
+        regions.put(Parameter.class.getName(), maxMembers);
+        regions.put(QUERY_RESULTS_REGION, 1_000L);
+        // Jamais borné : une date perdue laisserait des résultats de requêtes périmés
+        regions.put(UPDATE_TIMESTAMPS_REGION, null);
+
+        // Gestionnaire propre à ce contexte : deux contextes d'un même processus (tests) ne partagent pas leurs régions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("diagramme-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        regions.forEach((region, maximumSize) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            if (maximumSize != null) {
+                configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            }
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new ElementCollectionCacheInvalidator()));
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.diagramme.config;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.DiagramElement;
+import org.hibernate.Cache;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Retire de la région ClassDiagram.elements la collection du diagramme dont un élément est créé ou supprimé
+ * directement (suppression d'une classe, d'une relation par son dépôt).
+ * hibernate.cache.auto_evict_collection_cache ne le fait pas : il ne reconnaît que l'entité déclarée dans la
+ * collection (DiagramElement), jamais ses sous-classes ClassElement et RelationshipElement.
+ */
+public class ElementCollectionCacheInvalidator implements Integrator, PostDeleteEventListener, PostInsertEventListener {
+
+    static final String ELEMENTS_ROLE = ClassDiagram.class.getName() + ".elements";
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_INSERT, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evict(event.getEntity(), event.getSession());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        evict(event.getEntity(), event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void evict(Object entity, EventSource session) {
+        if (!(entity instanceof DiagramElement element) || element.getDiagram() == null) {
+            return;
+        }
+        Long diagramId = element.getDiagram().getId();
+        if (diagramId == null) {
+            return;
+        }
+
+        // Tout de suite pour la suite de la transaction, puis à la fin : une lecture concurrente a pu remettre l'ancienne liste
+        Cache cache = session.getFactory().getCache();
+        cache.evictCollectionData(ELEMENTS_ROLE, diagramId);
+        session.getActionQueue().registerProcess((success, completed) ->
+                cache.evictCollectionData(ELEMENTS_ROLE, diagramId));
+    }
+}
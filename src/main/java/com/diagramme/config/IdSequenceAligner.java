@@ -0,0 +1,64 @@
+package com.diagramme.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aligne au démarrage les séquences d'identifiants sur les identifiants déjà en base.
+ * Les entités tirent leurs identifiants par blocs de {@link #ALLOCATION_SIZE} (optimiseur pooled de Hibernate),
+ * ce qui permet les insertions JDBC par lots. Une base créée quand les identifiants étaient générés par la colonne
+ * (IDENTITY) reçoit des séquences neuves qui repartiraient de 1.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner {
+
+    /**
+     * Taille des blocs d'identifiants, identique à allocationSize sur les entités
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    // Table -> séquence qui fournit ses identifiants
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "class_diagrams", "class_diagrams_seq",
+            "diagram_elements", "diagram_elements_seq",
+            "attributes", "attributes_seq",
+            "methods", "methods_seq",
+            "parameters", "parameters_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param entityManagerFactory Non utilisé : garantit que le schéma est à jour avant l'alignement
+     */
+    @Autowired
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        for (Map.Entry<String, String> entry : SEQUENCES.entrySet()) {
+            List<Long> next = jdbcTemplate.queryForList(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                    Long.class, entry.getValue().toUpperCase());
+            if (next.isEmpty()) {
+                continue;
+            }
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + entry.getKey(), Long.class);
+
+            // Le bloc suivant va de (valeur - ALLOCATION_SIZE + 1) à valeur : il doit commencer après le plus grand id
+            if (max != null && max > 0 && next.get(0) < max + ALLOCATION_SIZE) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + entry.getValue() + " RESTART WITH " + (max + ALLOCATION_SIZE));
+                log.info("Séquence {} alignée sur l'identifiant {} de {}", entry.getValue(), max, entry.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.diagramme.config;
+
+import com.diagramme.config.migration.V1__ForeignKeyIndexes;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Applique les migrations Flyway (index, colonnes calculées) sur le schéma tenu à jour par Hibernate.
+ * Les tables sont créées par ddl-auto=update : les migrations passent après, et non avant comme le ferait
+ * l'auto-configuration Spring Boot (désactivée). Une base sans historique est prise pour référence à la version 0.
+ */
+@Component
+@Slf4j
+public class SchemaMigrator {
+
+    private final DataSource dataSource;
+
+    /**
+     * @param entityManagerFactory Non utilisé : garantit que les tables existent avant les migrations
+     */
+    @Autowired
+    public SchemaMigrator(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        MigrateResult result = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .javaMigrations(new V1__ForeignKeyIndexes())
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+        if (result.migrationsExecuted > 0) {
+            log.info("{} migration(s) du schéma appliquée(s), version {}", result.migrationsExecuted,
+                    result.targetSchemaVersion);
+        }
+    }
+}
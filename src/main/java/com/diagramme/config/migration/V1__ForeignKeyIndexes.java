@@ -0,0 +1,59 @@
+package com.diagramme.config.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Index sur les clés étrangères lues par les dépôts (éléments d'un diagramme, relations d'une classe, membres).
+ * H2 indexe déjà les colonnes des contraintes créées par Hibernate : l'index n'est créé que si aucun index
+ * ne commence par la colonne, pour ne pas maintenir deux fois le même arbre à chaque insertion.
+ */
+@Slf4j
+public class V1__ForeignKeyIndexes extends BaseJavaMigration {
+
+    // Nom de l'index, table, colonne
+    private static final String[][] INDEXES = {
+            {"idx_diagram_elements_diagram", "diagram_elements", "diagram_id"},
+            {"idx_relationship_elements_source", "relationship_elements", "source_id"},
+            {"idx_relationship_elements_target", "relationship_elements", "target_id"},
+            {"idx_relationship_control_points_relationship", "relationship_control_points", "relationship_element_id"},
+            {"idx_attributes_class", "attributes", "class_id"},
+            {"idx_methods_class", "methods", "class_id"},
+            {"idx_parameters_method", "parameters", "method_id"},
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        for (String[] index : INDEXES) {
+            if (hasIndexStartingWith(connection, index[1], index[2])) {
+                continue;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX " + index[0] + " ON " + index[1] + " (" + index[2] + ")");
+            }
+            log.info("Index {} créé sur {}({})", index[0], index[1], index[2]);
+        }
+    }
+
+    private static boolean hasIndexStartingWith(Connection connection, String table, String column)
+            throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet indexes = metaData.getIndexInfo(null, null, table.toUpperCase(), false, true)) {
+            while (indexes.next()) {
+                if (indexes.getShort("ORDINAL_POSITION") == 1
+                        && column.equalsIgnoreCase(indexes.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+package com.diagramme.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.env.Environment;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Options de l'export en lot des diagrammes
+ */
+@Data
+@NoArgsConstructor
+public class BatchExportOptions {
+
+    private File outputDir = new File("./exports");
+    private List<String> formats = List.of("SVG", "PNG");
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int progressIntervalSeconds = 5;
+
+    // Nombre maximal d'exports simultanés par format (par défaut : le nombre de threads)
+    private Map<String, Integer> formatLimits = new HashMap<>();
+
+    /**
+     * Retourne la limite de concurrence pour un format
+     */
+    public int getFormatLimit(String format) {
+        return Math.max(1, Math.min(threads, formatLimits.getOrDefault(format, threads)));
+    }
+
+    /**
+     * Construit les options à partir des propriétés app.batch.export.*
+     * (fichier de configuration ou arguments --app.batch.export.xxx=...)
+     */
+    public static BatchExportOptions fromEnvironment(Environment env) {
+        BatchExportOptions options = new BatchExportOptions();
+        options.setOutputDir(new File(env.getProperty("app.batch.export.output", "./exports")));
+        options.setThreads(Math.max(1, env.getProperty("app.batch.export.threads", Integer.class,
+                Runtime.getRuntime().availableProcessors())));
+        options.setProgressIntervalSeconds(Math.max(1, env.getProperty("app.batch.export.progress-interval", Integer.class, 5)));
+
+        List<String> formats = new ArrayList<>();
+        for (String format : env.getProperty("app.batch.export.formats", "SVG,PNG").split(",")) {
+            if (!format.isBlank()) {
+                String normalized = format.trim().toUpperCase();
+                formats.add(normalized);
+
+                Integer limit = env.getProperty("app.batch.export.limit." + normalized, Integer.class);
+                if (limit != null) {
+                    options.getFormatLimits().put(normalized, limit);
+                }
+            }
+        }
+        options.setFormats(formats);
+
+        return options;
+    }
+}
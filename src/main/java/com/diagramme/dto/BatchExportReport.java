@@ -0,0 +1,33 @@
+package com.diagramme.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bilan d'un export en lot
+ */
+@Data
+@NoArgsConstructor
+public class BatchExportReport {
+
+    private long totalDiagrams;
+    private int exportedDiagrams;
+    private int failedDiagrams;
+    private int filesWritten;
+    private long bytesWritten;
+    private long elapsedMillis;
+
+    /**
+     * Débit moyen en diagrammes par seconde
+     */
+    public double getDiagramsPerSecond() {
+        return elapsedMillis > 0 ? exportedDiagrams * 1000.0 / elapsedMillis : 0;
+    }
+
+    /**
+     * Débit moyen en fichiers par seconde
+     */
+    public double getFilesPerSecond() {
+        return elapsedMillis > 0 ? filesWritten * 1000.0 / elapsedMillis : 0;
+    }
+}
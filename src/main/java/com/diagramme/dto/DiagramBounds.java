@@ -0,0 +1,28 @@
+package com.diagramme.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Étendue des classes d'un diagramme enregistré, lue sans charger les éléments
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiagramBounds {
+
+    private int classCount;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    public double getWidth() {
+        return maxX - minX;
+    }
+
+    public double getHeight() {
+        return maxY - minY;
+    }
+}
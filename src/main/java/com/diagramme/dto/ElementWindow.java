@@ -0,0 +1,28 @@
+package com.diagramme.dto;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partie d'un diagramme chargée à la demande : des classes, avec leurs membres, et les relations qui en partent
+ * ou y arrivent. L'autre extrémité d'une relation est chargée même hors de la partie, avec ses membres,
+ * mais ne figure pas dans {@link #getClasses()}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ElementWindow {
+
+    private List<ClassElement> classes = new ArrayList<>();
+    private List<RelationshipElement> relationships = new ArrayList<>();
+
+    public boolean isEmpty() {
+        return classes.isEmpty() && relationships.isEmpty();
+    }
+}
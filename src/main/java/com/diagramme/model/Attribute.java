@@ -6,18 +6,23 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Représente un attribut d'une classe
  */
 @Entity
 @Table(name = "attributes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 public class Attribute {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attributes_seq")
+    @SequenceGenerator(name = "attributes_seq", sequenceName = "attributes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -3,6 +3,8 @@ package com.diagramme.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,12 +18,15 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "class_diagrams")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 public class ClassDiagram {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "class_diagrams_seq")
+    @SequenceGenerator(name = "class_diagrams_seq", sequenceName = "class_diagrams_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,6 +37,7 @@ public class ClassDiagram {
     @Column(nullable = false, unique = true)
     private String uuid = UUID.randomUUID().toString();
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "diagram", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DiagramElement> elements = new ArrayList<>();
 
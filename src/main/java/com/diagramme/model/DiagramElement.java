@@ -5,24 +5,35 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.UUID;
 
 /**
  * Classe abstraite représentant un élément dans un diagramme de classe
  */
 @Entity
 @Table(name = "diagram_elements")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Inheritance(strategy = InheritanceType.JOINED)
 @Data
 @NoArgsConstructor
 public abstract class DiagramElement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "diagram_elements_seq")
+    @SequenceGenerator(name = "diagram_elements_seq", sequenceName = "diagram_elements_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String name;
 
+    // Identifiant stable attribué à la création : désigne l'élément avant qu'il ait un id (journal des modifications)
+    @Column(length = 36)
+    private String uuid = UUID.randomUUID().toString();
+
     // Position et taille dans le diagramme
     private double x;
     private double y;
@@ -5,18 +5,23 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Représente un paramètre de méthode
  */
 @Entity
 @Table(name = "parameters")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 public class Parameter {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parameters_seq")
+    @SequenceGenerator(name = "parameters_seq", sequenceName = "parameters_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -48,6 +50,7 @@ public class RelationshipElement extends DiagramElement {
     private String lineStyle = "SOLID"; // SOLID, DASHED, DOTTED
 
     // Points de contrôle pour les lignes courbes
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ElementCollection
     @OrderColumn
     @CollectionTable(name = "relationship_control_points")
@@ -0,0 +1,258 @@
+package com.diagramme.repository;
+
+import com.diagramme.config.IdSequenceAligner;
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.RelationshipElement;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Écriture en bloc d'un diagramme neuf (génération depuis du code Java, import), sans passer par JPA.
+ * Les identifiants sont réservés d'avance par blocs sur les séquences des entités, reportés sur le graphe d'objets,
+ * puis chaque table est remplie par des lots JDBC, le tout dans une seule transaction.
+ * Le diagramme renvoyé est le même objet, avec ses identifiants : il n'est pas attaché au contexte de persistance.
+ * Hibernate ne voit pas ces écritures : le cache des requêtes est vidé après la validation de la transaction.
+ */
+@Repository
+@Slf4j
+public class BulkDiagramWriter {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public BulkDiagramWriter(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Insère un diagramme qui n'a encore jamais été enregistré, avec tous ses éléments et membres
+     *
+     * @return Nombre de lignes écrites
+     */
+    @Transactional
+    public long insert(ClassDiagram diagram) {
+        if (diagram.getId() != null) {
+            throw new IllegalArgumentException("Le diagramme est déjà enregistré: " + diagram.getId());
+        }
+        long start = System.nanoTime();
+
+        List<ClassElement> classes = diagram.getClasses();
+        List<RelationshipElement> relationships = diagram.getRelationships();
+        List<Attribute> attributes = new ArrayList<>();
+        List<Method> methods = new ArrayList<>();
+        List<Parameter> parameters = new ArrayList<>();
+        for (ClassElement classElement : classes) {
+            for (Attribute attribute : classElement.getAttributes()) {
+                attribute.setClassElement(classElement);
+                attributes.add(attribute);
+            }
+            for (Method method : classElement.getMethods()) {
+                method.setClassElement(classElement);
+                methods.add(method);
+                for (Parameter parameter : method.getParameters()) {
+                    parameter.setMethod(method);
+                    parameters.add(parameter);
+                }
+            }
+        }
+
+        // Identifiants : les relations désignent leurs classes, les membres leur classe ou méthode
+        diagram.setId(reserve("class_diagrams_seq", 1).next());
+        IdRange elementIds = reserve("diagram_elements_seq", diagram.getElements().size());
+        diagram.getElements().forEach(element -> element.setId(elementIds.next()));
+        IdRange attributeIds = reserve("attributes_seq", attributes.size());
+        attributes.forEach(attribute -> attribute.setId(attributeIds.next()));
+        IdRange methodIds = reserve("methods_seq", methods.size());
+        methods.forEach(method -> method.setId(methodIds.next()));
+        IdRange parameterIds = reserve("parameters_seq", parameters.size());
+        parameters.forEach(parameter -> parameter.setId(parameterIds.next()));
+
+        LocalDateTime now = LocalDateTime.now();
+        diagram.setCreatedAt(now);
+        diagram.setModifiedAt(now);
+        jdbcTemplate.update("INSERT INTO class_diagrams (id, name, description, uuid, created_at, modified_at, "
+                        + "show_grid, snap_to_grid, grid_size, background_color, author, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                diagram.getId(), diagram.getName(), diagram.getDescription(), diagram.getUuid(),
+                Timestamp.valueOf(now), Timestamp.valueOf(now), diagram.isShowGrid(), diagram.isSnapToGrid(),
+                diagram.getGridSize(), diagram.getBackgroundColor(), diagram.getAuthor(), diagram.getVersion());
+
+        batch("INSERT INTO diagram_elements (id, name, uuid, x, y, width, height, diagram_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", diagram.getElements(), (ps, element) -> {
+            ps.setLong(1, element.getId());
+            ps.setString(2, element.getName());
+            ps.setString(3, element.getUuid());
+            ps.setDouble(4, element.getX());
+            ps.setDouble(5, element.getY());
+            ps.setDouble(6, element.getWidth());
+            ps.setDouble(7, element.getHeight());
+            ps.setLong(8, diagram.getId());
+        });
+        batch("INSERT INTO class_elements (id, package_name, element_type, is_abstract, background_color, "
+                + "border_color, border_width) VALUES (?, ?, ?, ?, ?, ?, ?)", classes, (ps, element) -> {
+            ps.setLong(1, element.getId());
+            ps.setString(2, element.getPackageName());
+            ps.setString(3, element.getType().name());
+            ps.setBoolean(4, element.isAbstract());
+            ps.setString(5, element.getBackgroundColor());
+            ps.setString(6, element.getBorderColor());
+            ps.setDouble(7, element.getBorderWidth());
+        });
+        batch("INSERT INTO relationship_elements (id, source_id, target_id, type, source_role, target_role, "
+                + "source_multiplicity, target_multiplicity, source_tooltip, target_tooltip, line_color, line_width, "
+                + "line_style) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", relationships, (ps, relationship) -> {
+            ps.setLong(1, relationship.getId());
+            ps.setLong(2, relationship.getSourceElement().getId());
+            ps.setLong(3, relationship.getTargetElement().getId());
+            ps.setString(4, relationship.getType().name());
+            ps.setString(5, relationship.getSourceRole());
+            ps.setString(6, relationship.getTargetRole());
+            ps.setString(7, relationship.getSourceMultiplicity());
+            ps.setString(8, relationship.getTargetMultiplicity());
+            ps.setString(9, relationship.getSourceTooltip());
+            ps.setString(10, relationship.getTargetTooltip());
+            ps.setString(11, relationship.getLineColor());
+            ps.setDouble(12, relationship.getLineWidth());
+            ps.setString(13, relationship.getLineStyle());
+        });
+
+        List<ControlPoint> controlPoints = new ArrayList<>();
+        for (RelationshipElement relationship : relationships) {
+            List<RelationshipElement.Point> points = relationship.getControlPoints();
+            for (int i = 0; i < points.size(); i++) {
+                controlPoints.add(new ControlPoint(relationship.getId(), i, points.get(i)));
+            }
+        }
+        batch("INSERT INTO relationship_control_points (relationship_element_id, control_points_order, x, y) "
+                + "VALUES (?, ?, ?, ?)", controlPoints, (ps, point) -> {
+            ps.setLong(1, point.relationshipId());
+            ps.setInt(2, point.order());
+            ps.setDouble(3, point.point().getX());
+            ps.setDouble(4, point.point().getY());
+        });
+
+        batch("INSERT INTO attributes (id, name, type, default_value, visibility, is_static, is_final, class_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", attributes, (ps, attribute) -> {
+            ps.setLong(1, attribute.getId());
+            ps.setString(2, attribute.getName());
+            ps.setString(3, attribute.getType());
+            ps.setString(4, attribute.getDefaultValue());
+            ps.setString(5, attribute.getVisibility().name());
+            ps.setBoolean(6, attribute.isStatic());
+            ps.setBoolean(7, attribute.isFinal());
+            ps.setLong(8, attribute.getClassElement().getId());
+        });
+        batch("INSERT INTO methods (id, name, return_type, visibility, is_static, is_abstract, is_final, class_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", methods, (ps, method) -> {
+            ps.setLong(1, method.getId());
+            ps.setString(2, method.getName());
+            ps.setString(3, method.getReturnType());
+            ps.setString(4, method.getVisibility().name());
+            ps.setBoolean(5, method.isStatic());
+            ps.setBoolean(6, method.isAbstract());
+            ps.setBoolean(7, method.isFinal());
+            ps.setLong(8, method.getClassElement().getId());
+        });
+        batch("INSERT INTO parameters (id, name, type, default_value, method_id) VALUES (?, ?, ?, ?, ?)",
+                parameters, (ps, parameter) -> {
+                    ps.setLong(1, parameter.getId());
+                    ps.setString(2, parameter.getName());
+                    ps.setString(3, parameter.getType());
+                    ps.setString(4, parameter.getDefaultValue());
+                    ps.setLong(5, parameter.getMethod().getId());
+                });
+
+        evictQueryResultsAfterCommit();
+
+        long rows = 1 + diagram.getElements().size() + classes.size() + relationships.size() + controlPoints.size()
+                + attributes.size() + methods.size() + parameters.size();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.debug("Diagramme {} écrit en bloc : {} lignes en {} ms ({} lignes/s)", diagram.getName(), rows,
+                elapsedMillis, rows * 1000 / elapsedMillis);
+        return rows;
+    }
+
+    /**
+     * Les résultats de requêtes en cache (liste des diagrammes, récents) ignorent le nouveau diagramme.
+     * Vidés après la validation : vidés avant, ils pourraient être remplis à nouveau avec l'état précédent.
+     */
+    private void evictQueryResultsAfterCommit() {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictQueryRegions();
+                }
+            });
+        } else {
+            cache.evictQueryRegions();
+        }
+    }
+
+    private <T> void batch(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> setter) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows, BATCH_SIZE, setter);
+        }
+    }
+
+    /**
+     * Réserve au moins count identifiants sur une séquence, par blocs de {@link IdSequenceAligner#ALLOCATION_SIZE}.
+     * Chaque valeur v tirée donne le bloc (v - ALLOCATION_SIZE + 1) .. v, comme l'optimiseur pooled de Hibernate :
+     * les blocs ne recoupent jamais ceux que Hibernate tire de la même séquence.
+     */
+    private IdRange reserve(String sequence, int count) {
+        // Un bloc de plus : la toute première valeur d'une séquence neuve ne donne qu'un identifiant
+        int blocks = count / IdSequenceAligner.ALLOCATION_SIZE + 2;
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, ?)", Long.class, blocks);
+        return new IdRange(values);
+    }
+
+    /**
+     * Identifiants réservés, distribués dans l'ordre des blocs
+     */
+    private static final class IdRange {
+        private final List<Long> highValues;
+        private int block = -1;
+        private long next;
+        private long high;
+
+        IdRange(List<Long> highValues) {
+            this.highValues = highValues;
+        }
+
+        long next() {
+            if (block < 0 || next > high) {
+                block++;
+                high = highValues.get(block);
+                next = Math.max(1, high - IdSequenceAligner.ALLOCATION_SIZE + 1);
+            }
+            return next++;
+        }
+    }
+
+    private record ControlPoint(long relationshipId, int order, RelationshipElement.Point point) {
+    }
+}
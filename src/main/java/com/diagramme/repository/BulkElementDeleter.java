@@ -0,0 +1,139 @@
+package com.diagramme.repository;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.RelationshipElement;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suppression ensembliste de classes et de relations, avec tout ce qui en dépend : relations vers ces classes,
+ * points de contrôle, attributs, méthodes, paramètres et termes de recherche. Une instruction par table quel que
+ * soit le nombre d'éléments ; les identifiants sont passés en un seul tableau (colonne = ANY(?), qui utilise les index).
+ * Hibernate ne voit pas ces suppressions : les régions concernées du cache sont vidées après la validation.
+ */
+@Repository
+@Slf4j
+public class BulkElementDeleter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public BulkElementDeleter(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Supprime des classes et des relations
+     *
+     * @return Nombre d'éléments supprimés, relations des classes comprises
+     */
+    @Transactional
+    public int delete(Collection<Long> classIds, Collection<Long> relationshipIds) {
+        if (classIds.isEmpty() && relationshipIds.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Long[] classes = classIds.toArray(Long[]::new);
+
+        // Relations demandées et relations dont une extrémité est supprimée
+        Set<Long> relationshipSet = new LinkedHashSet<>(relationshipIds);
+        relationshipSet.addAll(queryIds("SELECT id FROM relationship_elements WHERE source_id = ANY(?) "
+                + "UNION SELECT id FROM relationship_elements WHERE target_id = ANY(?)", classes, classes));
+        Long[] relationships = relationshipSet.toArray(Long[]::new);
+
+        Set<Long> elementSet = new LinkedHashSet<>(classIds);
+        elementSet.addAll(relationshipSet);
+        Long[] elements = elementSet.toArray(Long[]::new);
+        List<Long> diagramIds = queryIds("SELECT DISTINCT diagram_id FROM diagram_elements WHERE id = ANY(?)", elements);
+
+        update("DELETE FROM relationship_control_points WHERE relationship_element_id = ANY(?)", relationships);
+        update("DELETE FROM relationship_elements WHERE id = ANY(?)", relationships);
+        update("DELETE FROM parameters WHERE method_id IN (SELECT id FROM methods WHERE class_id = ANY(?))", classes);
+        update("DELETE FROM methods WHERE class_id = ANY(?)", classes);
+        update("DELETE FROM attributes WHERE class_id = ANY(?)", classes);
+        update("DELETE FROM class_elements WHERE id = ANY(?)", classes);
+        // Termes de recherche des classes (les relations n'en ont pas)
+        update("DELETE FROM search_terms WHERE element_id = ANY(?)", classes);
+        int deleted = update("DELETE FROM diagram_elements WHERE id = ANY(?)", elements);
+
+        evictAfterCommit(classes, relationships, elements, diagramIds);
+
+        log.debug("{} élément(s) supprimé(s) en bloc en {} ms", deleted, (System.nanoTime() - start) / 1_000_000);
+        return deleted;
+    }
+
+    /**
+     * Entités et collections des éléments supprimés, collections des diagrammes, résultats de requêtes.
+     * Les identifiants des membres ne sont pas lus : leurs régions sont vidées entièrement
+     */
+    private void evictAfterCommit(Long[] classes, Long[] relationships, Long[] elements, List<Long> diagramIds) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        Runnable evict = () -> {
+            for (Long id : elements) {
+                cache.evictEntityData(DiagramElement.class, id);
+            }
+            for (Long id : classes) {
+                cache.evictCollectionData(ClassElement.class.getName() + ".attributes", id);
+                cache.evictCollectionData(ClassElement.class.getName() + ".methods", id);
+            }
+            for (Long id : relationships) {
+                cache.evictCollectionData(RelationshipElement.class.getName() + ".controlPoints", id);
+            }
+            for (Long id : diagramIds) {
+                cache.evictCollectionData(ClassDiagram.class.getName() + ".elements", id);
+            }
+            cache.evictEntityData(Attribute.class);
+            cache.evictEntityData(Method.class);
+            cache.evictEntityData(Parameter.class);
+            cache.evictCollectionData(Method.class.getName() + ".parameters");
+            cache.evictQueryRegions();
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private List<Long> queryIds(String sql, Long[]... arrays) {
+        return jdbcTemplate.query(sql, arrays(arrays), (rs, rowNum) -> rs.getLong(1));
+    }
+
+    private int update(String sql, Long[] ids) {
+        return ids.length == 0 ? 0 : jdbcTemplate.update(sql, arrays(ids));
+    }
+
+    private static PreparedStatementSetter arrays(Long[]... arrays) {
+        return ps -> {
+            for (int i = 0; i < arrays.length; i++) {
+                ps.setArray(i + 1, ps.getConnection().createArrayOf("BIGINT", arrays[i]));
+            }
+        };
+    }
+}
@@ -1,7 +1,13 @@
 package com.diagramme.repository;
 
 import com.diagramme.model.ClassDiagram;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,23 +19,41 @@ import java.util.Optional;
 @Repository
 public interface ClassDiagramRepository extends JpaRepository<ClassDiagram, Long> {
 
+    /**
+     * Récupère tous les diagrammes (explorateur)
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ClassDiagram> findAll();
+
     /**
      * Trouve un diagramme par son UUID
      */
     Optional<ClassDiagram> findByUuid(String uuid);
 
     /**
-     * Cherche des diagrammes par nom (recherche approximative)
+     * Cherche des diagrammes par nom (recherche approximative).
+     * Recherche par sous-chaîne : aucun index ne peut la servir, la table est parcourue ;
+     * la recherche de l'application passe par l'index inversé (SearchIndexService)
      */
     List<ClassDiagram> findByNameContainingIgnoreCase(String name);
 
     /**
      * Récupère tous les diagrammes triés par date de modification
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ClassDiagram> findAllByOrderByModifiedAtDesc();
 
     /**
      * Récupère les N diagrammes les plus récemment modifiés
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ClassDiagram> findTop10ByOrderByModifiedAtDesc();
+
+    /**
+     * Récupère une page d'identifiants de diagrammes supérieurs à un identifiant donné
+     * (pagination par clé, sans charger les entités)
+     */
+    @Query("select d.id from ClassDiagram d where d.id > :afterId order by d.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,9 +1,16 @@
 package com.diagramme.repository;
 
 import com.diagramme.model.ClassElement;
+import com.diagramme.model.Method;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,16 +22,37 @@ public interface ClassElementRepository extends JpaRepository<ClassElement, Long
     /**
      * Trouve tous les éléments appartenant à un diagramme
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ClassElement> findByDiagramId(Long diagramId);
 
     /**
      * Trouve tous les éléments d'un certain type dans un diagramme
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ClassElement> findByDiagramIdAndType(Long diagramId, ClassElement.ClassType type);
 
     /**
-     * Trouve tous les éléments avec un nom spécifique (pour vérifier les doublons)
+     * Trouve tous les éléments avec un nom spécifique (pour vérifier les doublons).
+     * Recherche par sous-chaîne : seul l'index sur diagram_id sert, les éléments du diagramme sont parcourus
      */
     List<ClassElement> findByDiagramIdAndNameContainingIgnoreCase(Long diagramId, String name);
-}
 
+    /**
+     * Charge des classes avec leurs attributs.
+     * Attributs, méthodes et paramètres sont chargés par trois requêtes : Hibernate ne joint pas deux listes à la fois
+     */
+    @Query("select c from ClassElement c left join fetch c.attributes where c.id in :ids")
+    List<ClassElement> findWithAttributesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Charge les méthodes de classes déjà chargées
+     */
+    @Query("select c from ClassElement c left join fetch c.methods where c.id in :ids")
+    List<ClassElement> findWithMethodsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Charge les paramètres des méthodes de classes déjà chargées
+     */
+    @Query("select m from Method m left join fetch m.parameters where m.classElement.id in :ids")
+    List<Method> findMethodsWithParametersByClassIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,96 @@
+package com.diagramme.repository;
+
+import com.diagramme.dto.DiagramBounds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Identifiants des éléments d'une partie d'un diagramme : classes d'un rectangle, d'un paquetage, relations de
+ * classes données. Chaque requête est servie par un index (V3__element_tiles.sql) sans lire le reste du diagramme ;
+ * les entités sont chargées ensuite par identifiant.
+ */
+@Repository
+@Slf4j
+public class ElementWindowReader {
+
+    /**
+     * Hauteur des bandes de l'index spatial et taille au-delà de laquelle un élément est cherché à part
+     * (colonnes tile_y et oversized)
+     */
+    public static final double TILE_SIZE = 512;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ElementWindowReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Classes qui touchent le rectangle donné, triées par identifiant
+     */
+    public List<Long> findClassIdsInBox(long diagramId, double minX, double minY, double maxX, double maxY) {
+        long start = System.nanoTime();
+        // Un élément ordinaire commence au plus à TILE_SIZE avant le rectangle : bandes et abscisses élargies d'autant
+        List<Long> ids = jdbcTemplate.queryForList("SELECT d.id FROM diagram_elements d "
+                        + "JOIN class_elements c ON c.id = d.id WHERE d.diagram_id = ? "
+                        + "AND d.tile_y BETWEEN ? AND ? AND d.x BETWEEN ? AND ? AND NOT d.oversized "
+                        + "AND d.y <= ? AND d.y + d.height >= ? AND d.x + d.width >= ? "
+                        + "UNION ALL SELECT d.id FROM diagram_elements d "
+                        + "JOIN class_elements c ON c.id = d.id WHERE d.diagram_id = ? AND d.oversized "
+                        + "AND d.x <= ? AND d.x + d.width >= ? AND d.y <= ? AND d.y + d.height >= ? ORDER BY 1",
+                Long.class,
+                diagramId, tile(minY - TILE_SIZE), tile(maxY), minX - TILE_SIZE, maxX, maxY, minY, minX,
+                diagramId, maxX, minX, maxY, minY);
+        log.debug("{} classe(s) du diagramme {} dans [{}, {}] - [{}, {}] en {} ms", ids.size(), diagramId,
+                minX, minY, maxX, maxY, (System.nanoTime() - start) / 1_000_000);
+        return ids;
+    }
+
+    /**
+     * Classes d'un paquetage et de ses sous-paquetages, triées par identifiant
+     */
+    public List<Long> findClassIdsInPackage(long diagramId, String packageName) {
+        // Une union plutôt qu'un OR, qui ferait parcourir toute la table
+        String subPackages = packageName.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + ".%";
+        return jdbcTemplate.queryForList("SELECT c.id FROM class_elements c JOIN diagram_elements d ON d.id = c.id "
+                        + "WHERE c.package_name = ? AND d.diagram_id = ? "
+                        + "UNION SELECT c.id FROM class_elements c JOIN diagram_elements d ON d.id = c.id "
+                        + "WHERE c.package_name LIKE ? ESCAPE '\\' AND d.diagram_id = ? ORDER BY 1",
+                Long.class, packageName, diagramId, subPackages, diagramId);
+    }
+
+    /**
+     * Relations dont la source ou la cible est l'une des classes données, triées par identifiant
+     */
+    public List<Long> findRelationshipIds(Collection<Long> classIds) {
+        if (classIds.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = classIds.toArray(Long[]::new);
+        return jdbcTemplate.query("SELECT id FROM relationship_elements WHERE source_id = ANY(?) "
+                + "UNION SELECT id FROM relationship_elements WHERE target_id = ANY(?) ORDER BY 1", ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("BIGINT", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("BIGINT", ids));
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Rectangle englobant les classes d'un diagramme et leur nombre, sans les charger
+     */
+    public DiagramBounds findBounds(long diagramId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*), MIN(d.x), MIN(d.y), MAX(d.x + d.width), "
+                + "MAX(d.y + d.height) FROM diagram_elements d JOIN class_elements c ON c.id = d.id "
+                + "WHERE d.diagram_id = ?", (rs, rowNum) -> new DiagramBounds(rs.getInt(1), rs.getDouble(2),
+                rs.getDouble(3), rs.getDouble(4), rs.getDouble(5)), diagramId);
+    }
+
+    static int tile(double y) {
+        return (int) Math.floor(y / TILE_SIZE);
+    }
+}
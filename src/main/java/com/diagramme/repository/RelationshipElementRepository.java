@@ -3,9 +3,15 @@ package com.diagramme.repository;
 import com.diagramme.model.ClassElement;
 import com.diagramme.model.RelationshipElement;
 import com.diagramme.model.enums.RelationshipType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,6 +23,7 @@ public interface RelationshipElementRepository extends JpaRepository<Relationshi
     /**
      * Trouve toutes les relations dans un diagramme
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<RelationshipElement> findByDiagramId(Long diagramId);
 
     /**
@@ -25,12 +32,24 @@ public interface RelationshipElementRepository extends JpaRepository<Relationshi
     List<RelationshipElement> findByDiagramIdAndType(Long diagramId, RelationshipType type);
 
     /**
-     * Trouve toutes les relations impliquant une classe spécifique (source ou cible)
+     * Trouve toutes les relations impliquant une classe spécifique (source ou cible).
+     * Une union plutôt qu'un OR : H2 ne combine pas deux index dans un OR et parcourrait toute la table
      */
-    List<RelationshipElement> findBySourceElementIdOrTargetElementId(Long sourceId, Long targetId);
+    @Query("select r from RelationshipElement r where r.sourceElement.id = :sourceId "
+            + "union select r from RelationshipElement r where r.targetElement.id = :targetId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<RelationshipElement> findBySourceElementIdOrTargetElementId(@Param("sourceId") Long sourceId,
+                                                                 @Param("targetId") Long targetId);
 
     /**
      * Trouve une relation entre deux classes spécifiques
      */
     List<RelationshipElement> findBySourceElementIdAndTargetElementId(Long sourceId, Long targetId);
-}
\ No newline at end of file
+
+    /**
+     * Charge des relations avec leurs deux extrémités et leurs points de contrôle
+     */
+    @Query("select r from RelationshipElement r join fetch r.sourceElement join fetch r.targetElement "
+            + "left join fetch r.controlPoints where r.id in :ids")
+    List<RelationshipElement> findWithEndpointsByIdIn(@Param("ids") Collection<Long> ids);
+}
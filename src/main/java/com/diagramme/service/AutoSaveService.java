@@ -2,39 +2,94 @@ package com.diagramme.service;
 
 import com.diagramme.model.ClassDiagram;
 import com.diagramme.ui.DiagramEditorController;
+import com.diagramme.util.DiagramSnapshot;
+import com.diagramme.util.GeneratedIds;
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import javafx.application.Platform;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 
 /**
- * Service pour la sauvegarde automatique des diagrammes
+ * Service pour la sauvegarde automatique des diagrammes.
+ * Un seul thread planifié sert tous les diagrammes ouverts : à chaque passage, le segment courant du journal
+ * des modifications de chaque diagramme modifié est fermé sur le thread JavaFX, les segments fermés sont rejoués
+ * sur la version en base sur ce thread ({@link EditJournalService#compact}), puis les identifiants générés sont
+ * reportés sur le thread JavaFX. Le coût d'un passage suit donc le nombre de modifications, pas la taille du diagramme.
+ * Sans journal (désactivé ou impossible à ouvrir), le diagramme est copié sur le thread JavaFX et la copie enregistrée.
+ * L'éditeur n'est jamais rechargé et le modèle affiché n'est jamais lu hors du thread JavaFX.
  */
 @Service
+@Profile("!batch")
 @Slf4j
 public class AutoSaveService {
 
     private final DiagramService diagramService;
     private final PreferenceService preferenceService;
+    private final EditJournalService editJournalService;
+    private final Executor uiExecutor;
+    private final ScheduledExecutorService scheduler;
+
+    // Éditeurs suivis, par identifiant de diagramme
+    private final Map<Long, DiagramEditorController> editors = new ConcurrentHashMap<>();
+
+    // Enregistrements terminés dont les identifiants restent à reporter sur le thread JavaFX
+    private final Queue<SavedSnapshot> savedSnapshots = new ConcurrentLinkedQueue<>();
+
+    // Une seule écriture à la fois, automatique ou directe
+    private final ReentrantLock writeLock = new ReentrantLock();
 
-    private final Map<Long, Timer> autoSaveTimers = new ConcurrentHashMap<>();
+    // Incrémenté par chaque écriture directe : les copies prises avant ne reflètent plus la base
+    private volatile long generation;
+
+    private ScheduledFuture<?> task;
+    private long taskInterval;
 
     @Autowired
-    public AutoSaveService(DiagramService diagramService, PreferenceService preferenceService) {
+    public AutoSaveService(DiagramService diagramService, PreferenceService preferenceService,
+                           EditJournalService editJournalService) {
+        this(diagramService, preferenceService, editJournalService, Platform::runLater);
+    }
+
+    /**
+     * @param uiExecutor Exécute une tâche sur le thread qui modifie les diagrammes
+     */
+    AutoSaveService(DiagramService diagramService, PreferenceService preferenceService,
+                    EditJournalService editJournalService, Executor uiExecutor) {
         this.diagramService = diagramService;
         this.preferenceService = preferenceService;
+        this.editJournalService = editJournalService;
+        this.uiExecutor = uiExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diagram-autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
      * Démarre la sauvegarde automatique pour un diagramme
      */
-    public void startAutoSave(DiagramEditorController editorController) {
+    public synchronized void startAutoSave(DiagramEditorController editorController) {
         if (!preferenceService.isAutoSaveEnabled()) {
             return;
         }
@@ -44,58 +99,212 @@ public class AutoSaveService {
             return;
         }
 
-        // Annuler le timer existant s'il y en a un
-        stopAutoSave(diagram.getId());
+        editors.put(diagram.getId(), editorController);
 
-        // Créer un nouveau timer
-        Timer timer = new Timer(true);
+        // Le passage planifié est commun à tous les diagrammes ; il suit l'intervalle le plus récent
         long interval = preferenceService.getAutoSaveInterval();
-
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                if (editorController.hasUnsavedChanges()) {
-                    try {
-                        log.debug("Sauvegarde automatique du diagramme: {}", diagram.getName());
-                        ClassDiagram savedDiagram = diagramService.saveDiagram(diagram);
-
-                        // Utiliser Platform.runLater au lieu de getUiThreadExecutor
-                        Platform.runLater(() -> {
-                            editorController.setDiagram(savedDiagram);
-                            editorController.setUnsavedChanges(false);
-                            editorController.updateStatusMessage("Sauvegarde automatique effectuée");
-                        });
-
-                    } catch (Exception e) {
-                        log.error("Erreur lors de la sauvegarde automatique", e);
-                    }
-                }
+        if (task == null || interval != taskInterval) {
+            if (task != null) {
+                task.cancel(false);
             }
-        }, interval, interval);
-
-        autoSaveTimers.put(diagram.getId(), timer);
+            task = scheduler.scheduleWithFixedDelay(this::saveModifiedDiagrams, interval, interval,
+                    TimeUnit.MILLISECONDS);
+            taskInterval = interval;
+        }
         log.debug("Sauvegarde automatique démarrée pour le diagramme: {}", diagram.getName());
     }
 
     /**
      * Arrête la sauvegarde automatique pour un diagramme
      */
-    public void stopAutoSave(Long diagramId) {
-        Timer timer = autoSaveTimers.remove(diagramId);
-        if (timer != null) {
-            timer.cancel();
+    public synchronized void stopAutoSave(Long diagramId) {
+        if (editors.remove(diagramId) != null) {
             log.debug("Sauvegarde automatique arrêtée pour le diagramme: {}", diagramId);
         }
+        if (editors.isEmpty()) {
+            cancelTask();
+        }
     }
 
     /**
      * Arrête toutes les sauvegardes automatiques
      */
-    public void stopAllAutoSaves() {
-        for (Map.Entry<Long, Timer> entry : autoSaveTimers.entrySet()) {
-            entry.getValue().cancel();
-            log.debug("Sauvegarde automatique arrêtée pour le diagramme: {}", entry.getKey());
+    public synchronized void stopAllAutoSaves() {
+        editors.clear();
+        cancelTask();
+        log.debug("Sauvegardes automatiques arrêtées");
+    }
+
+    /**
+     * Enregistre un diagramme sur le thread appelant, en dehors du passage planifié (enregistrement manuel)
+     */
+    public ClassDiagram saveNow(ClassDiagram diagram) {
+        long segment = editJournalService.checkpoint(diagram);
+        ClassDiagram saved = writeExclusively(() -> diagramService.saveDiagram(diagram));
+        editJournalService.compacted(diagram.getId(), segment);
+        return saved;
+    }
+
+    /**
+     * Exécute une écriture en base faite hors de la sauvegarde automatique, sur le thread JavaFX.
+     * Attend la fin de l'enregistrement automatique en cours, reporte ses identifiants,
+     * puis écarte les copies prises avant cette écriture.
+     */
+    public <T> T writeExclusively(Supplier<T> write) {
+        writeLock.lock();
+        try {
+            applySavedSnapshots();
+            generation++;
+            return write.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Comme {@link #writeExclusively(Supplier)}, pour une écriture sans résultat
+     */
+    public void writeExclusively(Runnable write) {
+        writeExclusively(() -> {
+            write.run();
+            return null;
+        });
+    }
+
+    /**
+     * Passage planifié : copie les diagrammes modifiés sur le thread JavaFX, puis les enregistre
+     */
+    void saveModifiedDiagrams() {
+        if (!preferenceService.isAutoSaveEnabled() || editors.isEmpty()) {
+            return;
+        }
+
+        List<PendingSnapshot> snapshots;
+        try {
+            CompletableFuture<List<PendingSnapshot>> taken = new CompletableFuture<>();
+            uiExecutor.execute(() -> {
+                try {
+                    taken.complete(takeSnapshots());
+                } catch (Throwable e) {
+                    taken.completeExceptionally(e);
+                }
+            });
+            snapshots = taken.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            log.error("Erreur lors de la copie des diagrammes à sauvegarder", e.getCause());
+            return;
         }
-        autoSaveTimers.clear();
+
+        for (PendingSnapshot pending : snapshots) {
+            write(pending);
+        }
+        if (!snapshots.isEmpty()) {
+            uiExecutor.execute(this::applySavedSnapshots);
+        }
+    }
+
+    /**
+     * Ferme le journal de chaque diagramme suivi qui a des modifications non enregistrées, ou le copie s'il n'a pas
+     * de journal ; sur le thread JavaFX
+     */
+    private List<PendingSnapshot> takeSnapshots() {
+        List<PendingSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<Long, DiagramEditorController> entry : editors.entrySet()) {
+            DiagramEditorController editor = entry.getValue();
+            ClassDiagram diagram = editor.getDiagram();
+            if (diagram == null || !entry.getKey().equals(diagram.getId()) || !editor.hasUnsavedChanges()) {
+                continue;
+            }
+            long segment = editJournalService.checkpoint(diagram);
+            DiagramSnapshot snapshot = segment < 0 ? DiagramSnapshot.of(diagram) : null;
+            snapshots.add(new PendingSnapshot(editor, diagram, diagram.getId(), snapshot, editor.getChangeCount(),
+                    generation, segment));
+        }
+        return snapshots;
+    }
+
+    private void write(PendingSnapshot pending) {
+        writeLock.lock();
+        try {
+            if (pending.generation() != generation) {
+                // Les segments fermés restent : le prochain point de contrôle les reprendra
+                log.debug("Sauvegarde du diagramme {} écartée : la base a été modifiée depuis", pending.diagramId());
+                return;
+            }
+            if (pending.snapshot() == null) {
+                log.debug("Sauvegarde automatique du diagramme {} par le journal", pending.diagramId());
+                Optional<GeneratedIds> ids = editJournalService.compact(pending.diagramId(), pending.journalSegment());
+                if (ids.isEmpty()) {
+                    log.debug("Journal du diagramme {} fermé ou diagramme supprimé", pending.diagramId());
+                    return;
+                }
+                savedSnapshots.add(new SavedSnapshot(pending, null, ids.get()));
+                return;
+            }
+            log.debug("Sauvegarde automatique du diagramme: {}", pending.snapshot().getCopy().getName());
+            ClassDiagram saved = diagramService.saveDiagram(pending.snapshot().getCopy());
+            savedSnapshots.add(new SavedSnapshot(pending, saved, null));
+        } catch (Exception e) {
+            log.error("Erreur lors de la sauvegarde automatique", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reporte les identifiants générés sur les diagrammes affichés ; sur le thread JavaFX
+     */
+    private void applySavedSnapshots() {
+        SavedSnapshot saved;
+        while ((saved = savedSnapshots.poll()) != null) {
+            PendingSnapshot pending = saved.pending();
+            if (pending.snapshot() == null) {
+                saved.ids().applyTo(pending.diagram());
+            } else {
+                try {
+                    pending.snapshot().applyGeneratedIds(saved.diagram());
+                } catch (IllegalStateException e) {
+                    log.error("Identifiants de la sauvegarde automatique non reportés", e);
+                    continue;
+                }
+            }
+
+            // Modifié depuis le point de contrôle : le prochain passage enregistrera le reste
+            DiagramEditorController editor = pending.editor();
+            if (editor.getDiagram() == pending.diagram()
+                    && editor.getChangeCount() == pending.changeCount()) {
+                editor.setUnsavedChanges(false);
+            }
+            editor.updateStatusMessage("Sauvegarde automatique effectuée");
+        }
+    }
+
+    private void cancelTask() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Point de contrôle pris sur le thread JavaFX : segment de journal fermé, ou copie du diagramme à défaut
+     * de journal, avec le compteur de modifications de l'éditeur à cet instant
+     */
+    private record PendingSnapshot(DiagramEditorController editor, ClassDiagram diagram, long diagramId,
+                                   DiagramSnapshot snapshot, long changeCount, long generation, long journalSegment) {
+    }
+
+    /**
+     * Enregistrement terminé : diagramme renvoyé pour une copie, identifiants relevés pour un rejeu du journal
+     */
+    private record SavedSnapshot(PendingSnapshot pending, ClassDiagram diagram, GeneratedIds ids) {
     }
 }
@@ -0,0 +1,190 @@
+package com.diagramme.service;
+
+import com.diagramme.dto.BatchExportOptions;
+import com.diagramme.dto.BatchExportReport;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.repository.ClassDiagramRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service d'export en lot de tous les diagrammes de la base, sans interface graphique
+ */
+@Service
+@Slf4j
+public class BatchExportService {
+
+    private static final int ID_PAGE_SIZE = 100;
+
+    private final ClassDiagramRepository diagramRepository;
+    private final DiagramService diagramService;
+    private final ExportService exportService;
+
+    @Autowired
+    public BatchExportService(
+            ClassDiagramRepository diagramRepository,
+            DiagramService diagramService,
+            ExportService exportService) {
+        this.diagramRepository = diagramRepository;
+        this.diagramService = diagramService;
+        this.exportService = exportService;
+    }
+
+    /**
+     * Exporte tous les diagrammes dans les formats demandés.
+     * Les identifiants sont lus page par page et les diagrammes exportés en parallèle
+     * sur un pool borné ; chaque format dispose de sa propre limite de concurrence.
+     */
+    public BatchExportReport exportAll(BatchExportOptions options) throws IOException, InterruptedException {
+        Files.createDirectories(options.getOutputDir().toPath());
+
+        // Vérifier les formats avant de commencer
+        Map<String, Semaphore> formatPermits = new HashMap<>();
+        for (String format : options.getFormats()) {
+            exportService.getExtensionForFormat(format);
+            formatPermits.put(format, new Semaphore(options.getFormatLimit(format)));
+        }
+
+        long total = diagramRepository.count();
+        log.info("Export en lot de {} diagramme(s) au(x) format(s) {} vers {} ({} thread(s))",
+                total, options.getFormats(), options.getOutputDir().getAbsolutePath(), options.getThreads());
+
+        AtomicInteger exported = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger files = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        long start = System.nanoTime();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(options.getThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "batch-export-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-export-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(
+                () -> logProgress(exported.get() + failed.get(), total, files.get(), start),
+                options.getProgressIntervalSeconds(), options.getProgressIntervalSeconds(), TimeUnit.SECONDS);
+
+        // Limite le nombre de diagrammes chargés en mémoire en attente d'export
+        Semaphore inFlight = new Semaphore(options.getThreads() * 2);
+
+        try {
+            Long lastId = Long.MIN_VALUE;
+            List<Long> page;
+            do {
+                page = diagramRepository.findIdsAfter(lastId, PageRequest.of(0, ID_PAGE_SIZE));
+                for (Long diagramId : page) {
+                    inFlight.acquire();
+                    executor.execute(() -> {
+                        try {
+                            if (exportDiagram(diagramId, options, formatPermits, files, bytes)) {
+                                exported.incrementAndGet();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            log.error("Erreur lors de l'export du diagramme {}", diagramId, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                    lastId = diagramId;
+                }
+            } while (page.size() == ID_PAGE_SIZE);
+
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            executor.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        BatchExportReport report = new BatchExportReport();
+        report.setTotalDiagrams(total);
+        report.setExportedDiagrams(exported.get());
+        report.setFailedDiagrams(failed.get());
+        report.setFilesWritten(files.get());
+        report.setBytesWritten(bytes.get());
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        log.info("Export en lot terminé: {} diagramme(s) exporté(s), {} en erreur, {} fichier(s), {} Ko en {} ms " +
+                        "({} diagrammes/s, {} fichiers/s)",
+                report.getExportedDiagrams(), report.getFailedDiagrams(), report.getFilesWritten(),
+                report.getBytesWritten() / 1024, report.getElapsedMillis(),
+                String.format("%.1f", report.getDiagramsPerSecond()),
+                String.format("%.1f", report.getFilesPerSecond()));
+
+        return report;
+    }
+
+    /**
+     * Exporte un diagramme dans chacun des formats demandés
+     *
+     * @return false si le diagramme n'existe plus
+     */
+    private boolean exportDiagram(Long diagramId, BatchExportOptions options, Map<String, Semaphore> formatPermits,
+                                  AtomicInteger files, AtomicLong bytes) throws IOException, InterruptedException {
+        Optional<ClassDiagram> diagramOpt = diagramService.getDiagramWithElementsById(diagramId);
+        if (diagramOpt.isEmpty()) {
+            log.debug("Diagramme {} supprimé pendant l'export, ignoré", diagramId);
+            return false;
+        }
+
+        ClassDiagram diagram = diagramOpt.get();
+        String baseName = sanitizeFileName(diagram.getName()) + "-" + diagramId;
+
+        for (String format : options.getFormats()) {
+            File outputFile = new File(options.getOutputDir(), baseName + exportService.getExtensionForFormat(format));
+
+            Semaphore permits = formatPermits.get(format);
+            permits.acquire();
+            try {
+                File written = exportService.exportDiagram(diagram, format, outputFile);
+                files.incrementAndGet();
+                bytes.addAndGet(written.length());
+            } finally {
+                permits.release();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Journalise l'avancement et le débit de l'export
+     */
+    private void logProgress(int processed, long total, int files, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("Export en lot: {}/{} diagramme(s), {} fichier(s), {} diagrammes/s",
+                processed, total, files, String.format("%.1f", seconds > 0 ? processed / seconds : 0));
+    }
+
+    /**
+     * Remplace les caractères non autorisés dans un nom de fichier
+     */
+    private String sanitizeFileName(String name) {
+        if (name == null || name.isBlank()) {
+            return "diagramme";
+        }
+        return name.trim().replaceAll("[^\\p{L}\\p{N}._-]+", "_");
+    }
+}
@@ -0,0 +1,105 @@
+package com.diagramme.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistiques du cache de second niveau et du cache des requêtes (hibernate.generate_statistics)
+ */
+@Service
+@Slf4j
+public class CacheStatisticsService {
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Succès, échecs et ajouts de chaque région, triés par nom
+     */
+    public List<RegionStatistics> getRegionStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+
+        List<RegionStatistics> regions = new ArrayList<>();
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.add(new RegionStatistics(name, region.getHitCount(), region.getMissCount(),
+                        region.getPutCount()));
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Totaux des entités et collections
+     */
+    public RegionStatistics getSecondLevelTotals() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return new RegionStatistics("second niveau", statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount());
+    }
+
+    /**
+     * Totaux du cache des requêtes
+     */
+    public RegionStatistics getQueryTotals() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return new RegionStatistics("requêtes", statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+    }
+
+    /**
+     * Résumé lisible, une ligne par région
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(getSecondLevelTotals().format()).append('\n');
+        summary.append(getQueryTotals().format()).append("\n\n");
+        for (RegionStatistics region : getRegionStatistics()) {
+            summary.append(region.format()).append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Remet les compteurs à zéro
+     */
+    public void clear() {
+        sessionFactory.getStatistics().clear();
+        log.debug("Statistiques du cache remises à zéro");
+    }
+
+    /**
+     * Compteurs d'une région ou d'un total
+     */
+    public record RegionStatistics(String region, long hits, long misses, long puts) {
+
+        /**
+         * Part des lectures servies par le cache, entre 0 et 1
+         */
+        public double hitRate() {
+            long reads = hits + misses;
+            return reads == 0 ? 0 : (double) hits / reads;
+        }
+
+        String format() {
+            return String.format("%s : %.1f %% (%d succès, %d échecs, %d ajouts)", region, hitRate() * 100, hits,
+                    misses, puts);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.diagramme.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.engine.Database;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entretien de la base H2 (app.maintenance.*) : taille du fichier, taux de remplissage, lignes par table.
+ * Les fusions de graphes complets et les suppressions d'orphelins laissent dans le fichier des blocs à moitié vides,
+ * que H2 ne récupère qu'en partie. Quand la base n'a rien écrit depuis app.maintenance.idle-minutes et que le taux
+ * de remplissage est sous app.maintenance.min-fill-rate, le fichier est compacté en ligne : les blocs vivants
+ * sont regroupés et le fichier raccourci, sans fermer la base.
+ * H2 n'offre pas d'instruction SQL pour compacter une base ouverte (MAX_COMPACT_TIME ne joue qu'à la fermeture) :
+ * le compactage passe par le moteur embarqué. Sur une autre base (serveur H2, autre SGBD), l'état du fichier
+ * est seulement rapporté.
+ */
+@Service
+@Profile("!batch")
+@Slf4j
+public class DatabaseMaintenanceService {
+
+    private static final long DEFAULT_IDLE_MINUTES = 5;
+    private static final int DEFAULT_MIN_FILL_RATE = 50;
+    private static final int DEFAULT_COMPACT_TIME_MILLIS = 10_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final int minFillRate;
+    private final int compactTimeMillis;
+    private final ScheduledExecutorService scheduler;
+
+    // Compteur d'écritures du fichier au dernier passage : inchangé, la base est inactive depuis
+    private long lastFileWrites = -1;
+
+    @Autowired
+    public DatabaseMaintenanceService(Environment env, DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.minFillRate = env.getProperty("app.maintenance.min-fill-rate", Integer.class, DEFAULT_MIN_FILL_RATE);
+        this.compactTimeMillis = env.getProperty("app.maintenance.compact-time-ms", Integer.class,
+                DEFAULT_COMPACT_TIME_MILLIS);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        long idleMinutes = env.getProperty("app.maintenance.idle-minutes", Long.class, DEFAULT_IDLE_MINUTES);
+        if (env.getProperty("app.maintenance.enabled", Boolean.class, true)) {
+            scheduler.scheduleWithFixedDelay(this::compactIfIdle, idleMinutes, idleMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * État du fichier de la base ; taille nulle pour une base en mémoire
+     */
+    public StorageStatistics getStorageStatistics() {
+        Map<String, String> info = new HashMap<>();
+        jdbcTemplate.query("SELECT SETTING_NAME, SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS "
+                + "WHERE SETTING_NAME LIKE 'info.%'", rs -> {
+            info.put(rs.getString(1).substring("info.".length()), rs.getString(2));
+        });
+        return new StorageStatistics(number(info, "FILE_SIZE"), (int) number(info, "CHUNKS_FILL_RATE"),
+                number(info, "PAGE_COUNT_LIVE"), number(info, "PAGE_COUNT"), number(info, "PAGE_SIZE"),
+                number(info, "FILE_WRITE"));
+    }
+
+    /**
+     * Nombre de lignes de chaque table de l'application, de la plus grande à la plus petite
+     */
+    public List<TableRowCount> getTableRowCounts() {
+        List<String> tables = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'", String.class);
+        List<TableRowCount> counts = new ArrayList<>();
+        for (String table : tables) {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"" + table.replace("\"", "\"\"") + "\"",
+                    Long.class);
+            counts.add(new TableRowCount(table, rows != null ? rows : 0));
+        }
+        counts.sort((a, b) -> Long.compare(b.rows(), a.rows()));
+        return counts;
+    }
+
+    /**
+     * Compacte le fichier de la base, en ligne ; sans effet sur une base en mémoire ou qui n'est pas embarquée
+     */
+    public CompactionResult compact() {
+        long start = System.nanoTime();
+        long sizeBefore = getStorageStatistics().fileSize();
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = embeddedDatabase(connection);
+            if (database == null) {
+                log.info("Base non embarquée, compactage impossible : {}", getStorageStatistics().format());
+                return new CompactionResult(sizeBefore, sizeBefore, 0);
+            }
+            if (!database.isPersistent()) {
+                return new CompactionResult(0, 0, 0);
+            }
+            database.getStore().compactFile(compactTimeMillis);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Compactage de la base impossible", e);
+        }
+
+        CompactionResult result = new CompactionResult(sizeBefore, getStorageStatistics().fileSize(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Base compactée en {} ms : {} -> {}", result.millis(), formatSize(result.sizeBefore()),
+                formatSize(result.sizeAfter()));
+        return result;
+    }
+
+    /**
+     * Base H2 ouverte dans ce processus, null pour une connexion à un serveur ou à un autre SGBD
+     */
+    private static Database embeddedDatabase(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(JdbcConnection.class)) {
+            return null;
+        }
+        return connection.unwrap(JdbcConnection.class).getSession() instanceof SessionLocal session
+                ? session.getDatabase()
+                : null;
+    }
+
+    /**
+     * Compacte sur le thread d'entretien, sans bloquer l'appelant
+     */
+    public CompletableFuture<CompactionResult> compactInBackground() {
+        return CompletableFuture.supplyAsync(this::compact, scheduler);
+    }
+
+    /**
+     * Passage périodique : compacte si rien n'a été écrit depuis le passage précédent et si le fichier est
+     * suffisamment fragmenté
+     *
+     * @return Le fichier a été compacté
+     */
+    boolean compactIfIdle() {
+        try {
+            StorageStatistics statistics = getStorageStatistics();
+            boolean idle = statistics.fileWrites() == lastFileWrites;
+            lastFileWrites = statistics.fileWrites();
+            log.debug("Base : {}, inactive : {}", statistics.format(), idle);
+
+            if (idle && statistics.fileSize() > 0 && statistics.fillRate() < minFillRate) {
+                compact();
+                // Le compactage lui-même écrit : le passage suivant ne doit pas le prendre pour une activité
+                lastFileWrites = getStorageStatistics().fileWrites();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Échec de l'entretien de la base", e);
+        }
+        return false;
+    }
+
+    /**
+     * Résumé lisible : fichier, puis une ligne par table
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(getStorageStatistics().format()).append("\n\n");
+        for (TableRowCount count : getTableRowCounts()) {
+            summary.append(String.format("%-32s %,12d%n", count.table(), count.rows()));
+        }
+        return summary.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long number(Map<String, String> info, String name) {
+        String value = info.get(name);
+        return value != null ? Long.parseLong(value.trim()) : 0;
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f Ko", bytes / 1024.0);
+        }
+        return String.format("%.1f Mo", bytes / (1024.0 * 1024));
+    }
+
+    /**
+     * État du fichier de la base (INFORMATION_SCHEMA.SETTINGS, info.*)
+     *
+     * @param fileSize   Taille du fichier en octets
+     * @param fillRate   Part des blocs du fichier encore utilisée, en %
+     * @param livePages  Pages encore utilisées
+     * @param pages      Pages du fichier
+     * @param pageSize   Taille d'une page en octets
+     * @param fileWrites Nombre d'écritures du fichier depuis l'ouverture
+     */
+    public record StorageStatistics(long fileSize, int fillRate, long livePages, long pages, long pageSize,
+                                    long fileWrites) {
+
+        /**
+         * Part du fichier occupée par des blocs morts, en %
+         */
+        public int fragmentation() {
+            return fileSize > 0 ? 100 - fillRate : 0;
+        }
+
+        public String format() {
+            return String.format("Fichier %s, remplissage %d %%, fragmentation %d %%, pages utilisées %,d / %,d",
+                    formatSize(fileSize), fillRate, fragmentation(), livePages, pages);
+        }
+    }
+
+    /**
+     * Nombre de lignes d'une table
+     */
+    public record TableRowCount(String table, long rows) {
+    }
+
+    /**
+     * Résultat d'un compactage
+     *
+     * @param sizeBefore Taille du fichier avant, en octets
+     * @param sizeAfter  Taille du fichier après, en octets
+     * @param millis     Durée en ms
+     */
+    public record CompactionResult(long sizeBefore, long sizeAfter, long millis) {
+
+        public long reclaimed() {
+            return sizeBefore - sizeAfter;
+        }
+    }
+}
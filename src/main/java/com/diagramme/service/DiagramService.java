@@ -1,11 +1,14 @@
 package com.diagramme.service;
 
+import com.diagramme.dto.DiagramBounds;
+import com.diagramme.dto.ElementWindow;
 import com.diagramme.dto.RecentDiagramDTO;
 import com.diagramme.model.ClassDiagram;
 import com.diagramme.model.ClassElement;
 import com.diagramme.model.RelationshipElement;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -75,10 +78,15 @@ public interface DiagramService {
     ClassElement updateClassElement(Long elementId, ClassElement classElement);
 
     /**
-     * Supprime un élément de classe
+     * Supprime un élément de classe et ses relations
      */
     void deleteClassElement(Long elementId);
 
+    /**
+     * Supprime en bloc des classes, avec leurs relations, et des relations
+     */
+    void deleteElements(Collection<Long> classIds, Collection<Long> relationshipIds);
+
     /**
      * Ajoute une relation au diagramme
      */
@@ -110,4 +118,20 @@ public interface DiagramService {
      * @return Le diagramme complet avec toutes ses associations
      */
     Optional<ClassDiagram> getDiagramWithElementsById(Long id);
-}
\ No newline at end of file
+
+    /**
+     * Étendue et nombre des classes d'un diagramme, sans charger ses éléments
+     */
+    DiagramBounds getDiagramBounds(Long diagramId);
+
+    /**
+     * Charge les classes qui touchent un rectangle du diagramme, et leurs relations,
+     * sans charger le reste du diagramme
+     */
+    ElementWindow getElementsInBox(Long diagramId, double minX, double minY, double maxX, double maxY);
+
+    /**
+     * Charge les classes d'un paquetage et de ses sous-paquetages, et leurs relations
+     */
+    ElementWindow getElementsInPackage(Long diagramId, String packageName);
+}
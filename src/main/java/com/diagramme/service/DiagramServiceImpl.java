@@ -1,11 +1,16 @@
 package com.diagramme.service;
 
+import com.diagramme.dto.DiagramBounds;
+import com.diagramme.dto.ElementWindow;
 import com.diagramme.dto.RecentDiagramDTO;
 import com.diagramme.model.ClassDiagram;
 import com.diagramme.model.ClassElement;
 import com.diagramme.model.RelationshipElement;
+import com.diagramme.repository.BulkDiagramWriter;
+import com.diagramme.repository.BulkElementDeleter;
 import com.diagramme.repository.ClassDiagramRepository;
 import com.diagramme.repository.ClassElementRepository;
+import com.diagramme.repository.ElementWindowReader;
 import com.diagramme.repository.RelationshipElementRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.Getter;
@@ -17,8 +22,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
@@ -31,10 +41,18 @@ import java.util.stream.Collectors;
 @Lazy
 public class DiagramServiceImpl implements DiagramService {
 
+    // Identifiants par requête IN lors d'un chargement partiel
+    private static final int WINDOW_CHUNK_SIZE = 1000;
+
     private final ClassDiagramRepository diagramRepository;
     private final ClassElementRepository classElementRepository;
     private final RelationshipElementRepository relationshipRepository;
+    private final BulkDiagramWriter bulkDiagramWriter;
+    private final BulkElementDeleter bulkElementDeleter;
+    private final ElementWindowReader elementWindowReader;
+    private final SearchIndexService searchIndexService;
     private final JavaParserService javaParserService;
+    private final LayoutService layoutService;
     @Getter
     private final RecentProjectsService recentProjectsService;
 
@@ -43,12 +61,22 @@ public class DiagramServiceImpl implements DiagramService {
             ClassDiagramRepository diagramRepository,
             ClassElementRepository classElementRepository,
             RelationshipElementRepository relationshipRepository,
+            BulkDiagramWriter bulkDiagramWriter,
+            BulkElementDeleter bulkElementDeleter,
+            ElementWindowReader elementWindowReader,
+            SearchIndexService searchIndexService,
             JavaParserService javaParserService,
+            LayoutService layoutService,
             RecentProjectsService recentProjectsService) {
         this.diagramRepository = diagramRepository;
         this.classElementRepository = classElementRepository;
         this.relationshipRepository = relationshipRepository;
+        this.bulkDiagramWriter = bulkDiagramWriter;
+        this.bulkElementDeleter = bulkElementDeleter;
+        this.elementWindowReader = elementWindowReader;
+        this.searchIndexService = searchIndexService;
         this.javaParserService = javaParserService;
+        this.layoutService = layoutService;
         this.recentProjectsService = recentProjectsService;
     }
 
@@ -56,7 +84,9 @@ public class DiagramServiceImpl implements DiagramService {
     @Transactional
     public ClassDiagram saveDiagram(ClassDiagram diagram) {
         log.debug("Sauvegarde du diagramme: {}", diagram.getName());
-        return diagramRepository.save(diagram);
+        ClassDiagram saved = diagramRepository.save(diagram);
+        searchIndexService.reindexAfterCommit(saved.getId());
+        return saved;
     }
 
     @Override
@@ -119,7 +149,9 @@ public class DiagramServiceImpl implements DiagramService {
     public ClassDiagram generateDiagramFromJavaSource(File sourceFile) {
         log.debug("Génération d'un diagramme à partir du fichier: {}", sourceFile.getName());
         ClassDiagram diagram = javaParserService.parseJavaFile(sourceFile);
-        return diagramRepository.save(diagram);
+        bulkDiagramWriter.insert(diagram);
+        searchIndexService.reindexAfterCommit(diagram.getId());
+        return diagram;
     }
 
     @Override
@@ -127,7 +159,10 @@ public class DiagramServiceImpl implements DiagramService {
     public ClassDiagram generateDiagramFromJavaDirectory(File directory) {
         log.debug("Génération d'un diagramme à partir du répertoire: {}", directory.getName());
         ClassDiagram diagram = javaParserService.parseJavaDirectory(directory);
-        return diagramRepository.save(diagram);
+        // Diagramme neuf, potentiellement très grand : écrit en bloc plutôt qu'entité par entité
+        bulkDiagramWriter.insert(diagram);
+        searchIndexService.reindexAfterCommit(diagram.getId());
+        return diagram;
     }
 
     @Override
@@ -139,6 +174,7 @@ public class DiagramServiceImpl implements DiagramService {
 
         diagram.addElement(classElement);
         diagramRepository.save(diagram);
+        searchIndexService.reindexAfterCommit(diagramId);
         return classElement;
     }
 
@@ -166,21 +202,25 @@ public class DiagramServiceImpl implements DiagramService {
         // Note: Dans l'application finale, il faudrait une logique plus complexe
         // pour gérer l'ajout/suppression/mise à jour des attributs et méthodes
 
-        return classElementRepository.save(existingElement);
+        ClassElement saved = classElementRepository.save(existingElement);
+        if (saved.getDiagram() != null) {
+            searchIndexService.reindexAfterCommit(saved.getDiagram().getId());
+        }
+        return saved;
     }
 
     @Override
     @Transactional
     public void deleteClassElement(Long elementId) {
         log.debug("Suppression de l'élément de classe: {}", elementId);
+        bulkElementDeleter.delete(List.of(elementId), List.of());
+    }
 
-        // Supprimer d'abord les relations impliquant cet élément
-        List<RelationshipElement> relationships = relationshipRepository
-                .findBySourceElementIdOrTargetElementId(elementId, elementId);
-        relationshipRepository.deleteAll(relationships);
-
-        // Ensuite supprimer l'élément de classe
-        classElementRepository.deleteById(elementId);
+    @Override
+    @Transactional
+    public void deleteElements(Collection<Long> classIds, Collection<Long> relationshipIds) {
+        log.debug("Suppression de {} classe(s) et {} relation(s)", classIds.size(), relationshipIds.size());
+        bulkElementDeleter.delete(classIds, relationshipIds);
     }
 
     @Override
@@ -237,30 +277,7 @@ public class DiagramServiceImpl implements DiagramService {
         ClassDiagram diagram = diagramRepository.findById(diagramId)
                 .orElseThrow(() -> new EntityNotFoundException("Diagramme non trouvé avec l'ID: " + diagramId));
 
-        // Algorithme simple d'optimisation de la disposition
-        // Dans une application réelle, utilisez un algorithme plus sophistiqué
-        double x = 50;
-        double y = 50;
-        double maxHeight = 0;
-        double horizontalGap = 50;
-        double verticalGap = 50;
-
-        for (ClassElement element : diagram.getClasses()) {
-            // Si l'élément dépasse la largeur disponible, passer à la ligne suivante
-            if (x > 800) {
-                x = 50;
-                y += maxHeight + verticalGap;
-                maxHeight = 0;
-            }
-
-            // Positionner l'élément
-            element.setX(x);
-            element.setY(y);
-
-            // Mettre à jour les variables pour le prochain élément
-            x += element.getWidth() + horizontalGap;
-            maxHeight = Math.max(maxHeight, element.getHeight());
-        }
+        layoutService.layout(diagram, LayoutService.LayoutMode.FORCE_DIRECTED);
 
         return diagramRepository.save(diagram);
     }
@@ -336,4 +353,72 @@ public class DiagramServiceImpl implements DiagramService {
 
         return diagramOpt;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DiagramBounds getDiagramBounds(Long diagramId) {
+        return elementWindowReader.findBounds(diagramId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ElementWindow getElementsInBox(Long diagramId, double minX, double minY, double maxX, double maxY) {
+        return loadWindow(elementWindowReader.findClassIdsInBox(diagramId, minX, minY, maxX, maxY));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ElementWindow getElementsInPackage(Long diagramId, String packageName) {
+        return loadWindow(elementWindowReader.findClassIdsInPackage(diagramId, packageName));
+    }
+
+    /**
+     * Charge des classes, leurs membres et leurs relations par blocs d'identifiants.
+     * Les extrémités de relations hors de la fenêtre reçoivent aussi leurs membres : après la transaction,
+     * une collection non chargée lèverait une LazyInitializationException
+     */
+    private ElementWindow loadWindow(List<Long> classIds) {
+        ElementWindow window = new ElementWindow();
+        for (List<Long> ids : chunks(classIds)) {
+            window.getClasses().addAll(loadClassesWithMembers(ids));
+        }
+        for (List<Long> ids : chunks(elementWindowReader.findRelationshipIds(classIds))) {
+            window.getRelationships().addAll(relationshipRepository.findWithEndpointsByIdIn(ids));
+        }
+
+        Set<Long> inWindow = new HashSet<>(classIds);
+        Set<Long> outside = new LinkedHashSet<>();
+        for (RelationshipElement relationship : window.getRelationships()) {
+            for (ClassElement endpoint : List.of(relationship.getSourceElement(), relationship.getTargetElement())) {
+                if (!inWindow.contains(endpoint.getId())) {
+                    outside.add(endpoint.getId());
+                }
+            }
+        }
+        // Mêmes objets que les extrémités déjà chargées : la session les complète
+        for (List<Long> ids : chunks(new ArrayList<>(outside))) {
+            loadClassesWithMembers(ids);
+        }
+        log.debug("Fenêtre chargée : {} classe(s), {} relation(s)", window.getClasses().size(),
+                window.getRelationships().size());
+        return window;
+    }
+
+    /**
+     * Classes avec attributs, méthodes et paramètres, en trois requêtes
+     */
+    private List<ClassElement> loadClassesWithMembers(List<Long> ids) {
+        List<ClassElement> classes = classElementRepository.findWithAttributesByIdIn(ids);
+        classElementRepository.findWithMethodsByIdIn(ids);
+        classElementRepository.findMethodsWithParametersByClassIdIn(ids);
+        return classes;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += WINDOW_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + WINDOW_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
 }
@@ -0,0 +1,322 @@
+package com.diagramme.service;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.repository.ClassDiagramRepository;
+import com.diagramme.util.GeneratedIds;
+import com.diagramme.util.journal.EditJournal;
+import com.diagramme.util.journal.JournalCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal local des modifications des diagrammes ouverts (app.journal.*).
+ * Chaque modification faite dans l'éditeur y est inscrite aussitôt ; un thread unique écrit les opérations
+ * toutes les app.journal.flush-interval-ms avec une seule synchronisation disque par journal.
+ * La sauvegarde automatique met en base les segments fermés en les rejouant sur la version enregistrée
+ * ({@link #compact}), puis les supprime.
+ * Au démarrage, les journaux restants (arrêt brutal) sont rejoués sur les diagrammes en base puis supprimés.
+ */
+@Service
+@Profile("!batch")
+@Slf4j
+public class EditJournalService {
+
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 50;
+
+    private final Path directory;
+    private final boolean enabled;
+    private final ClassDiagramRepository diagramRepository;
+    private final SearchIndexService searchIndexService;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService writer;
+
+    // Journaux ouverts, par identifiant de diagramme
+    private final Map<Long, EditJournal> journals = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EditJournalService(Environment env, ClassDiagramRepository diagramRepository,
+                              SearchIndexService searchIndexService, PlatformTransactionManager transactionManager) {
+        this.directory = Paths.get(env.getProperty("app.journal.dir", "./data/journal"));
+        this.enabled = env.getProperty("app.journal.enabled", Boolean.class, true);
+        this.diagramRepository = diagramRepository;
+        this.searchIndexService = searchIndexService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diagram-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = env.getProperty("app.journal.flush-interval-ms", Long.class, DEFAULT_FLUSH_INTERVAL_MILLIS);
+        if (enabled) {
+            writer.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inscrit l'état complet d'un élément ajouté ou modifié
+     */
+    public void recordElement(ClassDiagram diagram, DiagramElement element) {
+        append(diagram, JournalCodec.element(element));
+    }
+
+    /**
+     * Inscrit la suppression d'éléments
+     */
+    public void recordRemoved(ClassDiagram diagram, Collection<? extends DiagramElement> elements) {
+        for (DiagramElement element : elements) {
+            append(diagram, JournalCodec.removed(element));
+        }
+    }
+
+    /**
+     * Inscrit la position et la taille d'éléments déplacés
+     */
+    public void recordGeometry(ClassDiagram diagram, Collection<? extends DiagramElement> elements) {
+        if (!elements.isEmpty()) {
+            append(diagram, JournalCodec.geometry(elements));
+        }
+    }
+
+    /**
+     * Inscrit les propriétés du diagramme
+     */
+    public void recordDiagramProperties(ClassDiagram diagram) {
+        append(diagram, JournalCodec.diagramProperties(diagram));
+    }
+
+    /**
+     * Inscrit l'état complet du diagramme, quand il a été remplacé d'un bloc (annulation, rétablissement)
+     */
+    public void recordAll(ClassDiagram diagram) {
+        append(diagram, JournalCodec.diagramProperties(diagram));
+        append(diagram, JournalCodec.retain(diagram.getElements()));
+        // Les classes avant les relations, qui les désignent
+        for (DiagramElement element : diagram.getElements()) {
+            if (element instanceof ClassElement) {
+                append(diagram, JournalCodec.element(element));
+            }
+        }
+        for (DiagramElement element : diagram.getElements()) {
+            if (!(element instanceof ClassElement)) {
+                append(diagram, JournalCodec.element(element));
+            }
+        }
+    }
+
+    /**
+     * Ferme le segment courant du journal d'un diagramme, au moment où il est copié pour être enregistré ;
+     * sur le thread JavaFX
+     *
+     * @return Segment à passer à {@link #compacted} une fois la copie en base, -1 s'il n'y a pas de journal
+     */
+    public long checkpoint(ClassDiagram diagram) {
+        EditJournal journal = diagram.getId() != null ? journals.get(diagram.getId()) : null;
+        return journal != null ? journal.roll() : -1;
+    }
+
+    /**
+     * La copie prise au point de contrôle est en base : les segments qu'elle contient sont supprimés
+     */
+    public void compacted(Long diagramId, long segment) {
+        EditJournal journal = journals.get(diagramId);
+        if (journal == null || segment < 0) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                journal.discardThrough(segment);
+            } catch (IOException e) {
+                log.error("Erreur lors de la suppression du journal du diagramme {}", diagramId, e);
+            }
+        });
+    }
+
+    /**
+     * Met en base les modifications des segments fermés jusqu'au point de contrôle donné : ils sont écrits,
+     * relus et rejoués sur la version en base comme au démarrage, puis supprimés. Le diagramme affiché n'est
+     * pas lu et seules les lignes touchées par les opérations sont écrites. Hors du thread JavaFX.
+     *
+     * @param segment Segment renvoyé par {@link #checkpoint}
+     * @return Identifiants attribués aux objets créés par le rejeu, vide s'il n'y a pas de journal
+     *         ou si le diagramme n'est plus en base
+     */
+    public Optional<GeneratedIds> compact(long diagramId, long segment) throws IOException {
+        EditJournal journal = journals.get(diagramId);
+        if (journal == null || segment < 0) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        try {
+            writer.submit(() -> {
+                journal.flush();
+                return null;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Écriture du journal interrompue");
+        } catch (ExecutionException e) {
+            throw new IOException("Erreur lors de l'écriture du journal du diagramme " + diagramId, e.getCause());
+        }
+
+        List<byte[]> operations = EditJournal.readThrough(directory, diagramId, segment);
+        Optional<GeneratedIds> ids = Optional.ofNullable(transactionTemplate.execute(status -> {
+            Optional<ClassDiagram> diagram = diagramRepository.findById(diagramId);
+            if (diagram.isEmpty()) {
+                return null;
+            }
+            JournalCodec.replay(diagram.get(), operations);
+            Set<String> unsaved = GeneratedIds.unsaved(diagram.get());
+            diagramRepository.saveAndFlush(diagram.get());
+            searchIndexService.reindexAfterCommit(diagramId);
+            return GeneratedIds.of(diagram.get(), unsaved);
+        }));
+        compacted(diagramId, segment);
+        log.debug("Journal du diagramme {} compacté : {} opérations en {} ms", diagramId, operations.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return ids;
+    }
+
+    /**
+     * Abandonne le journal d'un diagramme fermé sans enregistrer ses modifications
+     */
+    public void discard(Long diagramId) {
+        EditJournal journal = journals.remove(diagramId);
+        if (journal == null) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                journal.discardAll();
+                journal.close();
+            } catch (IOException e) {
+                log.error("Erreur lors de l'abandon du journal du diagramme {}", diagramId, e);
+            }
+        });
+    }
+
+    /**
+     * Rejoue au démarrage les journaux laissés par un arrêt brutal
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverAll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (Long diagramId : EditJournal.diagramsWithJournal(directory)) {
+                recover(diagramId);
+            }
+        } catch (IOException e) {
+            log.error("Erreur lors de la lecture des journaux de modifications", e);
+        }
+    }
+
+    /**
+     * Rejoue le journal d'un diagramme sur sa version en base, enregistre le résultat et supprime le journal
+     *
+     * @return Nombre d'opérations appliquées
+     */
+    public int recover(long diagramId) throws IOException {
+        long start = System.nanoTime();
+        List<byte[]> operations = EditJournal.readAll(directory, diagramId);
+        Integer applied = transactionTemplate.execute(status -> {
+            Optional<ClassDiagram> diagram = diagramRepository.findById(diagramId);
+            if (diagram.isEmpty()) {
+                return 0;
+            }
+            int count = JournalCodec.replay(diagram.get(), operations);
+            diagramRepository.save(diagram.get());
+            searchIndexService.reindexAfterCommit(diagramId);
+            return count;
+        });
+        new EditJournal(directory, diagramId).discardAll();
+        log.info("Journal du diagramme {} rejoué : {} opérations sur {} en {} ms", diagramId, applied,
+                operations.size(), (System.nanoTime() - start) / 1_000_000);
+        return applied != null ? applied : 0;
+    }
+
+    /**
+     * Écrit les opérations en attente de tous les journaux ; sur le thread d'écriture
+     */
+    void flushAll() {
+        for (EditJournal journal : new ArrayList<>(journals.values())) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                log.error("Erreur lors de l'écriture du journal du diagramme {}", journal.getDiagramId(), e);
+            }
+        }
+    }
+
+    private void append(ClassDiagram diagram, byte[] operation) {
+        if (!enabled || diagram == null || diagram.getId() == null) {
+            return;
+        }
+        EditJournal journal = journals.computeIfAbsent(diagram.getId(), id -> {
+            try {
+                return new EditJournal(directory, id);
+            } catch (IOException e) {
+                log.error("Impossible d'ouvrir le journal du diagramme {}", id, e);
+                return null;
+            }
+        });
+        if (journal != null) {
+            journal.append(operation);
+        }
+    }
+
+    /**
+     * Écrit les dernières opérations avant l'arrêt
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            writer.submit(() -> {
+                flushAll();
+                for (EditJournal journal : journals.values()) {
+                    try {
+                        journal.close();
+                    } catch (IOException e) {
+                        log.warn("Erreur lors de la fermeture du journal du diagramme {}", journal.getDiagramId(), e);
+                    }
+                }
+            }).get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | java.util.concurrent.TimeoutException e) {
+            log.error("Erreur lors de l'écriture finale des journaux", e);
+        }
+        writer.shutdownNow();
+    }
+}
@@ -0,0 +1,206 @@
+package com.diagramme.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache disque des rendus d'export, indexé par empreinte de contenu.
+ * Les entrées sont stockées sous app.export.temp.dir/cache et évincées
+ * de la moins récemment utilisée à la plus récente lorsque la taille maximale est dépassée.
+ */
+@Service
+@Slf4j
+public class ExportCacheService {
+
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final boolean enabled;
+
+    // Clé -> taille en octets, dans l'ordre d'accès (LRU en tête)
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public ExportCacheService(Environment env) {
+        String tempDir = env.getProperty("app.export.temp.dir", System.getProperty("java.io.tmpdir") + "/diagram-exports");
+        this.cacheDir = Paths.get(tempDir, "cache");
+        this.maxBytes = env.getProperty("app.export.cache.max-bytes", Long.class, DEFAULT_MAX_BYTES);
+        this.enabled = env.getProperty("app.export.cache.enabled", Boolean.class, true) && initializeCacheDirectory();
+    }
+
+    /**
+     * Indique si le cache est utilisable
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Copie l'entrée de cache correspondant à la clé vers le fichier de sortie
+     *
+     * @return true si l'entrée existait, false sinon
+     */
+    public boolean copyTo(String key, File outputFile) throws IOException {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                misses.incrementAndGet();
+                return false;
+            }
+        }
+
+        Path entry = cacheDir.resolve(key);
+        try {
+            Files.copy(entry, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            // La date de modification sert d'horodatage d'accès pour reconstruire l'ordre LRU au démarrage
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Entrée supprimée hors de l'application
+            synchronized (this) {
+                Long size = entries.remove(key);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            misses.incrementAndGet();
+            return false;
+        }
+
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Enregistre un rendu dans le cache
+     */
+    public void store(String key, File renderedFile) throws IOException {
+        long size = Files.size(renderedFile.toPath());
+        if (size > maxBytes) {
+            return;
+        }
+
+        // Écriture atomique : un lecteur concurrent ne voit jamais d'entrée partielle
+        Path temp = Files.createTempFile(cacheDir, key, TEMP_SUFFIX);
+        try {
+            Files.copy(renderedFile.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, cacheDir.resolve(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        synchronized (this) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            evictIfNeeded();
+        }
+    }
+
+    /**
+     * Vide entièrement le cache
+     */
+    public synchronized void clear() {
+        for (String key : entries.keySet()) {
+            deleteEntry(key);
+        }
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Supprime les entrées les moins récemment utilisées jusqu'à repasser sous la taille maximale
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            deleteEntry(eldest.getKey());
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            log.debug("Entrée de cache d'export évincée: {}", eldest.getKey());
+        }
+    }
+
+    private void deleteEntry(String key) {
+        try {
+            Files.deleteIfExists(cacheDir.resolve(key));
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer l'entrée de cache {}", key, e);
+        }
+    }
+
+    /**
+     * Crée le répertoire du cache et reconstruit l'index à partir des fichiers existants
+     */
+    private boolean initializeCacheDirectory() {
+        try {
+            Files.createDirectories(cacheDir);
+
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> stream = Files.list(cacheDir)) {
+                stream.filter(Files::isRegularFile).forEach(files::add);
+            }
+
+            // Du plus ancien accès au plus récent
+            Map<Path, Long> accessTimes = new HashMap<>();
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                accessTimes.put(file, Files.getLastModifiedTime(file).toMillis());
+            }
+
+            accessTimes.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .forEach(entry -> {
+                        try {
+                            long size = Files.size(entry.getKey());
+                            entries.put(entry.getKey().getFileName().toString(), size);
+                            totalBytes += size;
+                        } catch (IOException e) {
+                            log.warn("Entrée de cache illisible: {}", entry.getKey(), e);
+                        }
+                    });
+
+            synchronized (this) {
+                evictIfNeeded();
+            }
+            log.debug("Cache d'export initialisé: {} entrée(s), {} octet(s)", entries.size(), totalBytes);
+            return true;
+        } catch (IOException e) {
+            log.error("Erreur lors de l'initialisation du cache d'export: {}", cacheDir, e);
+            return false;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.diagramme.service;
 
 import com.diagramme.model.ClassDiagram;
+import com.diagramme.util.CldFormat;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
@@ -15,6 +16,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 /**
  * Service pour l'export de diagrammes dans différents formats
@@ -23,24 +27,71 @@ import java.nio.file.Paths;
 @Slf4j
 public class ExportService {
 
+    // À incrémenter dès que le rendu d'un format change, pour invalider le cache existant
+    private static final int RENDER_VERSION = 1;
+
     private final Environment env;
+    private final ExportCacheService exportCache;
 
     @Autowired
-    public ExportService(Environment env) {
+    public ExportService(Environment env, ExportCacheService exportCache) {
         this.env = env;
+        this.exportCache = exportCache;
     }
 
     /**
      * Exporte un diagramme vers un fichier
      *
      * @param diagram Le diagramme à exporter
-     * @param format Le format d'export ("PNG", "SVG", "PDF", "JSON", "XMI")
+     * @param format Le format d'export ("PNG", "SVG", "PDF", "JSON", "XMI", "CLD")
      * @param outputFile Le fichier de sortie
      * @return Le fichier créé
      */
     public File exportDiagram(ClassDiagram diagram, String format, File outputFile) throws IOException {
         log.debug("Export du diagramme {} au format {}", diagram.getName(), format);
 
+        // Un diagramme inchangé déjà exporté dans ce format est servi depuis le cache
+        String cacheKey = null;
+        if (exportCache.isEnabled()) {
+            cacheKey = computeContentHash(diagram) + "-" + format.toLowerCase() + "-v" + RENDER_VERSION;
+            if (exportCache.copyTo(cacheKey, outputFile)) {
+                log.debug("Export du diagramme {} servi depuis le cache", diagram.getName());
+                return outputFile;
+            }
+        }
+
+        File result = render(diagram, format, outputFile);
+
+        if (cacheKey != null) {
+            try {
+                exportCache.store(cacheKey, result);
+            } catch (IOException e) {
+                log.warn("Impossible d'enregistrer l'export dans le cache", e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Calcule une empreinte stable (SHA-256) du contenu d'un diagramme.
+     * L'empreinte porte sur l'encodage .cld, qui couvre tout ce qui est rendu
+     * et ignore les identifiants et dates de persistance.
+     */
+    public String computeContentHash(ClassDiagram diagram) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(CldFormat.encode(diagram));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Produit le rendu d'un diagramme dans le format demandé
+     */
+    private File render(ClassDiagram diagram, String format, File outputFile) throws IOException {
         switch (format.toUpperCase()) {
             case "PNG":
                 return exportToPNG(diagram, outputFile);
@@ -52,11 +103,28 @@ public class ExportService {
                 return exportToJSON(diagram, outputFile);
             case "XMI":
                 return exportToXMI(diagram, outputFile);
+            case "CLD":
+                return exportToCLD(diagram, outputFile);
             default:
                 throw new IllegalArgumentException("Format d'export non supporté: " + format);
         }
     }
 
+    /**
+     * Retourne l'extension de fichier (avec le point) pour un format d'export
+     */
+    public String getExtensionForFormat(String format) {
+        return switch (format.toUpperCase()) {
+            case "PNG" -> ".png";
+            case "SVG" -> ".svg";
+            case "PDF" -> ".pdf";
+            case "JSON" -> ".json";
+            case "XMI" -> ".xmi";
+            case "CLD" -> ".cld";
+            default -> throw new IllegalArgumentException("Format d'export non supporté: " + format);
+        };
+    }
+
     /**
      * Exporte un diagramme vers un fichier PNG
      */
@@ -210,6 +278,14 @@ public class ExportService {
         return outputFile;
     }
 
+    /**
+     * Exporte un diagramme vers un fichier au format binaire .cld
+     */
+    private File exportToCLD(ClassDiagram diagram, File outputFile) throws IOException {
+        CldFormat.write(diagram, outputFile);
+        return outputFile;
+    }
+
     /**
      * Crée un répertoire temporaire pour l'export
      */
@@ -1,6 +1,7 @@
 package com.diagramme.service;
 
 import com.diagramme.model.ClassDiagram;
+import com.diagramme.util.CldFormat;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -71,18 +72,10 @@ public class ImportService {
     }
 
     /**
-     * Importe un diagramme depuis un fichier au format personnalisé
+     * Importe un diagramme depuis un fichier au format binaire .cld
      */
     private ClassDiagram importFromCustomFormat(File file) throws IOException {
         log.debug("Import depuis format personnalisé: {}", file.getName());
-
-        // Créer un diagramme fictif pour l'exemple
-        String content = new String(Files.readAllBytes(file.toPath()));
-
-        // Analyser le contenu personnalisé et construire le diagramme
-        //TODO
-        // Note: Implémentation simplifiée, à adapter à notre model plus tard
-
-        return new ClassDiagram(file.getName().replace(".cld", ""));
+        return CldFormat.read(file);
     }
 }
\ No newline at end of file
@@ -3,17 +3,20 @@ package com.diagramme.service;
 import com.diagramme.model.*;
 import com.diagramme.model.enums.RelationshipType;
 import com.diagramme.model.enums.Visibility;
+import com.diagramme.util.template.Template;
+import com.diagramme.util.template.TemplateCompiler;
+import com.diagramme.util.template.TemplateModel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service pour générer du code Java à partir d'un diagramme de classe
@@ -22,8 +25,18 @@ import java.util.Map;
 @Slf4j
 public class JavaCodeGeneratorService {
 
+    private static final String CLASS_TEMPLATE = "/templates/codegen/java-class.tpl";
+
+    private final Template<ClassView> classTemplate;
+
+    public JavaCodeGeneratorService() {
+        this.classTemplate = TemplateCompiler.compileResource(CLASS_TEMPLATE, classModel());
+    }
+
     /**
-     * Génère des fichiers Java à partir d'un diagramme de classe
+     * Génère des fichiers Java à partir d'un diagramme de classe.
+     * Les classes sont rendues en parallèle et les fichiers dont le contenu n'a pas changé
+     * ne sont pas réécrits, afin de préserver leur date de modification.
      *
      * @param diagram Le diagramme de classe
      * @param outputDir Le répertoire de sortie
@@ -41,356 +54,186 @@ public class JavaCodeGeneratorService {
             throw new IllegalArgumentException("Le chemin spécifié n'est pas un répertoire valide: " + outputDir.getAbsolutePath());
         }
 
-        // Créer une carte des éléments de classe par nom
-        Map<String, ClassElement> classMap = new HashMap<>();
-        for (ClassElement element : diagram.getClasses()) {
-            classMap.put(element.getName(), element);
-        }
+        List<ClassElement> classes = diagram.getClasses();
 
-        // Générer le code pour chaque classe
-        int fileCount = 0;
-        for (ClassElement element : diagram.getClasses()) {
-            String javaCode = generateClassCode(element, diagram.getRelationships(), classMap);
+        // Lignes d'import résolues une fois pour tout le diagramme
+        ImportIndex imports = new ImportIndex(classes);
 
-            // Créer les répertoires pour le package si nécessaire
-            String packagePath = "";
+        Map<ClassElement, List<RelationshipElement>> outgoingRelationships = outgoingRelationships(diagram);
+
+        // Fichier cible de chaque classe ; à nom égal, la dernière classe l'emporte
+        Map<Path, ClassElement> targets = new LinkedHashMap<>();
+        Set<Path> packageDirs = new HashSet<>();
+        for (ClassElement element : classes) {
+            Path directory = outputDir.toPath();
             if (element.getPackageName() != null && !element.getPackageName().isEmpty()) {
-                packagePath = element.getPackageName().replace('.', File.separatorChar);
-                Files.createDirectories(Path.of(outputDir.getAbsolutePath(), packagePath));
+                directory = directory.resolve(element.getPackageName().replace('.', File.separatorChar));
+                packageDirs.add(directory);
             }
+            targets.put(directory.resolve(element.getName() + ".java"), element);
+        }
 
-            // Écrire le fichier Java
-            File javaFile = new File(outputDir, packagePath + File.separator + element.getName() + ".java");
-            try (FileWriter writer = new FileWriter(javaFile)) {
-                writer.write(javaCode);
-                fileCount++;
-                log.debug("Fichier généré: {}", javaFile.getAbsolutePath());
-            }
+        // Créer les répertoires des packages avant le rendu parallèle
+        for (Path packageDir : packageDirs) {
+            Files.createDirectories(packageDir);
+        }
+
+        // Générer et écrire le code de chaque classe en parallèle
+        int written;
+        try {
+            written = targets.entrySet().parallelStream()
+                    .mapToInt(target -> {
+                        ClassElement element = target.getValue();
+                        String javaCode = generateClassCode(element,
+                                outgoingRelationships.getOrDefault(element, List.of()), imports);
+                        return writeIfChanged(target.getKey(), javaCode) ? 1 : 0;
+                    })
+                    .sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
-        return fileCount;
+        log.debug("Génération terminée: {} fichier(s) écrit(s), {} inchangé(s)",
+                written, targets.size() - written);
+
+        return classes.size();
     }
 
     /**
-     * Génère le code Java pour une classe
+     * Rend en mémoire le code Java de chaque classe du diagramme, sans écrire de fichier
+     *
+     * @param diagram Le diagramme de classe
+     * @return Le code de chaque classe, dans l'ordre de {@link ClassDiagram#getClasses()}
      */
-    private String generateClassCode(ClassElement element, List<RelationshipElement> relationships, Map<String, ClassElement> classMap) {
-        StringBuilder sb = new StringBuilder();
-
-        // Package
-        if (element.getPackageName() != null && !element.getPackageName().isEmpty()) {
-            sb.append("package ").append(element.getPackageName()).append(";\n\n");
+    public List<String> renderClasses(ClassDiagram diagram) {
+        List<ClassElement> classes = diagram.getClasses();
+        ImportIndex imports = new ImportIndex(classes);
+        Map<ClassElement, List<RelationshipElement>> outgoingRelationships = outgoingRelationships(diagram);
+
+        List<String> code = new ArrayList<>(classes.size());
+        for (ClassElement element : classes) {
+            code.add(generateClassCode(element, outgoingRelationships.getOrDefault(element, List.of()), imports));
         }
+        return code;
+    }
 
-        // Imports
-        sb.append(generateImports(element, relationships, classMap)).append("\n");
-
-        // Javadoc de classe
-        sb.append("/**\n");
-        sb.append(" * ").append(element.getName()).append("\n");
-        sb.append(" */\n");
-
-        // Définition de classe
-        switch (element.getType()) {
-            case INTERFACE:
-                sb.append("public interface ").append(element.getName());
-
-                // Extensions
-                List<String> extendedInterfaces = findExtendedInterfaces(element, relationships);
-                if (!extendedInterfaces.isEmpty()) {
-                    sb.append(" extends ");
-                    for (int i = 0; i < extendedInterfaces.size(); i++) {
-                        sb.append(extendedInterfaces.get(i));
-                        if (i < extendedInterfaces.size() - 1) {
-                            sb.append(", ");
-                        }
-                    }
-                }
-
-                sb.append(" {\n\n");
-                break;
-
-            case ENUM:
-                sb.append("public enum ").append(element.getName()).append(" {\n\n");
-                sb.append("\t// TODO: Ajouter les valeurs de l'énumération\n\n");
-                break;
-
-            default: // CLASS ou ABSTRACT_CLASS
-                if (element.isAbstract()) {
-                    sb.append("public abstract class ");
-                } else {
-                    sb.append("public class ");
-                }
-
-                sb.append(element.getName());
-
-                // Héritage
-                String parentClass = findParentClass(element, relationships);
-                if (parentClass != null) {
-                    sb.append(" extends ").append(parentClass);
-                }
-
-                // Implémentation d'interfaces
-                List<String> implementedInterfaces = findImplementedInterfaces(element, relationships);
-                if (!implementedInterfaces.isEmpty()) {
-                    sb.append(" implements ");
-                    for (int i = 0; i < implementedInterfaces.size(); i++) {
-                        sb.append(implementedInterfaces.get(i));
-                        if (i < implementedInterfaces.size() - 1) {
-                            sb.append(", ");
-                        }
-                    }
-                }
-
-                sb.append(" {\n\n");
+    /**
+     * Indexe une seule fois les relations sortantes de chaque classe
+     */
+    private static Map<ClassElement, List<RelationshipElement>> outgoingRelationships(ClassDiagram diagram) {
+        Map<ClassElement, List<RelationshipElement>> outgoing = new IdentityHashMap<>();
+        for (RelationshipElement relationship : diagram.getRelationships()) {
+            outgoing.computeIfAbsent(relationship.getSourceElement(), k -> new ArrayList<>()).add(relationship);
         }
+        return outgoing;
+    }
 
-        // Attributs
-        for (Attribute attribute : element.getAttributes()) {
-            // Javadoc de l'attribut
-            sb.append("\t/**\n");
-            sb.append("\t * ").append(attribute.getName()).append("\n");
-            sb.append("\t */\n");
-
-            // Déclaration de l'attribut
-            sb.append("\t");
-
-            // Visibilité
-            sb.append(getVisibilityKeyword(attribute.getVisibility())).append(" ");
-
-            // Modificateurs
-            if (attribute.isStatic()) {
-                sb.append("static ");
-            }
-            if (attribute.isFinal()) {
-                sb.append("final ");
-            }
-
-            // Type et nom
-            sb.append(attribute.getType()).append(" ").append(attribute.getName());
-
-            // Valeur par défaut
-            if (attribute.getDefaultValue() != null && !attribute.getDefaultValue().isEmpty()) {
-                sb.append(" = ").append(attribute.getDefaultValue());
+    /**
+     * Écrit un fichier Java seulement si son contenu diffère de celui déjà présent sur le disque,
+     * dans l'encodage par défaut de la plateforme comme auparavant avec FileWriter
+     *
+     * @return true si le fichier a été écrit
+     */
+    private boolean writeIfChanged(Path javaFile, String javaCode) {
+        byte[] content = javaCode.getBytes(Charset.defaultCharset());
+        try {
+            if (Files.isRegularFile(javaFile) && Files.size(javaFile) == content.length
+                    && Arrays.equals(Files.readAllBytes(javaFile), content)) {
+                return false;
             }
 
-            sb.append(";\n\n");
+            Files.write(javaFile, content);
+            log.debug("Fichier généré: {}", javaFile.toAbsolutePath());
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        // Méthodes
-        for (Method method : element.getMethods()) {
-            // Javadoc de la méthode
-            sb.append("\t/**\n");
-            sb.append("\t * ").append(method.getName()).append("\n");
-
-            // Paramètres dans le JavaDoc
-            for (Parameter parameter : method.getParameters()) {
-                sb.append("\t * @param ").append(parameter.getName()).append(" Description du paramètre\n");
-            }
-
-            // Retour dans le JavaDoc
-            if (method.getReturnType() != null && !method.getReturnType().equals("void")) {
-                sb.append("\t * @return Description de la valeur de retour\n");
-            }
-
-            sb.append("\t */\n");
-
-            // Déclaration de la méthode
-            sb.append("\t");
-
-            // Visibilité
-            sb.append(getVisibilityKeyword(method.getVisibility())).append(" ");
-
-            // Modificateurs
-            if (method.isStatic()) {
-                sb.append("static ");
-            }
-            if (method.isAbstract()) {
-                sb.append("abstract ");
-            }
-            if (method.isFinal()) {
-                sb.append("final ");
-            }
-
-            // Type de retour
-            String returnType = method.getReturnType() != null && !method.getReturnType().isEmpty() ?
-                    method.getReturnType() : "void";
-            sb.append(returnType).append(" ");
-
-            // Nom et paramètres
-            sb.append(method.getName()).append("(");
-
-            // Liste des paramètres
-            List<Parameter> parameters = method.getParameters();
-            for (int i = 0; i < parameters.size(); i++) {
-                Parameter parameter = parameters.get(i);
-                sb.append(parameter.getType()).append(" ").append(parameter.getName());
-
-                if (parameter.getDefaultValue() != null && !parameter.getDefaultValue().isEmpty()) {
-                    sb.append(" /* = ").append(parameter.getDefaultValue()).append(" */");
-                }
-
-                if (i < parameters.size() - 1) {
-                    sb.append(", ");
-                }
-            }
-
-            sb.append(") ");
-
-            // Corps de la méthode ou point-virgule pour les interfaces et méthodes abstraites
-            if (element.getType() == ClassElement.ClassType.INTERFACE || method.isAbstract()) {
-                sb.append(";\n\n");
-            } else {
-                sb.append("{\n");
-
-                // Corps par défaut
-                sb.append("\t\t// TODO: Implémentation de la méthode\n");
-
-                // Retour par défaut
-                if (!returnType.equals("void")) {
-                    sb.append("\t\treturn ");
-
-                    // Valeur par défaut selon le type
-                    if (returnType.equals("boolean")) {
-                        sb.append("false");
-                    } else if (returnType.equals("int") || returnType.equals("long") ||
-                            returnType.equals("short") || returnType.equals("byte") ||
-                            returnType.equals("float") || returnType.equals("double")) {
-                        sb.append("0");
-                    } else if (returnType.equals("char")) {
-                        sb.append("'\\0'");
-                    } else {
-                        sb.append("null");
-                    }
-
-                    sb.append(";\n");
-                }
+    /**
+     * Génère le code Java pour une classe à partir de ses relations sortantes
+     */
+    String generateClassCode(ClassElement element, List<RelationshipElement> relationships, ImportIndex imports) {
+        boolean isInterface = element.getType() == ClassElement.ClassType.INTERFACE;
 
-                sb.append("\t}\n\n");
-            }
+        List<MethodView> methods = new ArrayList<>(element.getMethods().size());
+        for (Method method : element.getMethods()) {
+            methods.add(new MethodView(method, isInterface || method.isAbstract()));
         }
 
-        // Fermeture de la classe
-        sb.append("}\n");
+        ClassView view = new ClassView(
+                element,
+                generateImports(element, relationships, imports),
+                isInterface ? findExtendedInterfaces(element, relationships) : List.of(),
+                isInterface ? null : findParentClass(element, relationships),
+                isInterface ? List.of() : findImplementedInterfaces(element, relationships),
+                methods);
 
-        return sb.toString();
+        return classTemplate.render(view);
     }
 
     /**
      * Génère les imports nécessaires
      */
-    private String generateImports(ClassElement element, List<RelationshipElement> relationships, Map<String, ClassElement> classMap) {
-        StringBuilder sb = new StringBuilder();
-
+    private String generateImports(ClassElement element, List<RelationshipElement> relationships, ImportIndex index) {
         // Map pour éviter les doublons d'imports
         Map<String, String> imports = new HashMap<>();
+        String currentPackage = element.getPackageName();
 
         // Parcourir les attributs
         for (Attribute attribute : element.getAttributes()) {
-            addImportForType(attribute.getType(), element.getPackageName(), imports, classMap);
+            index.addImports(attribute.getType(), currentPackage, imports);
         }
 
         // Parcourir les méthodes
         for (Method method : element.getMethods()) {
             // Type de retour
             if (method.getReturnType() != null && !method.getReturnType().isEmpty() && !method.getReturnType().equals("void")) {
-                addImportForType(method.getReturnType(), element.getPackageName(), imports, classMap);
+                index.addImports(method.getReturnType(), currentPackage, imports);
             }
 
             // Types des paramètres
             for (Parameter parameter : method.getParameters()) {
-                addImportForType(parameter.getType(), element.getPackageName(), imports, classMap);
+                index.addImports(parameter.getType(), currentPackage, imports);
             }
         }
 
-        // Ajouter les types utilisés dans les relations
+        // Ajouter les types utilisés dans les relations sortantes
         for (RelationshipElement relationship : relationships) {
-            // Vérifier si c'est la source ou la cible
-            if (relationship.getSourceElement() == element) {
-                ClassElement targetElement = relationship.getTargetElement();
-                String targetPackage = targetElement.getPackageName();
-                String targetName = targetElement.getName();
-
-                if (targetPackage != null && !targetPackage.isEmpty() &&
-                        !targetPackage.equals(element.getPackageName())) {
-                    imports.put(targetName, "import " + targetPackage + "." + targetName + ";\n");
-                }
+            ClassElement targetElement = relationship.getTargetElement();
+            String targetPackage = targetElement.getPackageName();
+
+            if (targetPackage != null && !targetPackage.isEmpty() && !targetPackage.equals(currentPackage)) {
+                imports.put(targetElement.getName(), index.classImport(targetElement));
             }
         }
 
+        if (imports.isEmpty()) {
+            return "";
+        }
         // Ajouter les imports au code
+        StringBuilder sb = new StringBuilder(imports.size() * 40);
         for (String importLine : imports.values()) {
             sb.append(importLine);
         }
-
         return sb.toString();
     }
 
-    /**
-     * Ajoute un import pour un type si nécessaire
-     */
-    private void addImportForType(String type, String currentPackage, Map<String, String> imports, Map<String, ClassElement> classMap) {
-        // Ignorer les types primitifs et les types dans le package java.lang
-        if (isPrimitiveType(type) || type.startsWith("java.lang.")) {
-            return;
-        }
-
-        // Vérifier si le type est un type paramétré (générique)
-        if (type.contains("<")) {
-            // Extraire le type principal
-            String mainType = type.substring(0, type.indexOf("<"));
-            addImportForType(mainType, currentPackage, imports, classMap);
-
-            // Extraire les types de paramètres
-            String paramTypes = type.substring(type.indexOf("<") + 1, type.lastIndexOf(">"));
-            String[] params = paramTypes.split(",");
-            for (String param : params) {
-                addImportForType(param.trim(), currentPackage, imports, classMap);
-            }
-
-            return;
-        }
-
-        // Vérifier si c'est un tableau
-        if (type.endsWith("[]")) {
-            addImportForType(type.substring(0, type.length() - 2), currentPackage, imports, classMap);
-            return;
-        }
-
-        // Vérifier si le type est une classe du projet
-        ClassElement classElement = classMap.get(type);
-        if (classElement != null) {
-            String packageName = classElement.getPackageName();
-
-            // Ajouter un import seulement si le package est différent
-            if (packageName != null && !packageName.isEmpty() && !packageName.equals(currentPackage)) {
-                imports.put(type, "import " + packageName + "." + type + ";\n");
-            }
-        } else if (type.contains(".")) {
-            // Type complet (avec package)
-            imports.put(type, "import " + type + ";\n");
-        } else {
-            // Type simple, supposé être dans java.util
-            imports.put(type, "import java.util." + type + ";\n");
-        }
-    }
-
     /**
      * Vérifie si un type est un type primitif Java
      */
-    private boolean isPrimitiveType(String type) {
+    private static boolean isPrimitiveType(String type) {
         return type.equals("boolean") || type.equals("byte") || type.equals("char") ||
                 type.equals("short") || type.equals("int") || type.equals("long") ||
                 type.equals("float") || type.equals("double") || type.equals("void");
     }
 
     /**
-     * Trouve la classe parente d'un élément
+     * Trouve la classe parente d'un élément parmi ses relations sortantes
      */
     private String findParentClass(ClassElement element, List<RelationshipElement> relationships) {
         for (RelationshipElement relationship : relationships) {
-            if (relationship.getSourceElement() == element &&
-                    relationship.getType() == RelationshipType.INHERITANCE) {
+            if (relationship.getType() == RelationshipType.INHERITANCE) {
                 return relationship.getTargetElement().getName();
             }
         }
@@ -398,30 +241,37 @@ public class JavaCodeGeneratorService {
     }
 
     /**
-     * Trouve les interfaces étendues par une interface
+     * Trouve les interfaces étendues par une interface parmi ses relations sortantes
      */
     private List<String> findExtendedInterfaces(ClassElement element, List<RelationshipElement> relationships) {
-        return relationships.stream()
-                .filter(r -> r.getSourceElement() == element &&
-                        (r.getType() == RelationshipType.INHERITANCE || r.getType() == RelationshipType.IMPLEMENTATION))
-                .map(r -> r.getTargetElement().getName())
-                .toList();
+        List<String> parents = List.of();
+        for (RelationshipElement relationship : relationships) {
+            if (relationship.getType() == RelationshipType.INHERITANCE || relationship.getType() == RelationshipType.IMPLEMENTATION) {
+                parents = parents.isEmpty() ? new ArrayList<>(2) : parents;
+                parents.add(relationship.getTargetElement().getName());
+            }
+        }
+        return parents;
     }
 
     /**
-     * Trouve les interfaces implémentées par une classe
+     * Trouve les interfaces implémentées par une classe parmi ses relations sortantes
      */
     private List<String> findImplementedInterfaces(ClassElement element, List<RelationshipElement> relationships) {
-        return relationships.stream()
-                .filter(r -> r.getSourceElement() == element && r.getType() == RelationshipType.IMPLEMENTATION)
-                .map(r -> r.getTargetElement().getName())
-                .toList();
+        List<String> interfaces = List.of();
+        for (RelationshipElement relationship : relationships) {
+            if (relationship.getType() == RelationshipType.IMPLEMENTATION) {
+                interfaces = interfaces.isEmpty() ? new ArrayList<>(2) : interfaces;
+                interfaces.add(relationship.getTargetElement().getName());
+            }
+        }
+        return interfaces;
     }
 
     /**
      * Retourne le mot-clé Java pour une visibilité
      */
-    private String getVisibilityKeyword(Visibility visibility) {
+    private static String getVisibilityKeyword(Visibility visibility) {
         return switch (visibility) {
             case PUBLIC -> "public";
             case PRIVATE -> "private";
@@ -429,4 +279,190 @@ public class JavaCodeGeneratorService {
             case PACKAGE -> "";
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Retourne la valeur renvoyée par défaut pour un type de retour
+     */
+    private static String getDefaultReturnValue(String returnType) {
+        return switch (returnType) {
+            case "boolean" -> "false";
+            case "int", "long", "short", "byte", "float", "double" -> "0";
+            case "char" -> "'\\0'";
+            default -> "null";
+        };
+    }
+
+    private static boolean isNotEmpty(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * Noms utilisables dans le modèle de classe Java
+     */
+    private static TemplateModel<ClassView> classModel() {
+        TemplateModel<Parameter> parameterModel = new TemplateModel<Parameter>()
+                .value("name", Parameter::getName)
+                .value("type", Parameter::getType)
+                .value("defaultValue", Parameter::getDefaultValue)
+                .flag("hasDefaultValue", p -> isNotEmpty(p.getDefaultValue()));
+
+        TemplateModel<Attribute> attributeModel = new TemplateModel<Attribute>()
+                .value("name", Attribute::getName)
+                .value("type", Attribute::getType)
+                .value("visibility", a -> getVisibilityKeyword(a.getVisibility()))
+                .value("defaultValue", Attribute::getDefaultValue)
+                .flag("static", Attribute::isStatic)
+                .flag("final", Attribute::isFinal)
+                .flag("hasDefaultValue", a -> isNotEmpty(a.getDefaultValue()));
+
+        TemplateModel<MethodView> methodModel = new TemplateModel<MethodView>()
+                .value("name", m -> m.method().getName())
+                .value("visibility", m -> getVisibilityKeyword(m.method().getVisibility()))
+                .value("returnType", MethodView::returnType)
+                .value("defaultReturnValue", m -> getDefaultReturnValue(m.returnType()))
+                .flag("static", m -> m.method().isStatic())
+                .flag("abstract", m -> m.method().isAbstract())
+                .flag("final", m -> m.method().isFinal())
+                .flag("declarationOnly", MethodView::declarationOnly)
+                .flag("documentsReturn", m -> m.method().getReturnType() != null && !m.method().getReturnType().equals("void"))
+                .flag("returnsValue", m -> !m.returnType().equals("void"))
+                .list("parameters", m -> m.method().getParameters(), parameterModel);
+
+        TemplateModel<String> nameModel = new TemplateModel<>();
+
+        return new TemplateModel<ClassView>()
+                .value("name", v -> v.element().getName())
+                .value("packageName", v -> v.element().getPackageName())
+                .value("imports", ClassView::imports)
+                .value("parentClass", ClassView::parentClass)
+                .flag("hasPackage", v -> isNotEmpty(v.element().getPackageName()))
+                .flag("interface", v -> v.element().getType() == ClassElement.ClassType.INTERFACE)
+                .flag("enum", v -> v.element().getType() == ClassElement.ClassType.ENUM)
+                .flag("abstract", v -> v.element().isAbstract())
+                .flag("hasParents", v -> !v.parents().isEmpty())
+                .flag("hasParentClass", v -> v.parentClass() != null)
+                .flag("hasInterfaces", v -> !v.interfaces().isEmpty())
+                .list("parents", ClassView::parents, nameModel)
+                .list("interfaces", ClassView::interfaces, nameModel)
+                .list("attributes", v -> v.element().getAttributes(), attributeModel)
+                .list("methods", ClassView::methods, methodModel);
+    }
+
+    /**
+     * Lignes d'import d'une génération. Chaque type rencontré n'est analysé qu'une fois (génériques, tableaux,
+     * classes du projet) ; les classes suivantes recopient les lignes déjà construites. Partagé entre les
+     * threads du rendu parallèle.
+     */
+    static final class ImportIndex {
+
+        private final Map<String, ClassElement> classMap = new HashMap<>();
+        private final Map<ClassElement, String> classImports = new IdentityHashMap<>();
+        private final Map<String, List<ImportLine>> linesByType = new ConcurrentHashMap<>();
+
+        ImportIndex(Collection<ClassElement> classes) {
+            // Créer une carte des éléments de classe par nom ; à nom égal, la dernière classe l'emporte
+            for (ClassElement element : classes) {
+                classMap.put(element.getName(), element);
+                if (isNotEmpty(element.getPackageName())) {
+                    classImports.put(element, importLine(element.getPackageName() + "." + element.getName()));
+                }
+            }
+        }
+
+        /**
+         * Ajoute les imports d'un type, sauf ceux des classes du paquetage courant
+         */
+        void addImports(String type, String currentPackage, Map<String, String> imports) {
+            List<ImportLine> lines = linesByType.get(type);
+            if (lines == null) {
+                List<ImportLine> resolved = new ArrayList<>(2);
+                resolve(type, resolved);
+                lines = resolved.isEmpty() ? List.of() : resolved;
+                linesByType.putIfAbsent(type, lines);
+            }
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                ImportLine line = lines.get(i);
+                if (line.packageName() == null || !line.packageName().equals(currentPackage)) {
+                    imports.put(line.key(), line.line());
+                }
+            }
+        }
+
+        /**
+         * Ligne d'import d'une classe du diagramme, qui doit avoir un paquetage
+         */
+        String classImport(ClassElement element) {
+            String line = classImports.get(element);
+            return line != null ? line : importLine(element.getPackageName() + "." + element.getName());
+        }
+
+        private void resolve(String type, List<ImportLine> lines) {
+            // Ignorer les types primitifs et les types dans le package java.lang
+            if (isPrimitiveType(type) || type.startsWith("java.lang.")) {
+                return;
+            }
+
+            // Vérifier si le type est un type paramétré (générique)
+            if (type.contains("<")) {
+                // Extraire le type principal
+                resolve(type.substring(0, type.indexOf("<")), lines);
+
+                // Extraire les types de paramètres
+                String paramTypes = type.substring(type.indexOf("<") + 1, type.lastIndexOf(">"));
+                for (String param : paramTypes.split(",")) {
+                    resolve(param.trim(), lines);
+                }
+                return;
+            }
+
+            // Vérifier si c'est un tableau
+            if (type.endsWith("[]")) {
+                resolve(type.substring(0, type.length() - 2), lines);
+                return;
+            }
+
+            // Vérifier si le type est une classe du projet
+            ClassElement classElement = classMap.get(type);
+            if (classElement != null) {
+                // Import seulement hors du paquetage de la classe, qui n'est connu qu'au rendu
+                String line = classImports.get(classElement);
+                if (line != null) {
+                    lines.add(new ImportLine(type, classElement.getPackageName(), line));
+                }
+            } else if (type.contains(".")) {
+                // Type complet (avec package)
+                lines.add(new ImportLine(type, null, importLine(type)));
+            } else {
+                // Type simple, supposé être dans java.util
+                lines.add(new ImportLine(type, null, importLine("java.util." + type)));
+            }
+        }
+
+        private static String importLine(String qualifiedName) {
+            return "import " + qualifiedName + ";\n";
+        }
+    }
+
+    /**
+     * Import d'un type, clé de dédoublonnage comprise ; packageName pour une classe du projet, importée
+     * seulement depuis un autre paquetage
+     */
+    private record ImportLine(String key, String packageName, String line) {
+    }
+
+    /**
+     * Données d'une classe préparées pour le rendu
+     */
+    private record ClassView(ClassElement element, String imports, List<String> parents, String parentClass,
+                             List<String> interfaces, List<MethodView> methods) {
+    }
+
+    /**
+     * Méthode préparée pour le rendu ; declarationOnly pour les interfaces et méthodes abstraites
+     */
+    private record MethodView(Method method, boolean declarationOnly) {
+        String returnType() {
+            return isNotEmpty(method.getReturnType()) ? method.getReturnType() : "void";
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.diagramme.service;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.util.layout.ComponentLayout;
+import com.diagramme.util.layout.ForceDirectedLayout;
+import com.diagramme.util.layout.HierarchicalLayout;
+import com.diagramme.util.layout.IncrementalLayout;
+import com.diagramme.util.layout.LayoutAlgorithm;
+import com.diagramme.util.layout.LayoutGraph;
+import com.diagramme.util.layout.LayoutOptions;
+import com.diagramme.util.layout.LayoutReport;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+/**
+ * Service de disposition automatique des diagrammes.
+ * Les budgets d'itérations et de temps sont lus dans la configuration (app.layout.*).
+ * Hors mode incrémental, les parties non reliées du diagramme sont disposées en parallèle.
+ */
+@Service
+@Slf4j
+public class LayoutService {
+
+    /**
+     * Modes de disposition disponibles
+     */
+    public enum LayoutMode {
+        FORCE_DIRECTED,
+        HIERARCHICAL,
+        /**
+         * Place les classes ajoutées sans déplacer les autres
+         */
+        INCREMENTAL
+    }
+
+    private final LayoutOptions options;
+    private final ExecutorService executor;
+    private final ForkJoinPool componentPool;
+
+    @Autowired
+    public LayoutService(Environment env) {
+        this.options = new LayoutOptions(
+                env.getProperty("app.layout.max-iterations", Integer.class, LayoutOptions.DEFAULT_MAX_ITERATIONS),
+                env.getProperty("app.layout.time-budget-ms", Long.class, LayoutOptions.DEFAULT_TIME_BUDGET_MILLIS));
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diagram-layout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.componentPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("diagram-layout-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public LayoutOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Dispose un graphe sur le thread appelant
+     */
+    public LayoutReport layout(LayoutGraph graph, LayoutMode mode) {
+        LayoutAlgorithm algorithm = createAlgorithm(mode);
+        LayoutReport report = algorithm.layout(graph, options);
+        log.info("Disposition '{}' de {} classes : {} itérations en {} ms (stabilisée: {}, superpositions: {})",
+                report.algorithm(), report.nodeCount(), report.iterations(), report.elapsedMillis(),
+                report.converged(), report.remainingOverlaps());
+        if (!report.details().isEmpty()) {
+            log.info("Disposition '{}' : {}", report.algorithm(), report.details());
+        }
+        return report;
+    }
+
+    /**
+     * Dispose les classes d'un diagramme et met à jour leurs positions
+     */
+    public LayoutReport layout(ClassDiagram diagram, LayoutMode mode) {
+        return layout(diagram, mode, List.of());
+    }
+
+    /**
+     * Dispose les classes d'un diagramme et met à jour leurs positions
+     *
+     * @param added Classes ajoutées depuis la dernière disposition ; en mode incrémental, seules celles-ci bougent
+     */
+    public LayoutReport layout(ClassDiagram diagram, LayoutMode mode, Collection<ClassElement> added) {
+        LayoutGraph graph = graphOf(diagram, added);
+        LayoutReport report = layout(graph, mode);
+        graph.applyTo();
+        return report;
+    }
+
+    /**
+     * Dispose un diagramme en arrière-plan. La géométrie est copiée immédiatement, sur le thread appelant ;
+     * le diagramme n'est pas modifié : c'est à l'appelant d'appliquer le résultat.
+     * Annuler le résultat interrompt le calcul.
+     */
+    public CompletableFuture<LayoutResult> layoutInBackground(ClassDiagram diagram, LayoutMode mode) {
+        return layoutInBackground(diagram, mode, List.of());
+    }
+
+    /**
+     * Dispose un diagramme en arrière-plan, comme {@link #layoutInBackground(ClassDiagram, LayoutMode)}
+     *
+     * @param added Classes ajoutées depuis la dernière disposition ; en mode incrémental, seules celles-ci bougent
+     */
+    public CompletableFuture<LayoutResult> layoutInBackground(ClassDiagram diagram, LayoutMode mode,
+                                                              Collection<ClassElement> added) {
+        LayoutGraph graph = graphOf(diagram, added);
+
+        CompletableFuture<LayoutResult> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                result.complete(new LayoutResult(graph, layout(graph, mode)));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Copie la géométrie du diagramme ; toutes les classes sauf celles ajoutées sont fixées
+     */
+    private static LayoutGraph graphOf(ClassDiagram diagram, Collection<ClassElement> added) {
+        LayoutGraph graph = LayoutGraph.of(diagram.getClasses(), diagram.getRelationships());
+        Set<ClassElement> movable = Collections.newSetFromMap(new IdentityHashMap<>());
+        movable.addAll(added);
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            graph.setPinned(i, !movable.contains(graph.getNode(i)));
+        }
+        return graph;
+    }
+
+    private LayoutAlgorithm createAlgorithm(LayoutMode mode) {
+        return switch (mode) {
+            case FORCE_DIRECTED -> new ComponentLayout(ForceDirectedLayout::new, componentPool);
+            case HIERARCHICAL -> new ComponentLayout(HierarchicalLayout::new, componentPool);
+            case INCREMENTAL -> new IncrementalLayout();
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        componentPool.shutdownNow();
+    }
+
+    /**
+     * Résultat d'une disposition en arrière-plan : positions calculées et compte rendu
+     */
+    public record LayoutResult(LayoutGraph graph, LayoutReport report) {
+    }
+}
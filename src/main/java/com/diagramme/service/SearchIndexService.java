@@ -0,0 +1,346 @@
+package com.diagramme.service;
+
+import com.diagramme.util.search.SearchField;
+import com.diagramme.util.search.SearchTerms;
+import com.diagramme.util.search.SearchTerms.Criterion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche dans tous les diagrammes enregistrés : noms de classes, paquetages, attributs, méthodes et types.
+ * L'index inversé est une table (search_terms) : un terme par ligne, rattaché à la classe qui le porte,
+ * lu par l'index (term, field). Un diagramme est réindexé en entier après chaque enregistrement validé,
+ * sur un thread dédié ; plusieurs demandes pour un même diagramme en attente n'en font qu'une.
+ */
+@Service
+@Slf4j
+public class SearchIndexService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService indexer;
+
+    // Diagrammes dont l'indexation est demandée mais pas encore commencée
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public SearchIndexService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.indexer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diagram-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Réindexe un diagramme une fois la transaction en cours validée (tout de suite hors transaction)
+     */
+    public void reindexAfterCommit(Long diagramId) {
+        if (diagramId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(diagramId);
+                }
+            });
+        } else {
+            schedule(diagramId);
+        }
+    }
+
+    private void schedule(long diagramId) {
+        if (!pending.add(diagramId)) {
+            return;
+        }
+        indexer.execute(() -> {
+            // Retiré avant l'indexation : un enregistrement pendant celle-ci en demande une nouvelle
+            pending.remove(diagramId);
+            try {
+                reindex(diagramId);
+            } catch (RuntimeException e) {
+                log.error("Échec de l'indexation du diagramme {}", diagramId, e);
+            }
+        });
+    }
+
+    /**
+     * Au démarrage, indexe les diagrammes jamais indexés ou modifiés depuis leur dernière indexation
+     *
+     * @return Nombre de diagrammes à indexer
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int indexStaleDiagrams() {
+        List<Long> stale = jdbcTemplate.queryForList("SELECT d.id FROM class_diagrams d "
+                + "LEFT JOIN search_index_state s ON s.diagram_id = d.id "
+                + "WHERE s.diagram_id IS NULL OR s.indexed_at < d.modified_at", Long.class);
+        stale.forEach(this::schedule);
+        if (!stale.isEmpty()) {
+            log.info("{} diagramme(s) à indexer pour la recherche", stale.size());
+        }
+        return stale.size();
+    }
+
+    /**
+     * Attend la fin des indexations demandées jusqu'ici
+     */
+    public void awaitIndexing() {
+        try {
+            indexer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Remplace les termes d'un diagramme par ceux de son contenu en base
+     *
+     * @return Nombre de termes indexés
+     */
+    public int reindex(long diagramId) {
+        long start = System.nanoTime();
+        Integer count = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM search_terms WHERE diagram_id = ?", diagramId);
+            List<Term> terms = collectTerms(diagramId);
+            jdbcTemplate.batchUpdate("INSERT INTO search_terms (term, field, diagram_id, element_id, detail) "
+                    + "VALUES (?, ?, ?, ?, ?)", terms, BATCH_SIZE, (ps, term) -> {
+                ps.setString(1, term.term());
+                ps.setString(2, term.field().name());
+                ps.setLong(3, diagramId);
+                ps.setLong(4, term.elementId());
+                ps.setString(5, term.detail());
+            });
+            // La date de modification lue, et non l'heure courante : une modification pendant l'indexation reste à faire
+            jdbcTemplate.update("MERGE INTO search_index_state (diagram_id, indexed_at) KEY (diagram_id) "
+                    + "SELECT id, modified_at FROM class_diagrams WHERE id = ?", diagramId);
+            return terms.size();
+        });
+        log.debug("Diagramme {} indexé : {} termes en {} ms", diagramId, count,
+                (System.nanoTime() - start) / 1_000_000);
+        return count != null ? count : 0;
+    }
+
+    private List<Term> collectTerms(long diagramId) {
+        List<Term> terms = new ArrayList<>();
+        jdbcTemplate.query("SELECT d.id, d.name, c.package_name FROM diagram_elements d "
+                + "JOIN class_elements c ON c.id = d.id WHERE d.diagram_id = ?", rs -> {
+            long classId = rs.getLong(1);
+            String name = rs.getString(2);
+            String packageName = rs.getString(3);
+            String qualifiedName = packageName == null || packageName.isEmpty() ? name : packageName + "." + name;
+            add(terms, SearchTerms.name(name), SearchField.CLASS, classId, qualifiedName);
+            add(terms, SearchTerms.name(packageName), SearchField.PACKAGE, classId, qualifiedName);
+        }, diagramId);
+
+        jdbcTemplate.query("SELECT a.class_id, a.name, a.type FROM attributes a "
+                + "JOIN diagram_elements d ON d.id = a.class_id WHERE d.diagram_id = ?", rs -> {
+            long classId = rs.getLong(1);
+            String detail = rs.getString(2) + " : " + rs.getString(3);
+            add(terms, SearchTerms.name(rs.getString(2)), SearchField.ATTRIBUTE, classId, detail);
+            for (String type : SearchTerms.type(rs.getString(3))) {
+                add(terms, type, SearchField.TYPE, classId, detail);
+            }
+        }, diagramId);
+
+        // Types des paramètres, par méthode, dans l'ordre de création
+        Map<Long, List<String>> parameterTypes = new HashMap<>();
+        jdbcTemplate.query("SELECT p.method_id, p.type FROM parameters p JOIN methods m ON m.id = p.method_id "
+                + "JOIN diagram_elements d ON d.id = m.class_id WHERE d.diagram_id = ? ORDER BY p.id", rs -> {
+            parameterTypes.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+        }, diagramId);
+
+        jdbcTemplate.query("SELECT m.id, m.class_id, m.name, m.return_type FROM methods m "
+                + "JOIN diagram_elements d ON d.id = m.class_id WHERE d.diagram_id = ?", rs -> {
+            long classId = rs.getLong(2);
+            List<String> parameters = parameterTypes.getOrDefault(rs.getLong(1), List.of());
+            String returnType = rs.getString(4);
+            String detail = rs.getString(3) + "(" + String.join(", ", parameters) + ") : " + returnType;
+
+            add(terms, SearchTerms.name(rs.getString(3)), SearchField.METHOD, classId, detail);
+            Set<String> types = SearchTerms.type(returnType);
+            for (String type : types) {
+                add(terms, type, SearchField.RETURNS, classId, detail);
+            }
+            Set<String> allTypes = new LinkedHashSet<>(types);
+            parameters.forEach(parameter -> allTypes.addAll(SearchTerms.type(parameter)));
+            for (String type : allTypes) {
+                add(terms, type, SearchField.TYPE, classId, detail);
+            }
+        }, diagramId);
+        return terms;
+    }
+
+    private static void add(List<Term> terms, String term, SearchField field, long elementId, String detail) {
+        if (term != null) {
+            String truncated = detail != null && detail.length() > 1024 ? detail.substring(0, 1024) : detail;
+            terms.add(new Term(term, field, elementId, truncated));
+        }
+    }
+
+    /**
+     * Éléments correspondant à une requête (voir {@link SearchTerms#parse(String)}).
+     * Avec plusieurs critères, seuls les diagrammes qui les satisfont tous sont retenus.
+     *
+     * @param limit Nombre maximal de résultats
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<Criterion> criteria = SearchTerms.parse(query);
+        if (criteria.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Long> diagrams = diagramsMatchingAll(criteria);
+        if (diagrams != null && diagrams.isEmpty()) {
+            return List.of();
+        }
+
+        Set<SearchHit> hits = new LinkedHashSet<>();
+        for (Criterion criterion : criteria) {
+            List<Object> args = new ArrayList<>();
+            // Jointures externes : H2 ne les réordonne pas, la lecture part de l'index des termes. Sinon, faute de
+            // savoir estimer un LIKE paramétré, il commence par parcourir les diagrammes
+            String sql = "SELECT t.diagram_id, d.name, t.element_id, e.name, t.field, t.detail FROM search_terms t "
+                    + "LEFT JOIN class_diagrams d ON d.id = t.diagram_id "
+                    + "LEFT JOIN diagram_elements e ON e.id = t.element_id "
+                    + "WHERE " + condition(criterion, args) + " AND d.id IS NOT NULL AND e.id IS NOT NULL";
+            if (diagrams == null) {
+                sql += " LIMIT ?";
+                args.add(limit - hits.size());
+            }
+            jdbcTemplate.query(sql, rs -> {
+                // Lecture arrêtée à la limite : les lignes restantes ne sont pas converties
+                while (hits.size() < limit && rs.next()) {
+                    if (diagrams == null || diagrams.contains(rs.getLong(1))) {
+                        hits.add(new SearchHit(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                                SearchField.valueOf(rs.getString(5)), rs.getString(6)));
+                    }
+                }
+                return null;
+            }, args.toArray());
+            if (hits.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(hits);
+    }
+
+    /**
+     * Diagrammes correspondant à une requête, du plus grand nombre de correspondances au plus petit.
+     * Les correspondances comptées sont celles du premier critère.
+     */
+    public List<DiagramMatch> findDiagrams(String query) {
+        List<Criterion> criteria = SearchTerms.parse(query);
+        if (criteria.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> diagrams = diagramsMatchingAll(criteria);
+        if (diagrams != null && diagrams.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        // Jointure externe, pour partir de l'index des termes comme dans search
+        String sql = "SELECT t.diagram_id, d.name, COUNT(*) AS hits FROM search_terms t "
+                + "LEFT JOIN class_diagrams d ON d.id = t.diagram_id WHERE " + condition(criteria.get(0), args)
+                + " AND d.id IS NOT NULL GROUP BY t.diagram_id, d.name ORDER BY hits DESC, d.name";
+        List<DiagramMatch> matches = jdbcTemplate.query(sql, (rs, rowNum) -> new DiagramMatch(rs.getLong(1),
+                rs.getString(2), rs.getInt(3)), args.toArray());
+        if (diagrams != null) {
+            matches.removeIf(match -> !diagrams.contains(match.diagramId()));
+        }
+        return matches;
+    }
+
+    /**
+     * Condition d'un critère, servie par l'index (term, field)
+     */
+    private static String condition(Criterion criterion, List<Object> args) {
+        String sql;
+        if (criterion.prefix()) {
+            sql = "t.term LIKE ? ESCAPE '\\'";
+            args.add(criterion.term().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        } else {
+            sql = "t.term = ?";
+            args.add(criterion.term());
+        }
+        if (criterion.field() != null) {
+            sql += " AND t.field = ?";
+            args.add(criterion.field().name());
+        }
+        return sql;
+    }
+
+    /**
+     * Diagrammes qui satisfont tous les critères, null s'il n'y en a qu'un. Calculés par une requête à part et
+     * filtrés ensuite : H2 réévalue une sous-requête paramétrée (IN, table dérivée) pour chaque ligne
+     */
+    private Set<Long> diagramsMatchingAll(List<Criterion> criteria) {
+        if (criteria.size() < 2) {
+            return null;
+        }
+        List<Object> args = new ArrayList<>();
+        List<String> selects = new ArrayList<>();
+        for (Criterion criterion : criteria) {
+            selects.add("SELECT t.diagram_id FROM search_terms t WHERE " + condition(criterion, args));
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(String.join(" INTERSECT ", selects), Long.class,
+                args.toArray()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Les indexations perdues sont refaites au prochain démarrage (search_index_state)
+        indexer.shutdownNow();
+        try {
+            indexer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Élément trouvé : la classe qui porte le terme, et le membre concerné
+     *
+     * @param detail Nom qualifié de la classe, signature de l'attribut ou de la méthode
+     */
+    public record SearchHit(long diagramId, String diagramName, long elementId, String elementName,
+                            SearchField field, String detail) {
+    }
+
+    /**
+     * Diagramme trouvé, avec le nombre de termes correspondants
+     */
+    public record DiagramMatch(long diagramId, String diagramName, int hits) {
+    }
+
+    private record Term(String term, SearchField field, long elementId, String detail) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.diagramme.service;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.util.UmlRule;
+import com.diagramme.util.UmlRuleEngine;
+import com.diagramme.util.UmlValidator;
+import com.diagramme.util.ValidationContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service de validation UML en arrière-plan.
+ * Chaque règle est évaluée sur un cœur distinct, à partir d'une copie figée du diagramme,
+ * et ses résultats sont publiés dès qu'ils sont disponibles. Les règles partagent un même contexte :
+ * le graphe d'héritage n'est construit qu'une fois par validation.
+ */
+@Service
+@Slf4j
+public class ValidationService {
+
+    private final ExecutorService executor;
+
+    public ValidationService() {
+        this(List.of());
+    }
+
+    /**
+     * Les règles déclarées comme beans s'ajoutent aux règles intégrées du moteur partagé
+     * ({@link UmlValidator#getEngine()}), utilisé par toutes les validations de l'application
+     */
+    @Autowired
+    public ValidationService(List<UmlRule> rules) {
+        for (UmlRule rule : rules) {
+            UmlValidator.getEngine().register(rule);
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), UmlValidator.getEngine().getRules().size());
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "uml-validation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lance la validation d'un diagramme en arrière-plan.
+     * La copie du diagramme est faite immédiatement : l'appel doit avoir lieu sur le thread qui modifie
+     * le diagramme (thread JavaFX pour l'éditeur). Les notifications sont transmises via {@code callbackExecutor}
+     * et ne sont plus émises une fois l'exécution annulée, à condition d'annuler depuis ce même exécuteur.
+     */
+    public ValidationRun validateInBackground(ClassDiagram diagram, Executor callbackExecutor, ValidationListener listener) {
+        ClassDiagram snapshot = UmlValidator.snapshot(diagram);
+        UmlRuleEngine engine = UmlValidator.getEngine();
+        ValidationContext context = engine.createContext(snapshot);
+
+        ValidationRun run = new ValidationRun();
+        AtomicInteger remaining = new AtomicInteger(engine.getRules().size());
+
+        for (UmlRule rule : engine.getRules()) {
+            run.futures.add(executor.submit(() -> {
+                if (run.isCancelled()) {
+                    return;
+                }
+                try {
+                    List<String> issues = engine.validate(context, rule);
+                    callbackExecutor.execute(() -> {
+                        if (!run.isCancelled()) {
+                            listener.onIssues(rule, issues);
+                        }
+                    });
+                } catch (Exception e) {
+                    log.error("Erreur lors de la validation ({})", rule.getName(), e);
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Validation en arrière-plan terminée\n{}", engine.getMetrics().getSummary());
+                        }
+                        callbackExecutor.execute(() -> {
+                            if (!run.isCancelled()) {
+                                run.completed = true;
+                                listener.onComplete();
+                            }
+                        });
+                    }
+                }
+            }));
+        }
+
+        return run;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Réception des résultats d'une validation en arrière-plan
+     */
+    public interface ValidationListener {
+
+        /**
+         * Problèmes trouvés par une règle (liste vide si aucun)
+         */
+        void onIssues(UmlRule rule, List<String> issues);
+
+        /**
+         * Toutes les règles ont été évaluées
+         */
+        default void onComplete() {
+        }
+    }
+
+    /**
+     * Exécution en cours d'une validation, annulable
+     */
+    public static final class ValidationRun {
+
+        private final List<Future<?>> futures = new ArrayList<>();
+        private volatile boolean cancelled;
+        private volatile boolean completed;
+
+        /**
+         * Annule la validation : les règles non commencées ne sont pas évaluées
+         * et aucun résultat n'est plus publié
+         */
+        public void cancel() {
+            cancelled = true;
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+}
@@ -5,13 +5,26 @@ import com.diagramme.model.ClassElement;
 import com.diagramme.model.DiagramElement;
 import com.diagramme.model.RelationshipElement;
 import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.service.AutoSaveService;
 import com.diagramme.service.DiagramService;
+import com.diagramme.service.EditJournalService;
+import com.diagramme.service.LayoutService;
+import com.diagramme.service.ValidationService;
 import com.diagramme.ui.component.ClassNodeComponent;
 import com.diagramme.ui.component.RelationshipComponent;
 import com.diagramme.ui.dialog.ClassDialog;
 import com.diagramme.ui.dialog.RelationshipDialog;
+import com.diagramme.ui.dialog.ValidationIssuesWindow;
 import com.diagramme.util.AlertUtils;
+import com.diagramme.util.IncrementalUmlValidator;
+import com.diagramme.util.UmlRule;
 import com.diagramme.util.UmlValidator;
+import com.diagramme.util.layout.LayoutGraph;
+import com.diagramme.util.routing.OrthogonalRouter;
+import javafx.animation.Interpolator;
+import javafx.animation.PauseTransition;
+import javafx.animation.Transition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseButton;
@@ -20,20 +33,25 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur de l'éditeur de diagramme
  */
 @Component
+@Profile("!batch")
 @Slf4j
 public class DiagramEditorController {
 
@@ -45,6 +63,10 @@ public class DiagramEditorController {
     @FXML private ToggleButton addRelationshipButton;
 
     private final DiagramService diagramService;
+    private final ValidationService validationService;
+    private final LayoutService layoutService;
+    private final AutoSaveService autoSaveService;
+    private final EditJournalService editJournalService;
     private final ApplicationContext applicationContext;
 
     /**
@@ -73,6 +95,10 @@ public class DiagramEditorController {
 
     private boolean unsavedChanges = false;
 
+    // Nombre de modifications depuis l'ouverture : la sauvegarde automatique s'en sert pour savoir
+    // si le diagramme a changé depuis sa copie
+    private long changeCount;
+
     // Mode d'édition courant
     private enum EditMode {
         SELECT, ADD_CLASS, ADD_INTERFACE, ADD_RELATIONSHIP
@@ -99,9 +125,34 @@ public class DiagramEditorController {
     private final Deque<ClassDiagram> undoStack = new ArrayDeque<>();
     private final Deque<ClassDiagram> redoStack = new ArrayDeque<>();
 
+    // Validation UML au fil de l'édition
+    private IncrementalUmlValidator liveValidator;
+
+    // Validation complète en arrière-plan, relancée après chaque rafale de modifications
+    private static final Duration BACKGROUND_VALIDATION_DELAY = Duration.millis(200);
+    private ValidationIssuesWindow issuesWindow;
+    private ValidationService.ValidationRun validationRun;
+    private PauseTransition validationDelay;
+
+    // Disposition automatique calculée en arrière-plan
+    private static final Duration LAYOUT_ANIMATION_DURATION = Duration.millis(400);
+    private CompletableFuture<LayoutService.LayoutResult> layoutTask;
+
+    // Classes ajoutées depuis la dernière disposition, seules déplacées par la disposition incrémentale
+    private final Set<ClassElement> addedSinceLayout = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Routage orthogonal des relations, recalculé pour les seules relations touchées par une modification
+    private final OrthogonalRouter router = new OrthogonalRouter();
+
     @Autowired
-    public DiagramEditorController(DiagramService diagramService, ApplicationContext applicationContext) {
+    public DiagramEditorController(DiagramService diagramService, ValidationService validationService,
+                                   LayoutService layoutService, AutoSaveService autoSaveService,
+                                   EditJournalService editJournalService, ApplicationContext applicationContext) {
         this.diagramService = diagramService;
+        this.autoSaveService = autoSaveService;
+        this.editJournalService = editJournalService;
+        this.validationService = validationService;
+        this.layoutService = layoutService;
         this.applicationContext = applicationContext;
     }
 
@@ -236,13 +287,15 @@ public class DiagramEditorController {
 
                 // Ajouter au diagramme
                 diagram.addElement(classElement);
+                addedSinceLayout.add(classElement);
 
                 // Créer le composant visuel
                 ClassNodeComponent classNode = new ClassNodeComponent(classElement, this);
                 diagramCanvas.getChildren().add(classNode);
+                showValidationChanges(liveValidator.elementAdded(classElement));
 
                 // Marquer comme modifié
-                setUnsavedChanges(true);
+                elementChanged(classElement);
 
                 // Revenir en mode sélection
                 setEditMode(EditMode.SELECT);
@@ -295,16 +348,18 @@ public class DiagramEditorController {
                     // Sauvegarder l'état actuel pour undo
                     saveStateForUndo();
 
-                    // Ajouter la relation au diagramme
+                    // Ajouter la relation au diagramme et calculer son tracé
                     diagram.addElement(relationship);
+                    router.update(diagram);
 
                     // Créer le composant visuel
                     RelationshipComponent relationComponent = new RelationshipComponent(
                             relationship, relationSourceNode, targetNode, this);
                     diagramCanvas.getChildren().add(0, relationComponent); // Ajouter en arrière-plan
+                    showValidationChanges(liveValidator.elementAdded(relationship));
 
                     // Marquer comme modifié
-                    setUnsavedChanges(true);
+                    elementChanged(relationship);
 
                     // Revenir en mode sélection
                     setEditMode(EditMode.SELECT);
@@ -424,7 +479,7 @@ public class DiagramEditorController {
         TextField nameField = new TextField(diagram.getName());
         nameField.textProperty().addListener((obs, oldVal, newVal) -> {
             diagram.setName(newVal);
-            setUnsavedChanges(true);
+            diagramPropertiesChanged();
         });
 
         // Description
@@ -432,7 +487,7 @@ public class DiagramEditorController {
         descriptionArea.setPrefRowCount(3);
         descriptionArea.textProperty().addListener((obs, oldVal, newVal) -> {
             diagram.setDescription(newVal);
-            setUnsavedChanges(true);
+            diagramPropertiesChanged();
         });
 
         // Couleur de fond
@@ -440,7 +495,7 @@ public class DiagramEditorController {
         bgColorPicker.setOnAction(event -> {
             diagram.setBackgroundColor(bgColorPicker.getValue().toString());
             diagramCanvas.setStyle("-fx-background-color: " + diagram.getBackgroundColor() + ";");
-            setUnsavedChanges(true);
+            diagramPropertiesChanged();
         });
 
         // Taille de la grille
@@ -448,7 +503,7 @@ public class DiagramEditorController {
         gridSizeSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             diagram.setGridSize(newVal);
             redrawGrid();
-            setUnsavedChanges(true);
+            diagramPropertiesChanged();
         });
 
         // Ajouter tous les contrôles au panneau
@@ -462,6 +517,14 @@ public class DiagramEditorController {
         optimizeLayoutButton.setMaxWidth(Double.MAX_VALUE);
         optimizeLayoutButton.setOnAction(event -> optimizeLayout());
 
+        Button hierarchicalLayoutButton = new Button("Disposition hiérarchique");
+        hierarchicalLayoutButton.setMaxWidth(Double.MAX_VALUE);
+        hierarchicalLayoutButton.setOnAction(event -> hierarchicalLayout());
+
+        Button placeNewClassesButton = new Button("Placer les nouvelles classes");
+        placeNewClassesButton.setMaxWidth(Double.MAX_VALUE);
+        placeNewClassesButton.setOnAction(event -> placeNewClasses());
+
         Button exportButton = new Button("Exporter...");
         exportButton.setMaxWidth(Double.MAX_VALUE);
         exportButton.setOnAction(event -> mainController.onExportDiagram());
@@ -469,6 +532,8 @@ public class DiagramEditorController {
         panel.getChildren().addAll(
                 new Separator(),
                 optimizeLayoutButton,
+                hierarchicalLayoutButton,
+                placeNewClassesButton,
                 exportButton
         );
     }
@@ -568,7 +633,8 @@ public class DiagramEditorController {
         nameField.textProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setName(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            showValidationChanges(liveValidator.elementUpdated(classElement));
+            elementChanged(classElement);
         });
 
         // Package
@@ -576,7 +642,8 @@ public class DiagramEditorController {
         packageField.textProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setPackageName(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            showValidationChanges(liveValidator.elementUpdated(classElement));
+            elementChanged(classElement);
         });
 
         // Classe abstraite
@@ -586,7 +653,7 @@ public class DiagramEditorController {
         abstractCheckBox.selectedProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setAbstract(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Couleur de fond
@@ -594,7 +661,7 @@ public class DiagramEditorController {
         bgColorPicker.setOnAction(event -> {
             classElement.setBackgroundColor(bgColorPicker.getValue().toString());
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Couleur de bordure
@@ -602,7 +669,7 @@ public class DiagramEditorController {
         borderColorPicker.setOnAction(event -> {
             classElement.setBorderColor(borderColorPicker.getValue().toString());
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Position X
@@ -611,7 +678,7 @@ public class DiagramEditorController {
         xSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setX(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Position Y
@@ -620,7 +687,7 @@ public class DiagramEditorController {
         ySpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setY(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Largeur
@@ -629,7 +696,7 @@ public class DiagramEditorController {
         widthSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setWidth(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Hauteur
@@ -638,7 +705,7 @@ public class DiagramEditorController {
         heightSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             classElement.setHeight(newVal);
             refreshNodeForElement(classElement);
-            setUnsavedChanges(true);
+            elementChanged(classElement);
         });
 
         // Ajouter tous les contrôles au panneau
@@ -690,7 +757,7 @@ public class DiagramEditorController {
         nameField.textProperty().addListener((obs, oldVal, newVal) -> {
             relationship.setName(newVal);
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            elementChanged(relationship);
         });
 
         // Type de relation
@@ -700,7 +767,8 @@ public class DiagramEditorController {
         typeComboBox.setOnAction(event -> {
             relationship.setType(typeComboBox.getValue());
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            showValidationChanges(liveValidator.elementUpdated(relationship));
+            elementChanged(relationship);
         });
 
         // Source
@@ -711,7 +779,7 @@ public class DiagramEditorController {
         sourceRoleField.textProperty().addListener((obs, oldVal, newVal) -> {
             relationship.setSourceRole(newVal);
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            elementChanged(relationship);
         });
 
         // Multiplicité source
@@ -719,7 +787,8 @@ public class DiagramEditorController {
         sourceMultiplicityField.textProperty().addListener((obs, oldVal, newVal) -> {
             relationship.setSourceMultiplicity(newVal);
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            showValidationChanges(liveValidator.elementUpdated(relationship));
+            elementChanged(relationship);
         });
 
         // Cible
@@ -730,7 +799,7 @@ public class DiagramEditorController {
         targetRoleField.textProperty().addListener((obs, oldVal, newVal) -> {
             relationship.setTargetRole(newVal);
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            elementChanged(relationship);
         });
 
         // Multiplicité cible
@@ -738,7 +807,8 @@ public class DiagramEditorController {
         targetMultiplicityField.textProperty().addListener((obs, oldVal, newVal) -> {
             relationship.setTargetMultiplicity(newVal);
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            showValidationChanges(liveValidator.elementUpdated(relationship));
+            elementChanged(relationship);
         });
 
         // Couleur de ligne
@@ -746,7 +816,7 @@ public class DiagramEditorController {
         lineColorPicker.setOnAction(event -> {
             relationship.setLineColor(lineColorPicker.getValue().toString());
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            elementChanged(relationship);
         });
 
         // Épaisseur de ligne
@@ -754,7 +824,7 @@ public class DiagramEditorController {
         lineWidthSpinner.valueProperty().addListener((obs, oldVal, newVal) -> {
             relationship.setLineWidth(newVal);
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            elementChanged(relationship);
         });
 
         // Style de ligne
@@ -764,7 +834,7 @@ public class DiagramEditorController {
         lineStyleComboBox.setOnAction(event -> {
             relationship.setLineStyle(lineStyleComboBox.getValue());
             refreshNodeForElement(relationship);
-            setUnsavedChanges(true);
+            elementChanged(relationship);
         });
 
         // Ajouter tous les contrôles au panneau
@@ -848,13 +918,14 @@ public class DiagramEditorController {
                 saveStateForUndo();
 
                 // Mettre à jour l'élément
-                diagramService.updateClassElement(classElement.getId(), updatedElement);
+                autoSaveService.writeExclusively(() -> diagramService.updateClassElement(classElement.getId(), updatedElement));
 
                 // Rafraîchir l'affichage
                 refreshNodeForElement(classElement);
+                showValidationChanges(liveValidator.elementUpdated(classElement));
 
                 // Marquer comme modifié
-                setUnsavedChanges(true);
+                elementChanged(classElement);
 
             } catch (Exception e) {
                 log.error("Erreur lors de la mise à jour de l'élément de classe", e);
@@ -882,10 +953,11 @@ public class DiagramEditorController {
                 saveStateForUndo();
 
                 // Supprimer l'élément du diagramme
-                diagramService.deleteClassElement(classElement.getId());
+                autoSaveService.writeExclusively(() -> diagramService.deleteClassElement(classElement.getId()));
 
                 // Supprimer du modèle
                 diagram.removeElement(classElement);
+                liveValidator.elementRemoved(classElement);
 
                 // Supprimer de la sélection
                 selectedElements.remove(classElement);
@@ -894,7 +966,7 @@ public class DiagramEditorController {
                 refreshDiagram();
 
                 // Marquer comme modifié
-                setUnsavedChanges(true);
+                elementsRemoved(List.of(classElement));
 
             } catch (Exception e) {
                 log.error("Erreur lors de la suppression de l'élément de classe", e);
@@ -922,13 +994,14 @@ public class DiagramEditorController {
                 saveStateForUndo();
 
                 // Mettre à jour la relation
-                diagramService.updateRelationship(relationship.getId(), updatedRelationship);
+                autoSaveService.writeExclusively(() -> diagramService.updateRelationship(relationship.getId(), updatedRelationship));
 
                 // Rafraîchir l'affichage
                 refreshNodeForElement(relationship);
+                showValidationChanges(liveValidator.elementUpdated(relationship));
 
                 // Marquer comme modifié
-                setUnsavedChanges(true);
+                elementChanged(relationship);
 
             } catch (Exception e) {
                 log.error("Erreur lors de la mise à jour de la relation", e);
@@ -956,10 +1029,11 @@ public class DiagramEditorController {
                 saveStateForUndo();
 
                 // Supprimer la relation du diagramme
-                diagramService.deleteRelationship(relationship.getId());
+                autoSaveService.writeExclusively(() -> diagramService.deleteRelationship(relationship.getId()));
 
                 // Supprimer du modèle
                 diagram.removeElement(relationship);
+                liveValidator.elementRemoved(relationship);
 
                 // Supprimer de la sélection
                 selectedElements.remove(relationship);
@@ -968,7 +1042,7 @@ public class DiagramEditorController {
                 refreshDiagram();
 
                 // Marquer comme modifié
-                setUnsavedChanges(true);
+                elementsRemoved(List.of(relationship));
 
             } catch (Exception e) {
                 log.error("Erreur lors de la suppression de la relation", e);
@@ -996,6 +1070,24 @@ public class DiagramEditorController {
         }
     }
 
+    /**
+     * Met à jour les marqueurs de validation des éléments dont les problèmes ont changé
+     */
+    private void showValidationChanges(Set<DiagramElement> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        for (javafx.scene.Node node : diagramCanvas.getChildren()) {
+            if (node instanceof ClassNodeComponent classNode && changed.contains(classNode.getClassElement())) {
+                classNode.setValidationIssues(liveValidator.getIssues(classNode.getClassElement()));
+            } else if (node instanceof RelationshipComponent relationComponent &&
+                    changed.contains(relationComponent.getRelationship())) {
+                relationComponent.setValidationIssues(liveValidator.getIssues(relationComponent.getRelationship()));
+            }
+        }
+    }
+
     /**
      * Rafraîchit l'affichage complet du diagramme
      */
@@ -1015,11 +1107,13 @@ public class DiagramEditorController {
         // Dessiner les classes
         for (ClassElement classElement : diagram.getClasses()) {
             ClassNodeComponent classNode = new ClassNodeComponent(classElement, this);
+            classNode.setValidationIssues(liveValidator.getIssues(classElement));
             diagramCanvas.getChildren().add(classNode);
             nodeMap.put(classElement, classNode);
         }
 
-        // Dessiner les relations
+        // Dessiner les relations, après avoir recalculé les routes touchées par les dernières modifications
+        routesChanged(router.update(diagram));
         for (RelationshipElement relationship : diagram.getRelationships()) {
             ClassNodeComponent sourceNode = nodeMap.get(relationship.getSourceElement());
             ClassNodeComponent targetNode = nodeMap.get(relationship.getTargetElement());
@@ -1027,6 +1121,7 @@ public class DiagramEditorController {
             if (sourceNode != null && targetNode != null) {
                 RelationshipComponent relationComponent = new RelationshipComponent(
                         relationship, sourceNode, targetNode, this);
+                relationComponent.setValidationIssues(liveValidator.getIssues(relationship));
                 // Ajouter en arrière-plan
                 diagramCanvas.getChildren().add(0, relationComponent);
             }
@@ -1122,7 +1217,7 @@ public class DiagramEditorController {
         refreshDiagram();
 
         // Marquer comme modifié
-        setUnsavedChanges(true);
+        elementsMoved(selectedElements);
     }
 
     /**
@@ -1151,7 +1246,7 @@ public class DiagramEditorController {
         refreshDiagram();
 
         // Marquer comme modifié
-        setUnsavedChanges(true);
+        elementsMoved(selectedElements);
     }
 
     /**
@@ -1250,6 +1345,9 @@ public class DiagramEditorController {
 
                 // Ajouter au diagramme
                 diagram.addElement(newElement);
+                addedSinceLayout.add(newElement);
+                liveValidator.elementAdded(newElement);
+                editJournalService.recordElement(diagram, newElement);
 
                 // Sélectionner l'élément nouvellement créé
                 selectElement(newElement);
@@ -1289,19 +1387,29 @@ public class DiagramEditorController {
                 // Faire une copie de la liste pour éviter les problèmes de modification pendant l'itération
                 List<DiagramElement> elementsToDelete = new ArrayList<>(selectedElements);
 
-                // Supprimer d'abord les relations
+                // Une seule suppression en base pour toute la sélection
+                List<Long> classIds = new ArrayList<>();
+                List<Long> relationshipIds = new ArrayList<>();
+                for (DiagramElement element : elementsToDelete) {
+                    if (element instanceof ClassElement) {
+                        classIds.add(element.getId());
+                    } else if (element instanceof RelationshipElement) {
+                        relationshipIds.add(element.getId());
+                    }
+                }
+                autoSaveService.writeExclusively(() -> diagramService.deleteElements(classIds, relationshipIds));
+
+                // Supprimer d'abord les relations du modèle, puis les classes
                 for (DiagramElement element : elementsToDelete) {
                     if (element instanceof RelationshipElement relationship) {
-                        diagramService.deleteRelationship(relationship.getId());
                         diagram.removeElement(relationship);
+                        liveValidator.elementRemoved(relationship);
                     }
                 }
-
-                // Puis supprimer les classes
                 for (DiagramElement element : elementsToDelete) {
                     if (element instanceof ClassElement classElement) {
-                        diagramService.deleteClassElement(classElement.getId());
                         diagram.removeElement(classElement);
+                        liveValidator.elementRemoved(classElement);
                     }
                 }
 
@@ -1312,7 +1420,7 @@ public class DiagramEditorController {
                 refreshDiagram();
 
                 // Marquer comme modifié
-                setUnsavedChanges(true);
+                elementsRemoved(elementsToDelete);
 
                 updateStatusMessage(elementsToDelete.size() + " élément(s) supprimé(s)");
 
@@ -1428,7 +1536,7 @@ public class DiagramEditorController {
         showGrid = !showGrid;
         diagram.setShowGrid(showGrid);
         redrawGrid();
-        setUnsavedChanges(true);
+        diagramPropertiesChanged();
     }
 
     /**
@@ -1437,60 +1545,198 @@ public class DiagramEditorController {
     public void toggleSnapToGrid() {
         snapToGrid = !snapToGrid;
         diagram.setSnapToGrid(snapToGrid);
-        setUnsavedChanges(true);
+        diagramPropertiesChanged();
     }
 
     /**
-     * Vérifie la validité UML du diagramme
+     * Vérifie la validité UML du diagramme en arrière-plan et affiche les problèmes dans une fenêtre non modale,
+     * tenue à jour tant qu'elle reste ouverte
      */
     public void checkUmlValidity() {
-        List<String> issues = UmlValidator.validateDiagram(diagram);
-
-        if (issues.isEmpty()) {
-            AlertUtils.showInfoDialog("Validation UML",
-                    "Diagramme valide",
-                    "Le diagramme est conforme aux règles UML.");
-        } else {
-            // Créer la liste des problèmes
-            StringBuilder sb = new StringBuilder();
-            for (String issue : issues) {
-                sb.append("• ").append(issue).append("\n");
-            }
+        if (issuesWindow == null) {
+            issuesWindow = new ValidationIssuesWindow(diagramCanvas.getScene().getWindow());
+            issuesWindow.setOnHidden(event -> cancelBackgroundValidation());
+        }
+        issuesWindow.show();
+        issuesWindow.toFront();
+
+        startBackgroundValidation();
+    }
 
-            AlertUtils.showWarningDialog("Validation UML",
-                    "Problèmes de validation UML",
-                    sb.toString());
+    /**
+     * Relance la validation en arrière-plan une fois les modifications terminées,
+     * si la fenêtre des problèmes est ouverte. L'exécution en cours, devenue obsolète, est annulée.
+     */
+    private void scheduleBackgroundValidation() {
+        if (issuesWindow == null || !issuesWindow.isShowing()) {
+            return;
+        }
+        cancelBackgroundValidation();
+        issuesWindow.validationStarted();
+
+        if (validationDelay == null) {
+            validationDelay = new PauseTransition(BACKGROUND_VALIDATION_DELAY);
+            validationDelay.setOnFinished(event -> startBackgroundValidation());
         }
+        validationDelay.playFromStart();
     }
 
     /**
-     * Optimise la disposition des éléments du diagramme
+     * Lance la validation sur une copie du diagramme ; les résultats sont affichés dès leur arrivée
+     */
+    private void startBackgroundValidation() {
+        cancelBackgroundValidation();
+        if (diagram == null) {
+            return;
+        }
+        issuesWindow.validationStarted();
+
+        validationRun = validationService.validateInBackground(diagram, Platform::runLater,
+                new ValidationService.ValidationListener() {
+                    @Override
+                    public void onIssues(UmlRule rule, List<String> issues) {
+                        issuesWindow.showIssues(rule, issues);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        issuesWindow.validationCompleted();
+                    }
+                });
+    }
+
+    private void cancelBackgroundValidation() {
+        if (validationDelay != null) {
+            validationDelay.stop();
+        }
+        if (validationRun != null) {
+            validationRun.cancel();
+            validationRun = null;
+        }
+    }
+
+    /**
+     * Optimise la disposition des éléments du diagramme.
+     * Le calcul se fait en arrière-plan ; les classes glissent ensuite vers leurs nouvelles positions.
      */
     public void optimizeLayout() {
-        try {
-            // Sauvegarder l'état actuel pour undo
-            saveStateForUndo();
+        applyLayout(LayoutService.LayoutMode.FORCE_DIRECTED);
+    }
 
-            // Optimiser la disposition
-            ClassDiagram optimizedDiagram = diagramService.optimizeLayout(diagram.getId());
+    /**
+     * Dispose le diagramme en couches : les classes parentes et les interfaces au-dessus de leurs sous-classes
+     */
+    public void hierarchicalLayout() {
+        applyLayout(LayoutService.LayoutMode.HIERARCHICAL);
+    }
 
-            // Mettre à jour le diagramme
-            diagram = optimizedDiagram;
+    /**
+     * Place les classes ajoutées depuis la dernière disposition dans l'espace libre proche de leurs voisins,
+     * sans déplacer les autres
+     */
+    public void placeNewClasses() {
+        List<ClassElement> added = diagram.getClasses().stream()
+                .filter(addedSinceLayout::contains)
+                .toList();
+        if (added.isEmpty()) {
+            updateStatusMessage("Aucune nouvelle classe à placer");
+            return;
+        }
+        applyLayout(LayoutService.LayoutMode.INCREMENTAL, added);
+    }
 
-            // Rafraîchir l'affichage
-            refreshDiagram();
+    private void applyLayout(LayoutService.LayoutMode mode) {
+        applyLayout(mode, List.of());
+    }
 
-            // Marquer comme modifié
-            setUnsavedChanges(true);
+    private void applyLayout(LayoutService.LayoutMode mode, List<ClassElement> added) {
+        if (layoutTask != null) {
+            layoutTask.cancel(true);
+        }
 
-            updateStatusMessage("Disposition optimisée");
+        ClassDiagram layoutDiagram = diagram;
+        updateStatusMessage("Optimisation de la disposition...");
 
-        } catch (Exception e) {
-            log.error("Erreur lors de l'optimisation de la disposition", e);
-            AlertUtils.showErrorDialog("Optimisation de la disposition",
-                    "Erreur lors de l'optimisation de la disposition",
-                    e.getMessage());
+        CompletableFuture<LayoutService.LayoutResult> task =
+                layoutService.layoutInBackground(diagram, mode, added);
+        layoutTask = task;
+        task.whenComplete((result, error) -> Platform.runLater(() -> {
+            // Résultat obsolète : disposition relancée ou diagramme remplacé entre-temps
+            if (task != layoutTask || diagram != layoutDiagram) {
+                return;
+            }
+            layoutTask = null;
+
+            if (error != null) {
+                if (!(error instanceof CancellationException)) {
+                    log.error("Erreur lors de l'optimisation de la disposition", error);
+                    AlertUtils.showErrorDialog("Optimisation de la disposition",
+                            "Erreur lors de l'optimisation de la disposition",
+                            error.getMessage());
+                }
+                return;
+            }
+            animateLayout(result);
+        }));
+    }
+
+    /**
+     * Déplace progressivement les classes vers les positions calculées, puis les enregistre dans le modèle
+     */
+    private void animateLayout(LayoutService.LayoutResult result) {
+        // Sauvegarder l'état actuel pour undo
+        saveStateForUndo();
+
+        LayoutGraph graph = result.graph();
+        Map<ClassElement, ClassNodeComponent> components = new IdentityHashMap<>();
+        List<RelationshipComponent> relationComponents = new ArrayList<>();
+        for (javafx.scene.Node node : diagramCanvas.getChildren()) {
+            if (node instanceof ClassNodeComponent classNode) {
+                components.put(classNode.getClassElement(), classNode);
+            } else if (node instanceof RelationshipComponent relationComponent) {
+                relationComponents.add(relationComponent);
+            }
         }
+
+        int n = graph.getNodeCount();
+        ClassNodeComponent[] nodes = new ClassNodeComponent[n];
+        double[] fromX = new double[n];
+        double[] fromY = new double[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = components.get(graph.getNode(i));
+            fromX[i] = graph.getNode(i).getX();
+            fromY[i] = graph.getNode(i).getY();
+        }
+
+        Transition animation = new Transition() {
+            {
+                setCycleDuration(LAYOUT_ANIMATION_DURATION);
+                setInterpolator(Interpolator.EASE_BOTH);
+            }
+
+            @Override
+            protected void interpolate(double fraction) {
+                for (int i = 0; i < n; i++) {
+                    if (nodes[i] != null) {
+                        nodes[i].setLayoutX(fromX[i] + (graph.getX(i) - fromX[i]) * fraction);
+                        nodes[i].setLayoutY(fromY[i] + (graph.getY(i) - fromY[i]) * fraction);
+                    }
+                }
+                relationComponents.forEach(RelationshipComponent::updateView);
+            }
+        };
+        ClassDiagram layoutDiagram = diagram;
+        animation.setOnFinished(event -> {
+            if (diagram != layoutDiagram) {
+                return;
+            }
+            graph.applyTo();
+            addedSinceLayout.clear();
+            refreshDiagram();
+            elementsMoved(diagram.getClasses());
+            updateStatusMessage("Disposition optimisée en " + result.report().elapsedMillis() + " ms");
+        });
+        animation.play();
     }
 
     /**
@@ -1579,12 +1825,13 @@ public class DiagramEditorController {
 
             // Restaurer l'état précédent
             diagram = undoStack.pop();
+            liveValidator = new IncrementalUmlValidator(diagram);
 
             // Rafraîchir l'affichage
             refreshDiagram();
 
             // Marquer comme modifié
-            setUnsavedChanges(true);
+            diagramReplaced();
 
             updateStatusMessage("Action annulée");
 
@@ -1611,12 +1858,13 @@ public class DiagramEditorController {
 
             // Restaurer l'état suivant
             diagram = redoStack.pop();
+            liveValidator = new IncrementalUmlValidator(diagram);
 
             // Rafraîchir l'affichage
             refreshDiagram();
 
             // Marquer comme modifié
-            setUnsavedChanges(true);
+            diagramReplaced();
 
             updateStatusMessage("Action rétablie");
 
@@ -1642,6 +1890,10 @@ public class DiagramEditorController {
      */
     public void setDiagram(ClassDiagram diagram) {
         this.diagram = diagram;
+        this.liveValidator = new IncrementalUmlValidator(diagram);
+        addedSinceLayout.clear();
+        // Tracés enregistrés repris tels quels ; ceux qui ne correspondent plus aux classes sont calculés à part
+        boolean routesPending = !router.seed(diagram).isEmpty();
 
         // Configurer la taille du canvas
         diagramCanvas.setPrefWidth(2000);
@@ -1660,6 +1912,33 @@ public class DiagramEditorController {
 
         // Réinitialiser l'état des modifications
         unsavedChanges = false;
+
+        if (routesPending) {
+            routeInBackground();
+        }
+        scheduleBackgroundValidation();
+    }
+
+    /**
+     * Calcule hors du thread de l'interface les tracés que le routeur n'a pas pu reprendre du diagramme chargé,
+     * puis redessine les relations
+     */
+    private void routeInBackground() {
+        ClassDiagram routedDiagram = diagram;
+        OrthogonalRouter.PendingRoutes pendingRoutes = router.pendingRoutes();
+        CompletableFuture.supplyAsync(pendingRoutes::compute).whenComplete((routes, error) -> Platform.runLater(() -> {
+            // Diagramme remplacé entre-temps : le routeur a déjà été réinitialisé
+            if (diagram != routedDiagram) {
+                return;
+            }
+            if (error != null) {
+                log.error("Erreur lors du calcul des tracés en arrière-plan", error);
+                router.routePending();
+            } else {
+                routesChanged(router.apply(routes));
+            }
+            refreshDiagram();
+        }));
     }
 
     /**
@@ -1694,7 +1973,7 @@ public class DiagramEditorController {
         redrawGrid();
 
         // Marquer comme modifié
-        setUnsavedChanges(true);
+        diagramPropertiesChanged();
     }
 
     /**
@@ -1704,16 +1983,86 @@ public class DiagramEditorController {
         return unsavedChanges;
     }
 
+    /**
+     * Nombre de modifications faites dans l'éditeur
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Un élément a été déplacé à la souris
+     */
+    public void elementMoved(DiagramElement element) {
+        elementsMoved(List.of(element));
+    }
+
+    /**
+     * Journalise un élément ajouté ou modifié et marque le diagramme comme modifié
+     */
+    private void elementChanged(DiagramElement element) {
+        editJournalService.recordElement(diagram, element);
+        setUnsavedChanges(true);
+    }
+
+    /**
+     * Journalise les relations dont le routeur a recalculé le tracé : la sauvegarde automatique rejoue le journal
+     */
+    private void routesChanged(Collection<RelationshipElement> relationships) {
+        for (RelationshipElement relationship : relationships) {
+            editJournalService.recordElement(diagram, relationship);
+        }
+    }
+
+    /**
+     * Journalise la suppression d'éléments et marque le diagramme comme modifié
+     */
+    private void elementsRemoved(Collection<? extends DiagramElement> elements) {
+        editJournalService.recordRemoved(diagram, elements);
+        setUnsavedChanges(true);
+    }
+
+    /**
+     * Journalise la nouvelle position d'éléments et marque le diagramme comme modifié
+     */
+    private void elementsMoved(Collection<? extends DiagramElement> elements) {
+        editJournalService.recordGeometry(diagram, elements);
+        setUnsavedChanges(true);
+    }
+
+    /**
+     * Journalise les propriétés du diagramme et le marque comme modifié
+     */
+    private void diagramPropertiesChanged() {
+        editJournalService.recordDiagramProperties(diagram);
+        setUnsavedChanges(true);
+    }
+
+    /**
+     * Journalise l'état complet d'un diagramme remplacé (annulation, rétablissement) et le marque comme modifié
+     */
+    private void diagramReplaced() {
+        editJournalService.recordAll(diagram);
+        setUnsavedChanges(true);
+    }
+
     /**
      * Définit l'état des modifications
      */
     public void setUnsavedChanges(boolean unsavedChanges) {
         this.unsavedChanges = unsavedChanges;
+        if (unsavedChanges) {
+            changeCount++;
+        }
 
         // Notifier le contrôleur principal
         if (mainController != null && unsavedChanges) {
             mainController.notifyDiagramChanged();
         }
+
+        if (unsavedChanges) {
+            scheduleBackgroundValidation();
+        }
     }
 
 
@@ -14,6 +14,8 @@ import com.diagramme.ui.dialog.ExportDialog;
 import com.diagramme.ui.dialog.PreferencesDialog;
 import com.diagramme.util.AlertUtils;
 import com.diagramme.util.FileUtils;
+import com.diagramme.util.RuleMetrics;
+import com.diagramme.util.UmlValidator;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -29,6 +31,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
@@ -44,6 +47,7 @@ import javafx.scene.Scene;
  * Contrôleur principal de l'application
  */
 @Component
+@Profile("!batch")
 @Slf4j
 public class MainController {
 
@@ -71,11 +75,19 @@ public class MainController {
 
     @FXML private ToggleGroup themeToggleGroup;
 
+    // Résultats affichés par la recherche dans les diagrammes
+    private static final int MAX_SEARCH_RESULTS = 200;
+
     private final ApplicationContext applicationContext;
     private final DiagramService diagramService;
     private final ImportService importService;
     private final ExportService exportService;
     private final PreferenceService preferenceService;
+    private final AutoSaveService autoSaveService;
+    private final EditJournalService editJournalService;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final SearchIndexService searchIndexService;
+    private final DatabaseMaintenanceService databaseMaintenanceService;
     private final Map<String, Long> diagramNameToIdMap = new HashMap<>();
 
     // Propriétés de l'application
@@ -94,12 +106,22 @@ public class MainController {
             DiagramService diagramService,
             ImportService importService,
             ExportService exportService,
-            PreferenceService preferenceService) {
+            PreferenceService preferenceService,
+            AutoSaveService autoSaveService,
+            EditJournalService editJournalService,
+            CacheStatisticsService cacheStatisticsService,
+            SearchIndexService searchIndexService,
+            DatabaseMaintenanceService databaseMaintenanceService) {
         this.applicationContext = applicationContext;
         this.diagramService = diagramService;
         this.importService = importService;
         this.exportService = exportService;
         this.preferenceService = preferenceService;
+        this.autoSaveService = autoSaveService;
+        this.editJournalService = editJournalService;
+        this.cacheStatisticsService = cacheStatisticsService;
+        this.searchIndexService = searchIndexService;
+        this.databaseMaintenanceService = databaseMaintenanceService;
     }
 
     /**
@@ -327,16 +349,22 @@ public class MainController {
                     if (result.isPresent()) {
                         if (result.get() == buttonSave) {
                             saveDiagram(controller);
+                        } else if (result.get() == buttonDontSave) {
+                            editJournalService.discard(diagram.getId());
                         } else if (result.get() == buttonCancel) {
                             event.consume();
                         }
                     }
                 }
+                if (!event.isConsumed()) {
+                    autoSaveService.stopAutoSave(diagram.getId());
+                }
             });
 
             // Ajouter l'onglet et le sélectionner
             diagramTabPane.getTabs().add(tab);
             diagramTabPane.getSelectionModel().select(tab);
+            autoSaveService.startAutoSave(controller);
 
             // Mettre à jour les propriétés de l'application
             hasOpenDiagram.set(true);
@@ -712,6 +740,13 @@ public class MainController {
                     }
                     return true;
                 } else if (result.get() == buttonQuit) {
+                    // Les modifications abandonnées ne doivent pas être rejouées au prochain démarrage
+                    for (Tab tab : diagramTabPane.getTabs()) {
+                        DiagramEditorController controller = (DiagramEditorController) tab.getUserData();
+                        if (controller != null && controller.getDiagram() != null) {
+                            editJournalService.discard(controller.getDiagram().getId());
+                        }
+                    }
                     return true;
                 } else {
                     return false;
@@ -959,6 +994,28 @@ public class MainController {
         }
     }
 
+    /**
+     * Dispose le diagramme en couches selon les relations d'héritage et d'implémentation
+     */
+    @FXML
+    private void onHierarchicalLayout() {
+        DiagramEditorController controller = getActiveEditorController();
+        if (controller != null) {
+            controller.hierarchicalLayout();
+        }
+    }
+
+    /**
+     * Place les classes ajoutées depuis la dernière disposition sans déplacer les autres
+     */
+    @FXML
+    private void onPlaceNewClasses() {
+        DiagramEditorController controller = getActiveEditorController();
+        if (controller != null) {
+            controller.placeNewClasses();
+        }
+    }
+
     /**
      * Génère du code Java à partir du diagramme
      */
@@ -1018,6 +1075,7 @@ public class MainController {
                 createShortcutLabel("Ctrl+V", "Coller"),
                 createShortcutLabel("Suppr", "Supprimer"),
                 createShortcutLabel("Ctrl+A", "Sélectionner tout"),
+                createShortcutLabel("Ctrl+Shift+F", "Rechercher dans les diagrammes"),
 
                 new Label("Vue:"),
                 createShortcutLabel("Ctrl++", "Zoom avant"),
@@ -1058,6 +1116,107 @@ public class MainController {
         dialog.showAndWait();
     }
 
+    /**
+     * Recherche une classe, un membre ou un type dans tous les diagrammes et ouvre le diagramme choisi
+     */
+    @FXML
+    private void onSearchDiagrams() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("Rechercher dans les diagrammes");
+        dialog.setHeaderText("Critères : classe:, paquetage:, attribut:, methode:, type:, retour:\n"
+                + "Exemples : type:Order, retour:Optional, methode:find*");
+        dialog.setContentText("Rechercher :");
+
+        Optional<String> query = dialog.showAndWait().filter(text -> !text.isBlank());
+        if (query.isEmpty()) {
+            return;
+        }
+        List<SearchChoice> choices = searchIndexService.search(query.get(), MAX_SEARCH_RESULTS).stream()
+                .map(SearchChoice::new)
+                .toList();
+        if (choices.isEmpty()) {
+            AlertUtils.showInfoDialog("Recherche", "Aucun résultat", query.get());
+            return;
+        }
+
+        ChoiceDialog<SearchChoice> results = new ChoiceDialog<>(choices.get(0), choices);
+        results.setTitle("Recherche");
+        results.setHeaderText(choices.size() + " résultat(s) pour " + query.get());
+        results.setContentText("Ouvrir :");
+        results.showAndWait().ifPresent(choice -> {
+            openDiagramWithElementsById(choice.hit().diagramId());
+            updateStatusMessage(choice.hit().elementName() + " : " + choice.hit().detail());
+        });
+    }
+
+    /**
+     * Résultat de recherche affiché dans la liste
+     */
+    private record SearchChoice(SearchIndexService.SearchHit hit) {
+        @Override
+        public String toString() {
+            return hit.diagramName() + " › " + hit.elementName() + " — " + hit.detail();
+        }
+    }
+
+    /**
+     * Affiche le taux de succès du cache de second niveau et du cache des requêtes
+     */
+    @FXML
+    private void onShowCacheStatistics() {
+        AlertUtils.showInfoDialog("Statistiques du cache",
+                String.format("Taux de succès : %.1f %% (entités), %.1f %% (requêtes)",
+                        cacheStatisticsService.getSecondLevelTotals().hitRate() * 100,
+                        cacheStatisticsService.getQueryTotals().hitRate() * 100),
+                cacheStatisticsService.getSummary());
+    }
+
+    /**
+     * Affiche le temps passé et les problèmes trouvés par chaque règle de validation, de la plus coûteuse
+     * à la moins coûteuse, depuis le démarrage de l'application
+     */
+    @FXML
+    private void onShowRuleStatistics() {
+        List<RuleMetrics.RuleStatistics> statistics = UmlValidator.getEngine().getMetrics().getStatistics();
+        AlertUtils.showInfoDialog("Statistiques des règles UML",
+                statistics.isEmpty()
+                        ? "Aucune validation depuis le démarrage"
+                        : String.format("Règle la plus coûteuse : %s (%.2f ms en moyenne)",
+                                statistics.get(0).ruleName(), statistics.get(0).getAverageMillis()),
+                UmlValidator.getEngine().getMetrics().getSummary());
+    }
+
+    /**
+     * Affiche l'état du fichier de la base et propose de le compacter
+     */
+    @FXML
+    private void onShowDatabaseMaintenance() {
+        DatabaseMaintenanceService.StorageStatistics statistics = databaseMaintenanceService.getStorageStatistics();
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Maintenance de la base");
+        alert.setHeaderText(String.format("Remplissage du fichier : %d %%", statistics.fillRate()));
+        TextArea summary = new TextArea(databaseMaintenanceService.getSummary());
+        summary.setEditable(false);
+        summary.setStyle("-fx-font-family: monospace;");
+        alert.getDialogPane().setContent(summary);
+
+        ButtonType buttonCompact = new ButtonType("Compacter maintenant");
+        alert.getButtonTypes().setAll(buttonCompact, ButtonType.CLOSE);
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == buttonCompact) {
+            updateStatusMessage("Compactage de la base en cours...");
+            databaseMaintenanceService.compactInBackground().whenComplete((compaction, error) -> Platform.runLater(() -> {
+                if (error != null) {
+                    log.error("Échec du compactage de la base", error);
+                    AlertUtils.showErrorDialog("Erreur", "Échec du compactage de la base", error.getMessage());
+                } else {
+                    updateStatusMessage(String.format("Base compactée : %,d Ko récupérés en %d ms",
+                            compaction.reclaimed() / 1024, compaction.millis()));
+                }
+            }));
+        }
+    }
+
     /**
      * Applique les préférences de l'application
      */
@@ -1085,7 +1244,7 @@ public class MainController {
     private void saveDiagram(DiagramEditorController controller) {
         try {
             // Enregistrer le diagramme dans la base de données
-            ClassDiagram savedDiagram = diagramService.saveDiagram(controller.getDiagram());
+            ClassDiagram savedDiagram = autoSaveService.saveNow(controller.getDiagram());
 
             // Mettre à jour le contrôleur avec le diagramme sauvegardé
             controller.setDiagram(savedDiagram);
@@ -11,6 +11,7 @@ import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.Separator;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
@@ -18,6 +19,8 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import lombok.Getter;
 
+import java.util.List;
+
 /**
  * Composant visuel représentant une classe dans le diagramme
  */
@@ -32,6 +35,7 @@ public class ClassNodeComponent extends StackPane {
     private final VBox attributesBox;
     private final VBox methodsBox;
     private final Rectangle selectionRectangle;
+    private Label validationMarker;
 
     private double startDragX;
     private double startDragY;
@@ -136,6 +140,32 @@ public class ClassNodeComponent extends StackPane {
         }
     }
 
+    /**
+     * Affiche ou masque le marqueur des problèmes de validation UML de la classe
+     */
+    public void setValidationIssues(List<String> issues) {
+        if (issues.isEmpty()) {
+            if (validationMarker != null) {
+                validationMarker.setVisible(false);
+            }
+            return;
+        }
+
+        if (validationMarker == null) {
+            validationMarker = new Label("!");
+            validationMarker.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-font-weight: bold; " +
+                    "-fx-background-radius: 8; -fx-padding: 0 5 0 5;");
+            validationMarker.setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+            validationMarker.setTooltip(new Tooltip());
+            setAlignment(validationMarker, Pos.TOP_RIGHT);
+            setMargin(validationMarker, new Insets(-8, -8, 0, 0));
+            getChildren().add(validationMarker);
+        }
+
+        validationMarker.getTooltip().setText(String.join("\n", issues));
+        validationMarker.setVisible(true);
+    }
+
     /**
      * Met à jour le titre de la classe
      */
@@ -368,8 +398,9 @@ public class ClassNodeComponent extends StackPane {
                         setLayoutY(newY);
                     }
 
-                    // Rafraîchir les composants de relation
+                    // Rafraîchir les composants de relation et journaliser la position finale
                     editorController.refreshRelationships();
+                    editorController.elementMoved(classElement);
                 }
 
                 isDragging = false;
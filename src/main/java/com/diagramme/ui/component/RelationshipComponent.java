@@ -3,16 +3,22 @@ package com.diagramme.ui.component;
 import com.diagramme.model.RelationshipElement;
 import com.diagramme.model.enums.RelationshipType;
 import com.diagramme.ui.DiagramEditorController;
+import com.diagramme.util.routing.OrthogonalRouter;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.control.ContextMenu;
+import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseButton;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.*;
 import javafx.scene.text.Text;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Composant visuel représentant une relation entre deux classes
  */
@@ -24,13 +30,14 @@ public class RelationshipComponent extends Group {
     private final ClassNodeComponent targetNode;
     private final DiagramEditorController editorController;
 
-    private Line mainLine;
+    private Polyline mainLine;
     private Path arrowHead;
     private Text sourceRoleText;
     private Text targetRoleText;
     private Text sourceMultiplicityText;
     private Text targetMultiplicityText;
     private Path selectionPath;
+    private Label validationMarker;
 
     public RelationshipComponent(
             RelationshipElement relationship,
@@ -58,7 +65,7 @@ public class RelationshipComponent extends Group {
      */
     private void createVisuals() {
         // Ligne principale
-        mainLine = new Line();
+        mainLine = new Polyline();
         mainLine.setStrokeWidth(relationship.getLineWidth());
         mainLine.setStroke(Color.web(relationship.getLineColor()));
 
@@ -104,27 +111,87 @@ public class RelationshipComponent extends Group {
      * Met à jour l'affichage de la relation
      */
     public void updateView() {
-        // Calculer les points de départ et d'arrivée
-        Point2D sourcePoint = calculateConnectionPoint(sourceNode, targetNode);
-        Point2D targetPoint = calculateConnectionPoint(targetNode, sourceNode);
+        // Calculer le tracé : route orthogonale si elle correspond encore aux classes, sinon ligne directe
+        List<Point2D> points = calculateRoute();
+        Point2D sourcePoint = points.get(0);
+        Point2D targetPoint = points.get(points.size() - 1);
 
         // Mettre à jour la ligne
-        mainLine.setStartX(sourcePoint.getX());
-        mainLine.setStartY(sourcePoint.getY());
-        mainLine.setEndX(targetPoint.getX());
-        mainLine.setEndY(targetPoint.getY());
+        mainLine.getPoints().clear();
+        for (Point2D point : points) {
+            mainLine.getPoints().addAll(point.getX(), point.getY());
+        }
 
-        // Mettre à jour la flèche
-        updateArrowHead(sourcePoint, targetPoint);
+        // Mettre à jour la flèche, orientée selon le dernier segment
+        updateArrowHead(points.get(points.size() - 2), targetPoint);
 
-        // Mettre à jour les textes
-        updateTexts(sourcePoint, targetPoint);
+        // Mettre à jour les textes le long des segments d'extrémité
+        updateTexts(sourcePoint, points.get(1), points.get(points.size() - 2), targetPoint);
 
         // Mettre à jour le chemin de sélection
-        updateSelectionPath(sourcePoint, targetPoint);
+        updateSelectionPath(points);
 
         // Mettre à jour l'apparence selon le type de relation
         updateRelationshipAppearance();
+
+        // Replacer le marqueur de validation au milieu du tracé
+        if (validationMarker != null) {
+            Point2D middle = points.get(points.size() / 2);
+            Point2D before = points.get(points.size() / 2 - 1);
+            validationMarker.setLayoutX((before.getX() + middle.getX()) / 2);
+            validationMarker.setLayoutY((before.getY() + middle.getY()) / 2);
+        }
+    }
+
+    /**
+     * Affiche ou masque le marqueur des problèmes de validation UML de la relation
+     */
+    public void setValidationIssues(List<String> issues) {
+        if (issues.isEmpty()) {
+            if (validationMarker != null) {
+                validationMarker.setVisible(false);
+            }
+            return;
+        }
+
+        if (validationMarker == null) {
+            validationMarker = new Label("!");
+            validationMarker.setStyle("-fx-background-color: #e74c3c; -fx-text-fill: white; -fx-font-weight: bold; " +
+                    "-fx-background-radius: 8; -fx-padding: 0 5 0 5;");
+            validationMarker.setTooltip(new Tooltip());
+            getChildren().add(validationMarker);
+            updateView();
+        }
+
+        validationMarker.getTooltip().setText(String.join("\n", issues));
+        validationMarker.setVisible(true);
+    }
+
+    /**
+     * Points du tracé, extrémités comprises. Les coudes calculés par le routeur sont utilisés tant que
+     * le premier et le dernier restent dans l'axe de leur classe ; pendant un déplacement, la relation
+     * est tracée en ligne directe jusqu'au prochain routage.
+     */
+    private List<Point2D> calculateRoute() {
+        List<RelationshipElement.Point> bends = relationship.getControlPoints();
+        List<Point2D> points = new ArrayList<>();
+        if (bends != null && !bends.isEmpty()) {
+            RelationshipElement.Point start = OrthogonalRouter.attachmentPoint(sourceNode.getLayoutX(),
+                    sourceNode.getLayoutY(), sourceNode.getWidth(), sourceNode.getHeight(), bends.get(0));
+            RelationshipElement.Point end = OrthogonalRouter.attachmentPoint(targetNode.getLayoutX(),
+                    targetNode.getLayoutY(), targetNode.getWidth(), targetNode.getHeight(), bends.get(bends.size() - 1));
+            if (start != null && end != null) {
+                points.add(new Point2D(start.getX(), start.getY()));
+                for (RelationshipElement.Point bend : bends) {
+                    points.add(new Point2D(bend.getX(), bend.getY()));
+                }
+                points.add(new Point2D(end.getX(), end.getY()));
+                return points;
+            }
+        }
+        points.add(calculateConnectionPoint(sourceNode, targetNode));
+        points.add(calculateConnectionPoint(targetNode, sourceNode));
+        return points;
     }
 
     /**
@@ -266,33 +333,21 @@ public class RelationshipComponent extends Group {
     }
 
     /**
-     * Met à jour les textes de la relation
+     * Met à jour les textes de la relation, placés à côté du premier et du dernier segment
      */
-    private void updateTexts(Point2D sourcePoint, Point2D targetPoint) {
-        // Calculer le point médian
-        double midX = (sourcePoint.getX() + targetPoint.getX()) / 2;
-        double midY = (sourcePoint.getY() + targetPoint.getY()) / 2;
-
-        // Calculer la direction perpendiculaire pour le décalage
-        double dx = targetPoint.getX() - sourcePoint.getX();
-        double dy = targetPoint.getY() - sourcePoint.getY();
-        double length = Math.sqrt(dx * dx + dy * dy);
+    private void updateTexts(Point2D sourcePoint, Point2D afterSource, Point2D beforeTarget, Point2D targetPoint) {
+        Point2D sourceNormal = normal(sourcePoint, afterSource);
+        Point2D targetNormal = normal(beforeTarget, targetPoint);
 
         // Éviter la division par zéro
-        if (length < 1e-6) {
+        if (sourceNormal == null || targetNormal == null) {
             return;
         }
 
-        // Normaliser
-        double nx = dx / length;
-        double ny = dy / length;
-
-        // Vecteur perpendiculaire
-        double px = -ny;
-        double py = nx;
-
         // Décalage pour les étiquettes
         double offset = 15;
+        double px = sourceNormal.getX();
+        double py = sourceNormal.getY();
 
         // Mettre à jour les rôles
         if (relationship.getSourceRole() != null && !relationship.getSourceRole().isEmpty()) {
@@ -305,8 +360,8 @@ public class RelationshipComponent extends Group {
 
         if (relationship.getTargetRole() != null && !relationship.getTargetRole().isEmpty()) {
             targetRoleText.setText(relationship.getTargetRole());
-            targetRoleText.setX(targetPoint.getX() + px * offset);
-            targetRoleText.setY(targetPoint.getY() + py * offset);
+            targetRoleText.setX(targetPoint.getX() + targetNormal.getX() * offset);
+            targetRoleText.setY(targetPoint.getY() + targetNormal.getY() * offset);
         } else {
             targetRoleText.setText("");
         }
@@ -322,21 +377,36 @@ public class RelationshipComponent extends Group {
 
         if (relationship.getTargetMultiplicity() != null && !relationship.getTargetMultiplicity().isEmpty()) {
             targetMultiplicityText.setText(relationship.getTargetMultiplicity());
-            targetMultiplicityText.setX(targetPoint.getX() - px * offset);
-            targetMultiplicityText.setY(targetPoint.getY() - py * offset);
+            targetMultiplicityText.setX(targetPoint.getX() - targetNormal.getX() * offset);
+            targetMultiplicityText.setY(targetPoint.getY() - targetNormal.getY() * offset);
         } else {
             targetMultiplicityText.setText("");
         }
     }
 
+    /**
+     * Vecteur unitaire perpendiculaire à un segment, ou {@code null} pour un segment de longueur nulle
+     */
+    private static Point2D normal(Point2D from, Point2D to) {
+        double dx = to.getX() - from.getX();
+        double dy = to.getY() - from.getY();
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length < 1e-6) {
+            return null;
+        }
+        return new Point2D(-dy / length, dx / length);
+    }
+
     /**
      * Met à jour le chemin de sélection
      */
-    private void updateSelectionPath(Point2D sourcePoint, Point2D targetPoint) {
+    private void updateSelectionPath(List<Point2D> points) {
         selectionPath.getElements().clear();
 
-        selectionPath.getElements().add(new MoveTo(sourcePoint.getX(), sourcePoint.getY()));
-        selectionPath.getElements().add(new LineTo(targetPoint.getX(), targetPoint.getY()));
+        selectionPath.getElements().add(new MoveTo(points.get(0).getX(), points.get(0).getY()));
+        for (int i = 1; i < points.size(); i++) {
+            selectionPath.getElements().add(new LineTo(points.get(i).getX(), points.get(i).getY()));
+        }
 
         // Élargir le chemin pour faciliter la sélection
         selectionPath.setStrokeWidth(10);
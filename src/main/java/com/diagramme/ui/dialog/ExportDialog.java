@@ -36,7 +36,7 @@ public class ExportDialog extends Dialog<Void> {
         // Format d'export
         Label formatLabel = new Label("Format:");
         ComboBox<String> formatComboBox = new ComboBox<>(FXCollections.observableArrayList(
-                "PNG", "SVG", "PDF", "JSON", "XMI"
+                "PNG", "SVG", "PDF", "JSON", "XMI", "CLD"
         ));
         formatComboBox.setValue("PNG");
 
@@ -92,10 +92,13 @@ public class ExportDialog extends Dialog<Void> {
                 case "XMI":
                     fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Fichiers XMI", "*.xmi"));
                     break;
+                case "CLD":
+                    fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Diagrammes personnalisés", "*.cld"));
+                    break;
             }
 
             // Proposer un nom de fichier par défaut
-            fileChooser.setInitialFileName(diagram.getName() + getExtensionForFormat(format));
+            fileChooser.setInitialFileName(diagram.getName() + exportService.getExtensionForFormat(format));
 
             // Afficher la boîte de dialogue
             File file = fileChooser.showSaveDialog(getDialogPane().getScene().getWindow());
@@ -155,20 +158,10 @@ public class ExportDialog extends Dialog<Void> {
                 descriptionArea.setText("Format XMI (XML Metadata Interchange). Standard d'échange de modèles UML, " +
                         "compatible avec la plupart des outils de modélisation UML.");
                 break;
+            case "CLD":
+                descriptionArea.setText("Format binaire compact de l'éditeur. Les noms et types répétés ne sont stockés " +
+                        "qu'une fois, ce qui donne des fichiers légers qui se rouvrent très rapidement.");
+                break;
         }
     }
-
-    /**
-     * Retourne l'extension de fichier pour un format donné
-     */
-    private String getExtensionForFormat(String format) {
-        return switch (format) {
-            case "PNG" -> ".png";
-            case "SVG" -> ".svg";
-            case "PDF" -> ".pdf";
-            case "JSON" -> ".json";
-            case "XMI" -> ".xmi";
-            default -> "";
-        };
-    }
 }
@@ -3,6 +3,9 @@ package com.diagramme.ui.dialog;
 import com.diagramme.model.ClassElement;
 import com.diagramme.model.RelationshipElement;
 import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.util.Multiplicity;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -53,7 +56,9 @@ public class RelationshipDialog extends Dialog<RelationshipElement> {
 
         // Validation
         Button okButton = (Button) getDialogPane().lookupButton(ButtonType.OK);
-        okButton.disableProperty().bind(nameField.textProperty().isEmpty());
+        okButton.disableProperty().bind(nameField.textProperty().isEmpty()
+                .or(invalidMultiplicity(sourceMultiplicityField))
+                .or(invalidMultiplicity(targetMultiplicityField)));
 
         // Convertisseur de résultat
         setResultConverter(buttonType -> {
@@ -64,6 +69,19 @@ public class RelationshipDialog extends Dialog<RelationshipElement> {
         });
     }
 
+    /**
+     * Condition vraie tant que le champ contient une multiplicité invalide ; le champ est alors encadré en rouge
+     */
+    private BooleanBinding invalidMultiplicity(TextField field) {
+        BooleanBinding invalid = Bindings.createBooleanBinding(
+                () -> !field.getText().isBlank() && !Multiplicity.isValid(field.getText()),
+                field.textProperty());
+        field.styleProperty().bind(Bindings.when(invalid)
+                .then("-fx-border-color: red;")
+                .otherwise(""));
+        return invalid;
+    }
+
     /**
      * Crée le contenu de la boîte de dialogue
      */
@@ -173,7 +191,7 @@ public class RelationshipDialog extends Dialog<RelationshipElement> {
 
         // Multiplicité
         sourceMultiplicityField = new TextField();
-        sourceMultiplicityField.setPromptText("Multiplicité de la source (optionnel)");
+        sourceMultiplicityField.setPromptText("Multiplicité de la source (optionnel) : 1, *, 0..1, 1..*");
         if (relationship != null && relationship.getSourceMultiplicity() != null) {
             sourceMultiplicityField.setText(relationship.getSourceMultiplicity());
         }
@@ -214,7 +232,7 @@ public class RelationshipDialog extends Dialog<RelationshipElement> {
 
         // Multiplicité
         targetMultiplicityField = new TextField();
-        targetMultiplicityField.setPromptText("Multiplicité de la cible (optionnel)");
+        targetMultiplicityField.setPromptText("Multiplicité de la cible (optionnel) : 1, *, 0..1, 1..*");
         if (relationship != null && relationship.getTargetMultiplicity() != null) {
             targetMultiplicityField.setText(relationship.getTargetMultiplicity());
         }
@@ -308,8 +326,8 @@ public class RelationshipDialog extends Dialog<RelationshipElement> {
         result.setSourceRole(sourceRoleField.getText());
         result.setTargetRole(targetRoleField.getText());
 
-        result.setSourceMultiplicity(sourceMultiplicityField.getText());
-        result.setTargetMultiplicity(targetMultiplicityField.getText());
+        result.setSourceMultiplicity(sourceMultiplicityField.getText().trim());
+        result.setTargetMultiplicity(targetMultiplicityField.getText().trim());
 
         result.setLineColor(lineColorPicker.getValue().toString());
         result.setLineWidth(lineWidthSpinner.getValue());
@@ -0,0 +1,87 @@
+package com.diagramme.ui.dialog;
+
+import com.diagramme.util.UmlRule;
+import com.diagramme.util.UmlValidator;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fenêtre non modale listant les problèmes de validation UML.
+ * Les résultats s'affichent au fur et à mesure, règle par règle.
+ */
+public class ValidationIssuesWindow extends Stage {
+
+    private final Map<UmlRule, List<String>> issuesByRule = new HashMap<>();
+
+    private final ListView<String> issuesList;
+    private final Label statusLabel;
+    private final ProgressIndicator progressIndicator;
+
+    public ValidationIssuesWindow(Window owner) {
+        initOwner(owner);
+        initModality(Modality.NONE);
+        setTitle("Validation UML");
+
+        statusLabel = new Label();
+        statusLabel.setStyle("-fx-font-weight: bold;");
+
+        progressIndicator = new ProgressIndicator();
+        progressIndicator.setPrefSize(16, 16);
+
+        HBox header = new HBox(8, progressIndicator, statusLabel);
+
+        issuesList = new ListView<>();
+        issuesList.setPlaceholder(new Label("Aucun problème détecté"));
+        VBox.setVgrow(issuesList, Priority.ALWAYS);
+
+        VBox content = new VBox(8, header, issuesList);
+        content.setPadding(new Insets(10));
+
+        setScene(new Scene(content, 520, 320));
+    }
+
+    /**
+     * Indique qu'une nouvelle validation a été lancée ; les résultats précédents restent affichés
+     * jusqu'à l'arrivée des nouveaux
+     */
+    public void validationStarted() {
+        issuesByRule.clear();
+        progressIndicator.setVisible(true);
+        statusLabel.setText("Validation en cours...");
+    }
+
+    /**
+     * Affiche les problèmes d'une règle, dans l'ordre de déclaration des règles
+     */
+    public void showIssues(UmlRule rule, List<String> issues) {
+        issuesByRule.put(rule, issues);
+        issuesList.getItems().setAll(UmlValidator.getEngine().getRules().stream()
+                .filter(issuesByRule::containsKey)
+                .flatMap(declared -> issuesByRule.get(declared).stream())
+                .toList());
+    }
+
+    /**
+     * Indique que toutes les règles ont été évaluées
+     */
+    public void validationCompleted() {
+        progressIndicator.setVisible(false);
+        int count = issuesList.getItems().size();
+        statusLabel.setText(count == 0
+                ? "Le diagramme est conforme aux règles UML."
+                : count + " problème(s) de validation UML");
+    }
+}
@@ -0,0 +1,544 @@
+package com.diagramme.util;
+
+import com.diagramme.model.*;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.model.enums.Visibility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Lecture et écriture du format binaire compact .cld
+ *
+ * Disposition du fichier (little-endian) :
+ * - en-tête fixe : signature, version, nombre d'enregistrements et offset de chaque section
+ * - table des chaînes : index d'offsets puis octets UTF-8, chaque nom ou type n'y figure qu'une fois
+ * - enregistrements à largeur fixe pour le diagramme, les classes, attributs, méthodes,
+ *   paramètres, relations et points de contrôle
+ *
+ * Les enregistrements se référencent par index, le fichier peut donc être relu directement
+ * depuis un {@link MappedByteBuffer} par accès absolus, sans analyse séquentielle.
+ * Les énumérations sont stockées par nom dans la table des chaînes : ajouter ou réordonner
+ * des constantes ne change pas le sens des fichiers existants.
+ *
+ * À la lecture, sections, index et valeurs d'énumération sont vérifiés avant tout accès :
+ * un fichier tronqué ou corrompu est rejeté par une {@link IOException}.
+ */
+public final class CldFormat {
+
+    static final int MAGIC = 0x31444C43; // "CLD1"
+    static final short VERSION = 2;
+
+    // Sections, dans l'ordre où elles sont écrites
+    private static final int SECTION_DIAGRAM = 0;
+    private static final int SECTION_STRINGS = 1;
+    private static final int SECTION_CLASSES = 2;
+    private static final int SECTION_ATTRIBUTES = 3;
+    private static final int SECTION_METHODS = 4;
+    private static final int SECTION_PARAMETERS = 5;
+    private static final int SECTION_RELATIONSHIPS = 6;
+    private static final int SECTION_POINTS = 7;
+    private static final int SECTION_COUNT = 8;
+
+    // Tailles des enregistrements (en octets)
+    static final int HEADER_SIZE = 8 + SECTION_COUNT * 4 * 2;
+    static final int DIAGRAM_RECORD_SIZE = 32;
+    static final int CLASS_RECORD_SIZE = 80;
+    static final int ATTRIBUTE_RECORD_SIZE = 20;
+    static final int METHOD_RECORD_SIZE = 24;
+    static final int PARAMETER_RECORD_SIZE = 12;
+    static final int RELATIONSHIP_RECORD_SIZE = 96;
+    static final int POINT_RECORD_SIZE = 16;
+
+    private static final int NO_STRING = -1;
+
+    private CldFormat() {
+    }
+
+    /**
+     * Vérifie si un fichier porte l'extension du format .cld
+     */
+    public static boolean isCldFile(File file) {
+        return file.getName().toLowerCase().endsWith(".cld");
+    }
+
+    /**
+     * Écrit un diagramme dans un fichier .cld
+     */
+    public static void write(ClassDiagram diagram, File file) throws IOException {
+        ByteBuffer buffer = encode(diagram);
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Lit un diagramme depuis un fichier .cld en le projetant en mémoire
+     */
+    public static ClassDiagram read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier .cld invalide: " + file.getName());
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Encode un diagramme dans un tampon prêt à être écrit.
+     * L'encodage est déterministe : deux diagrammes de même contenu donnent les mêmes octets.
+     */
+    public static ByteBuffer encode(ClassDiagram diagram) {
+        StringTable strings = new StringTable();
+        List<ClassElement> classes = diagram.getClasses();
+        List<RelationshipElement> relationships = diagram.getRelationships();
+
+        // Index des classes pour résoudre les extrémités des relations
+        Map<ClassElement, Integer> classIndex = new IdentityHashMap<>();
+        int attributeCount = 0;
+        int methodCount = 0;
+        int parameterCount = 0;
+        for (ClassElement classElement : classes) {
+            classIndex.put(classElement, classIndex.size());
+            attributeCount += classElement.getAttributes().size();
+            methodCount += classElement.getMethods().size();
+            for (Method method : classElement.getMethods()) {
+                parameterCount += method.getParameters().size();
+            }
+        }
+        int pointCount = 0;
+        for (RelationshipElement relationship : relationships) {
+            pointCount += relationship.getControlPoints().size();
+        }
+
+        // Enregistrements à largeur fixe, la table des chaînes est remplie au passage
+        ByteBuffer diagramRecords = records(1, DIAGRAM_RECORD_SIZE);
+        ByteBuffer classRecords = records(classes.size(), CLASS_RECORD_SIZE);
+        ByteBuffer attributeRecords = records(attributeCount, ATTRIBUTE_RECORD_SIZE);
+        ByteBuffer methodRecords = records(methodCount, METHOD_RECORD_SIZE);
+        ByteBuffer parameterRecords = records(parameterCount, PARAMETER_RECORD_SIZE);
+        ByteBuffer relationshipRecords = records(relationships.size(), RELATIONSHIP_RECORD_SIZE);
+        ByteBuffer pointRecords = records(pointCount, POINT_RECORD_SIZE);
+
+        diagramRecords.putInt(strings.indexOf(diagram.getName()));
+        diagramRecords.putInt(strings.indexOf(diagram.getDescription()));
+        diagramRecords.putInt(strings.indexOf(diagram.getAuthor()));
+        diagramRecords.putInt(strings.indexOf(diagram.getVersion()));
+        diagramRecords.putInt(strings.indexOf(diagram.getBackgroundColor()));
+        diagramRecords.put(flag(diagram.isShowGrid()));
+        diagramRecords.put(flag(diagram.isSnapToGrid()));
+        diagramRecords.putShort((short) 0);
+        diagramRecords.putDouble(diagram.getGridSize());
+
+        int attributeIndex = 0;
+        int methodIndex = 0;
+        int parameterIndex = 0;
+        for (ClassElement classElement : classes) {
+            classRecords.putInt(strings.indexOf(classElement.getName()));
+            classRecords.putInt(strings.indexOf(classElement.getPackageName()));
+            classRecords.putInt(strings.indexOf(name(classElement.getType())));
+            classRecords.put(flag(classElement.isAbstract()));
+            classRecords.put((byte) 0);
+            classRecords.putShort((short) 0);
+            putBounds(classRecords, classElement);
+            classRecords.putInt(strings.indexOf(classElement.getBackgroundColor()));
+            classRecords.putInt(strings.indexOf(classElement.getBorderColor()));
+            classRecords.putDouble(classElement.getBorderWidth());
+            classRecords.putInt(attributeIndex);
+            classRecords.putInt(classElement.getAttributes().size());
+            classRecords.putInt(methodIndex);
+            classRecords.putInt(classElement.getMethods().size());
+
+            for (Attribute attribute : classElement.getAttributes()) {
+                attributeRecords.putInt(strings.indexOf(attribute.getName()));
+                attributeRecords.putInt(strings.indexOf(attribute.getType()));
+                attributeRecords.putInt(strings.indexOf(attribute.getDefaultValue()));
+                attributeRecords.putInt(strings.indexOf(name(attribute.getVisibility())));
+                attributeRecords.put(flag(attribute.isStatic()));
+                attributeRecords.put(flag(attribute.isFinal()));
+                attributeRecords.putShort((short) 0);
+                attributeIndex++;
+            }
+
+            for (Method method : classElement.getMethods()) {
+                methodRecords.putInt(strings.indexOf(method.getName()));
+                methodRecords.putInt(strings.indexOf(method.getReturnType()));
+                methodRecords.putInt(strings.indexOf(name(method.getVisibility())));
+                methodRecords.put(flag(method.isStatic()));
+                methodRecords.put(flag(method.isAbstract()));
+                methodRecords.put(flag(method.isFinal()));
+                methodRecords.put((byte) 0);
+                methodRecords.putInt(parameterIndex);
+                methodRecords.putInt(method.getParameters().size());
+                methodIndex++;
+
+                for (Parameter parameter : method.getParameters()) {
+                    parameterRecords.putInt(strings.indexOf(parameter.getName()));
+                    parameterRecords.putInt(strings.indexOf(parameter.getType()));
+                    parameterRecords.putInt(strings.indexOf(parameter.getDefaultValue()));
+                    parameterIndex++;
+                }
+            }
+        }
+
+        int pointIndex = 0;
+        for (RelationshipElement relationship : relationships) {
+            relationshipRecords.putInt(strings.indexOf(relationship.getName()));
+            relationshipRecords.putInt(classIndex.getOrDefault(relationship.getSourceElement(), -1));
+            relationshipRecords.putInt(classIndex.getOrDefault(relationship.getTargetElement(), -1));
+            relationshipRecords.putInt(strings.indexOf(name(relationship.getType())));
+            putBounds(relationshipRecords, relationship);
+            relationshipRecords.putInt(strings.indexOf(relationship.getSourceRole()));
+            relationshipRecords.putInt(strings.indexOf(relationship.getTargetRole()));
+            relationshipRecords.putInt(strings.indexOf(relationship.getSourceMultiplicity()));
+            relationshipRecords.putInt(strings.indexOf(relationship.getTargetMultiplicity()));
+            relationshipRecords.putInt(strings.indexOf(relationship.getSourceTooltip()));
+            relationshipRecords.putInt(strings.indexOf(relationship.getTargetTooltip()));
+            relationshipRecords.putInt(strings.indexOf(relationship.getLineColor()));
+            relationshipRecords.putDouble(relationship.getLineWidth());
+            relationshipRecords.putInt(strings.indexOf(relationship.getLineStyle()));
+            relationshipRecords.putInt(pointIndex);
+            relationshipRecords.putInt(relationship.getControlPoints().size());
+
+            for (RelationshipElement.Point point : relationship.getControlPoints()) {
+                pointRecords.putDouble(point.getX());
+                pointRecords.putDouble(point.getY());
+                pointIndex++;
+            }
+        }
+
+        ByteBuffer stringRecords = strings.encode();
+
+        // Assemblage : en-tête puis sections
+        ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+        sections[SECTION_DIAGRAM] = diagramRecords;
+        sections[SECTION_STRINGS] = stringRecords;
+        sections[SECTION_CLASSES] = classRecords;
+        sections[SECTION_ATTRIBUTES] = attributeRecords;
+        sections[SECTION_METHODS] = methodRecords;
+        sections[SECTION_PARAMETERS] = parameterRecords;
+        sections[SECTION_RELATIONSHIPS] = relationshipRecords;
+        sections[SECTION_POINTS] = pointRecords;
+
+        int[] counts = {1, strings.size(), classes.size(), attributeCount, methodCount,
+                parameterCount, relationships.size(), pointCount};
+
+        int totalSize = HEADER_SIZE;
+        for (ByteBuffer section : sections) {
+            totalSize += section.capacity();
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(totalSize).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort((short) 0);
+        for (int count : counts) {
+            out.putInt(count);
+        }
+        int offset = HEADER_SIZE;
+        for (ByteBuffer section : sections) {
+            out.putInt(offset);
+            offset += section.capacity();
+        }
+        for (ByteBuffer section : sections) {
+            section.flip();
+            out.put(section);
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Reconstruit un diagramme à partir d'un tampon au format .cld
+     */
+    static ClassDiagram decode(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.limit() < HEADER_SIZE || in.getInt(0) != MAGIC) {
+            throw new IOException("Signature .cld invalide");
+        }
+        short version = in.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Version .cld non supportée: " + version);
+        }
+
+        int[] counts = new int[SECTION_COUNT];
+        int[] offsets = new int[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            counts[i] = in.getInt(8 + i * 4);
+            offsets[i] = in.getInt(8 + SECTION_COUNT * 4 + i * 4);
+        }
+
+        // Chaque section doit tenir dans le fichier avant le moindre accès
+        if (counts[SECTION_DIAGRAM] != 1) {
+            throw new IOException("Fichier .cld invalide: section du diagramme absente");
+        }
+        checkSection(in, offsets, SECTION_DIAGRAM, 1, DIAGRAM_RECORD_SIZE);
+        checkSection(in, offsets, SECTION_STRINGS, counts[SECTION_STRINGS] + 1L, 4);
+        checkSection(in, offsets, SECTION_CLASSES, counts[SECTION_CLASSES], CLASS_RECORD_SIZE);
+        checkSection(in, offsets, SECTION_ATTRIBUTES, counts[SECTION_ATTRIBUTES], ATTRIBUTE_RECORD_SIZE);
+        checkSection(in, offsets, SECTION_METHODS, counts[SECTION_METHODS], METHOD_RECORD_SIZE);
+        checkSection(in, offsets, SECTION_PARAMETERS, counts[SECTION_PARAMETERS], PARAMETER_RECORD_SIZE);
+        checkSection(in, offsets, SECTION_RELATIONSHIPS, counts[SECTION_RELATIONSHIPS], RELATIONSHIP_RECORD_SIZE);
+        checkSection(in, offsets, SECTION_POINTS, counts[SECTION_POINTS], POINT_RECORD_SIZE);
+
+        StringReader strings = new StringReader(in, offsets[SECTION_STRINGS], counts[SECTION_STRINGS]);
+
+        // Propriétés du diagramme
+        int d = offsets[SECTION_DIAGRAM];
+        ClassDiagram diagram = new ClassDiagram(strings.get(in.getInt(d)));
+        diagram.setDescription(strings.get(in.getInt(d + 4)));
+        diagram.setAuthor(strings.get(in.getInt(d + 8)));
+        diagram.setVersion(strings.get(in.getInt(d + 12)));
+        diagram.setBackgroundColor(strings.get(in.getInt(d + 16)));
+        diagram.setShowGrid(in.get(d + 20) != 0);
+        diagram.setSnapToGrid(in.get(d + 21) != 0);
+        diagram.setGridSize(in.getDouble(d + 24));
+
+        // Classes et leurs membres
+        int classCount = counts[SECTION_CLASSES];
+        ClassElement[] classes = new ClassElement[classCount];
+        for (int i = 0; i < classCount; i++) {
+            int c = offsets[SECTION_CLASSES] + i * CLASS_RECORD_SIZE;
+            ClassElement classElement = new ClassElement(strings.get(in.getInt(c)));
+            classElement.setPackageName(strings.get(in.getInt(c + 4)));
+            classElement.setType(enumValue(ClassElement.ClassType.class, strings.get(in.getInt(c + 8))));
+            classElement.setAbstract(in.get(c + 12) != 0);
+            getBounds(in, c + 16, classElement);
+            classElement.setBackgroundColor(strings.get(in.getInt(c + 48)));
+            classElement.setBorderColor(strings.get(in.getInt(c + 52)));
+            classElement.setBorderWidth(in.getDouble(c + 56));
+
+            int firstAttribute = in.getInt(c + 64);
+            int attributeCount = in.getInt(c + 68);
+            checkRange(firstAttribute, attributeCount, counts[SECTION_ATTRIBUTES], "attributs");
+            for (int a = firstAttribute; a < firstAttribute + attributeCount; a++) {
+                int r = offsets[SECTION_ATTRIBUTES] + a * ATTRIBUTE_RECORD_SIZE;
+                Attribute attribute = new Attribute(strings.get(in.getInt(r)), strings.get(in.getInt(r + 4)));
+                attribute.setDefaultValue(strings.get(in.getInt(r + 8)));
+                attribute.setVisibility(enumValue(Visibility.class, strings.get(in.getInt(r + 12))));
+                attribute.setStatic(in.get(r + 16) != 0);
+                attribute.setFinal(in.get(r + 17) != 0);
+                classElement.addAttribute(attribute);
+            }
+
+            int firstMethod = in.getInt(c + 72);
+            int methodCount = in.getInt(c + 76);
+            checkRange(firstMethod, methodCount, counts[SECTION_METHODS], "méthodes");
+            for (int m = firstMethod; m < firstMethod + methodCount; m++) {
+                int r = offsets[SECTION_METHODS] + m * METHOD_RECORD_SIZE;
+                Method method = new Method(strings.get(in.getInt(r)), strings.get(in.getInt(r + 4)));
+                method.setVisibility(enumValue(Visibility.class, strings.get(in.getInt(r + 8))));
+                method.setStatic(in.get(r + 12) != 0);
+                method.setAbstract(in.get(r + 13) != 0);
+                method.setFinal(in.get(r + 14) != 0);
+
+                int firstParameter = in.getInt(r + 16);
+                int parameterCount = in.getInt(r + 20);
+                checkRange(firstParameter, parameterCount, counts[SECTION_PARAMETERS], "paramètres");
+                for (int p = firstParameter; p < firstParameter + parameterCount; p++) {
+                    int q = offsets[SECTION_PARAMETERS] + p * PARAMETER_RECORD_SIZE;
+                    Parameter parameter = new Parameter(strings.get(in.getInt(q)), strings.get(in.getInt(q + 4)));
+                    parameter.setDefaultValue(strings.get(in.getInt(q + 8)));
+                    method.addParameter(parameter);
+                }
+                classElement.addMethod(method);
+            }
+
+            classes[i] = classElement;
+            diagram.addElement(classElement);
+        }
+
+        // Relations
+        for (int i = 0; i < counts[SECTION_RELATIONSHIPS]; i++) {
+            int r = offsets[SECTION_RELATIONSHIPS] + i * RELATIONSHIP_RECORD_SIZE;
+            int source = in.getInt(r + 4);
+            int target = in.getInt(r + 8);
+            if (source == -1 || target == -1) {
+                // Relation orpheline : ses extrémités n'appartiennent pas au diagramme
+                continue;
+            }
+            checkRange(source, 1, classCount, "classe source");
+            checkRange(target, 1, classCount, "classe cible");
+
+            RelationshipElement relationship = new RelationshipElement(strings.get(in.getInt(r)),
+                    classes[source], classes[target],
+                    enumValue(RelationshipType.class, strings.get(in.getInt(r + 12))));
+            getBounds(in, r + 16, relationship);
+            relationship.setSourceRole(strings.get(in.getInt(r + 48)));
+            relationship.setTargetRole(strings.get(in.getInt(r + 52)));
+            relationship.setSourceMultiplicity(strings.get(in.getInt(r + 56)));
+            relationship.setTargetMultiplicity(strings.get(in.getInt(r + 60)));
+            relationship.setSourceTooltip(strings.get(in.getInt(r + 64)));
+            relationship.setTargetTooltip(strings.get(in.getInt(r + 68)));
+            relationship.setLineColor(strings.get(in.getInt(r + 72)));
+            relationship.setLineWidth(in.getDouble(r + 76));
+            relationship.setLineStyle(strings.get(in.getInt(r + 84)));
+
+            int firstPoint = in.getInt(r + 88);
+            int pointCount = in.getInt(r + 92);
+            checkRange(firstPoint, pointCount, counts[SECTION_POINTS], "points de contrôle");
+            for (int p = firstPoint; p < firstPoint + pointCount; p++) {
+                int q = offsets[SECTION_POINTS] + p * POINT_RECORD_SIZE;
+                relationship.getControlPoints().add(new RelationshipElement.Point(in.getDouble(q), in.getDouble(q + 8)));
+            }
+
+            diagram.addElement(relationship);
+        }
+
+        return diagram;
+    }
+
+    /**
+     * Vérifie qu'une section de count enregistrements tient entre la fin de l'en-tête et la fin du tampon
+     */
+    private static void checkSection(ByteBuffer in, int[] offsets, int section, long count, int recordSize)
+            throws IOException {
+        long offset = offsets[section];
+        if (count < 0 || offset < HEADER_SIZE || offset + count * recordSize > in.limit()) {
+            throw new IOException("Fichier .cld tronqué ou corrompu: section " + section + " hors du fichier");
+        }
+    }
+
+    /**
+     * Vérifie que les enregistrements [first, first + count[ existent dans une section de total enregistrements
+     */
+    private static void checkRange(int first, int count, int total, String what) throws IOException {
+        if (first < 0 || count < 0 || first > total - count) {
+            throw new IOException("Fichier .cld corrompu: " + what + " [" + first + ", +" + count
+                    + "] hors de la section (" + total + ")");
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) throws IOException {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Fichier .cld corrompu: valeur inconnue " + name + " pour " + type.getSimpleName());
+        }
+    }
+
+    private static ByteBuffer records(int count, int recordSize) {
+        return ByteBuffer.allocate(count * recordSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte flag(boolean value) {
+        return value ? (byte) 1 : (byte) 0;
+    }
+
+    private static void putBounds(ByteBuffer buffer, DiagramElement element) {
+        buffer.putDouble(element.getX());
+        buffer.putDouble(element.getY());
+        buffer.putDouble(element.getWidth());
+        buffer.putDouble(element.getHeight());
+    }
+
+    private static void getBounds(ByteBuffer buffer, int offset, DiagramElement element) {
+        element.setX(buffer.getDouble(offset));
+        element.setY(buffer.getDouble(offset + 8));
+        element.setWidth(buffer.getDouble(offset + 16));
+        element.setHeight(buffer.getDouble(offset + 24));
+    }
+
+    /**
+     * Table des chaînes en cours d'écriture : chaque valeur distincte reçoit un index unique
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private int byteSize;
+
+        int indexOf(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                index = values.size();
+                values.add(bytes);
+                indexes.put(value, index);
+                byteSize += bytes.length;
+            }
+            return index;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * Encode la table : (n + 1) offsets relatifs suivis des octets UTF-8 concaténés
+         */
+        ByteBuffer encode() {
+            ByteBuffer buffer = records(1, (values.size() + 1) * 4 + byteSize);
+            int offset = 0;
+            for (byte[] value : values) {
+                buffer.putInt(offset);
+                offset += value.length;
+            }
+            buffer.putInt(offset);
+            for (byte[] value : values) {
+                buffer.put(value);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Lecture paresseuse de la table des chaînes : chaque chaîne est décodée une seule fois
+     * et la même instance est partagée par tous les enregistrements qui la référencent
+     */
+    private static final class StringReader {
+        private final ByteBuffer buffer;
+        private final int indexOffset;
+        private final int dataOffset;
+        private final String[] cache;
+
+        StringReader(ByteBuffer buffer, int offset, int count) {
+            this.buffer = buffer;
+            this.indexOffset = offset;
+            this.dataOffset = offset + (count + 1) * 4;
+            this.cache = new String[count];
+        }
+
+        String get(int index) throws IOException {
+            if (index == NO_STRING) {
+                return null;
+            }
+            if (index < 0 || index >= cache.length) {
+                throw new IOException("Fichier .cld corrompu: chaîne " + index + " hors de la table (" + cache.length + ")");
+            }
+            String value = cache[index];
+            if (value == null) {
+                int start = buffer.getInt(indexOffset + index * 4);
+                int end = buffer.getInt(indexOffset + (index + 1) * 4);
+                if (start < 0 || end < start || (long) dataOffset + end > buffer.limit()) {
+                    throw new IOException("Fichier .cld corrompu: chaîne " + index + " hors du fichier");
+                }
+                byte[] bytes = new byte[end - start];
+                buffer.get(dataOffset + start, bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                cache[index] = value;
+            }
+            return value;
+        }
+    }
+}
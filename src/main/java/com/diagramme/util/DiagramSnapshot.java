@@ -0,0 +1,231 @@
+package com.diagramme.util;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.RelationshipElement;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copie profonde et détachée d'un diagramme, prise sur le thread JavaFX pour être enregistrée
+ * sur un autre thread sans partager d'objet avec l'éditeur.
+ * Après l'enregistrement, seuls les identifiants générés sont reportés sur le diagramme d'origine :
+ * le diagramme affiché n'est pas remplacé.
+ */
+public final class DiagramSnapshot {
+
+    private final ClassDiagram original;
+    private final ClassDiagram copy;
+
+    // Éléments, attributs, méthodes et paramètres d'origine, dans l'ordre de parcours de la copie
+    private final List<Object> originals;
+
+    private DiagramSnapshot(ClassDiagram original, ClassDiagram copy, List<Object> originals) {
+        this.original = original;
+        this.copy = copy;
+        this.originals = originals;
+    }
+
+    /**
+     * Copie le diagramme, ses éléments, leurs attributs, méthodes et paramètres.
+     * À appeler sur le thread qui modifie le diagramme.
+     */
+    public static DiagramSnapshot of(ClassDiagram diagram) {
+        ClassDiagram copy = new ClassDiagram(diagram.getName());
+        copy.setId(diagram.getId());
+        copy.setDescription(diagram.getDescription());
+        copy.setUuid(diagram.getUuid());
+        copy.setCreatedAt(diagram.getCreatedAt());
+        copy.setModifiedAt(diagram.getModifiedAt());
+        copy.setShowGrid(diagram.isShowGrid());
+        copy.setSnapToGrid(diagram.isSnapToGrid());
+        copy.setGridSize(diagram.getGridSize());
+        copy.setBackgroundColor(diagram.getBackgroundColor());
+        copy.setAuthor(diagram.getAuthor());
+        copy.setVersion(diagram.getVersion());
+
+        // Les classes d'abord, pour que les relations désignent leurs copies
+        Map<ClassElement, ClassElement> classes = new IdentityHashMap<>();
+        for (DiagramElement element : diagram.getElements()) {
+            if (element instanceof ClassElement classElement) {
+                classes.put(classElement, copyClass(classElement));
+            }
+        }
+        List<Object> originals = new ArrayList<>();
+        for (DiagramElement element : diagram.getElements()) {
+            if (element instanceof ClassElement classElement) {
+                copy.addElement(classes.get(classElement));
+                originals.add(classElement);
+                originals.addAll(members(classElement));
+            } else if (element instanceof RelationshipElement relationship) {
+                copy.addElement(copyRelationship(relationship, classes));
+                originals.add(relationship);
+            }
+        }
+        return new DiagramSnapshot(diagram, copy, originals);
+    }
+
+    /**
+     * Diagramme d'origine
+     */
+    public ClassDiagram getOriginal() {
+        return original;
+    }
+
+    /**
+     * Copie à enregistrer
+     */
+    public ClassDiagram getCopy() {
+        return copy;
+    }
+
+    /**
+     * Reporte sur le diagramme d'origine les identifiants attribués à l'enregistrement de la copie.
+     * L'enregistrement conserve l'ordre des collections : le diagramme enregistré est parcouru dans le même
+     * ordre que la copie, et seuls les objets d'origine encore sans identifiant sont modifiés.
+     * Un objet supprimé dans l'éditeur depuis la copie reçoit son identifiant sans conséquence.
+     * À appeler sur le thread qui modifie le diagramme.
+     *
+     * @param saved Diagramme renvoyé par l'enregistrement de la copie
+     * @return Nombre d'identifiants reportés
+     */
+    public int applyGeneratedIds(ClassDiagram saved) {
+        int assigned = 0;
+        if (original.getId() == null) {
+            original.setId(saved.getId());
+            assigned++;
+        }
+
+        List<Object> savedObjects = new ArrayList<>(originals.size());
+        for (DiagramElement element : saved.getElements()) {
+            savedObjects.add(element);
+            if (element instanceof ClassElement classElement) {
+                savedObjects.addAll(members(classElement));
+            }
+        }
+        if (savedObjects.size() != originals.size()) {
+            throw new IllegalStateException("Le diagramme enregistré ne correspond pas à la copie");
+        }
+
+        for (int i = 0; i < originals.size(); i++) {
+            Object source = originals.get(i);
+            Object target = savedObjects.get(i);
+            if (source.getClass() != target.getClass()) {
+                throw new IllegalStateException("Le diagramme enregistré ne correspond pas à la copie");
+            }
+            if (idOf(source) == null) {
+                setId(source, idOf(target));
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Attributs, puis chaque méthode suivie de ses paramètres
+     */
+    static List<Object> members(ClassElement element) {
+        List<Object> members = new ArrayList<>(element.getAttributes());
+        for (Method method : element.getMethods()) {
+            members.add(method);
+            members.addAll(method.getParameters());
+        }
+        return members;
+    }
+
+    static Long idOf(Object entity) {
+        if (entity instanceof DiagramElement element) {
+            return element.getId();
+        } else if (entity instanceof Attribute attribute) {
+            return attribute.getId();
+        } else if (entity instanceof Method method) {
+            return method.getId();
+        }
+        return ((Parameter) entity).getId();
+    }
+
+    static void setId(Object entity, Long id) {
+        if (entity instanceof DiagramElement element) {
+            element.setId(id);
+        } else if (entity instanceof Attribute attribute) {
+            attribute.setId(id);
+        } else if (entity instanceof Method method) {
+            method.setId(id);
+        } else {
+            ((Parameter) entity).setId(id);
+        }
+    }
+
+    private static ClassElement copyClass(ClassElement element) {
+        ClassElement copy = new ClassElement(element.getName());
+        copyGeometry(element, copy);
+        copy.setPackageName(element.getPackageName());
+        copy.setType(element.getType());
+        copy.setAbstract(element.isAbstract());
+        copy.setBackgroundColor(element.getBackgroundColor());
+        copy.setBorderColor(element.getBorderColor());
+        copy.setBorderWidth(element.getBorderWidth());
+        for (Attribute attribute : element.getAttributes()) {
+            Attribute attributeCopy = new Attribute(attribute.getName(), attribute.getType(), attribute.getVisibility());
+            attributeCopy.setId(attribute.getId());
+            attributeCopy.setDefaultValue(attribute.getDefaultValue());
+            attributeCopy.setStatic(attribute.isStatic());
+            attributeCopy.setFinal(attribute.isFinal());
+            copy.addAttribute(attributeCopy);
+        }
+        for (Method method : element.getMethods()) {
+            Method methodCopy = new Method(method.getName(), method.getReturnType());
+            methodCopy.setId(method.getId());
+            methodCopy.setVisibility(method.getVisibility());
+            methodCopy.setStatic(method.isStatic());
+            methodCopy.setAbstract(method.isAbstract());
+            methodCopy.setFinal(method.isFinal());
+            for (Parameter parameter : method.getParameters()) {
+                Parameter parameterCopy = new Parameter(parameter.getName(), parameter.getType());
+                parameterCopy.setId(parameter.getId());
+                parameterCopy.setDefaultValue(parameter.getDefaultValue());
+                methodCopy.addParameter(parameterCopy);
+            }
+            copy.addMethod(methodCopy);
+        }
+        return copy;
+    }
+
+    private static RelationshipElement copyRelationship(RelationshipElement relationship,
+                                                        Map<ClassElement, ClassElement> classes) {
+        RelationshipElement copy = new RelationshipElement(relationship.getName(),
+                classes.getOrDefault(relationship.getSourceElement(), relationship.getSourceElement()),
+                classes.getOrDefault(relationship.getTargetElement(), relationship.getTargetElement()),
+                relationship.getType());
+        copyGeometry(relationship, copy);
+        copy.setSourceRole(relationship.getSourceRole());
+        copy.setTargetRole(relationship.getTargetRole());
+        copy.setSourceMultiplicity(relationship.getSourceMultiplicity());
+        copy.setTargetMultiplicity(relationship.getTargetMultiplicity());
+        copy.setSourceTooltip(relationship.getSourceTooltip());
+        copy.setTargetTooltip(relationship.getTargetTooltip());
+        copy.setLineColor(relationship.getLineColor());
+        copy.setLineWidth(relationship.getLineWidth());
+        copy.setLineStyle(relationship.getLineStyle());
+        for (RelationshipElement.Point point : relationship.getControlPoints()) {
+            copy.getControlPoints().add(new RelationshipElement.Point(point.getX(), point.getY()));
+        }
+        return copy;
+    }
+
+    private static void copyGeometry(DiagramElement element, DiagramElement copy) {
+        copy.setId(element.getId());
+        copy.setUuid(element.getUuid());
+        copy.setX(element.getX());
+        copy.setY(element.getY());
+        copy.setWidth(element.getWidth());
+        copy.setHeight(element.getHeight());
+    }
+}
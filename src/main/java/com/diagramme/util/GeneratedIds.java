@@ -0,0 +1,128 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Identifiants attribués par un enregistrement fait sans copie du diagramme affiché (rejeu du journal
+ * sur la version en base), à reporter ensuite sur le diagramme affiché.
+ * Seuls les éléments qui avaient un objet sans identifiant avant l'enregistrement sont relevés ;
+ * un élément est retrouvé par son uuid, ses attributs, méthodes et paramètres par leur position.
+ */
+public final class GeneratedIds {
+
+    // Par uuid : identifiant de l'élément, puis ceux de ses membres dans l'ordre de DiagramSnapshot
+    private final Map<String, Long[]> byUuid;
+
+    private GeneratedIds(Map<String, Long[]> byUuid) {
+        this.byUuid = byUuid;
+    }
+
+    /**
+     * Uuid des éléments dont l'élément ou un membre n'a pas encore d'identifiant ; avant l'enregistrement
+     */
+    public static Set<String> unsaved(ClassDiagram diagram) {
+        Set<String> uuids = new HashSet<>();
+        for (DiagramElement element : diagram.getElements()) {
+            if (element.getUuid() != null && hasMissingId(element)) {
+                uuids.add(element.getUuid());
+            }
+        }
+        return uuids;
+    }
+
+    /**
+     * Relève les identifiants des éléments donnés ; après l'enregistrement, tant que le diagramme est chargé
+     */
+    public static GeneratedIds of(ClassDiagram saved, Set<String> uuids) {
+        Map<String, Long[]> byUuid = new HashMap<>();
+        for (DiagramElement element : saved.getElements()) {
+            if (element.getUuid() != null && uuids.contains(element.getUuid())) {
+                List<Object> objects = objects(element);
+                Long[] ids = new Long[objects.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = DiagramSnapshot.idOf(objects.get(i));
+                }
+                byUuid.put(element.getUuid(), ids);
+            }
+        }
+        return new GeneratedIds(byUuid);
+    }
+
+    /**
+     * Nombre d'éléments relevés
+     */
+    public int size() {
+        return byUuid.size();
+    }
+
+    /**
+     * Reporte les identifiants sur les objets encore sans identifiant. Les membres d'une classe modifiée
+     * depuis l'enregistrement (membres ajoutés, supprimés ou déplacés) sont laissés tels quels : le prochain enregistrement
+     * les remplacera. À appeler sur le thread qui modifie le diagramme.
+     *
+     * @return Nombre d'identifiants reportés
+     */
+    public int applyTo(ClassDiagram diagram) {
+        int assigned = 0;
+        for (DiagramElement element : diagram.getElements()) {
+            Long[] ids = element.getUuid() != null ? byUuid.get(element.getUuid()) : null;
+            if (ids == null) {
+                continue;
+            }
+            List<Object> objects = objects(element);
+            int count = sameShape(objects, ids) ? ids.length : 1;
+            for (int i = 0; i < count; i++) {
+                if (DiagramSnapshot.idOf(objects.get(i)) == null && ids[i] != null) {
+                    DiagramSnapshot.setId(objects.get(i), ids[i]);
+                    assigned++;
+                }
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Mêmes membres qu'à l'enregistrement : même nombre, et ceux qui ont un identifiant à la même position
+     */
+    private static boolean sameShape(List<Object> objects, Long[] ids) {
+        if (objects.size() != ids.length) {
+            return false;
+        }
+        for (int i = 1; i < ids.length; i++) {
+            Long id = DiagramSnapshot.idOf(objects.get(i));
+            if (id != null && !id.equals(ids[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasMissingId(DiagramElement element) {
+        for (Object object : objects(element)) {
+            if (DiagramSnapshot.idOf(object) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * L'élément, suivi de ses membres s'il s'agit d'une classe
+     */
+    private static List<Object> objects(DiagramElement element) {
+        if (element instanceof ClassElement classElement) {
+            List<Object> objects = DiagramSnapshot.members(classElement);
+            objects.add(0, element);
+            return objects;
+        }
+        return List.of(element);
+    }
+}
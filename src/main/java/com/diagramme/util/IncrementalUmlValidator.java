@@ -0,0 +1,457 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+
+import java.util.*;
+
+/**
+ * Validation UML incrémentale d'un diagramme en cours d'édition.
+ *
+ * L'éditeur signale chaque ajout, suppression ou modification d'élément ; seules les règles
+ * et le voisinage concernés sont réévalués :
+ * - unicité des noms via un index par nom complet
+ * - cycles d'héritage par recherche d'accessibilité à partir de la relation ajoutée
+ * - héritage multiple, implémentation et multiplicités relation par relation
+ *
+ * Les problèmes sont rattachés aux éléments, avec les mêmes messages que {@link UmlValidator}.
+ * Les identités d'objets servent de clés : les entités redéfinissent equals/hashCode sur des champs modifiables.
+ */
+public class IncrementalUmlValidator {
+
+    /**
+     * Extrémités et type d'une relation tels qu'indexés
+     */
+    private record Edge(ClassElement source, ClassElement target, RelationshipType type) {
+    }
+
+    // Classes présentes et leur nom complet indexé
+    private final Map<ClassElement, String> classNames = new IdentityHashMap<>();
+    private final Map<String, List<ClassElement>> classesByName = new HashMap<>();
+
+    // Relations indexées et adjacence par classe
+    private final Map<RelationshipElement, Edge> edges = new IdentityHashMap<>();
+    private final Map<ClassElement, List<RelationshipElement>> outgoing = new IdentityHashMap<>();
+    private final Map<ClassElement, List<RelationshipElement>> incoming = new IdentityHashMap<>();
+
+    private final Set<ClassElement> cyclicClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<DiagramElement, List<String>> issues = new IdentityHashMap<>();
+
+    /**
+     * Construit l'état initial à partir d'un diagramme complet
+     */
+    public IncrementalUmlValidator(ClassDiagram diagram) {
+        List<ClassElement> classes = diagram.getClasses();
+        List<RelationshipElement> relationships = diagram.getRelationships();
+
+        for (ClassElement classElement : classes) {
+            indexName(classElement);
+        }
+        for (RelationshipElement relationship : relationships) {
+            indexEdge(relationship);
+        }
+
+        // Cycles existants : une seule passe de Tarjan sur tout le diagramme
+        boolean[] inCycle = new InheritanceGraph(classes, relationships).findClassesInCycles();
+        for (int i = 0; i < classes.size(); i++) {
+            if (inCycle[i]) {
+                cyclicClasses.add(classes.get(i));
+            }
+        }
+
+        for (ClassElement classElement : classes) {
+            recompute(classElement);
+        }
+        for (RelationshipElement relationship : relationships) {
+            recompute(relationship);
+        }
+    }
+
+    /**
+     * Prend en compte un élément ajouté au diagramme
+     *
+     * @return Les éléments dont la liste de problèmes a changé
+     */
+    public Set<DiagramElement> elementAdded(DiagramElement element) {
+        Set<DiagramElement> dirty = newIdentitySet();
+
+        if (element instanceof ClassElement classElement) {
+            if (classNames.containsKey(classElement)) {
+                return elementUpdated(element);
+            }
+            dirty.add(classElement);
+            dirty.addAll(indexName(classElement));
+
+            // Relations déjà connues qui deviennent actives avec cette classe
+            for (RelationshipElement relationship : incident(classElement)) {
+                dirty.add(relationship);
+                Edge edge = edges.get(relationship);
+                dirty.add(edge.source());
+                if (edge.type() == RelationshipType.INHERITANCE) {
+                    dirty.addAll(inheritanceAdded(edge.source(), edge.target()));
+                }
+            }
+        } else if (element instanceof RelationshipElement relationship) {
+            if (edges.containsKey(relationship)) {
+                return elementUpdated(element);
+            }
+            Edge edge = indexEdge(relationship);
+            dirty.add(relationship);
+            dirty.add(edge.source());
+            if (edge.type() == RelationshipType.INHERITANCE) {
+                dirty.addAll(inheritanceAdded(edge.source(), edge.target()));
+            }
+        }
+
+        return recomputeAll(dirty);
+    }
+
+    /**
+     * Prend en compte un élément retiré du diagramme
+     *
+     * @return Les éléments dont la liste de problèmes a changé
+     */
+    public Set<DiagramElement> elementRemoved(DiagramElement element) {
+        Set<DiagramElement> dirty = newIdentitySet();
+        // Éléments retirés qui portaient des problèmes : leur marqueur doit disparaître
+        Set<DiagramElement> cleared = newIdentitySet();
+
+        if (element instanceof ClassElement classElement && classNames.containsKey(classElement)) {
+            dirty.addAll(unindexName(classElement));
+
+            // Les relations de la classe supprimée sont retirées avec elle
+            for (RelationshipElement relationship : incident(classElement)) {
+                Edge edge = unindexEdge(relationship);
+                dirty.add(edge.source());
+                dirty.add(edge.target());
+                if (issues.remove(relationship) != null) {
+                    cleared.add(relationship);
+                }
+            }
+            if (cyclicClasses.remove(classElement)) {
+                dirty.addAll(recomputeCycles());
+            }
+            if (issues.remove(classElement) != null) {
+                cleared.add(classElement);
+            }
+        } else if (element instanceof RelationshipElement relationship && edges.containsKey(relationship)) {
+            Edge edge = unindexEdge(relationship);
+            dirty.add(edge.source());
+            if (edge.type() == RelationshipType.INHERITANCE && cyclicClasses.contains(edge.source())) {
+                dirty.addAll(recomputeCycles());
+            }
+            if (issues.remove(relationship) != null) {
+                cleared.add(relationship);
+            }
+        }
+
+        Set<DiagramElement> changed = recomputeAll(dirty);
+        changed.addAll(cleared);
+        return changed;
+    }
+
+    /**
+     * Prend en compte la modification d'un élément (nom, package, type, multiplicités...)
+     *
+     * @return Les éléments dont la liste de problèmes a changé
+     */
+    public Set<DiagramElement> elementUpdated(DiagramElement element) {
+        Set<DiagramElement> dirty = newIdentitySet();
+
+        if (element instanceof ClassElement classElement) {
+            if (!classNames.containsKey(classElement)) {
+                return elementAdded(element);
+            }
+            dirty.add(classElement);
+
+            // Renommage : changement de compartiment dans l'index des noms
+            if (!Objects.equals(fullName(classElement), classNames.get(classElement))) {
+                dirty.addAll(unindexName(classElement));
+                dirty.addAll(indexName(classElement));
+            }
+
+            // Le type de la classe intervient dans les règles de ses relations
+            dirty.addAll(incident(classElement));
+        } else if (element instanceof RelationshipElement relationship) {
+            Edge previous = edges.get(relationship);
+            if (previous == null) {
+                return elementAdded(element);
+            }
+            dirty.add(relationship);
+
+            if (!previous.equals(edgeOf(relationship))) {
+                unindexEdge(relationship);
+                Edge edge = indexEdge(relationship);
+                dirty.add(previous.source());
+                dirty.add(edge.source());
+
+                if (previous.type() == RelationshipType.INHERITANCE && cyclicClasses.contains(previous.source())) {
+                    dirty.addAll(recomputeCycles());
+                }
+                if (edge.type() == RelationshipType.INHERITANCE) {
+                    dirty.addAll(inheritanceAdded(edge.source(), edge.target()));
+                }
+            }
+        }
+
+        return recomputeAll(dirty);
+    }
+
+    /**
+     * Problèmes actuellement rattachés à un élément
+     */
+    public List<String> getIssues(DiagramElement element) {
+        return issues.getOrDefault(element, List.of());
+    }
+
+    /**
+     * Indique si le diagramme ne présente aucun problème
+     */
+    public boolean isValid() {
+        return issues.isEmpty();
+    }
+
+    /**
+     * Nombre total de problèmes
+     */
+    public int getIssueCount() {
+        int count = 0;
+        for (List<String> elementIssues : issues.values()) {
+            count += elementIssues.size();
+        }
+        return count;
+    }
+
+    // ---------------------------------------------------------------------
+    // Index des noms
+
+    private static String fullName(ClassElement element) {
+        return element.getPackageName() != null && !element.getPackageName().isEmpty()
+                ? element.getPackageName() + "." + element.getName()
+                : element.getName();
+    }
+
+    /**
+     * Ajoute une classe à l'index des noms et retourne les classes du même compartiment
+     */
+    private List<ClassElement> indexName(ClassElement classElement) {
+        String name = fullName(classElement);
+        classNames.put(classElement, name);
+        List<ClassElement> bucket = classesByName.computeIfAbsent(name, k -> new ArrayList<>(1));
+        bucket.add(classElement);
+        return bucket;
+    }
+
+    /**
+     * Retire une classe de l'index des noms et retourne les classes restantes du compartiment
+     */
+    private List<ClassElement> unindexName(ClassElement classElement) {
+        String name = classNames.remove(classElement);
+        List<ClassElement> bucket = classesByName.get(name);
+        if (bucket == null) {
+            return List.of();
+        }
+        bucket.removeIf(c -> c == classElement);
+        if (bucket.isEmpty()) {
+            classesByName.remove(name);
+            return List.of();
+        }
+        return new ArrayList<>(bucket);
+    }
+
+    // ---------------------------------------------------------------------
+    // Index des relations
+
+    private static Edge edgeOf(RelationshipElement relationship) {
+        return new Edge(relationship.getSourceElement(), relationship.getTargetElement(), relationship.getType());
+    }
+
+    private Edge indexEdge(RelationshipElement relationship) {
+        Edge edge = edgeOf(relationship);
+        edges.put(relationship, edge);
+        outgoing.computeIfAbsent(edge.source(), k -> new ArrayList<>()).add(relationship);
+        incoming.computeIfAbsent(edge.target(), k -> new ArrayList<>()).add(relationship);
+        return edge;
+    }
+
+    private Edge unindexEdge(RelationshipElement relationship) {
+        Edge edge = edges.remove(relationship);
+        removeFrom(outgoing, edge.source(), relationship);
+        removeFrom(incoming, edge.target(), relationship);
+        return edge;
+    }
+
+    private static void removeFrom(Map<ClassElement, List<RelationshipElement>> adjacency,
+                                   ClassElement classElement, RelationshipElement relationship) {
+        List<RelationshipElement> list = adjacency.get(classElement);
+        if (list != null) {
+            list.removeIf(r -> r == relationship);
+            if (list.isEmpty()) {
+                adjacency.remove(classElement);
+            }
+        }
+    }
+
+    /**
+     * Relations partant de la classe ou arrivant sur elle
+     */
+    private List<RelationshipElement> incident(ClassElement classElement) {
+        List<RelationshipElement> result = new ArrayList<>(outgoing.getOrDefault(classElement, List.of()));
+        for (RelationshipElement relationship : incoming.getOrDefault(classElement, List.of())) {
+            if (edges.get(relationship).source() != classElement) {
+                result.add(relationship);
+            }
+        }
+        return result;
+    }
+
+    private boolean isIndexed(DiagramElement element) {
+        return element instanceof ClassElement classElement ? classNames.containsKey(classElement)
+                : element instanceof RelationshipElement relationship && edges.containsKey(relationship);
+    }
+
+    // ---------------------------------------------------------------------
+    // Cycles d'héritage
+
+    /**
+     * Après l'ajout de « source hérite de target », les classes qui entrent dans un cycle sont celles
+     * situées sur un chemin de target vers source : ancêtres de target qui sont aussi descendants de source
+     */
+    private Set<ClassElement> inheritanceAdded(ClassElement source, ClassElement target) {
+        if (!classNames.containsKey(source) || !classNames.containsKey(target)) {
+            return Set.of();
+        }
+        if (source == target) {
+            return cyclicClasses.add(source) ? Set.of(source) : Set.of();
+        }
+
+        Set<ClassElement> ancestors = reachable(target, true, null);
+        if (!ancestors.contains(source)) {
+            return Set.of();
+        }
+        Set<ClassElement> onCycle = reachable(source, false, ancestors);
+
+        Set<ClassElement> added = newIdentitySet();
+        for (ClassElement classElement : onCycle) {
+            if (cyclicClasses.add(classElement)) {
+                added.add(classElement);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Parcours en largeur des ancêtres (upward) ou des descendants d'une classe par héritage,
+     * éventuellement restreint à un ensemble de classes
+     */
+    private Set<ClassElement> reachable(ClassElement start, boolean upward, Set<ClassElement> within) {
+        Set<ClassElement> visited = newIdentitySet();
+        Deque<ClassElement> queue = new ArrayDeque<>();
+        visited.add(start);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            ClassElement current = queue.poll();
+            List<RelationshipElement> adjacent = (upward ? outgoing : incoming).getOrDefault(current, List.of());
+            for (RelationshipElement relationship : adjacent) {
+                Edge edge = edges.get(relationship);
+                if (edge.type() != RelationshipType.INHERITANCE) {
+                    continue;
+                }
+                ClassElement next = upward ? edge.target() : edge.source();
+                if (classNames.containsKey(next) && (within == null || within.contains(next)) && visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Après une suppression, seuls des cycles existants peuvent disparaître :
+     * on relance Tarjan sur le seul sous-graphe des classes qui étaient dans un cycle
+     */
+    private Set<ClassElement> recomputeCycles() {
+        List<ClassElement> candidates = new ArrayList<>(cyclicClasses);
+        Set<ClassElement> candidateSet = newIdentitySet();
+        candidateSet.addAll(candidates);
+
+        List<RelationshipElement> inheritance = new ArrayList<>();
+        for (ClassElement classElement : candidates) {
+            for (RelationshipElement relationship : outgoing.getOrDefault(classElement, List.of())) {
+                Edge edge = edges.get(relationship);
+                if (edge.type() == RelationshipType.INHERITANCE && candidateSet.contains(edge.target())) {
+                    inheritance.add(relationship);
+                }
+            }
+        }
+
+        boolean[] inCycle = new InheritanceGraph(candidates, inheritance).findClassesInCycles();
+        Set<ClassElement> removed = newIdentitySet();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!inCycle[i]) {
+                cyclicClasses.remove(candidates.get(i));
+                removed.add(candidates.get(i));
+            }
+        }
+        return removed;
+    }
+
+    // ---------------------------------------------------------------------
+    // Problèmes par élément
+
+    private Set<DiagramElement> recomputeAll(Set<DiagramElement> dirty) {
+        Set<DiagramElement> changed = newIdentitySet();
+        for (DiagramElement element : dirty) {
+            if (isIndexed(element) && recompute(element)) {
+                changed.add(element);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Recalcule les problèmes d'un élément
+     *
+     * @return true si la liste a changé
+     */
+    private boolean recompute(DiagramElement element) {
+        List<String> elementIssues = new ArrayList<>(0);
+
+        if (element instanceof ClassElement classElement) {
+            String name = classNames.get(classElement);
+            if (classesByName.get(name).size() > 1) {
+                elementIssues.add("Nom de classe en double: " + name);
+            }
+
+            if (cyclicClasses.contains(classElement)) {
+                elementIssues.add("Cycle d'héritage détecté impliquant " + classElement.getName());
+            }
+
+            if (classElement.getType() == ClassElement.ClassType.CLASS ||
+                    classElement.getType() == ClassElement.ClassType.ENUM) {
+                int inheritanceCount = 0;
+                for (RelationshipElement relationship : outgoing.getOrDefault(classElement, List.of())) {
+                    if (edges.get(relationship).type() == RelationshipType.INHERITANCE) {
+                        inheritanceCount++;
+                    }
+                }
+                if (inheritanceCount > 1) {
+                    elementIssues.add("Héritage multiple détecté pour " + classElement.getName() + " (non autorisé en Java)");
+                }
+            }
+        } else if (element instanceof RelationshipElement relationship) {
+            UmlValidator.checkRelationship(relationship, elementIssues);
+        }
+
+        List<String> previous = elementIssues.isEmpty() ? issues.remove(element) : issues.put(element, elementIssues);
+        return !Objects.equals(previous == null ? List.of() : previous, elementIssues);
+    }
+
+    private static <E> Set<E> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
@@ -0,0 +1,207 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Graphe d'héritage d'un diagramme, indexé une seule fois sous forme de listes d'adjacence compactes.
+ * Les classes sont identifiées par leur position dans la liste des classes du diagramme.
+ * Vue en lecture seule, partageable entre threads : les règles qui déclarent
+ * {@link UmlRule.Scope#INHERITANCE_GRAPH} la reçoivent par {@link ValidationContext#getInheritanceGraph()}.
+ */
+public final class InheritanceGraph {
+
+    private final int classCount;
+    private final Map<ClassElement, Integer> classIndex;
+
+    // Parents de la classe i : parents[offsets[i]] .. parents[offsets[i + 1] - 1]
+    private final int[] offsets;
+    private final int[] parents;
+
+    // Relations d'héritage sortantes, y compris vers des classes hors du diagramme
+    private final int[] inheritanceCounts;
+    private final boolean[] selfInheritance;
+
+    private volatile boolean[] inCycle;
+
+    InheritanceGraph(List<ClassElement> classes, List<RelationshipElement> relationships) {
+        this.classCount = classes.size();
+
+        this.classIndex = new IdentityHashMap<>(classCount * 2);
+        for (int i = 0; i < classCount; i++) {
+            classIndex.putIfAbsent(classes.get(i), i);
+        }
+
+        // Première passe : compter les arcs de chaque classe
+        int[] sources = new int[relationships.size()];
+        int[] targets = new int[relationships.size()];
+        int edgeCount = 0;
+        this.inheritanceCounts = new int[classCount];
+        this.selfInheritance = new boolean[classCount];
+        this.offsets = new int[classCount + 1];
+
+        for (RelationshipElement relationship : relationships) {
+            if (relationship.getType() != RelationshipType.INHERITANCE) {
+                continue;
+            }
+            Integer source = classIndex.get(relationship.getSourceElement());
+            if (source == null) {
+                continue;
+            }
+            inheritanceCounts[source]++;
+
+            Integer target = classIndex.get(relationship.getTargetElement());
+            if (target == null) {
+                continue;
+            }
+            if (target.intValue() == source.intValue()) {
+                selfInheritance[source] = true;
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            offsets[source + 1]++;
+            edgeCount++;
+        }
+
+        // Seconde passe : ranger les arcs par classe source
+        for (int i = 0; i < classCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        this.parents = new int[edgeCount];
+        int[] next = Arrays.copyOf(offsets, classCount);
+        for (int e = 0; e < edgeCount; e++) {
+            parents[next[sources[e]]++] = targets[e];
+        }
+    }
+
+    /**
+     * Nombre de classes du graphe
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Position d'une classe dans la liste des classes, -1 si elle n'appartient pas au diagramme
+     */
+    public int indexOf(ClassElement element) {
+        Integer index = classIndex.get(element);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Nombre de relations d'héritage partant de la classe, y compris vers des classes hors du diagramme
+     */
+    public int getInheritanceCount(int classIndex) {
+        return inheritanceCounts[classIndex];
+    }
+
+    /**
+     * Nombre de parents de la classe appartenant au diagramme
+     */
+    public int getParentCount(int classIndex) {
+        return offsets[classIndex + 1] - offsets[classIndex];
+    }
+
+    /**
+     * Position du n-ième parent de la classe, 0 &lt;= n &lt; {@link #getParentCount(int)}
+     */
+    public int getParent(int classIndex, int n) {
+        if (n < 0 || n >= getParentCount(classIndex)) {
+            throw new IndexOutOfBoundsException("Parent " + n + " de la classe " + classIndex);
+        }
+        return parents[offsets[classIndex] + n];
+    }
+
+    /**
+     * Vérifie si la classe appartient à un cycle d'héritage ; les cycles sont calculés une fois,
+     * au premier appel
+     */
+    public boolean isInCycle(int classIndex) {
+        boolean[] cycles = inCycle;
+        if (cycles == null) {
+            // Calcul concurrent possible mais sans effet : le résultat est le même
+            cycles = findClassesInCycles();
+            inCycle = cycles;
+        }
+        return cycles[classIndex];
+    }
+
+    /**
+     * Repère les classes impliquées dans un cycle d'héritage (algorithme de Tarjan, version itérative
+     * pour ne pas dépendre de la profondeur de la pile sur de longues chaînes d'héritage)
+     */
+    boolean[] findClassesInCycles() {
+        boolean[] inCycle = new boolean[classCount];
+        int[] index = new int[classCount];
+        int[] lowLink = new int[classCount];
+        boolean[] onStack = new boolean[classCount];
+        int[] stack = new int[classCount];
+        int[] callStack = new int[classCount];
+        int[] edgeCursor = new int[classCount];
+        Arrays.fill(index, -1);
+
+        int nextIndex = 0;
+        int stackSize = 0;
+
+        for (int root = 0; root < classCount; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            edgeCursor[root] = offsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+
+                if (edgeCursor[v] < offsets[v + 1]) {
+                    int w = parents[edgeCursor[v]++];
+                    if (index[w] == -1) {
+                        index[w] = lowLink[w] = nextIndex++;
+                        edgeCursor[w] = offsets[w];
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // Tous les parents de v ont été explorés
+                depth--;
+                if (lowLink[v] == index[v]) {
+                    int componentStart = stackSize;
+                    int w;
+                    do {
+                        w = stack[--componentStart];
+                        onStack[w] = false;
+                    } while (w != v);
+
+                    boolean cyclic = stackSize - componentStart > 1 || selfInheritance[v];
+                    for (int k = componentStart; k < stackSize; k++) {
+                        inCycle[stack[k]] = cyclic;
+                    }
+                    stackSize = componentStart;
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                }
+            }
+        }
+
+        return inCycle;
+    }
+}
@@ -0,0 +1,181 @@
+package com.diagramme.util;
+
+/**
+ * Multiplicité UML : borne inférieure et borne supérieure ({@link #UNBOUNDED} pour {@code *}).
+ *
+ * Formes acceptées, espaces en tête et en fin ignorés :
+ * <ul>
+ *   <li>{@code n} : exactement n ({@code 1} équivaut à {@code 1..1})</li>
+ *   <li>{@code *} : zéro ou plus ({@code 0..*})</li>
+ *   <li>{@code m..n} avec m ≤ n, et {@code m..*}</li>
+ * </ul>
+ * L'analyse est écrite à la main et ne fait aucune allocation : {@link #isValid} ne crée aucun objet
+ * et {@link #parse} renvoie des instances partagées pour les multiplicités courantes.
+ */
+public record Multiplicity(int lower, int upper) {
+
+    /**
+     * Borne supérieure non limitée ({@code *})
+     */
+    public static final int UNBOUNDED = -1;
+
+    public static final Multiplicity ZERO = new Multiplicity(0, 0);
+    public static final Multiplicity ONE = new Multiplicity(1, 1);
+    public static final Multiplicity OPTIONAL = new Multiplicity(0, 1);
+    public static final Multiplicity MANY = new Multiplicity(0, UNBOUNDED);
+    public static final Multiplicity ONE_OR_MORE = new Multiplicity(1, UNBOUNDED);
+
+    // Résultat de l'analyse d'une borne : valeur, ou l'un des codes ci-dessous
+    private static final long STAR = -1;
+    private static final long INVALID = -2;
+
+    public Multiplicity {
+        if (lower < 0 || (upper != UNBOUNDED && upper < lower)) {
+            throw new IllegalArgumentException("Multiplicité invalide: " + lower + ".." + upper);
+        }
+    }
+
+    /**
+     * Indique si le texte est une multiplicité valide
+     */
+    public static boolean isValid(CharSequence text) {
+        return analyze(text) != INVALID;
+    }
+
+    /**
+     * Analyse une multiplicité ; renvoie {@code null} si le texte n'est pas valide
+     */
+    public static Multiplicity parse(CharSequence text) {
+        long packed = analyze(text);
+        if (packed == INVALID) {
+            return null;
+        }
+        int lower = (int) (packed >>> 32);
+        int upper = (int) packed;
+        return of(lower, upper);
+    }
+
+    /**
+     * Multiplicité de bornes données, en réutilisant les instances courantes
+     */
+    public static Multiplicity of(int lower, int upper) {
+        if (upper == UNBOUNDED) {
+            if (lower == 0) {
+                return MANY;
+            }
+            if (lower == 1) {
+                return ONE_OR_MORE;
+            }
+        } else if (lower == upper) {
+            if (lower == 0) {
+                return ZERO;
+            }
+            if (lower == 1) {
+                return ONE;
+            }
+        } else if (lower == 0 && upper == 1) {
+            return OPTIONAL;
+        }
+        return new Multiplicity(lower, upper);
+    }
+
+    public boolean isUnbounded() {
+        return upper == UNBOUNDED;
+    }
+
+    /**
+     * Indique si un nombre d'occurrences respecte la multiplicité
+     */
+    public boolean allows(int count) {
+        return count >= lower && (upper == UNBOUNDED || count <= upper);
+    }
+
+    /**
+     * Forme textuelle canonique : {@code 1}, {@code *}, {@code 0..1}, {@code 1..*}...
+     */
+    @Override
+    public String toString() {
+        if (upper == UNBOUNDED) {
+            return lower == 0 ? "*" : lower + "..*";
+        }
+        return lower == upper ? Integer.toString(lower) : lower + ".." + upper;
+    }
+
+    /**
+     * Analyse le texte et renvoie les bornes empaquetées (inférieure sur les 32 bits de poids fort,
+     * supérieure sur les 32 bits de poids faible), ou {@link #INVALID}
+     */
+    private static long analyze(CharSequence text) {
+        if (text == null) {
+            return INVALID;
+        }
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return INVALID;
+        }
+
+        int separator = -1;
+        for (int i = start; i < end - 1; i++) {
+            if (text.charAt(i) == '.' && text.charAt(i + 1) == '.') {
+                separator = i;
+                break;
+            }
+        }
+
+        if (separator < 0) {
+            long value = bound(text, start, end);
+            if (value == INVALID) {
+                return INVALID;
+            }
+            // "*" seul signifie 0..*
+            return value == STAR ? pack(0, UNBOUNDED) : pack((int) value, (int) value);
+        }
+
+        long lower = bound(text, start, separator);
+        long upper = bound(text, separator + 2, end);
+        if (lower == INVALID || lower == STAR || upper == INVALID) {
+            return INVALID;
+        }
+        if (upper == STAR) {
+            return pack((int) lower, UNBOUNDED);
+        }
+        return lower <= upper ? pack((int) lower, (int) upper) : INVALID;
+    }
+
+    /**
+     * Analyse une borne : entier décimal positif tenant sur un int, ou {@code *}
+     */
+    private static long bound(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return INVALID;
+        }
+        if (end - start == 1 && text.charAt(start) == '*') {
+            return STAR;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return INVALID;
+            }
+        }
+        return value;
+    }
+
+    private static long pack(int lower, int upper) {
+        return ((long) lower << 32) | (upper & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,83 @@
+package com.diagramme.util;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métriques cumulées par règle de validation : nombre d'exécutions, temps passé et problèmes trouvés.
+ * Peut être alimenté depuis plusieurs threads.
+ */
+public final class RuleMetrics {
+
+    private final Map<String, Counters> countersByRule = new ConcurrentHashMap<>();
+
+    /**
+     * Enregistre une exécution de règle
+     */
+    public void record(String ruleName, long elapsedNanos, int issueCount) {
+        Counters counters = countersByRule.computeIfAbsent(ruleName, name -> new Counters());
+        counters.executions.increment();
+        counters.totalNanos.add(elapsedNanos);
+        counters.maxNanos.accumulate(elapsedNanos);
+        counters.issues.add(issueCount);
+    }
+
+    /**
+     * Statistiques de chaque règle, de la plus coûteuse à la moins coûteuse
+     */
+    public List<RuleStatistics> getStatistics() {
+        return countersByRule.entrySet().stream()
+                .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+                .sorted(Comparator.comparingLong(RuleStatistics::totalNanos).reversed())
+                .toList();
+    }
+
+    /**
+     * Résumé lisible, une ligne par règle, de la plus coûteuse à la moins coûteuse
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (RuleStatistics statistics : getStatistics()) {
+            summary.append(statistics.format()).append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Remet toutes les métriques à zéro
+     */
+    public void reset() {
+        countersByRule.clear();
+    }
+
+    /**
+     * Statistiques cumulées d'une règle
+     */
+    public record RuleStatistics(String ruleName, long executions, long totalNanos, long maxNanos, long issueCount) {
+
+        public double getAverageMillis() {
+            return executions == 0 ? 0 : totalNanos / 1_000_000.0 / executions;
+        }
+
+        String format() {
+            return String.format("%s : %.1f ms au total, %.2f ms en moyenne, %.2f ms au plus (%d exécutions, %d problèmes)",
+                    ruleName, totalNanos / 1_000_000.0, getAverageMillis(), maxNanos / 1_000_000.0, executions,
+                    issueCount);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder issues = new LongAdder();
+
+        RuleStatistics toStatistics(String ruleName) {
+            return new RuleStatistics(ruleName, executions.sum(), totalNanos.sum(), maxNanos.get(), issues.sum());
+        }
+    }
+}
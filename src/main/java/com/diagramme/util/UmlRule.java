@@ -0,0 +1,36 @@
+package com.diagramme.util;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Règle de validation UML.
+ * Chaque règle déclare les données qu'elle inspecte : le moteur ne les extrait du diagramme
+ * qu'une seule fois par validation et les partage entre toutes les règles qui les demandent.
+ */
+public interface UmlRule {
+
+    /**
+     * Données du diagramme qu'une règle peut inspecter
+     */
+    enum Scope {
+        CLASSES,
+        RELATIONSHIPS,
+        INHERITANCE_GRAPH
+    }
+
+    /**
+     * Nom de la règle, utilisé pour les métriques
+     */
+    String getName();
+
+    /**
+     * Données inspectées par la règle ; seules celles-ci sont accessibles dans le contexte
+     */
+    Set<Scope> getScopes();
+
+    /**
+     * Vérifie le diagramme et ajoute les problèmes trouvés à la liste
+     */
+    void check(ValidationContext context, List<String> issues);
+}
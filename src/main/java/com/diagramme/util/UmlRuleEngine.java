@@ -0,0 +1,128 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassDiagram;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moteur de validation : exécute un ensemble de règles sur un diagramme en partageant
+ * l'extraction des données entre les règles, et chronomètre chaque règle.
+ * Des règles peuvent être ajoutées après sa création ; une validation en cours garde les règles
+ * présentes à son début.
+ */
+@Slf4j
+public final class UmlRuleEngine {
+
+    private final RuleMetrics metrics;
+    private volatile RuleSet ruleSet;
+
+    public UmlRuleEngine(List<UmlRule> rules, RuleMetrics metrics) {
+        this.metrics = metrics;
+        this.ruleSet = RuleSet.of(rules);
+    }
+
+    /**
+     * Ajoute une règle après les règles existantes ; une règle de même nom est remplacée à sa place
+     */
+    public synchronized void register(UmlRule rule) {
+        List<UmlRule> updated = new ArrayList<>(ruleSet.rules());
+        int index = -1;
+        for (int i = 0; i < updated.size() && index < 0; i++) {
+            if (updated.get(i).getName().equals(rule.getName())) {
+                index = i;
+            }
+        }
+        if (index >= 0) {
+            updated.set(index, rule);
+        } else {
+            updated.add(rule);
+        }
+        ruleSet = RuleSet.of(updated);
+        log.debug("Règle de validation enregistrée : {}", rule.getName());
+    }
+
+    /**
+     * Règles du moteur, dans leur ordre d'exécution
+     */
+    public List<UmlRule> getRules() {
+        return ruleSet.rules();
+    }
+
+    public RuleMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Applique toutes les règles, dans leur ordre de déclaration
+     */
+    public List<String> validate(ClassDiagram diagram) {
+        RuleSet current = ruleSet;
+        ValidationContext context = new ValidationContext(diagram, current.scopes());
+        List<String> issues = new ArrayList<>();
+        for (UmlRule rule : current.rules()) {
+            run(rule, context, issues);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Validation de '{}' : {} problème(s)\n{}", diagram.getName(), issues.size(), metrics.getSummary());
+        }
+        return issues;
+    }
+
+    /**
+     * Applique une seule règle ; seules les données qu'elle déclare sont extraites
+     */
+    public List<String> validate(ClassDiagram diagram, UmlRule rule) {
+        return validate(new ValidationContext(diagram, rule.getScopes()), rule);
+    }
+
+    /**
+     * Contexte couvrant les données de toutes les règles du moteur, à partager entre plusieurs appels
+     * de {@link #validate(ValidationContext, UmlRule)}, éventuellement sur plusieurs threads.
+     * Le diagramme ne doit plus être modifié tant que le contexte est utilisé.
+     */
+    public ValidationContext createContext(ClassDiagram diagram) {
+        return new ValidationContext(diagram, ruleSet.scopes());
+    }
+
+    /**
+     * Applique une seule règle sur un contexte déjà extrait : les règles qui partagent un parcours
+     * (graphe d'héritage) ne le construisent qu'une fois
+     */
+    public List<String> validate(ValidationContext context, UmlRule rule) {
+        List<String> issues = new ArrayList<>();
+        run(rule, context, issues);
+        return issues;
+    }
+
+    private void run(UmlRule rule, ValidationContext context, List<String> issues) {
+        // Les données partagées sont construites hors du temps de la règle
+        context.prepare(rule.getScopes());
+        int issuesBefore = issues.size();
+        long start = System.nanoTime();
+        rule.check(context, issues);
+        long elapsed = System.nanoTime() - start;
+
+        int found = issues.size() - issuesBefore;
+        metrics.record(rule.getName(), elapsed, found);
+        log.trace("Règle '{}' : {} problème(s) en {} µs", rule.getName(), found, elapsed / 1000);
+    }
+
+    /**
+     * Règles et données qu'elles déclarent, remplacées ensemble à chaque enregistrement
+     */
+    private record RuleSet(List<UmlRule> rules, Set<UmlRule.Scope> scopes) {
+
+        static RuleSet of(List<UmlRule> rules) {
+            Set<UmlRule.Scope> scopes = EnumSet.noneOf(UmlRule.Scope.class);
+            for (UmlRule rule : rules) {
+                scopes.addAll(rule.getScopes());
+            }
+            return new RuleSet(List.copyOf(rules), Collections.unmodifiableSet(scopes));
+        }
+    }
+}
@@ -5,10 +5,13 @@ import com.diagramme.model.ClassElement;
 import com.diagramme.model.RelationshipElement;
 import com.diagramme.model.enums.RelationshipType;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Validateur de diagrammes UML
@@ -16,165 +19,198 @@ import java.util.Set;
 public class UmlValidator {
 
     /**
-     * Valide un diagramme UML et retourne la liste des problèmes
+     * Noms de classes en double
+     */
+    public static final UmlRule DUPLICATE_NAMES = new BuiltInRule("Noms en double",
+            EnumSet.of(UmlRule.Scope.CLASSES),
+            (context, issues) -> checkDuplicateNames(context.getClasses(), issues));
+
+    /**
+     * Cycles d'héritage
+     */
+    public static final UmlRule INHERITANCE_CYCLES = new BuiltInRule("Cycles d'héritage",
+            EnumSet.of(UmlRule.Scope.CLASSES, UmlRule.Scope.INHERITANCE_GRAPH),
+            (context, issues) -> checkInheritanceCycles(context.getClasses(), context.getInheritanceGraph(), issues));
+
+    /**
+     * Héritage multiple (non autorisé en Java)
+     */
+    public static final UmlRule MULTIPLE_INHERITANCE = new BuiltInRule("Héritage multiple",
+            EnumSet.of(UmlRule.Scope.CLASSES, UmlRule.Scope.INHERITANCE_GRAPH),
+            (context, issues) -> checkMultipleInheritance(context.getClasses(), context.getInheritanceGraph(), issues));
+
+    /**
+     * Cohérence des relations : cibles des implémentations et multiplicités
+     */
+    public static final UmlRule RELATIONSHIPS = new BuiltInRule("Cohérence des relations",
+            EnumSet.of(UmlRule.Scope.RELATIONSHIPS),
+            (context, issues) -> checkInconsistentRelationships(context.getRelationships(), issues));
+
+    private static final UmlRuleEngine ENGINE = new UmlRuleEngine(
+            List.of(DUPLICATE_NAMES, INHERITANCE_CYCLES, MULTIPLE_INHERITANCE, RELATIONSHIPS),
+            new RuleMetrics());
+
+    /**
+     * Moteur portant les règles intégrées ; ses métriques cumulent toutes les validations de l'application
+     */
+    public static UmlRuleEngine getEngine() {
+        return ENGINE;
+    }
+
+    /**
+     * Valide un diagramme UML et retourne la liste des problèmes.
+     * Les classes et relations ne sont lues qu'une fois ; l'ensemble de la validation est en O(V+E).
      */
     public static List<String> validateDiagram(ClassDiagram diagram) {
-        List<String> issues = new ArrayList<>();
+        return ENGINE.validate(diagram);
+    }
 
-        // Vérifier les noms en double
-        checkDuplicateNames(diagram, issues);
+    /**
+     * Crée une copie détachée du diagramme limitée aux informations utiles à la validation.
+     * La copie peut être validée sur un autre thread pendant que l'original continue d'être modifié.
+     */
+    public static ClassDiagram snapshot(ClassDiagram diagram) {
+        ClassDiagram copy = new ClassDiagram(diagram.getName());
+        Map<ClassElement, ClassElement> copies = new IdentityHashMap<>();
 
-        // Vérifier les cycles d'héritage
-        checkInheritanceCycles(diagram, issues);
+        for (ClassElement element : diagram.getClasses()) {
+            copy.getElements().add(copies.computeIfAbsent(element, UmlValidator::copyClass));
+        }
 
-        // Vérifier les relations d'héritage multiples (non autorisé en Java)
-        checkMultipleInheritance(diagram, issues);
+        for (RelationshipElement relationship : diagram.getRelationships()) {
+            // Les extrémités hors du diagramme sont copiées sans être ajoutées, comme dans l'original
+            RelationshipElement relationshipCopy = new RelationshipElement(relationship.getName(),
+                    copyEndpoint(relationship.getSourceElement(), copies),
+                    copyEndpoint(relationship.getTargetElement(), copies),
+                    relationship.getType());
+            relationshipCopy.setSourceMultiplicity(relationship.getSourceMultiplicity());
+            relationshipCopy.setTargetMultiplicity(relationship.getTargetMultiplicity());
+            copy.getElements().add(relationshipCopy);
+        }
 
-        // Vérifier les relations incohérentes
-        checkInconsistentRelationships(diagram, issues);
+        return copy;
+    }
 
-        return issues;
+    private static ClassElement copyEndpoint(ClassElement element, Map<ClassElement, ClassElement> copies) {
+        return element != null ? copies.computeIfAbsent(element, UmlValidator::copyClass) : null;
+    }
+
+    private static ClassElement copyClass(ClassElement element) {
+        ClassElement copy = new ClassElement(element.getName());
+        copy.setPackageName(element.getPackageName());
+        copy.setType(element.getType());
+        copy.setAbstract(element.isAbstract());
+        return copy;
     }
 
     /**
      * Vérifie les noms en double
      */
-    private static void checkDuplicateNames(ClassDiagram diagram, List<String> issues) {
+    private static void checkDuplicateNames(List<ClassElement> classes, List<String> issues) {
         Set<String> classNames = new HashSet<>();
 
-        for (ClassElement element : diagram.getClasses()) {
+        for (ClassElement element : classes) {
             String fullName = element.getPackageName() != null && !element.getPackageName().isEmpty()
                     ? element.getPackageName() + "." + element.getName()
                     : element.getName();
 
-            if (classNames.contains(fullName)) {
+            if (!classNames.add(fullName)) {
                 issues.add("Nom de classe en double: " + fullName);
-            } else {
-                classNames.add(fullName);
             }
         }
     }
 
     /**
-     * Vérifie les cycles d'héritage
+     * Vérifie les cycles d'héritage : une classe est signalée si elle appartient
+     * à une composante fortement connexe de plusieurs classes ou hérite d'elle-même
      */
-    private static void checkInheritanceCycles(ClassDiagram diagram, List<String> issues) {
-        // Pour chaque classe, vérifier si elle est impliquée dans un cycle d'héritage
-        for (ClassElement element : diagram.getClasses()) {
-            Set<ClassElement> visited = new HashSet<>();
-            visited.add(element);
-
-            // Parcourir les parents
-            for (RelationshipElement relationship : diagram.getRelationships()) {
-                if (relationship.getType() == RelationshipType.INHERITANCE &&
-                        relationship.getSourceElement() == element) {
-
-                    ClassElement parent = relationship.getTargetElement();
-                    if (hasPathToClass(diagram, parent, element, visited)) {
-                        issues.add("Cycle d'héritage détecté impliquant " + element.getName());
-                        break;
-                    }
-                }
+    private static void checkInheritanceCycles(List<ClassElement> classes, InheritanceGraph graph, List<String> issues) {
+        for (int i = 0; i < classes.size(); i++) {
+            if (graph.isInCycle(i)) {
+                issues.add("Cycle d'héritage détecté impliquant " + classes.get(i).getName());
             }
         }
     }
 
     /**
-     * Vérifie s'il existe un chemin d'héritage de source à target
+     * Vérifie les relations d'héritage multiples (non autorisé en Java)
      */
-    private static boolean hasPathToClass(ClassDiagram diagram, ClassElement source, ClassElement target, Set<ClassElement> visited) {
-        if (source == target) {
-            return true;
-        }
-
-        visited.add(source);
-
-        for (RelationshipElement relationship : diagram.getRelationships()) {
-            if (relationship.getType() == RelationshipType.INHERITANCE &&
-                    relationship.getSourceElement() == source) {
-
-                ClassElement parent = relationship.getTargetElement();
-                if (!visited.contains(parent) && hasPathToClass(diagram, parent, target, visited)) {
-                    return true;
-                }
+    private static void checkMultipleInheritance(List<ClassElement> classes, InheritanceGraph graph, List<String> issues) {
+        for (int i = 0; i < classes.size(); i++) {
+            ClassElement element = classes.get(i);
+            if ((element.getType() == ClassElement.ClassType.CLASS ||
+                    element.getType() == ClassElement.ClassType.ENUM) &&
+                    graph.getInheritanceCount(i) > 1) {
+                issues.add("Héritage multiple détecté pour " + element.getName() + " (non autorisé en Java)");
             }
         }
-
-        return false;
     }
 
     /**
-     * Vérifie les relations d'héritage multiples (non autorisé en Java)
+     * Vérifie les relations incohérentes
      */
-    private static void checkMultipleInheritance(ClassDiagram diagram, List<String> issues) {
-        for (ClassElement element : diagram.getClasses()) {
-            if (element.getType() == ClassElement.ClassType.CLASS ||
-                    element.getType() == ClassElement.ClassType.ENUM) {
-
-                int inheritanceCount = 0;
-                for (RelationshipElement relationship : diagram.getRelationships()) {
-                    if (relationship.getType() == RelationshipType.INHERITANCE &&
-                            relationship.getSourceElement() == element) {
-                        inheritanceCount++;
-                    }
-                }
-
-                if (inheritanceCount > 1) {
-                    issues.add("Héritage multiple détecté pour " + element.getName() + " (non autorisé en Java)");
-                }
-            }
+    private static void checkInconsistentRelationships(List<RelationshipElement> relationships, List<String> issues) {
+        for (RelationshipElement relationship : relationships) {
+            checkRelationship(relationship, issues);
         }
     }
 
     /**
-     * Vérifie les relations incohérentes
+     * Vérifie la cohérence d'une relation : cible des implémentations et multiplicités
      */
-    private static void checkInconsistentRelationships(ClassDiagram diagram, List<String> issues) {
-        for (RelationshipElement relationship : diagram.getRelationships()) {
-            // Vérifier qu'une interface ne peut pas implémenter une classe
-            if (relationship.getType() == RelationshipType.IMPLEMENTATION) {
-                ClassElement source = relationship.getSourceElement();
-                ClassElement target = relationship.getTargetElement();
-
-                if (target.getType() != ClassElement.ClassType.INTERFACE) {
-                    issues.add("La relation d'implémentation de " + source.getName() +
-                            " vers " + target.getName() + " est incorrecte: la cible doit être une interface");
-                }
+    static void checkRelationship(RelationshipElement relationship, List<String> issues) {
+        // Vérifier qu'une interface ne peut pas implémenter une classe
+        if (relationship.getType() == RelationshipType.IMPLEMENTATION) {
+            ClassElement source = relationship.getSourceElement();
+            ClassElement target = relationship.getTargetElement();
+
+            if (target.getType() != ClassElement.ClassType.INTERFACE) {
+                issues.add("La relation d'implémentation de " + source.getName() +
+                        " vers " + target.getName() + " est incorrecte: la cible doit être une interface");
+            }
+        }
+
+        // Vérifier que les associations ont des rôles et multiplicités cohérents
+        if (relationship.getType() == RelationshipType.ASSOCIATION ||
+                relationship.getType() == RelationshipType.AGGREGATION ||
+                relationship.getType() == RelationshipType.COMPOSITION) {
+
+            String sourceMultiplicity = relationship.getSourceMultiplicity();
+            String targetMultiplicity = relationship.getTargetMultiplicity();
+
+            if (sourceMultiplicity != null && !sourceMultiplicity.isEmpty() && !Multiplicity.isValid(sourceMultiplicity)) {
+                issues.add("Multiplicité de source invalide '" + sourceMultiplicity +
+                        "' dans la relation entre " + relationship.getSourceElement().getName() +
+                        " et " + relationship.getTargetElement().getName());
             }
 
-            // Vérifier que les associations ont des rôles et multiplicités cohérents
-            if (relationship.getType() == RelationshipType.ASSOCIATION ||
-                    relationship.getType() == RelationshipType.AGGREGATION ||
-                    relationship.getType() == RelationshipType.COMPOSITION) {
-
-                String sourceMultiplicity = relationship.getSourceMultiplicity();
-                String targetMultiplicity = relationship.getTargetMultiplicity();
-
-                if (sourceMultiplicity != null && !sourceMultiplicity.isEmpty() && !isValidMultiplicity(sourceMultiplicity)) {
-                    issues.add("Multiplicité de source invalide '" + sourceMultiplicity +
-                            "' dans la relation entre " + relationship.getSourceElement().getName() +
-                            " et " + relationship.getTargetElement().getName());
-                }
-
-                if (targetMultiplicity != null && !targetMultiplicity.isEmpty() && !isValidMultiplicity(targetMultiplicity)) {
-                    issues.add("Multiplicité de cible invalide '" + targetMultiplicity +
-                            "' dans la relation entre " + relationship.getSourceElement().getName() +
-                            " et " + relationship.getTargetElement().getName());
-                }
+            if (targetMultiplicity != null && !targetMultiplicity.isEmpty() && !Multiplicity.isValid(targetMultiplicity)) {
+                issues.add("Multiplicité de cible invalide '" + targetMultiplicity +
+                        "' dans la relation entre " + relationship.getSourceElement().getName() +
+                        " et " + relationship.getTargetElement().getName());
             }
         }
     }
 
     /**
-     * Vérifie si une multiplicité est valide
+     * Règle intégrée, déléguant à l'une des vérifications du validateur
      */
-    private static boolean isValidMultiplicity(String multiplicity) {
-        if (multiplicity == null || multiplicity.isEmpty()) {
-            return true;
+    private record BuiltInRule(String name, Set<UmlRule.Scope> scopes, BiConsumer<ValidationContext, List<String>> checker)
+            implements UmlRule {
+
+        @Override
+        public String getName() {
+            return name;
         }
 
-        // Expressions valides: "0", "1", "*", "0..1", "0..*", "1..*", "n", "m..n"
-        String pattern = "(\\d+|\\*)|(\\d+)\\.\\.(\\d+|\\*)";
-        return multiplicity.matches(pattern);
+        @Override
+        public Set<Scope> getScopes() {
+            return scopes;
+        }
+
+        @Override
+        public void check(ValidationContext context, List<String> issues) {
+            checker.accept(context, issues);
+        }
     }
 }
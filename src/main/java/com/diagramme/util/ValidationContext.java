@@ -0,0 +1,79 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Données d'un diagramme partagées entre les règles d'une même validation.
+ * Seules les données déclarées par les règles sont extraites. Le contexte peut être partagé
+ * entre des règles évaluées sur plusieurs threads : le graphe d'héritage n'est construit qu'une fois,
+ * par la première règle qui le demande.
+ */
+public final class ValidationContext {
+
+    private final List<ClassElement> classes;
+    private final List<RelationshipElement> relationships;
+    private final boolean graphDeclared;
+    private volatile InheritanceGraph inheritanceGraph;
+
+    ValidationContext(ClassDiagram diagram, Set<UmlRule.Scope> scopes) {
+        this.graphDeclared = scopes.contains(UmlRule.Scope.INHERITANCE_GRAPH);
+        // Le graphe d'héritage est indexé sur la liste des classes et les relations
+        this.classes = graphDeclared || scopes.contains(UmlRule.Scope.CLASSES) ? diagram.getClasses() : null;
+        this.relationships = graphDeclared || scopes.contains(UmlRule.Scope.RELATIONSHIPS) ? diagram.getRelationships() : null;
+    }
+
+    /**
+     * Construit les données coûteuses demandées par une règle, avant qu'elle ne soit chronométrée
+     */
+    void prepare(Set<UmlRule.Scope> scopes) {
+        if (graphDeclared && scopes.contains(UmlRule.Scope.INHERITANCE_GRAPH)) {
+            getInheritanceGraph();
+        }
+    }
+
+    /**
+     * Classes du diagramme, dans l'ordre du diagramme
+     */
+    public List<ClassElement> getClasses() {
+        return require(classes, UmlRule.Scope.CLASSES);
+    }
+
+    /**
+     * Relations du diagramme, dans l'ordre du diagramme
+     */
+    public List<RelationshipElement> getRelationships() {
+        return require(relationships, UmlRule.Scope.RELATIONSHIPS);
+    }
+
+    /**
+     * Graphe d'héritage en lecture seule, indexé sur les positions de {@link #getClasses()}
+     */
+    public InheritanceGraph getInheritanceGraph() {
+        if (!graphDeclared) {
+            require(null, UmlRule.Scope.INHERITANCE_GRAPH);
+        }
+        InheritanceGraph graph = inheritanceGraph;
+        if (graph == null) {
+            synchronized (this) {
+                graph = inheritanceGraph;
+                if (graph == null) {
+                    graph = new InheritanceGraph(classes, relationships);
+                    inheritanceGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static <T> T require(T value, UmlRule.Scope scope) {
+        if (value == null) {
+            throw new IllegalStateException("Données non déclarées par les règles: " + scope);
+        }
+        return value;
+    }
+}
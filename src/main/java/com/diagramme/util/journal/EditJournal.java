@@ -0,0 +1,253 @@
+package com.diagramme.util.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Journal des modifications d'un diagramme, en ajout seul, découpé en segments
+ * (diagram-&lt;id&gt;-&lt;segment&gt;.wal).
+ * <ul>
+ *   <li>{@link #append} ne fait que copier l'opération dans un tampon mémoire : le thread JavaFX n'attend jamais le disque ;</li>
+ *   <li>{@link #flush} écrit tout ce qui a été ajouté depuis le précédent appel avec un seul {@code force} :
+ *       les opérations d'un même intervalle partagent la synchronisation (validation groupée) ;</li>
+ *   <li>{@link #roll} ferme le segment courant au moment où le diagramme est copié pour être enregistré ;
+ *       une fois la copie en base, {@link #discardThrough} supprime les segments qu'elle contient.</li>
+ * </ul>
+ * Chaque enregistrement est précédé de sa longueur et de son CRC32 : une fin de fichier tronquée par un arrêt brutal
+ * est ignorée à la lecture.
+ * {@link #flush}, {@link #discardThrough}, {@link #discardAll} et {@link #close} doivent être appelés depuis un même thread.
+ */
+public final class EditJournal {
+
+    static final String SUFFIX = ".wal";
+    private static final Pattern FILE_NAME = Pattern.compile("diagram-(\\d+)-(\\d+)\\" + SUFFIX);
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final long diagramId;
+
+    // Tampons en attente d'écriture, par segment ; protégés par this
+    private final TreeMap<Long, ByteBuffer> pending = new TreeMap<>();
+    private long segment;
+
+    // Segment ouvert en écriture ; utilisé par le seul thread d'écriture
+    private FileChannel channel;
+    private long channelSegment = -1;
+
+    /**
+     * Ouvre le journal d'un diagramme ; les nouveaux segments suivent ceux déjà présents
+     */
+    public EditJournal(Path directory, long diagramId) throws IOException {
+        this.directory = directory;
+        this.diagramId = diagramId;
+        Files.createDirectories(directory);
+        List<Long> existing = segments(directory, diagramId);
+        this.segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+    }
+
+    public long getDiagramId() {
+        return diagramId;
+    }
+
+    /**
+     * Ajoute une opération au segment courant
+     */
+    public synchronized void append(byte[] operation) {
+        ByteBuffer buffer = pending.computeIfAbsent(segment, s -> ByteBuffer.allocate(4096));
+        if (buffer.remaining() < HEADER_BYTES + operation.length) {
+            int needed = buffer.position() + HEADER_BYTES + operation.length;
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, needed));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+            pending.put(segment, buffer);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(operation);
+        buffer.putInt(operation.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(operation);
+    }
+
+    /**
+     * Ferme le segment courant : les opérations suivantes iront dans un nouveau segment
+     *
+     * @return Numéro du segment fermé
+     */
+    public synchronized long roll() {
+        return segment++;
+    }
+
+    /**
+     * Vrai si des opérations attendent d'être écrites
+     */
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Écrit les opérations en attente, puis force leur écriture sur le disque
+     *
+     * @return Nombre d'octets écrits
+     */
+    public long flush() throws IOException {
+        TreeMap<Long, ByteBuffer> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = new TreeMap<>(pending);
+            pending.clear();
+        }
+
+        long written = 0;
+        for (var entry : batch.entrySet()) {
+            if (entry.getKey() != channelSegment) {
+                // Segment suivant : le précédent a été forcé lors de son dernier flush
+                closeChannel();
+                channel = FileChannel.open(file(entry.getKey()), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                channelSegment = entry.getKey();
+            }
+            ByteBuffer buffer = entry.getValue().flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        return written;
+    }
+
+    /**
+     * Supprime les segments jusqu'à celui donné inclus, dont le contenu est en base,
+     * avec leurs opérations encore en attente : un flush suivant ne doit pas les recréer
+     */
+    public void discardThrough(long lastSegment) throws IOException {
+        synchronized (this) {
+            pending.headMap(lastSegment, true).clear();
+        }
+        if (channelSegment >= 0 && channelSegment <= lastSegment) {
+            closeChannel();
+        }
+        for (long each : segments(directory, diagramId)) {
+            if (each <= lastSegment) {
+                Files.deleteIfExists(file(each));
+            }
+        }
+    }
+
+    /**
+     * Abandonne le journal : opérations en attente et segments écrits
+     */
+    public void discardAll() throws IOException {
+        long last;
+        synchronized (this) {
+            last = segment;
+        }
+        discardThrough(last);
+    }
+
+    public void close() throws IOException {
+        closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+            channelSegment = -1;
+        }
+    }
+
+    private Path file(long segmentNumber) {
+        return file(directory, diagramId, segmentNumber);
+    }
+
+    private static Path file(Path directory, long diagramId, long segmentNumber) {
+        return directory.resolve(String.format("diagram-%d-%08d%s", diagramId, segmentNumber, SUFFIX));
+    }
+
+    /**
+     * Identifiants des diagrammes qui ont un journal dans le répertoire
+     */
+    public static List<Long> diagramsWithJournal(Path directory) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return ids;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && !ids.contains(Long.parseLong(matcher.group(1)))) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Lit les opérations de tous les segments d'un diagramme, dans l'ordre.
+     * La lecture d'un segment s'arrête au premier enregistrement incomplet ou corrompu.
+     */
+    public static List<byte[]> readAll(Path directory, long diagramId) throws IOException {
+        return readThrough(directory, diagramId, Long.MAX_VALUE);
+    }
+
+    /**
+     * Comme {@link #readAll}, pour les seuls segments jusqu'à celui donné inclus
+     */
+    public static List<byte[]> readThrough(Path directory, long diagramId, long lastSegment) throws IOException {
+        List<byte[]> operations = new ArrayList<>();
+        for (long each : segments(directory, diagramId)) {
+            if (each > lastSegment) {
+                break;
+            }
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file(directory, diagramId, each)));
+            while (content.remaining() >= HEADER_BYTES) {
+                int length = content.getInt();
+                int checksum = content.getInt();
+                if (length < 0 || length > content.remaining()) {
+                    break;
+                }
+                byte[] operation = new byte[length];
+                content.get(operation);
+                CRC32 crc = new CRC32();
+                crc.update(operation);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                operations.add(operation);
+            }
+        }
+        return operations;
+    }
+
+    private static List<Long> segments(Path directory, long diagramId) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "diagram-" + diagramId + "-*" + SUFFIX)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(1)) == diagramId) {
+                    segments.add(Long.parseLong(matcher.group(2)));
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+}
@@ -0,0 +1,510 @@
+package com.diagramme.util.journal;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.model.enums.Visibility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Encodage des opérations du journal des modifications, et leur application à un diagramme.
+ * Chaque opération porte l'état complet de ce qu'elle touche (une classe avec ses membres, une relation,
+ * une géométrie, les propriétés du diagramme) : rejouer une opération déjà appliquée ne change rien.
+ * Un élément est désigné par son uuid et, s'il en a un, par son id.
+ */
+public final class JournalCodec {
+
+    static final byte DIAGRAM = 1;
+    static final byte CLASS = 2;
+    static final byte RELATIONSHIP = 3;
+    static final byte REMOVE = 4;
+    static final byte GEOMETRY = 5;
+    static final byte RETAIN = 6;
+
+    private static final long NO_ID = -1;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Propriétés du diagramme (nom, description, grille, couleur de fond)
+     */
+    public static byte[] diagramProperties(ClassDiagram diagram) {
+        return encode(DIAGRAM, out -> {
+            writeString(out, diagram.getName());
+            writeString(out, diagram.getDescription());
+            writeString(out, diagram.getBackgroundColor());
+            out.writeBoolean(diagram.isShowGrid());
+            out.writeBoolean(diagram.isSnapToGrid());
+            out.writeDouble(diagram.getGridSize());
+        });
+    }
+
+    /**
+     * État complet d'un élément : classe avec ses membres, ou relation
+     */
+    public static byte[] element(DiagramElement element) {
+        if (element instanceof ClassElement classElement) {
+            return encode(CLASS, out -> writeClass(out, classElement));
+        }
+        RelationshipElement relationship = (RelationshipElement) element;
+        return encode(RELATIONSHIP, out -> writeRelationship(out, relationship));
+    }
+
+    public static byte[] removed(DiagramElement element) {
+        return encode(REMOVE, out -> writeKey(out, element));
+    }
+
+    /**
+     * Position et taille d'éléments déplacés
+     */
+    public static byte[] geometry(Collection<? extends DiagramElement> elements) {
+        return encode(GEOMETRY, out -> {
+            out.writeInt(elements.size());
+            for (DiagramElement element : elements) {
+                writeKey(out, element);
+                out.writeDouble(element.getX());
+                out.writeDouble(element.getY());
+                out.writeDouble(element.getWidth());
+                out.writeDouble(element.getHeight());
+            }
+        });
+    }
+
+    /**
+     * Liste des éléments présents : au rejeu, les autres sont retirés (annulation, rétablissement)
+     */
+    public static byte[] retain(Collection<? extends DiagramElement> elements) {
+        return encode(RETAIN, out -> {
+            out.writeInt(elements.size());
+            for (DiagramElement element : elements) {
+                writeKey(out, element);
+            }
+        });
+    }
+
+    /**
+     * Rejoue des opérations sur un diagramme, dans l'ordre
+     *
+     * @return Nombre d'opérations appliquées ; une relation dont une extrémité est introuvable est ignorée
+     */
+    public static int replay(ClassDiagram diagram, List<byte[]> operations) {
+        Elements elements = new Elements(diagram);
+        int applied = 0;
+        for (byte[] operation : operations) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(operation))) {
+                if (apply(diagram, elements, in)) {
+                    applied++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Opération de journal illisible", e);
+            }
+        }
+        return applied;
+    }
+
+    private static boolean apply(ClassDiagram diagram, Elements elements, DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case DIAGRAM -> {
+                diagram.setName(readString(in));
+                diagram.setDescription(readString(in));
+                diagram.setBackgroundColor(readString(in));
+                diagram.setShowGrid(in.readBoolean());
+                diagram.setSnapToGrid(in.readBoolean());
+                diagram.setGridSize(in.readDouble());
+                return true;
+            }
+            case CLASS -> {
+                readClass(in, elements);
+                return true;
+            }
+            case RELATIONSHIP -> {
+                return readRelationship(in, elements);
+            }
+            case REMOVE -> {
+                DiagramElement element = elements.find(readString(in), in.readLong());
+                if (element != null) {
+                    elements.remove(element);
+                }
+                return element != null;
+            }
+            case GEOMETRY -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    DiagramElement element = elements.find(readString(in), in.readLong());
+                    double x = in.readDouble();
+                    double y = in.readDouble();
+                    double width = in.readDouble();
+                    double height = in.readDouble();
+                    if (element != null) {
+                        element.setX(x);
+                        element.setY(y);
+                        element.setWidth(width);
+                        element.setHeight(height);
+                    }
+                }
+                return true;
+            }
+            case RETAIN -> {
+                Set<DiagramElement> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    DiagramElement element = elements.find(readString(in), in.readLong());
+                    if (element != null) {
+                        kept.add(element);
+                    }
+                }
+                for (DiagramElement element : new ArrayList<>(diagram.getElements())) {
+                    if (!kept.contains(element)) {
+                        elements.remove(element);
+                    }
+                }
+                return true;
+            }
+            default -> throw new IOException("Type d'opération inconnu: " + type);
+        }
+    }
+
+    private static void writeClass(DataOutputStream out, ClassElement element) throws IOException {
+        writeKey(out, element);
+        writeString(out, element.getName());
+        writeString(out, element.getPackageName());
+        out.writeUTF(element.getType().name());
+        out.writeBoolean(element.isAbstract());
+        writeGeometry(out, element);
+        writeString(out, element.getBackgroundColor());
+        writeString(out, element.getBorderColor());
+        out.writeDouble(element.getBorderWidth());
+
+        out.writeInt(element.getAttributes().size());
+        for (Attribute attribute : element.getAttributes()) {
+            out.writeLong(idOrNone(attribute.getId()));
+            writeString(out, attribute.getName());
+            writeString(out, attribute.getType());
+            writeString(out, attribute.getDefaultValue());
+            out.writeUTF(attribute.getVisibility().name());
+            out.writeBoolean(attribute.isStatic());
+            out.writeBoolean(attribute.isFinal());
+        }
+        out.writeInt(element.getMethods().size());
+        for (Method method : element.getMethods()) {
+            out.writeLong(idOrNone(method.getId()));
+            writeString(out, method.getName());
+            writeString(out, method.getReturnType());
+            out.writeUTF(method.getVisibility().name());
+            out.writeBoolean(method.isStatic());
+            out.writeBoolean(method.isAbstract());
+            out.writeBoolean(method.isFinal());
+            out.writeInt(method.getParameters().size());
+            for (Parameter parameter : method.getParameters()) {
+                out.writeLong(idOrNone(parameter.getId()));
+                writeString(out, parameter.getName());
+                writeString(out, parameter.getType());
+                writeString(out, parameter.getDefaultValue());
+            }
+        }
+    }
+
+    /**
+     * Crée ou met à jour la classe ; ses membres sont remplacés par ceux de l'opération,
+     * en réutilisant les membres existants de même id
+     */
+    private static void readClass(DataInputStream in, Elements elements) throws IOException {
+        String uuid = readString(in);
+        long id = in.readLong();
+        ClassElement element = (ClassElement) elements.find(uuid, id);
+        if (element == null) {
+            element = new ClassElement();
+            elements.add(element, uuid);
+        }
+        element.setName(readString(in));
+        element.setPackageName(readString(in));
+        element.setType(ClassElement.ClassType.valueOf(in.readUTF()));
+        element.setAbstract(in.readBoolean());
+        readGeometry(in, element);
+        element.setBackgroundColor(readString(in));
+        element.setBorderColor(readString(in));
+        element.setBorderWidth(in.readDouble());
+
+        Map<Long, Attribute> attributes = new HashMap<>();
+        element.getAttributes().forEach(attribute -> attributes.put(attribute.getId(), attribute));
+        List<Attribute> newAttributes = new ArrayList<>();
+        int attributeCount = in.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            Attribute attribute = reuse(attributes, in.readLong(), Attribute::new);
+            attribute.setName(readString(in));
+            attribute.setType(readString(in));
+            attribute.setDefaultValue(readString(in));
+            attribute.setVisibility(Visibility.valueOf(in.readUTF()));
+            attribute.setStatic(in.readBoolean());
+            attribute.setFinal(in.readBoolean());
+            newAttributes.add(attribute);
+        }
+        element.getAttributes().clear();
+        newAttributes.forEach(element::addAttribute);
+
+        Map<Long, Method> methods = new HashMap<>();
+        element.getMethods().forEach(method -> methods.put(method.getId(), method));
+        List<Method> newMethods = new ArrayList<>();
+        int methodCount = in.readInt();
+        for (int i = 0; i < methodCount; i++) {
+            Method method = reuse(methods, in.readLong(), Method::new);
+            method.setName(readString(in));
+            method.setReturnType(readString(in));
+            method.setVisibility(Visibility.valueOf(in.readUTF()));
+            method.setStatic(in.readBoolean());
+            method.setAbstract(in.readBoolean());
+            method.setFinal(in.readBoolean());
+
+            Map<Long, Parameter> parameters = new HashMap<>();
+            method.getParameters().forEach(parameter -> parameters.put(parameter.getId(), parameter));
+            List<Parameter> newParameters = new ArrayList<>();
+            int parameterCount = in.readInt();
+            for (int p = 0; p < parameterCount; p++) {
+                Parameter parameter = reuse(parameters, in.readLong(), Parameter::new);
+                parameter.setName(readString(in));
+                parameter.setType(readString(in));
+                parameter.setDefaultValue(readString(in));
+                newParameters.add(parameter);
+            }
+            method.getParameters().clear();
+            newParameters.forEach(method::addParameter);
+            newMethods.add(method);
+        }
+        element.getMethods().clear();
+        newMethods.forEach(element::addMethod);
+    }
+
+    private static void writeRelationship(DataOutputStream out, RelationshipElement relationship) throws IOException {
+        writeKey(out, relationship);
+        writeString(out, relationship.getName());
+        writeKey(out, relationship.getSourceElement());
+        writeKey(out, relationship.getTargetElement());
+        out.writeUTF(relationship.getType().name());
+        writeGeometry(out, relationship);
+        writeString(out, relationship.getSourceRole());
+        writeString(out, relationship.getTargetRole());
+        writeString(out, relationship.getSourceMultiplicity());
+        writeString(out, relationship.getTargetMultiplicity());
+        writeString(out, relationship.getSourceTooltip());
+        writeString(out, relationship.getTargetTooltip());
+        writeString(out, relationship.getLineColor());
+        out.writeDouble(relationship.getLineWidth());
+        writeString(out, relationship.getLineStyle());
+        out.writeInt(relationship.getControlPoints().size());
+        for (RelationshipElement.Point point : relationship.getControlPoints()) {
+            out.writeDouble(point.getX());
+            out.writeDouble(point.getY());
+        }
+    }
+
+    private static boolean readRelationship(DataInputStream in, Elements elements) throws IOException {
+        String uuid = readString(in);
+        long id = in.readLong();
+        String name = readString(in);
+        DiagramElement source = elements.find(readString(in), in.readLong());
+        DiagramElement target = elements.find(readString(in), in.readLong());
+        RelationshipType type = RelationshipType.valueOf(in.readUTF());
+        double[] geometry = {in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()};
+        String[] texts = new String[6];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = readString(in);
+        }
+        String lineColor = readString(in);
+        double lineWidth = in.readDouble();
+        String lineStyle = readString(in);
+        List<RelationshipElement.Point> points = new ArrayList<>();
+        int pointCount = in.readInt();
+        for (int i = 0; i < pointCount; i++) {
+            points.add(new RelationshipElement.Point(in.readDouble(), in.readDouble()));
+        }
+
+        // Extrémité supprimée depuis : la relation l'a été avec elle
+        if (!(source instanceof ClassElement) || !(target instanceof ClassElement)) {
+            return false;
+        }
+        RelationshipElement relationship = (RelationshipElement) elements.find(uuid, id);
+        if (relationship == null) {
+            relationship = new RelationshipElement();
+            elements.add(relationship, uuid);
+        }
+        relationship.setName(name);
+        relationship.setSourceElement((ClassElement) source);
+        relationship.setTargetElement((ClassElement) target);
+        relationship.setType(type);
+        relationship.setX(geometry[0]);
+        relationship.setY(geometry[1]);
+        relationship.setWidth(geometry[2]);
+        relationship.setHeight(geometry[3]);
+        relationship.setSourceRole(texts[0]);
+        relationship.setTargetRole(texts[1]);
+        relationship.setSourceMultiplicity(texts[2]);
+        relationship.setTargetMultiplicity(texts[3]);
+        relationship.setSourceTooltip(texts[4]);
+        relationship.setTargetTooltip(texts[5]);
+        relationship.setLineColor(lineColor);
+        relationship.setLineWidth(lineWidth);
+        relationship.setLineStyle(lineStyle);
+        relationship.getControlPoints().clear();
+        relationship.getControlPoints().addAll(points);
+        return true;
+    }
+
+    /**
+     * Uuid et id de l'élément ; un élément chargé d'une base antérieure aux uuid en reçoit un
+     */
+    private static void writeKey(DataOutputStream out, DiagramElement element) throws IOException {
+        if (element.getUuid() == null) {
+            element.setUuid(UUID.randomUUID().toString());
+        }
+        writeString(out, element.getUuid());
+        out.writeLong(idOrNone(element.getId()));
+    }
+
+    private static void writeGeometry(DataOutputStream out, DiagramElement element) throws IOException {
+        out.writeDouble(element.getX());
+        out.writeDouble(element.getY());
+        out.writeDouble(element.getWidth());
+        out.writeDouble(element.getHeight());
+    }
+
+    private static void readGeometry(DataInputStream in, DiagramElement element) throws IOException {
+        element.setX(in.readDouble());
+        element.setY(in.readDouble());
+        element.setWidth(in.readDouble());
+        element.setHeight(in.readDouble());
+    }
+
+    private static <T> T reuse(Map<Long, T> existing, long id, Supplier<T> factory) {
+        T member = id == NO_ID ? null : existing.get(id);
+        return member != null ? member : factory.get();
+    }
+
+    private static long idOrNone(Long id) {
+        return id != null ? id : NO_ID;
+    }
+
+    /**
+     * Chaîne éventuellement nulle, de longueur quelconque
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(byte type, Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Éléments du diagramme par uuid et par id ; retirer une classe retire aussi ses relations
+     */
+    private static final class Elements {
+        private final ClassDiagram diagram;
+        private final Map<String, DiagramElement> byUuid = new HashMap<>();
+        private final Map<Long, DiagramElement> byId = new HashMap<>();
+
+        Elements(ClassDiagram diagram) {
+            this.diagram = diagram;
+            for (DiagramElement element : diagram.getElements()) {
+                index(element);
+            }
+        }
+
+        DiagramElement find(String uuid, long id) {
+            DiagramElement element = uuid != null ? byUuid.get(uuid) : null;
+            if (element == null && id != NO_ID) {
+                element = byId.get(id);
+            }
+            return element;
+        }
+
+        void add(DiagramElement element, String uuid) {
+            element.setUuid(uuid);
+            diagram.addElement(element);
+            index(element);
+        }
+
+        void remove(DiagramElement element) {
+            List<DiagramElement> removed = new ArrayList<>();
+            removed.add(element);
+            if (element instanceof ClassElement) {
+                for (DiagramElement other : diagram.getElements()) {
+                    if (other instanceof RelationshipElement relationship
+                            && (relationship.getSourceElement() == element || relationship.getTargetElement() == element)) {
+                        removed.add(relationship);
+                    }
+                }
+            }
+            Set<DiagramElement> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+            gone.addAll(removed);
+            diagram.getElements().removeIf(gone::contains);
+            for (DiagramElement each : removed) {
+                each.setDiagram(null);
+                if (each.getUuid() != null) {
+                    byUuid.remove(each.getUuid());
+                }
+                if (each.getId() != null) {
+                    byId.remove(each.getId());
+                }
+            }
+        }
+
+        private void index(DiagramElement element) {
+            if (element.getUuid() != null) {
+                byUuid.put(element.getUuid(), element);
+            }
+            if (element.getId() != null) {
+                byId.put(element.getId(), element);
+            }
+        }
+    }
+}
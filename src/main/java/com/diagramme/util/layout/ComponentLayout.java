@@ -0,0 +1,338 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.enums.RelationshipType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Disposition par composantes connexes : les parties non reliées d'un diagramme (souvent un paquetage
+ * chacune) sont disposées séparément et en parallèle, puis rangées côte à côte.
+ * <ol>
+ *   <li>les composantes sont trouvées par un parcours en largeur, en O(V + E) ;</li>
+ *   <li>chaque composante de plus d'une classe est confiée à sa propre instance de l'algorithme,
+ *       sur un pool fork/join, les plus grandes en premier ;</li>
+ *   <li>les composantes, classes isolées comprises, sont rangées par étagères (hauteurs décroissantes,
+ *       première étagère où la composante tient) sur une largeur proche de celle d'un écran.</li>
+ * </ol>
+ * La durée totale dépend ainsi de la plus grande composante et non de la taille du diagramme.
+ * Les nœuds fixés sont ignorés : cette disposition n'a pas de sens pour le mode incrémental.
+ */
+public final class ComponentLayout implements LayoutAlgorithm {
+
+    /**
+     * Espace entre deux composantes rangées
+     */
+    static final double COMPONENT_GAP = 60;
+
+    // Rapport largeur / hauteur visé pour le rangement
+    private static final double ASPECT_RATIO = 1.6;
+
+    private final Supplier<LayoutAlgorithm> algorithms;
+    private final ForkJoinPool pool;
+    private final String name;
+
+    /**
+     * @param algorithms Fournit une instance de l'algorithme par composante
+     * @param pool       Pool sur lequel les composantes sont disposées
+     */
+    public ComponentLayout(Supplier<LayoutAlgorithm> algorithms, ForkJoinPool pool) {
+        this.algorithms = algorithms;
+        this.pool = pool;
+        this.name = algorithms.get().getName();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public LayoutReport layout(LayoutGraph graph, LayoutOptions options) {
+        long start = System.nanoTime();
+        int n = graph.getNodeCount();
+
+        long phase = System.nanoTime();
+        int[][] components = components(graph);
+        long componentsMillis = elapsedMillis(phase);
+
+        // Une seule composante : rien à découper ni à ranger
+        if (components.length <= 1) {
+            return algorithms.get().layout(graph, options);
+        }
+
+        Map<String, Number> details = new LinkedHashMap<>();
+        details.put("composantes", components.length);
+        details.put("plus grande composante", components[0].length);
+        details.put("ms composantes", componentsMillis);
+
+        phase = System.nanoTime();
+        LayoutGraph[] parts = new LayoutGraph[components.length];
+        LayoutReport[] reports = layoutComponents(graph, components, parts, options, start);
+        details.put("ms disposition", elapsedMillis(phase));
+
+        phase = System.nanoTime();
+        pack(graph, components, parts);
+        graph.translateTo(ForceDirectedLayout.MARGIN);
+        details.put("ms rangement", elapsedMillis(phase));
+
+        int iterations = 0;
+        boolean converged = true;
+        int overlaps = 0;
+        for (LayoutReport report : reports) {
+            if (report != null) {
+                iterations = Math.max(iterations, report.iterations());
+                converged &= report.converged();
+                overlaps += report.remainingOverlaps();
+            }
+        }
+        return new LayoutReport(name, n, iterations, elapsedMillis(start), converged, overlaps, details);
+    }
+
+    /**
+     * Composantes connexes, de la plus grande à la plus petite ; les nœuds de chaque composante
+     * sont dans l'ordre du graphe
+     */
+    static int[][] components(LayoutGraph graph) {
+        int n = graph.getNodeCount();
+
+        // Listes d'adjacence compactes
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            offsets[graph.edgeSource[e] + 1]++;
+            offsets[graph.edgeTarget[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] adjacency = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            adjacency[fill[graph.edgeSource[e]]++] = graph.edgeTarget[e];
+            adjacency[fill[graph.edgeTarget[e]]++] = graph.edgeSource[e];
+        }
+
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        List<int[]> result = new ArrayList<>();
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            int id = result.size();
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            component[root] = id;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int k = offsets[node]; k < offsets[node + 1]; k++) {
+                    int neighbour = adjacency[k];
+                    if (component[neighbour] < 0) {
+                        component[neighbour] = id;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+            int[] members = Arrays.copyOf(queue, tail);
+            Arrays.sort(members);
+            result.add(members);
+        }
+        result.sort(Comparator.comparingInt((int[] members) -> members.length).reversed());
+        return result.toArray(new int[0][]);
+    }
+
+    /**
+     * Dispose les composantes de plus d'une classe sur le pool. Si le thread appelant est interrompu,
+     * les threads du pool qui disposent encore une composante le sont aussi.
+     *
+     * @return Compte rendu de chaque composante, null pour les classes isolées
+     */
+    private LayoutReport[] layoutComponents(LayoutGraph graph, int[][] components, LayoutGraph[] parts,
+                                            LayoutOptions options, long start) {
+        LayoutReport[] reports = new LayoutReport[components.length];
+        Thread[] workers = new Thread[components.length];
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int c = 0; c < components.length && components[c].length > 1; c++) {
+            int index = c;
+            parts[c] = subgraph(graph, components[c]);
+            tasks.add(pool.submit(() -> {
+                synchronized (workers) {
+                    if (cancelled.get()) {
+                        return;
+                    }
+                    workers[index] = Thread.currentThread();
+                }
+                try {
+                    // Une composante qui démarre tard ne dispose que du temps restant
+                    long remaining = options.timeBudgetMillis() - elapsedMillis(start);
+                    reports[index] = algorithms.get().layout(parts[index],
+                            new LayoutOptions(options.maxIterations(), Math.max(1, remaining)));
+                } finally {
+                    synchronized (workers) {
+                        workers[index] = null;
+                        // Le thread du pool ne doit pas rester marqué interrompu pour la tâche suivante
+                        Thread.interrupted();
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            synchronized (workers) {
+                cancelled.set(true);
+                for (Thread worker : workers) {
+                    if (worker != null) {
+                        worker.interrupt();
+                    }
+                }
+            }
+            tasks.forEach(task -> task.cancel(true));
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec de la disposition d'une composante", e.getCause());
+        }
+        return reports;
+    }
+
+    /**
+     * Graphe détaché d'une composante, avec les seules relations entre ses nœuds
+     */
+    private static LayoutGraph subgraph(LayoutGraph graph, int[] members) {
+        int[] local = new int[graph.getNodeCount()];
+        List<ClassElement> nodes = new ArrayList<>(members.length);
+        double[] width = new double[members.length];
+        double[] height = new double[members.length];
+        for (int i = 0; i < members.length; i++) {
+            local[members[i]] = i;
+            nodes.add(graph.getNode(members[i]));
+            width[i] = graph.width[members[i]];
+            height[i] = graph.height[members[i]];
+        }
+
+        // Les relations d'une composante ont leurs deux extrémités dedans : il suffit de tester la source
+        boolean[] inside = new boolean[graph.getNodeCount()];
+        for (int member : members) {
+            inside[member] = true;
+        }
+        int edgeCount = 0;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            if (inside[graph.edgeSource[e]]) {
+                edgeCount++;
+            }
+        }
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        RelationshipType[] types = new RelationshipType[edgeCount];
+        edgeCount = 0;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            if (inside[graph.edgeSource[e]]) {
+                sources[edgeCount] = local[graph.edgeSource[e]];
+                targets[edgeCount] = local[graph.edgeTarget[e]];
+                types[edgeCount] = graph.edgeType[e];
+                edgeCount++;
+            }
+        }
+
+        LayoutGraph part = new LayoutGraph(nodes, width, height, sources, targets, types);
+        for (int i = 0; i < members.length; i++) {
+            part.x[i] = graph.x[members[i]];
+            part.y[i] = graph.y[members[i]];
+        }
+        return part;
+    }
+
+    /**
+     * Range les composantes disposées par étagères et reporte les positions dans le graphe complet
+     */
+    private static void pack(LayoutGraph graph, int[][] components, LayoutGraph[] parts) {
+        int count = components.length;
+        double[] minX = new double[count];
+        double[] minY = new double[count];
+        double[] boxWidth = new double[count];
+        double[] boxHeight = new double[count];
+        double area = 0;
+        double widest = 0;
+        for (int c = 0; c < count; c++) {
+            LayoutGraph part = parts[c];
+            if (part == null) {
+                int node = components[c][0];
+                minX[c] = graph.x[node];
+                minY[c] = graph.y[node];
+                boxWidth[c] = graph.width[node];
+                boxHeight[c] = graph.height[node];
+            } else {
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                minX[c] = Double.POSITIVE_INFINITY;
+                minY[c] = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < part.getNodeCount(); i++) {
+                    minX[c] = Math.min(minX[c], part.x[i]);
+                    minY[c] = Math.min(minY[c], part.y[i]);
+                    maxX = Math.max(maxX, part.x[i] + part.width[i]);
+                    maxY = Math.max(maxY, part.y[i] + part.height[i]);
+                }
+                boxWidth[c] = maxX - minX[c];
+                boxHeight[c] = maxY - minY[c];
+            }
+            area += (boxWidth[c] + COMPONENT_GAP) * (boxHeight[c] + COMPONENT_GAP);
+            widest = Math.max(widest, boxWidth[c]);
+        }
+        double shelfWidth = Math.max(widest, Math.sqrt(area * ASPECT_RATIO));
+
+        Integer[] order = new Integer[count];
+        for (int c = 0; c < count; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer c) -> boxHeight[c]).reversed());
+
+        // Étagères : ordonnée, hauteur (celle de la première composante posée) et largeur occupée
+        List<double[]> shelves = new ArrayList<>();
+        double bottom = 0;
+        for (int c : order) {
+            double[] shelf = null;
+            for (double[] candidate : shelves) {
+                if (candidate[2] + boxWidth[c] <= shelfWidth) {
+                    shelf = candidate;
+                    break;
+                }
+            }
+            if (shelf == null) {
+                shelf = new double[] {bottom, boxHeight[c], 0};
+                shelves.add(shelf);
+                bottom += boxHeight[c] + COMPONENT_GAP;
+            }
+            double dx = shelf[2] - minX[c];
+            double dy = shelf[0] - minY[c];
+            shelf[2] += boxWidth[c] + COMPONENT_GAP;
+
+            int[] members = components[c];
+            for (int i = 0; i < members.length; i++) {
+                LayoutGraph source = parts[c] == null ? graph : parts[c];
+                int node = parts[c] == null ? members[i] : i;
+                graph.x[members[i]] = source.x[node] + dx;
+                graph.y[members[i]] = source.y[node] + dy;
+            }
+        }
+    }
+
+    private static long elapsedMillis(long since) {
+        return (System.nanoTime() - since) / 1_000_000;
+    }
+}
@@ -0,0 +1,218 @@
+package com.diagramme.util.layout;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Disposition par forces (dérivée de Fruchterman–Reingold) :
+ * <ul>
+ *   <li>répulsion entre toutes les classes, approchée par un quadtree de Barnes–Hut en O(n log n) ;</li>
+ *   <li>ressorts linéaires le long des relations ;</li>
+ *   <li>gravité linéaire vers le centre, qui fixe la densité du dessin et garde groupées les parties non reliées ;</li>
+ *   <li>une température décroissante limite le déplacement de chaque itération.</li>
+ * </ul>
+ * Les superpositions restantes sont éliminées en fin de calcul.
+ */
+public final class ForceDirectedLayout implements LayoutAlgorithm {
+
+    /**
+     * Espace visé entre deux classes
+     */
+    static final double GAP = 40;
+
+    /**
+     * Marge laissée en haut et à gauche du diagramme
+     */
+    static final double MARGIN = 50;
+
+    private static final double THETA = 0.8;
+    private static final double GRAVITY = 1.5;
+
+    // En dessous, le calcul des forces n'est pas réparti sur plusieurs cœurs
+    private static final int PARALLEL_THRESHOLD = 1000;
+    private static final int CHUNK_SIZE = 256;
+
+    private static final int OVERLAP_PASSES = 100;
+
+    @Override
+    public String getName() {
+        return "Forces (Barnes–Hut)";
+    }
+
+    @Override
+    public LayoutReport layout(LayoutGraph graph, LayoutOptions options) {
+        long start = System.nanoTime();
+        long deadline = options.deadlineNanos(start);
+        int n = graph.getNodeCount();
+        if (n == 0) {
+            return new LayoutReport(getName(), 0, 0, 0, true, 0, Map.of());
+        }
+
+        // Les forces s'appliquent aux centres des classes
+        double[] cx = new double[n];
+        double[] cy = new double[n];
+        double sizeSum = 0;
+        for (int i = 0; i < n; i++) {
+            cx[i] = graph.x[i] + graph.width[i] / 2;
+            cy[i] = graph.y[i] + graph.height[i] / 2;
+            sizeSum += Math.max(graph.width[i], graph.height[i]);
+        }
+
+        // Longueur idéale d'une relation
+        double k = sizeSum / n + 2 * GAP;
+        spreadInitialPositions(cx, cy, k);
+
+        // Le refroidissement suit le budget le plus proche d'être épuisé, itérations ou temps :
+        // un calcul interrompu par le temps se termine tout de même à basse température
+        double initialTemperature = k * Math.sqrt(n) / 4;
+        double finalTemperature = k / 100;
+        double temperature = initialTemperature;
+        long budgetNanos = deadline - start;
+
+        double[] fx = new double[n];
+        double[] fy = new double[n];
+        QuadTree tree = new QuadTree(n);
+
+        int iteration = 0;
+        boolean converged = false;
+        while (iteration < options.maxIterations() && System.nanoTime() < deadline
+                && !Thread.currentThread().isInterrupted()) {
+            iteration++;
+
+            applyRepulsion(tree, cx, cy, k * k, fx, fy);
+            applySprings(graph, cx, cy, k, fx, fy);
+            applyGravity(cx, cy, k, fx, fy);
+
+            double maxMove = 0;
+            for (int i = 0; i < n; i++) {
+                double length = Math.sqrt(fx[i] * fx[i] + fy[i] * fy[i]);
+                if (length > 0) {
+                    double move = Math.min(length, temperature);
+                    cx[i] += fx[i] / length * move;
+                    cy[i] += fy[i] / length * move;
+                    maxMove = Math.max(maxMove, move);
+                }
+                fx[i] = 0;
+                fy[i] = 0;
+            }
+
+            double progress = Math.max((double) iteration / options.maxIterations(),
+                    (double) (System.nanoTime() - start) / budgetNanos);
+            temperature = initialTemperature * Math.pow(finalTemperature / initialTemperature, Math.min(1, progress));
+            if (maxMove < finalTemperature) {
+                converged = true;
+                break;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            graph.x[i] = cx[i] - graph.width[i] / 2;
+            graph.y[i] = cy[i] - graph.height[i] / 2;
+        }
+        OverlapRemoval.removeOverlaps(graph, GAP / 2, OVERLAP_PASSES, null);
+        int overlaps = OverlapRemoval.countOverlaps(graph);
+        graph.translateTo(MARGIN);
+
+        return new LayoutReport(getName(), n, iteration, (System.nanoTime() - start) / 1_000_000, converged, overlaps,
+                Map.of());
+    }
+
+    /**
+     * Répulsion de Barnes–Hut, répartie par blocs de nœuds sur plusieurs cœurs pour les grands graphes
+     */
+    private static void applyRepulsion(QuadTree tree, double[] cx, double[] cy, double strength,
+                                       double[] fx, double[] fy) {
+        int n = cx.length;
+        tree.build(cx, cy, n);
+        double thetaSquared = THETA * THETA;
+
+        if (n < PARALLEL_THRESHOLD) {
+            repulseRange(tree, cx, cy, strength, thetaSquared, fx, fy, 0, n);
+            return;
+        }
+        int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk ->
+                repulseRange(tree.forThread(), cx, cy, strength, thetaSquared, fx, fy,
+                        chunk * CHUNK_SIZE, Math.min(n, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    private static void repulseRange(QuadTree tree, double[] cx, double[] cy, double strength, double thetaSquared,
+                                     double[] fx, double[] fy, int from, int to) {
+        double[] force = new double[2];
+        for (int i = from; i < to; i++) {
+            force[0] = 0;
+            force[1] = 0;
+            tree.accumulateRepulsion(i, cx[i], cy[i], strength, thetaSquared, force);
+            fx[i] += force[0];
+            fy[i] += force[1];
+        }
+    }
+
+    /**
+     * Attraction linéaire le long des relations : équilibre avec la répulsion à la distance k,
+     * sans écraser le voisinage des relations longues comme le ferait une attraction en d² / k
+     */
+    private static void applySprings(LayoutGraph graph, double[] cx, double[] cy, double k,
+                                     double[] fx, double[] fy) {
+        for (int e = 0; e < graph.edgeSource.length; e++) {
+            int s = graph.edgeSource[e];
+            int t = graph.edgeTarget[e];
+            double dx = cx[t] - cx[s];
+            double dy = cy[t] - cy[s];
+            fx[s] += dx;
+            fy[s] += dy;
+            fx[t] -= dx;
+            fy[t] -= dy;
+        }
+    }
+
+    /**
+     * Attraction vers le barycentre, proportionnelle à la distance
+     */
+    private static void applyGravity(double[] cx, double[] cy, double k, double[] fx, double[] fy) {
+        int n = cx.length;
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanX += cx[i];
+            meanY += cy[i];
+        }
+        meanX /= n;
+        meanY /= n;
+        for (int i = 0; i < n; i++) {
+            fx[i] += (meanX - cx[i]) * GRAVITY;
+            fy[i] += (meanY - cy[i]) * GRAVITY;
+        }
+    }
+
+    /**
+     * Part des positions actuelles, sauf si les classes sont presque toutes empilées :
+     * elles sont alors réparties sur une spirale. Un léger décalage déterministe sépare les points confondus.
+     */
+    private static void spreadInitialPositions(double[] cx, double[] cy, double k) {
+        int n = cx.length;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, cx[i]);
+            minY = Math.min(minY, cy[i]);
+            maxX = Math.max(maxX, cx[i]);
+            maxY = Math.max(maxY, cy[i]);
+        }
+
+        boolean stacked = (maxX - minX + k) * (maxY - minY + k) < n * k * k * 0.1;
+        double goldenAngle = Math.PI * (3 - Math.sqrt(5));
+        for (int i = 0; i < n; i++) {
+            if (stacked) {
+                double radius = k * Math.sqrt(i + 0.5) * 0.6;
+                cx[i] = minX + radius * Math.cos(i * goldenAngle);
+                cy[i] = minY + radius * Math.sin(i * goldenAngle);
+            } else {
+                cx[i] += Math.cos(i * goldenAngle) * k * 1e-3;
+                cy[i] += Math.sin(i * goldenAngle) * k * 1e-3;
+            }
+        }
+    }
+}
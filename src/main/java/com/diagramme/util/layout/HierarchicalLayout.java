@@ -0,0 +1,605 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.enums.RelationshipType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Disposition hiérarchique (méthode de Sugiyama) : les relations d'héritage et d'implémentation
+ * pointent vers le haut, chaque parent étant placé dans une couche au-dessus de ses enfants.
+ * <ol>
+ *   <li>élimination des cycles : les arcs retour d'un parcours en profondeur sont inversés ;</li>
+ *   <li>répartition en couches par plus long chemin, avec des nœuds fictifs sur les relations
+ *       qui traversent plusieurs couches ;</li>
+ *   <li>réduction des croisements par barycentres : les couches de même parité sont réordonnées
+ *       en parallèle, leurs deux couches voisines restant fixes ;</li>
+ *   <li>placement horizontal : chaque nœud est attiré par ses voisins, sous contrainte d'ordre et d'espacement
+ *       (régression isotone par l'algorithme PAV).</li>
+ * </ol>
+ * Les classes qui ne participent à aucune hiérarchie sont rangées en lignes sous le dessin.
+ */
+public final class HierarchicalLayout implements LayoutAlgorithm {
+
+    static final double HORIZONTAL_GAP = 40;
+    static final double VERTICAL_GAP = 80;
+    static final double MARGIN = 50;
+
+    // Largeur réservée au passage d'une relation à travers une couche
+    private static final double DUMMY_WIDTH = 20;
+
+    private static final int PATIENCE = 4;
+    private static final int COORDINATE_ROUNDS = 8;
+    private static final double MIN_ROW_WIDTH = 1500;
+
+    @Override
+    public String getName() {
+        return "Hiérarchique (Sugiyama)";
+    }
+
+    @Override
+    public LayoutReport layout(LayoutGraph graph, LayoutOptions options) {
+        long start = System.nanoTime();
+        long deadline = options.deadlineNanos(start);
+        Map<String, Number> details = new LinkedHashMap<>();
+        int n = graph.getNodeCount();
+
+        // Arcs parent -> enfant issus des relations hiérarchiques
+        int[] arcFrom = new int[graph.getEdgeCount()];
+        int[] arcTo = new int[graph.getEdgeCount()];
+        int arcCount = 0;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            RelationshipType type = graph.edgeType[e];
+            if (type == RelationshipType.INHERITANCE || type == RelationshipType.IMPLEMENTATION) {
+                arcFrom[arcCount] = graph.edgeTarget[e];
+                arcTo[arcCount] = graph.edgeSource[e];
+                arcCount++;
+            }
+        }
+        arcFrom = Arrays.copyOf(arcFrom, arcCount);
+        arcTo = Arrays.copyOf(arcTo, arcCount);
+
+        long phase = System.nanoTime();
+        int reversed = removeCycles(n, arcFrom, arcTo);
+        details.put("relations inversées", reversed);
+        details.put("ms cycles", elapsedMillis(phase));
+
+        phase = System.nanoTime();
+        int[] layerOf = longestPathLayering(n, arcFrom, arcTo);
+        Layering layering = new Layering(graph, layerOf, arcFrom, arcTo);
+        details.put("couches", layering.layers.length);
+        details.put("nœuds fictifs", layering.nodeCount - n);
+        details.put("ms couches", elapsedMillis(phase));
+
+        phase = System.nanoTime();
+        long initialCrossings = layering.countCrossings();
+        int sweeps = 0;
+        long crossings = initialCrossings;
+        boolean converged = true;
+        if (crossings > 0) {
+            int[][] best = layering.copyOrders();
+            int stale = 0;
+            while (stale < PATIENCE && crossings > 0) {
+                if (sweeps >= options.maxIterations() || System.nanoTime() >= deadline
+                        || Thread.currentThread().isInterrupted()) {
+                    converged = false;
+                    break;
+                }
+                sweeps++;
+                layering.sweep(1);
+                layering.sweep(0);
+                long current = layering.countCrossings();
+                if (current < crossings) {
+                    crossings = current;
+                    best = layering.copyOrders();
+                    stale = 0;
+                } else {
+                    stale++;
+                }
+            }
+            layering.restoreOrders(best);
+        }
+        details.put("croisements initiaux", initialCrossings);
+        details.put("croisements", crossings);
+        details.put("ms croisements", elapsedMillis(phase));
+
+        phase = System.nanoTime();
+        layering.assignCoordinates();
+        layering.applyTo(graph);
+        packIsolatedNodes(graph, layerOf);
+        graph.translateTo(MARGIN);
+        details.put("ms coordonnées", elapsedMillis(phase));
+
+        return new LayoutReport(getName(), n, sweeps, elapsedMillis(start), converged,
+                OverlapRemoval.countOverlaps(graph), details);
+    }
+
+    /**
+     * Inverse les arcs retour d'un parcours en profondeur itératif ; le graphe obtenu est sans cycle
+     *
+     * @return Nombre d'arcs inversés
+     */
+    static int removeCycles(int n, int[] arcFrom, int[] arcTo) {
+        int[][] outgoing = arcsBySource(n, arcFrom);
+        byte[] state = new byte[n]; // 0 : non visité, 1 : en cours, 2 : terminé
+        int[] cursor = new int[n];
+        int[] stack = new int[n];
+        boolean[] reverse = new boolean[arcFrom.length];
+        int reversed = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (state[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            stack[depth++] = root;
+            state[root] = 1;
+            while (depth > 0) {
+                int v = stack[depth - 1];
+                if (cursor[v] < outgoing[v].length) {
+                    int arc = outgoing[v][cursor[v]++];
+                    int w = arcTo[arc];
+                    if (state[w] == 0) {
+                        state[w] = 1;
+                        stack[depth++] = w;
+                    } else if (state[w] == 1 && !reverse[arc]) {
+                        reverse[arc] = true;
+                        reversed++;
+                    }
+                } else {
+                    state[v] = 2;
+                    depth--;
+                }
+            }
+        }
+
+        for (int arc = 0; arc < arcFrom.length; arc++) {
+            if (reverse[arc]) {
+                int from = arcFrom[arc];
+                arcFrom[arc] = arcTo[arc];
+                arcTo[arc] = from;
+            }
+        }
+        return reversed;
+    }
+
+    /**
+     * Couches par plus long chemin depuis les racines ; -1 pour les nœuds hors hiérarchie
+     */
+    static int[] longestPathLayering(int n, int[] arcFrom, int[] arcTo) {
+        int[] layer = new int[n];
+        int[] indegree = new int[n];
+        boolean[] involved = new boolean[n];
+        for (int arc = 0; arc < arcFrom.length; arc++) {
+            // Une boucle issue de l'inversion d'un cycle ne contraint pas les couches
+            if (arcFrom[arc] != arcTo[arc]) {
+                indegree[arcTo[arc]]++;
+            }
+            involved[arcFrom[arc]] = true;
+            involved[arcTo[arc]] = true;
+        }
+
+        int[][] outgoing = arcsBySource(n, arcFrom);
+        Deque<Integer> ready = new ArrayDeque<>();
+        for (int v = 0; v < n; v++) {
+            if (indegree[v] == 0) {
+                ready.add(v);
+            }
+        }
+        while (!ready.isEmpty()) {
+            int v = ready.poll();
+            for (int arc : outgoing[v]) {
+                int w = arcTo[arc];
+                if (w == v) {
+                    continue;
+                }
+                layer[w] = Math.max(layer[w], layer[v] + 1);
+                if (--indegree[w] == 0) {
+                    ready.add(w);
+                }
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (!involved[v]) {
+                layer[v] = -1;
+            }
+        }
+        return layer;
+    }
+
+    private static int[][] arcsBySource(int n, int[] arcFrom) {
+        int[] counts = new int[n];
+        for (int from : arcFrom) {
+            counts[from]++;
+        }
+        int[][] outgoing = new int[n][];
+        for (int v = 0; v < n; v++) {
+            outgoing[v] = new int[counts[v]];
+            counts[v] = 0;
+        }
+        for (int arc = 0; arc < arcFrom.length; arc++) {
+            int from = arcFrom[arc];
+            outgoing[from][counts[from]++] = arc;
+        }
+        return outgoing;
+    }
+
+    /**
+     * Range en lignes, sous le dessin hiérarchique, les classes qui n'ont pas de couche
+     */
+    private static void packIsolatedNodes(LayoutGraph graph, int[] layerOf) {
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        boolean layered = false;
+        for (int v = 0; v < layerOf.length; v++) {
+            if (layerOf[v] >= 0) {
+                layered = true;
+                minX = Math.min(minX, graph.x[v]);
+                maxX = Math.max(maxX, graph.x[v] + graph.width[v]);
+                maxY = Math.max(maxY, graph.y[v] + graph.height[v]);
+            }
+        }
+        if (!layered) {
+            minX = 0;
+            maxX = 0;
+            maxY = -VERTICAL_GAP;
+        }
+
+        double rowWidth = Math.max(MIN_ROW_WIDTH, maxX - minX);
+        double x = minX;
+        double y = maxY + VERTICAL_GAP;
+        double rowHeight = 0;
+        for (int v = 0; v < layerOf.length; v++) {
+            if (layerOf[v] >= 0) {
+                continue;
+            }
+            if (x > minX && x + graph.width[v] > minX + rowWidth) {
+                x = minX;
+                y += rowHeight + HORIZONTAL_GAP;
+                rowHeight = 0;
+            }
+            graph.x[v] = x;
+            graph.y[v] = y;
+            x += graph.width[v] + HORIZONTAL_GAP;
+            rowHeight = Math.max(rowHeight, graph.height[v]);
+        }
+    }
+
+    private static long elapsedMillis(long since) {
+        return (System.nanoTime() - since) / 1_000_000;
+    }
+
+    /**
+     * Graphe en couches « propre » : chaque arc relie deux couches consécutives, grâce aux nœuds fictifs.
+     * Les nœuds 0 .. n-1 sont les classes, les suivants les nœuds fictifs.
+     */
+    private static final class Layering {
+
+        private final int realCount;
+        private final int nodeCount;
+        private final int[][] layers;
+        private final int[] position;
+        private final double[] width;
+        private final double[] centre;
+
+        // Voisins dans la couche du dessus et dans celle du dessous
+        private final int[][] up;
+        private final int[][] down;
+
+        Layering(LayoutGraph graph, int[] layerOf, int[] arcFrom, int[] arcTo) {
+            this.realCount = graph.getNodeCount();
+
+            int layerCount = 0;
+            int dummyCount = 0;
+            for (int v = 0; v < realCount; v++) {
+                layerCount = Math.max(layerCount, layerOf[v] + 1);
+            }
+            for (int arc = 0; arc < arcFrom.length; arc++) {
+                dummyCount += Math.max(0, layerOf[arcTo[arc]] - layerOf[arcFrom[arc]] - 1);
+            }
+            this.nodeCount = realCount + dummyCount;
+
+            int[] nodeLayer = Arrays.copyOf(layerOf, nodeCount);
+            this.width = new double[nodeCount];
+            for (int v = 0; v < nodeCount; v++) {
+                width[v] = v < realCount ? graph.width[v] : DUMMY_WIDTH;
+            }
+
+            // Arcs entre couches consécutives, chaînés par les nœuds fictifs
+            List<int[]> segments = new ArrayList<>(arcFrom.length + dummyCount);
+            int nextDummy = realCount;
+            for (int arc = 0; arc < arcFrom.length; arc++) {
+                int from = arcFrom[arc];
+                int to = arcTo[arc];
+                if (from == to) {
+                    continue;
+                }
+                int previous = from;
+                for (int l = layerOf[from] + 1; l < layerOf[to]; l++) {
+                    int dummy = nextDummy++;
+                    nodeLayer[dummy] = l;
+                    segments.add(new int[] {previous, dummy});
+                    previous = dummy;
+                }
+                segments.add(new int[] {previous, to});
+            }
+
+            this.up = adjacency(segments, nodeCount, 1, 0);
+            this.down = adjacency(segments, nodeCount, 0, 1);
+
+            // Ordre initial : parcours en largeur depuis les racines, qui rapproche déjà les familles
+            this.layers = new int[layerCount][];
+            int[] layerSizes = new int[layerCount];
+            for (int v = 0; v < nodeCount; v++) {
+                if (nodeLayer[v] >= 0) {
+                    layerSizes[nodeLayer[v]]++;
+                }
+            }
+            for (int l = 0; l < layerCount; l++) {
+                layers[l] = new int[layerSizes[l]];
+                layerSizes[l] = 0;
+            }
+            boolean[] placed = new boolean[nodeCount];
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int root = 0; root < nodeCount; root++) {
+                if (nodeLayer[root] < 0 || placed[root] || up[root].length > 0) {
+                    continue;
+                }
+                placed[root] = true;
+                queue.add(root);
+                while (!queue.isEmpty()) {
+                    int v = queue.poll();
+                    layers[nodeLayer[v]][layerSizes[nodeLayer[v]]++] = v;
+                    for (int w : down[v]) {
+                        if (!placed[w]) {
+                            placed[w] = true;
+                            queue.add(w);
+                        }
+                    }
+                }
+            }
+            // Nœuds restants, atteignables seulement par le bas (sans racine propre)
+            for (int v = 0; v < nodeCount; v++) {
+                if (nodeLayer[v] >= 0 && !placed[v]) {
+                    placed[v] = true;
+                    layers[nodeLayer[v]][layerSizes[nodeLayer[v]]++] = v;
+                }
+            }
+
+            this.position = new int[nodeCount];
+            for (int[] layer : layers) {
+                for (int i = 0; i < layer.length; i++) {
+                    position[layer[i]] = i;
+                }
+            }
+            this.centre = new double[nodeCount];
+        }
+
+        private static int[][] adjacency(List<int[]> segments, int nodeCount, int owner, int neighbour) {
+            int[] counts = new int[nodeCount];
+            for (int[] segment : segments) {
+                counts[segment[owner]]++;
+            }
+            int[][] adjacency = new int[nodeCount][];
+            for (int v = 0; v < nodeCount; v++) {
+                adjacency[v] = new int[counts[v]];
+                counts[v] = 0;
+            }
+            for (int[] segment : segments) {
+                adjacency[segment[owner]][counts[segment[owner]]++] = segment[neighbour];
+            }
+            return adjacency;
+        }
+
+        /**
+         * Réordonne en parallèle les couches d'une parité donnée selon le barycentre de leurs voisins.
+         * Les couches voisines, de l'autre parité, ne sont pas modifiées pendant ce temps.
+         */
+        void sweep(int parity) {
+            IntStream.range(0, layers.length)
+                    .filter(l -> l % 2 == parity)
+                    .parallel()
+                    .forEach(this::reorder);
+        }
+
+        private void reorder(int l) {
+            int[] layer = layers[l];
+            double[] barycentre = new double[layer.length];
+            Integer[] order = new Integer[layer.length];
+            for (int i = 0; i < layer.length; i++) {
+                int v = layer[i];
+                double sum = 0;
+                int count = up[v].length + down[v].length;
+                for (int w : up[v]) {
+                    sum += position[w];
+                }
+                for (int w : down[v]) {
+                    sum += position[w];
+                }
+                // Un nœud sans voisin garde sa place
+                barycentre[i] = count > 0 ? sum / count : i;
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> barycentre[i]).thenComparingInt(i -> i));
+
+            int[] reordered = new int[layer.length];
+            for (int i = 0; i < layer.length; i++) {
+                reordered[i] = layer[order[i]];
+                position[reordered[i]] = i;
+            }
+            layers[l] = reordered;
+        }
+
+        /**
+         * Nombre total de croisements entre couches consécutives, compté par inversions (arbre de Fenwick)
+         */
+        long countCrossings() {
+            return IntStream.range(0, layers.length - 1)
+                    .parallel()
+                    .mapToLong(this::countCrossings)
+                    .sum();
+        }
+
+        private long countCrossings(int l) {
+            int[] upper = layers[l];
+            int lowerSize = layers[l + 1].length;
+            long[] tree = new long[lowerSize + 1];
+            long crossings = 0;
+            long inserted = 0;
+
+            for (int u : upper) {
+                int[] targets = new int[down[u].length];
+                for (int i = 0; i < targets.length; i++) {
+                    targets[i] = position[down[u][i]];
+                }
+                Arrays.sort(targets);
+                // Les arcs déjà insérés partent plus à gauche : ils croisent ceux qui arrivent plus à droite qu'eux
+                for (int target : targets) {
+                    crossings += inserted - prefixSum(tree, target + 1);
+                }
+                for (int target : targets) {
+                    for (int i = target + 1; i <= lowerSize; i += i & -i) {
+                        tree[i]++;
+                    }
+                    inserted++;
+                }
+            }
+            return crossings;
+        }
+
+        private static long prefixSum(long[] tree, int index) {
+            long sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        int[][] copyOrders() {
+            int[][] copy = new int[layers.length][];
+            for (int l = 0; l < layers.length; l++) {
+                copy[l] = layers[l].clone();
+            }
+            return copy;
+        }
+
+        void restoreOrders(int[][] orders) {
+            for (int l = 0; l < layers.length; l++) {
+                layers[l] = orders[l];
+                for (int i = 0; i < orders[l].length; i++) {
+                    position[orders[l][i]] = i;
+                }
+            }
+        }
+
+        /**
+         * Place les centres horizontaux : alternance de passes descendantes et montantes où chaque couche
+         * se rapproche de ses voisins, sous contrainte d'ordre et d'espacement
+         */
+        void assignCoordinates() {
+            for (int[] layer : layers) {
+                double x = 0;
+                for (int i = 0; i < layer.length; i++) {
+                    int v = layer[i];
+                    if (i > 0) {
+                        x += separation(layer[i - 1], v);
+                    }
+                    centre[v] = x;
+                }
+            }
+
+            double[] desired = new double[nodeCount];
+            for (int round = 0; round < COORDINATE_ROUNDS; round++) {
+                for (int l = 1; l < layers.length; l++) {
+                    align(layers[l], up, desired);
+                }
+                for (int l = layers.length - 2; l >= 0; l--) {
+                    align(layers[l], down, desired);
+                }
+            }
+        }
+
+        private void align(int[] layer, int[][] neighbours, double[] desired) {
+            for (int v : layer) {
+                int[] adjacent = neighbours[v];
+                if (adjacent.length == 0) {
+                    desired[v] = centre[v];
+                    continue;
+                }
+                double sum = 0;
+                for (int w : adjacent) {
+                    sum += centre[w];
+                }
+                desired[v] = sum / adjacent.length;
+            }
+            placeWithSeparation(layer, desired);
+        }
+
+        /**
+         * Positions les plus proches des positions souhaitées (moindres carrés) qui respectent l'ordre de la couche
+         * et l'espacement minimal. En retranchant l'espacement cumulé, le problème devient une régression
+         * isotone, résolue en temps linéaire par fusion de blocs adjacents (PAV).
+         */
+        private void placeWithSeparation(int[] layer, double[] desired) {
+            int size = layer.length;
+            double[] offset = new double[size];
+            for (int i = 1; i < size; i++) {
+                offset[i] = offset[i - 1] + separation(layer[i - 1], layer[i]);
+            }
+
+            double[] blockSum = new double[size];
+            int[] blockCount = new int[size];
+            int blocks = 0;
+            for (int i = 0; i < size; i++) {
+                blockSum[blocks] = desired[layer[i]] - offset[i];
+                blockCount[blocks] = 1;
+                blocks++;
+                while (blocks > 1 && blockSum[blocks - 2] / blockCount[blocks - 2]
+                        > blockSum[blocks - 1] / blockCount[blocks - 1]) {
+                    blockSum[blocks - 2] += blockSum[blocks - 1];
+                    blockCount[blocks - 2] += blockCount[blocks - 1];
+                    blocks--;
+                }
+            }
+
+            int i = 0;
+            for (int b = 0; b < blocks; b++) {
+                double value = blockSum[b] / blockCount[b];
+                for (int k = 0; k < blockCount[b]; k++, i++) {
+                    centre[layer[i]] = value + offset[i];
+                }
+            }
+        }
+
+        private double separation(int left, int right) {
+            return (width[left] + width[right]) / 2 + HORIZONTAL_GAP;
+        }
+
+        /**
+         * Reporte les positions des classes : les couches sont empilées, chaque classe alignée en haut de sa couche
+         */
+        void applyTo(LayoutGraph graph) {
+            double top = 0;
+            for (int[] layer : layers) {
+                double layerHeight = 0;
+                for (int v : layer) {
+                    if (v < realCount) {
+                        graph.x[v] = centre[v] - graph.width[v] / 2;
+                        graph.y[v] = top;
+                        layerHeight = Math.max(layerHeight, graph.height[v]);
+                    }
+                }
+                top += layerHeight + VERTICAL_GAP;
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.diagramme.util.layout;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Disposition incrémentale : les nœuds fixés ({@link LayoutGraph#isPinned}) gardent leur position,
+ * seuls les autres — les classes ajoutées depuis la dernière disposition — sont placés.
+ * <ol>
+ *   <li>chaque nouvelle classe est posée dans l'espace libre le plus proche du barycentre de ses voisins
+ *       déjà placés, ou de sa position actuelle si elle n'en a pas ; la place est cherchée par un parcours
+ *       en anneaux autour de ce point et un index spatial ;</li>
+ *   <li>une relaxation locale rapproche ensuite les nouvelles classes de leurs voisins, un déplacement
+ *       n'étant accepté que s'il garde la place libre.</li>
+ * </ol>
+ * En dehors de la construction de l'index, le coût dépend du nombre de nouvelles classes
+ * et de leurs relations, pas de la taille du diagramme.
+ */
+public final class IncrementalLayout implements LayoutAlgorithm {
+
+    static final double GAP = 40;
+
+    // Nombre maximal d'anneaux explorés autour du point visé avant de placer la classe en bordure du dessin
+    private static final int MAX_RINGS = 40;
+    private static final int RELAXATION_ROUNDS = 30;
+
+    @Override
+    public String getName() {
+        return "Incrémentale";
+    }
+
+    @Override
+    public LayoutReport layout(LayoutGraph graph, LayoutOptions options) {
+        long start = System.nanoTime();
+        long deadline = options.deadlineNanos(start);
+        Map<String, Number> details = new LinkedHashMap<>();
+        int n = graph.getNodeCount();
+
+        // Les nœuds à placer, et leurs voisins pour les seules relations qui les touchent
+        int[] added = new int[n];
+        int addedCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (!graph.pinned[i]) {
+                added[addedCount++] = i;
+            }
+        }
+        added = Arrays.copyOf(added, addedCount);
+        details.put("classes placées", addedCount);
+        details.put("classes fixes", n - addedCount);
+        if (addedCount == 0) {
+            return new LayoutReport(getName(), n, 0, elapsedMillis(start), true, 0, details);
+        }
+        int[][] neighbours = neighboursOfAdded(graph, added);
+
+        long phase = System.nanoTime();
+        SpatialIndex index = new SpatialIndex(graph, GAP);
+        Bounds bounds = new Bounds();
+        for (int i = 0; i < n; i++) {
+            if (graph.pinned[i]) {
+                index.insert(i);
+                bounds.include(graph, i);
+            }
+        }
+        details.put("ms index", elapsedMillis(phase));
+
+        phase = System.nanoTime();
+        boolean[] placed = graph.pinned.clone();
+        int[] order = placementOrder(added, neighbours, placed);
+        int fallbacks = 0;
+        for (int node : order) {
+            double[] target = targetCentre(graph, node, neighbours[node], placed);
+            if (!placeNear(graph, index, node, target[0], target[1])) {
+                placeBeside(graph, node, bounds);
+                fallbacks++;
+            }
+            index.insert(node);
+            bounds.include(graph, node);
+            placed[node] = true;
+        }
+        details.put("placements en bordure", fallbacks);
+        details.put("ms placement", elapsedMillis(phase));
+
+        phase = System.nanoTime();
+        int rounds = 0;
+        boolean converged = false;
+        int limit = Math.min(RELAXATION_ROUNDS, options.maxIterations());
+        while (rounds < limit && System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            rounds++;
+            double temperature = GAP * 2 * (1 - (double) (rounds - 1) / limit);
+            if (relax(graph, index, order, neighbours, temperature) < 1) {
+                converged = true;
+                break;
+            }
+        }
+        details.put("ms relaxation", elapsedMillis(phase));
+
+        return new LayoutReport(getName(), n, rounds, elapsedMillis(start), converged,
+                countOverlapsOfAdded(graph, index, added), details);
+    }
+
+    /**
+     * Voisins de chaque nouveau nœud ; tableaux vides pour les nœuds fixés
+     */
+    private static int[][] neighboursOfAdded(LayoutGraph graph, int[] added) {
+        int n = graph.getNodeCount();
+        int[] degree = new int[n];
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int s = graph.edgeSource[e];
+            int t = graph.edgeTarget[e];
+            if (!graph.pinned[s]) {
+                degree[s]++;
+            }
+            if (!graph.pinned[t]) {
+                degree[t]++;
+            }
+        }
+        int[][] neighbours = new int[n][];
+        Arrays.fill(neighbours, new int[0]);
+        for (int node : added) {
+            neighbours[node] = new int[degree[node]];
+            degree[node] = 0;
+        }
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int s = graph.edgeSource[e];
+            int t = graph.edgeTarget[e];
+            if (!graph.pinned[s]) {
+                neighbours[s][degree[s]++] = t;
+            }
+            if (!graph.pinned[t]) {
+                neighbours[t][degree[t]++] = s;
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Ordre de placement : parcours en largeur depuis les classes déjà placées, pour que chaque classe
+     * ait si possible un voisin en place au moment d'être posée. Les groupes de nouvelles classes sans
+     * lien avec le diagramme existant suivent, chacun à partir de son premier élément.
+     */
+    private static int[] placementOrder(int[] added, int[][] neighbours, boolean[] pinned) {
+        int[] order = new int[added.length];
+        int count = 0;
+        boolean[] queued = new boolean[pinned.length];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int node : added) {
+            for (int neighbour : neighbours[node]) {
+                if (pinned[neighbour] && !queued[node]) {
+                    queued[node] = true;
+                    queue.add(node);
+                }
+            }
+        }
+        int next = 0;
+        while (count < added.length) {
+            if (queue.isEmpty()) {
+                while (queued[added[next]]) {
+                    next++;
+                }
+                queued[added[next]] = true;
+                queue.add(added[next]);
+            }
+            int node = queue.poll();
+            order[count++] = node;
+            for (int neighbour : neighbours[node]) {
+                if (!pinned[neighbour] && !queued[neighbour]) {
+                    queued[neighbour] = true;
+                    queue.add(neighbour);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Barycentre des voisins déjà placés, ou à défaut le centre actuel de la classe
+     */
+    private static double[] targetCentre(LayoutGraph graph, int node, int[] neighbours, boolean[] placed) {
+        double sumX = 0;
+        double sumY = 0;
+        int count = 0;
+        for (int neighbour : neighbours) {
+            if (placed[neighbour]) {
+                sumX += graph.x[neighbour] + graph.width[neighbour] / 2;
+                sumY += graph.y[neighbour] + graph.height[neighbour] / 2;
+                count++;
+            }
+        }
+        if (count > 0) {
+            return new double[] {sumX / count, sumY / count};
+        }
+        return new double[] {graph.x[node] + graph.width[node] / 2, graph.y[node] + graph.height[node] / 2};
+    }
+
+    /**
+     * Cherche la position libre la plus proche du centre visé, anneau par anneau
+     *
+     * @return Faux si aucune place n'a été trouvée dans le rayon exploré
+     */
+    private static boolean placeNear(LayoutGraph graph, SpatialIndex index, int node, double centreX,
+                                     double centreY) {
+        double originX = centreX - graph.width[node] / 2;
+        double originY = centreY - graph.height[node] / 2;
+        double stepX = (graph.width[node] + GAP) / 2;
+        double stepY = (graph.height[node] + GAP) / 2;
+
+        for (int ring = 0; ring <= MAX_RINGS; ring++) {
+            double bestDistance = Double.POSITIVE_INFINITY;
+            double bestX = 0;
+            double bestY = 0;
+            for (int i = -ring; i <= ring; i++) {
+                for (int j = -ring; j <= ring; j++) {
+                    // Seul le pourtour de l'anneau est nouveau
+                    if (Math.abs(i) != ring && Math.abs(j) != ring) {
+                        continue;
+                    }
+                    double dx = i * stepX;
+                    double dy = j * stepY;
+                    double distance = dx * dx + dy * dy;
+                    if (distance < bestDistance && index.isFree(node, originX + dx, originY + dy)) {
+                        bestDistance = distance;
+                        bestX = originX + dx;
+                        bestY = originY + dy;
+                    }
+                }
+            }
+            if (bestDistance < Double.POSITIVE_INFINITY) {
+                graph.x[node] = bestX;
+                graph.y[node] = bestY;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Place la classe contre le bord droit du dessin, qui est toujours libre
+     */
+    private static void placeBeside(LayoutGraph graph, int node, Bounds bounds) {
+        graph.x[node] = bounds.maxX + GAP;
+        graph.y[node] = bounds.isEmpty() ? graph.y[node] : bounds.minY;
+    }
+
+    /**
+     * Une passe de relaxation : chaque nouvelle classe avance vers le barycentre de ses voisins,
+     * d'au plus la température, si la position visée est libre
+     *
+     * @return Plus grand déplacement effectué
+     */
+    private static double relax(LayoutGraph graph, SpatialIndex index, int[] order, int[][] neighbours,
+                                double temperature) {
+        double maxMove = 0;
+        for (int node : order) {
+            if (neighbours[node].length == 0) {
+                continue;
+            }
+            double sumX = 0;
+            double sumY = 0;
+            for (int neighbour : neighbours[node]) {
+                sumX += graph.x[neighbour] + graph.width[neighbour] / 2;
+                sumY += graph.y[neighbour] + graph.height[neighbour] / 2;
+            }
+            double dx = sumX / neighbours[node].length - (graph.x[node] + graph.width[node] / 2);
+            double dy = sumY / neighbours[node].length - (graph.y[node] + graph.height[node] / 2);
+            double length = Math.sqrt(dx * dx + dy * dy);
+            if (length < 1) {
+                continue;
+            }
+            double move = Math.min(length, temperature);
+            dx = dx / length * move;
+            dy = dy / length * move;
+
+            // Déplacement complet, puis selon un seul axe si la place est prise
+            double[][] candidates = {{dx, dy}, {dx, 0}, {0, dy}};
+            for (double[] candidate : candidates) {
+                double newX = graph.x[node] + candidate[0];
+                double newY = graph.y[node] + candidate[1];
+                if ((candidate[0] != 0 || candidate[1] != 0) && index.isFree(node, newX, newY)) {
+                    index.remove(node);
+                    graph.x[node] = newX;
+                    graph.y[node] = newY;
+                    index.insert(node);
+                    maxMove = Math.max(maxMove, Math.hypot(candidate[0], candidate[1]));
+                    break;
+                }
+            }
+        }
+        return maxMove;
+    }
+
+    /**
+     * Paires superposées impliquant une nouvelle classe ; les chevauchements préexistants entre classes fixes
+     * ne sont pas du ressort de cette disposition et ne sont pas comptés
+     */
+    private static int countOverlapsOfAdded(LayoutGraph graph, SpatialIndex index, int[] added) {
+        int overlaps = 0;
+        for (int node : added) {
+            // Une paire de nouvelles classes n'est comptée qu'une fois
+            overlaps += index.countOverlaps(node, other -> graph.pinned[other] || other > node);
+        }
+        return overlaps;
+    }
+
+    private static long elapsedMillis(long since) {
+        return (System.nanoTime() - since) / 1_000_000;
+    }
+
+    /**
+     * Boîte englobante des classes placées
+     */
+    private static final class Bounds {
+        private double minY = Double.POSITIVE_INFINITY;
+        private double maxX = Double.NEGATIVE_INFINITY;
+
+        void include(LayoutGraph graph, int node) {
+            minY = Math.min(minY, graph.y[node]);
+            maxX = Math.max(maxX, graph.x[node] + graph.width[node]);
+        }
+
+        boolean isEmpty() {
+            return maxX == Double.NEGATIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.diagramme.util.layout;
+
+/**
+ * Algorithme de disposition : calcule de nouvelles positions pour les nœuds d'un graphe.
+ * Un algorithme ne touche qu'au graphe qu'on lui confie et peut donc s'exécuter hors du thread JavaFX ;
+ * il s'interrompt si le thread qui l'exécute est interrompu.
+ */
+public interface LayoutAlgorithm {
+
+    /**
+     * Nom de l'algorithme, repris dans le compte rendu
+     */
+    String getName();
+
+    /**
+     * Dispose le graphe en respectant les budgets donnés
+     */
+    LayoutReport layout(LayoutGraph graph, LayoutOptions options);
+}
@@ -0,0 +1,174 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copie détachée de la géométrie d'un diagramme, sur laquelle travaillent les algorithmes de disposition.
+ * Les nœuds sont identifiés par leur position dans la liste des classes ; les positions désignent
+ * le coin supérieur gauche de chaque classe, comme dans le modèle.
+ */
+public final class LayoutGraph {
+
+    /**
+     * Taille utilisée pour une classe qui n'a pas encore de dimensions
+     */
+    static final double DEFAULT_WIDTH = 200;
+    static final double DEFAULT_HEIGHT = 150;
+
+    private final List<ClassElement> nodes;
+
+    final double[] x;
+    final double[] y;
+    final double[] width;
+    final double[] height;
+
+    // Arcs entre nœuds distincts du graphe ; les boucles et les relations vers des classes absentes sont ignorées
+    final int[] edgeSource;
+    final int[] edgeTarget;
+    final RelationshipType[] edgeType;
+
+    // Nœuds dont la position ne doit pas changer (disposition incrémentale)
+    final boolean[] pinned;
+
+    LayoutGraph(List<ClassElement> nodes, double[] width, double[] height, int[] edgeSource, int[] edgeTarget,
+                RelationshipType[] edgeType) {
+        this.nodes = nodes;
+        this.x = new double[nodes.size()];
+        this.y = new double[nodes.size()];
+        this.width = width;
+        this.height = height;
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.edgeType = edgeType;
+        this.pinned = new boolean[nodes.size()];
+    }
+
+    /**
+     * Copie la géométrie des classes et les relations qui les relient.
+     * À appeler sur le thread qui modifie le diagramme ; le graphe obtenu peut ensuite être disposé sur un autre thread.
+     */
+    public static LayoutGraph of(List<ClassElement> classes, List<RelationshipElement> relationships) {
+        int n = classes.size();
+        Map<ClassElement, Integer> index = new IdentityHashMap<>(n * 2);
+        double[] width = new double[n];
+        double[] height = new double[n];
+        for (int i = 0; i < n; i++) {
+            ClassElement element = classes.get(i);
+            index.put(element, i);
+            width[i] = element.getWidth() > 0 ? element.getWidth() : DEFAULT_WIDTH;
+            height[i] = element.getHeight() > 0 ? element.getHeight() : DEFAULT_HEIGHT;
+        }
+
+        int[] sources = new int[relationships.size()];
+        int[] targets = new int[relationships.size()];
+        RelationshipType[] types = new RelationshipType[relationships.size()];
+        int edgeCount = 0;
+        for (RelationshipElement relationship : relationships) {
+            Integer source = index.get(relationship.getSourceElement());
+            Integer target = index.get(relationship.getTargetElement());
+            if (source == null || target == null || source.intValue() == target.intValue()) {
+                continue;
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            types[edgeCount] = relationship.getType();
+            edgeCount++;
+        }
+
+        LayoutGraph graph = new LayoutGraph(new ArrayList<>(classes), width, height,
+                Arrays.copyOf(sources, edgeCount),
+                Arrays.copyOf(targets, edgeCount),
+                Arrays.copyOf(types, edgeCount));
+        for (int i = 0; i < n; i++) {
+            graph.x[i] = classes.get(i).getX();
+            graph.y[i] = classes.get(i).getY();
+        }
+        return graph;
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    public int getEdgeCount() {
+        return edgeSource.length;
+    }
+
+    /**
+     * Classe correspondant à un nœud
+     */
+    public ClassElement getNode(int node) {
+        return nodes.get(node);
+    }
+
+    public double getX(int node) {
+        return x[node];
+    }
+
+    public double getY(int node) {
+        return y[node];
+    }
+
+    public double getWidth(int node) {
+        return width[node];
+    }
+
+    public double getHeight(int node) {
+        return height[node];
+    }
+
+    public void setPosition(int node, double newX, double newY) {
+        x[node] = newX;
+        y[node] = newY;
+    }
+
+    public boolean isPinned(int node) {
+        return pinned[node];
+    }
+
+    /**
+     * Fixe ou libère un nœud ; seule la disposition incrémentale tient compte des nœuds fixés
+     */
+    public void setPinned(int node, boolean value) {
+        pinned[node] = value;
+    }
+
+    /**
+     * Reporte les positions calculées sur les classes du diagramme
+     */
+    public void applyTo() {
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.get(i).setX(x[i]);
+            nodes.get(i).setY(y[i]);
+        }
+    }
+
+    /**
+     * Décale l'ensemble des nœuds pour que la boîte englobante commence à la marge donnée
+     */
+    void translateTo(double margin) {
+        if (x.length == 0) {
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < x.length; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+        }
+        double dx = margin - minX;
+        double dy = margin - minY;
+        for (int i = 0; i < x.length; i++) {
+            x[i] += dx;
+            y[i] += dy;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.diagramme.util.layout;
+
+/**
+ * Budgets d'une disposition : nombre maximal d'itérations et temps maximal
+ *
+ * @param maxIterations    Nombre maximal d'itérations de l'algorithme
+ * @param timeBudgetMillis Temps maximal accordé à l'algorithme, en millisecondes
+ */
+public record LayoutOptions(int maxIterations, long timeBudgetMillis) {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 300;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 2000;
+
+    public LayoutOptions {
+        if (maxIterations <= 0 || timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("Les budgets de disposition doivent être positifs");
+        }
+    }
+
+    public static LayoutOptions defaults() {
+        return new LayoutOptions(DEFAULT_MAX_ITERATIONS, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    long deadlineNanos(long startNanos) {
+        return startNanos + timeBudgetMillis * 1_000_000L;
+    }
+}
@@ -0,0 +1,18 @@
+package com.diagramme.util.layout;
+
+import java.util.Map;
+
+/**
+ * Compte rendu d'une disposition
+ *
+ * @param algorithm         Nom de l'algorithme
+ * @param nodeCount         Nombre de nœuds disposés
+ * @param iterations        Nombre d'itérations effectuées
+ * @param elapsedMillis     Durée de la disposition
+ * @param converged         Vrai si l'algorithme s'est stabilisé avant d'épuiser ses budgets
+ * @param remainingOverlaps Nombre de paires de classes encore superposées
+ * @param details           Mesures propres à l'algorithme (qualité, durée des phases), dans l'ordre d'affichage
+ */
+public record LayoutReport(String algorithm, int nodeCount, int iterations, long elapsedMillis,
+                           boolean converged, int remainingOverlaps, Map<String, Number> details) {
+}
@@ -0,0 +1,129 @@
+package com.diagramme.util.layout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Élimine les superpositions de classes en écartant les paires qui se chevauchent selon l'axe
+ * du plus petit recouvrement. Les paires candidates sont trouvées par une grille de hachage
+ * dont les cases sont aussi grandes que la plus grande classe : deux classes qui se chevauchent
+ * ont leur coin supérieur gauche dans des cases voisines.
+ */
+final class OverlapRemoval {
+
+    private OverlapRemoval() {
+    }
+
+    /**
+     * Écarte les classes jusqu'à ce qu'aucune paire ne se chevauche ou que le nombre de passes soit épuisé
+     *
+     * @param gap    Espace minimal à laisser entre deux classes
+     * @param pinned Nœuds à ne pas déplacer (peut être {@code null})
+     * @return Nombre de paires encore superposées
+     */
+    static int removeOverlaps(LayoutGraph graph, double gap, int maxPasses, boolean[] pinned) {
+        int overlaps = 0;
+        for (int pass = 0; pass < maxPasses; pass++) {
+            overlaps = pass(graph, gap, pinned, true);
+            if (overlaps == 0) {
+                return 0;
+            }
+        }
+        return pass(graph, gap, pinned, false);
+    }
+
+    /**
+     * Compte les paires de classes superposées, sans marge
+     */
+    static int countOverlaps(LayoutGraph graph) {
+        return pass(graph, 0, null, false);
+    }
+
+    private static int pass(LayoutGraph graph, double gap, boolean[] pinned, boolean resolve) {
+        int n = graph.getNodeCount();
+        double[] x = graph.x;
+        double[] y = graph.y;
+        double[] w = graph.width;
+        double[] h = graph.height;
+
+        double cell = 1;
+        for (int i = 0; i < n; i++) {
+            cell = Math.max(cell, Math.max(w[i], h[i]) + gap);
+        }
+
+        Map<Long, List<Integer>> grid = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            grid.computeIfAbsent(key(cellOf(x[i], cell), cellOf(y[i], cell)), k -> new ArrayList<>(2)).add(i);
+        }
+
+        int overlaps = 0;
+        for (int i = 0; i < n; i++) {
+            long cx = cellOf(x[i], cell);
+            long cy = cellOf(y[i], cell);
+            for (long gx = cx - 1; gx <= cx + 1; gx++) {
+                for (long gy = cy - 1; gy <= cy + 1; gy++) {
+                    List<Integer> bucket = grid.get(key(gx, gy));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int j : bucket) {
+                        // Chaque paire n'est examinée qu'une fois
+                        if (j > i && separate(graph, i, j, gap, pinned, resolve)) {
+                            overlaps++;
+                        }
+                    }
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Écarte deux classes si elles se chevauchent ; renvoie vrai si elles se chevauchaient
+     */
+    private static boolean separate(LayoutGraph graph, int i, int j, double gap, boolean[] pinned, boolean resolve) {
+        double[] x = graph.x;
+        double[] y = graph.y;
+        double overlapX = Math.min(x[i] + graph.width[i], x[j] + graph.width[j]) + gap - Math.max(x[i], x[j]);
+        double overlapY = Math.min(y[i] + graph.height[i], y[j] + graph.height[j]) + gap - Math.max(y[i], y[j]);
+        if (overlapX <= 0 || overlapY <= 0) {
+            return false;
+        }
+        if (!resolve) {
+            return true;
+        }
+
+        boolean fixedI = pinned != null && pinned[i];
+        boolean fixedJ = pinned != null && pinned[j];
+        if (fixedI && fixedJ) {
+            return true;
+        }
+        // Part du déplacement supportée par i, le reste par j
+        double shareI = fixedI ? 0 : fixedJ ? 1 : 0.5;
+
+        if (overlapX < overlapY) {
+            double centreI = x[i] + graph.width[i] / 2;
+            double centreJ = x[j] + graph.width[j] / 2;
+            double direction = centreI < centreJ || (centreI == centreJ && i < j) ? -1 : 1;
+            x[i] += direction * overlapX * shareI;
+            x[j] -= direction * overlapX * (1 - shareI);
+        } else {
+            double centreI = y[i] + graph.height[i] / 2;
+            double centreJ = y[j] + graph.height[j] / 2;
+            double direction = centreI < centreJ || (centreI == centreJ && i < j) ? -1 : 1;
+            y[i] += direction * overlapY * shareI;
+            y[j] -= direction * overlapY * (1 - shareI);
+        }
+        return true;
+    }
+
+    private static long cellOf(double coordinate, double cell) {
+        return (long) Math.floor(coordinate / cell);
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,221 @@
+package com.diagramme.util.layout;
+
+import java.util.Arrays;
+
+/**
+ * Quadtree de Barnes–Hut : chaque cellule porte la masse et le barycentre des nœuds qu'elle contient,
+ * ce qui permet d'approcher la répulsion exercée par un groupe lointain en un seul calcul.
+ * Les cellules sont rangées dans des tableaux réutilisés d'une construction à l'autre.
+ */
+final class QuadTree {
+
+    // Au-delà, les points trop proches sont regroupés dans une même feuille
+    private static final int MAX_DEPTH = 48;
+
+    private static final int EMPTY = -1;
+    private static final int AGGREGATE = -2;
+
+    private double[] minX;
+    private double[] minY;
+    private double[] size;
+    // Somme des positions pendant la construction, puis barycentre
+    private double[] sumX;
+    private double[] sumY;
+    private int[] mass;
+    private int[] firstChild;
+    private int[] body;
+    private int cellCount;
+
+    private int[] stack = new int[64];
+
+    QuadTree(int capacity) {
+        allocate(Math.max(16, capacity * 4));
+    }
+
+    /**
+     * Reconstruit l'arbre pour les points donnés
+     */
+    void build(double[] px, double[] py, int count) {
+        double x0 = Double.POSITIVE_INFINITY;
+        double y0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY;
+        double y1 = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            x0 = Math.min(x0, px[i]);
+            y0 = Math.min(y0, py[i]);
+            x1 = Math.max(x1, px[i]);
+            y1 = Math.max(y1, py[i]);
+        }
+
+        cellCount = 0;
+        newCell(x0, y0, Math.max(Math.max(x1 - x0, y1 - y0), 1) * 1.0001);
+        for (int i = 0; i < count; i++) {
+            insert(i, px, py);
+        }
+
+        // Les sommes deviennent des barycentres : plus de division pendant le calcul des forces
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (mass[cell] > 0) {
+                sumX[cell] /= mass[cell];
+                sumY[cell] /= mass[cell];
+            }
+        }
+    }
+
+    /**
+     * Ajoute à {@code force} la répulsion exercée sur le point {@code i} par tous les autres,
+     * en intensité {@code strength / distance}
+     *
+     * @param thetaSquared Carré du critère d'ouverture de Barnes–Hut
+     */
+    void accumulateRepulsion(int i, double px, double py, double strength, double thetaSquared, double[] force) {
+        double fx = 0;
+        double fy = 0;
+        int top = 0;
+        int[] pending = stack;
+        pending[top++] = 0;
+
+        while (top > 0) {
+            int cell = pending[--top];
+            int m = mass[cell];
+            if (m == 0 || body[cell] == i) {
+                continue;
+            }
+
+            double dx = px - sumX[cell];
+            double dy = py - sumY[cell];
+            double d2 = dx * dx + dy * dy;
+            boolean leaf = firstChild[cell] == EMPTY;
+
+            if (leaf || size[cell] * size[cell] < thetaSquared * d2) {
+                if (d2 > 1e-9) {
+                    double f = m * strength / d2;
+                    fx += dx * f;
+                    fy += dy * f;
+                }
+                continue;
+            }
+
+            if (top + 4 > pending.length) {
+                pending = stack = Arrays.copyOf(pending, pending.length * 2);
+            }
+            int child = firstChild[cell];
+            pending[top++] = child;
+            pending[top++] = child + 1;
+            pending[top++] = child + 2;
+            pending[top++] = child + 3;
+        }
+
+        force[0] += fx;
+        force[1] += fy;
+    }
+
+    /**
+     * Copie indépendante des structures de parcours, pour un calcul de forces sur un autre thread
+     */
+    QuadTree forThread() {
+        QuadTree view = new QuadTree(0);
+        view.minX = minX;
+        view.minY = minY;
+        view.size = size;
+        view.sumX = sumX;
+        view.sumY = sumY;
+        view.mass = mass;
+        view.firstChild = firstChild;
+        view.body = body;
+        view.cellCount = cellCount;
+        return view;
+    }
+
+    private void insert(int b, double[] px, double[] py) {
+        int cell = 0;
+        int depth = 0;
+        double bx = px[b];
+        double by = py[b];
+
+        while (true) {
+            if (firstChild[cell] == EMPTY) {
+                if (mass[cell] == 0) {
+                    body[cell] = b;
+                    add(cell, bx, by);
+                    return;
+                }
+                int old = body[cell];
+                if (old < 0 || depth >= MAX_DEPTH || (px[old] == bx && py[old] == by)) {
+                    // Points confondus : la feuille devient un agrégat
+                    body[cell] = AGGREGATE;
+                    add(cell, bx, by);
+                    return;
+                }
+                subdivide(cell);
+                body[cell] = AGGREGATE;
+                int oldChild = firstChild[cell] + quadrant(cell, px[old], py[old]);
+                body[oldChild] = old;
+                add(oldChild, px[old], py[old]);
+            }
+
+            add(cell, bx, by);
+            cell = firstChild[cell] + quadrant(cell, bx, by);
+            depth++;
+        }
+    }
+
+    private void add(int cell, double px, double py) {
+        sumX[cell] += px;
+        sumY[cell] += py;
+        mass[cell]++;
+    }
+
+    private int quadrant(int cell, double px, double py) {
+        double half = size[cell] / 2;
+        int q = px >= minX[cell] + half ? 1 : 0;
+        return py >= minY[cell] + half ? q + 2 : q;
+    }
+
+    private void subdivide(int cell) {
+        double half = size[cell] / 2;
+        double x0 = minX[cell];
+        double y0 = minY[cell];
+        // Les cellules ont pu être réallouées : on relit les bornes avant de créer les enfants
+        int first = newCell(x0, y0, half);
+        newCell(x0 + half, y0, half);
+        newCell(x0, y0 + half, half);
+        newCell(x0 + half, y0 + half, half);
+        firstChild[cell] = first;
+    }
+
+    private int newCell(double x0, double y0, double cellSize) {
+        if (cellCount == mass.length) {
+            allocate(mass.length * 2);
+        }
+        int cell = cellCount++;
+        minX[cell] = x0;
+        minY[cell] = y0;
+        size[cell] = cellSize;
+        sumX[cell] = 0;
+        sumY[cell] = 0;
+        mass[cell] = 0;
+        firstChild[cell] = EMPTY;
+        body[cell] = EMPTY;
+        return cell;
+    }
+
+    private void allocate(int capacity) {
+        minX = grow(minX, capacity);
+        minY = grow(minY, capacity);
+        size = grow(size, capacity);
+        sumX = grow(sumX, capacity);
+        sumY = grow(sumY, capacity);
+        mass = grow(mass, capacity);
+        firstChild = grow(firstChild, capacity);
+        body = grow(body, capacity);
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -0,0 +1,110 @@
+package com.diagramme.util.layout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Index spatial des rectangles d'un graphe : grille de hachage dont les cases sont aussi grandes que le plus
+ * grand rectangle augmenté de l'espacement. Un rectangle qui en touche un autre a donc son coin supérieur
+ * gauche dans l'une des neuf cases voisines, et une requête ne coûte que quelques cases quelle que soit
+ * la taille du diagramme.
+ */
+final class SpatialIndex {
+
+    private final LayoutGraph graph;
+    private final double gap;
+    private final double cell;
+    private final Map<Long, List<Integer>> cells = new HashMap<>();
+
+    SpatialIndex(LayoutGraph graph, double gap) {
+        this.graph = graph;
+        this.gap = gap;
+        double size = 1;
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            size = Math.max(size, Math.max(graph.width[i], graph.height[i]));
+        }
+        this.cell = size + gap;
+    }
+
+    /**
+     * Ajoute un nœud à sa position actuelle
+     */
+    void insert(int node) {
+        cells.computeIfAbsent(keyOf(graph.x[node], graph.y[node]), k -> new ArrayList<>(2)).add(node);
+    }
+
+    /**
+     * Retire un nœud ; à appeler avant de modifier sa position
+     */
+    void remove(int node) {
+        long key = keyOf(graph.x[node], graph.y[node]);
+        List<Integer> bucket = cells.get(key);
+        if (bucket != null) {
+            bucket.remove(Integer.valueOf(node));
+            if (bucket.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Indique si le nœud donné peut occuper la position (x, y) sans s'approcher à moins de l'espacement
+     * d'un nœud indexé. Le nœud lui-même est ignoré s'il est indexé.
+     */
+    boolean isFree(int node, double x, double y) {
+        return count(node, x, y, gap, other -> true, true) == 0;
+    }
+
+    /**
+     * Nombre de nœuds indexés que le nœud chevauche réellement, sans tenir compte de l'espacement
+     *
+     * @param counted Nœuds à compter parmi ceux qui se superposent
+     */
+    int countOverlaps(int node, IntPredicate counted) {
+        return count(node, graph.x[node], graph.y[node], 0, counted, false);
+    }
+
+    private int count(int node, double x, double y, double margin, IntPredicate counted, boolean stopAtFirst) {
+        double width = graph.width[node];
+        double height = graph.height[node];
+        long cx = cellOf(x);
+        long cy = cellOf(y);
+        int count = 0;
+        for (long gx = cx - 1; gx <= cx + 1; gx++) {
+            for (long gy = cy - 1; gy <= cy + 1; gy++) {
+                List<Integer> bucket = cells.get(key(gx, gy));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int other : bucket) {
+                    if (other != node && counted.test(other)
+                            && x < graph.x[other] + graph.width[other] + margin
+                            && graph.x[other] < x + width + margin
+                            && y < graph.y[other] + graph.height[other] + margin
+                            && graph.y[other] < y + height + margin) {
+                        count++;
+                        if (stopAtFirst) {
+                            return count;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private long keyOf(double x, double y) {
+        return key(cellOf(x), cellOf(y));
+    }
+
+    private long cellOf(double coordinate) {
+        return (long) Math.floor(coordinate / cell);
+    }
+
+    private static long key(long cx, long cy) {
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+}
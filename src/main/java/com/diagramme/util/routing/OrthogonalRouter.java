@@ -0,0 +1,795 @@
+package com.diagramme.util.routing;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Routage orthogonal des relations autour des classes.
+ * <p>
+ * Chaque relation est tracée par un A* sur une grille clairsemée : les lignes de la grille sont les bords
+ * des classes voisines, élargis d'une marge, et les axes des deux classes reliées. Seules les classes d'une
+ * fenêtre autour des deux extrémités fournissent des lignes ; la fenêtre est agrandie si aucun chemin n'y passe.
+ * Les points de la grille ne sont évalués qu'à leur première visite, grâce à un index des classes.
+ * Un virage coûte plus cher qu'un détour court, ce qui donne des tracés à peu de coudes.
+ * <p>
+ * Les routes sont gardées en cache. Après une modification, seules les relations dont une extrémité a bougé
+ * ou dont un segment longe ou traverse une classe déplacée, ajoutée ou supprimée sont recalculées.
+ * Le résultat est rangé dans {@link RelationshipElement#getControlPoints()} : les coudes du tracé,
+ * sans les points d'attache sur les classes.
+ * <p>
+ * À l'ouverture d'un diagramme, {@link #seed} reprend les tracés enregistrés qui correspondent encore aux classes.
+ * Les autres sont calculés hors du thread de l'interface ({@link #pendingRoutes()}, {@link PendingRoutes#compute()})
+ * puis appliqués par {@link #apply}.
+ */
+public class OrthogonalRouter {
+
+    /**
+     * Distance minimale entre un tracé et une classe
+     */
+    public static final double MARGIN = 15;
+
+    // Un virage coûte autant qu'un détour de cette longueur
+    private static final double BEND_PENALTY = 40;
+
+    // Agrandissements successifs de la fenêtre de recherche
+    private static final int MAX_WINDOW_EXPANSIONS = 3;
+
+    // Le tracé obtenu peut être un peu plus long que l'optimum, en échange d'une recherche bien plus courte
+    private static final double HEURISTIC_WEIGHT = 1.5;
+
+    // Au-delà, la relation est tracée en ligne directe plutôt que de bloquer l'interface
+    private static final int MAX_EXPANDED_STATES = 20_000;
+
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+
+    private final Map<ClassElement, Box> boxes = new IdentityHashMap<>();
+    private final Map<RelationshipElement, Route> routes = new IdentityHashMap<>();
+    private ObstacleIndex obstacles = new ObstacleIndex(List.of());
+
+    // Relations dont le tracé est calculé en arrière-plan : update les laisse de côté
+    private final Set<RelationshipElement> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Modifications relevées par update pendant ce calcul, pour écarter les tracés qu'elles ont rendus faux
+    private final Set<ClassElement> changedSincePending = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Box> dirtySincePending = new ArrayList<>();
+
+    private int routedCount;
+
+    /**
+     * Met à jour les routes après une modification du diagramme : relève la géométrie des classes,
+     * puis recalcule les seules routes touchées
+     *
+     * @return Relations dont la route a été recalculée
+     */
+    public Set<RelationshipElement> update(ClassDiagram diagram) {
+        List<ClassElement> classes = diagram.getClasses();
+        List<Box> dirty = new ArrayList<>();
+        Set<ClassElement> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Map<ClassElement, Box> previous = new IdentityHashMap<>(boxes);
+        boxes.clear();
+        for (ClassElement element : classes) {
+            Box box = Box.of(element);
+            boxes.put(element, box);
+            Box old = previous.remove(element);
+            if (!box.equals(old)) {
+                changed.add(element);
+                dirty.add(box.inflated());
+                if (old != null) {
+                    dirty.add(old.inflated());
+                }
+            }
+        }
+        // Classes supprimées
+        for (Box removed : previous.values()) {
+            dirty.add(removed.inflated());
+        }
+        if (!dirty.isEmpty()) {
+            obstacles = new ObstacleIndex(boxes.values());
+        }
+        if (!pending.isEmpty()) {
+            changedSincePending.addAll(changed);
+            dirtySincePending.addAll(dirty);
+        }
+
+        List<RelationshipElement> relationships = diagram.getRelationships();
+        Set<RelationshipElement> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<RelationshipElement> rerouted = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RelationshipElement relationship : relationships) {
+            present.add(relationship);
+            if (pending.contains(relationship)) {
+                continue;
+            }
+            Route route = routes.get(relationship);
+            if (route == null || route.isStale(relationship, changed, dirty)) {
+                route(relationship);
+                rerouted.add(relationship);
+            }
+        }
+        routes.keySet().retainAll(present);
+        pending.retainAll(present);
+        return rerouted;
+    }
+
+    /**
+     * Oublie les routes, relève la géométrie du diagramme et reprend les tracés enregistrés qui partent et
+     * arrivent encore sur le bord de leurs classes, sans recherche. Les autres relations restent en attente :
+     * {@link #update} ne les trace pas tant qu'elles n'ont pas été calculées et appliquées par {@link #apply}.
+     *
+     * @return Relations en attente de tracé
+     */
+    public Set<RelationshipElement> seed(ClassDiagram diagram) {
+        clear();
+        for (ClassElement element : diagram.getClasses()) {
+            boxes.put(element, Box.of(element));
+        }
+        obstacles = new ObstacleIndex(boxes.values());
+
+        for (RelationshipElement relationship : diagram.getRelationships()) {
+            Box source = boxes.get(relationship.getSourceElement());
+            Box target = boxes.get(relationship.getTargetElement());
+            if (source == null || target == null || source == target) {
+                // Pas de recherche pour ces relations : tracé direct immédiat
+                route(relationship);
+            } else if (fits(source, target, relationship.getControlPoints())) {
+                routes.put(relationship, new Route(relationship.getSourceElement(), relationship.getTargetElement(),
+                        polyline(source, target, relationship.getControlPoints())));
+            } else {
+                pending.add(relationship);
+            }
+        }
+        return Collections.unmodifiableSet(pending);
+    }
+
+    /**
+     * Copie la géométrie relevée et les extrémités des relations en attente, pour calculer leurs tracés sur
+     * un autre thread. À appeler sur le thread qui modifie le diagramme.
+     */
+    public PendingRoutes pendingRoutes() {
+        changedSincePending.clear();
+        dirtySincePending.clear();
+        return new PendingRoutes(boxes, pending);
+    }
+
+    /**
+     * Applique des tracés calculés en arrière-plan. Un tracé rendu faux par une modification faite pendant
+     * le calcul (extrémité remplacée ou déplacée, classe modifiée sur son passage) est recalculé ici.
+     *
+     * @return Relations dont le tracé a été appliqué ou recalculé
+     */
+    public Set<RelationshipElement> apply(PendingRoutes computed) {
+        Set<RelationshipElement> applied = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < computed.relationships.size(); i++) {
+            RelationshipElement relationship = computed.relationships.get(i);
+            if (!pending.remove(relationship)) {
+                // Supprimée entre-temps
+                continue;
+            }
+            applied.add(relationship);
+
+            List<RelationshipElement.Point> bends = computed.bends[i] != null ? computed.bends[i] : new ArrayList<>();
+            Route route = new Route(computed.sources[i], computed.targets[i], polyline(
+                    computed.geometry.get(computed.sources[i]), computed.geometry.get(computed.targets[i]), bends));
+            if (route.isStale(relationship, changedSincePending, dirtySincePending)) {
+                route(relationship);
+            } else {
+                routedCount++;
+                relationship.setControlPoints(bends);
+                routes.put(relationship, route);
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Calcule sur le thread courant les tracés encore en attente, par exemple si le calcul en arrière-plan a échoué
+     */
+    public void routePending() {
+        for (RelationshipElement relationship : new ArrayList<>(pending)) {
+            pending.remove(relationship);
+            route(relationship);
+        }
+    }
+
+    /**
+     * Recalcule la route d'une relation à partir de la géométrie relevée au dernier {@link #update}
+     */
+    public void route(RelationshipElement relationship) {
+        Box source = boxes.get(relationship.getSourceElement());
+        Box target = boxes.get(relationship.getTargetElement());
+        List<RelationshipElement.Point> bends = source != null && target != null && source != target
+                ? findPath(source, target)
+                : null;
+        routedCount++;
+
+        relationship.setControlPoints(bends != null ? bends : new ArrayList<>());
+        routes.put(relationship, new Route(relationship.getSourceElement(), relationship.getTargetElement(),
+                polyline(source, target, relationship.getControlPoints())));
+    }
+
+    /**
+     * Nombre total de routes calculées depuis la création du routeur
+     */
+    public int getRoutedCount() {
+        return routedCount;
+    }
+
+    /**
+     * Oublie toutes les routes, par exemple quand le diagramme édité est remplacé
+     */
+    public void clear() {
+        boxes.clear();
+        routes.clear();
+        pending.clear();
+        changedSincePending.clear();
+        dirtySincePending.clear();
+        obstacles = new ObstacleIndex(List.of());
+    }
+
+    /**
+     * Point d'attache sur le bord d'une classe du segment qui la relie au premier coude du tracé.
+     * Renvoie {@code null} si le coude n'est pas dans l'axe de la classe, c'est-à-dire si la route
+     * ne correspond plus à la position de la classe.
+     */
+    public static RelationshipElement.Point attachmentPoint(double x, double y, double width, double height,
+                                                           RelationshipElement.Point bend) {
+        boolean alignedX = bend.getX() >= x && bend.getX() <= x + width;
+        boolean alignedY = bend.getY() >= y && bend.getY() <= y + height;
+        if (alignedX && !alignedY) {
+            return new RelationshipElement.Point(bend.getX(), bend.getY() < y ? y : y + height);
+        }
+        if (alignedY && !alignedX) {
+            return new RelationshipElement.Point(bend.getX() < x ? x : x + width, bend.getY());
+        }
+        return null;
+    }
+
+    /**
+     * Vrai si des coudes enregistrés conviennent encore aux classes : segments orthogonaux qui partent
+     * et arrivent sur leur bord, ou ligne directe entre des classes dans l'axe l'une de l'autre ou trop
+     * proches pour qu'un tracé passe entre elles
+     */
+    private static boolean fits(Box source, Box target, List<RelationshipElement.Point> bends) {
+        if (bends.isEmpty()) {
+            return source.centreX() == target.centreX() || source.centreY() == target.centreY()
+                    || source.inflated().intersects(target.inflated());
+        }
+        RelationshipElement.Point first = bends.get(0);
+        RelationshipElement.Point last = bends.get(bends.size() - 1);
+        if (attachmentPoint(source.x, source.y, source.width, source.height, first) == null
+                || attachmentPoint(target.x, target.y, target.width, target.height, last) == null) {
+            return false;
+        }
+        for (int i = 1; i < bends.size(); i++) {
+            if (bends.get(i - 1).getX() != bends.get(i).getX() && bends.get(i - 1).getY() != bends.get(i).getY()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Points du tracé complet, ou ligne entre les centres quand il n'y a pas de route orthogonale
+     */
+    private static double[] polyline(Box source, Box target, List<RelationshipElement.Point> bends) {
+        if (source == null || target == null) {
+            return null;
+        }
+        double[] points = new double[(bends.size() + 2) * 2];
+        points[0] = source.centreX();
+        points[1] = source.centreY();
+        for (int i = 0; i < bends.size(); i++) {
+            points[2 * i + 2] = bends.get(i).getX();
+            points[2 * i + 3] = bends.get(i).getY();
+        }
+        points[points.length - 2] = target.centreX();
+        points[points.length - 1] = target.centreY();
+        return points;
+    }
+
+    /**
+     * Cherche un tracé dans une fenêtre autour des deux classes, agrandie tant qu'aucun chemin n'est trouvé
+     *
+     * @return Coudes du tracé, ou {@code null} si aucun tracé orthogonal n'a été trouvé
+     */
+    private List<RelationshipElement.Point> findPath(Box source, Box target) {
+        if (source.inflated().intersects(target.inflated())) {
+            // Classes trop proches pour passer entre elles : ligne directe
+            return null;
+        }
+
+        double minX = Math.min(source.x, target.x);
+        double minY = Math.min(source.y, target.y);
+        double maxX = Math.max(source.x + source.width, target.x + target.width);
+        double maxY = Math.max(source.y + source.height, target.y + target.height);
+        double extent = Math.max(Math.max(source.width, source.height), Math.max(target.width, target.height));
+
+        for (int expansion = 0; expansion <= MAX_WINDOW_EXPANSIONS; expansion++) {
+            double pad = extent * (1 << expansion);
+            Box window = new Box(minX - pad, minY - pad, maxX - minX + 2 * pad, maxY - minY + 2 * pad);
+            Search search = new Search(source, target, window);
+            List<RelationshipElement.Point> path = search.run();
+            if (path != null || search.exhausted) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recherche A* sur les états (point de la grille, direction). Une ligne passe sur chaque bord de classe,
+     * donc un segment entre deux lignes voisines est entièrement dedans ou dehors : il suffit d'en tester le milieu.
+     */
+    private final class Search {
+
+        private final Box source;
+        private final Box target;
+        private final double[] xs;
+        private final double[] ys;
+        private final int[][] goals;
+        private final int[] goalDirections;
+
+        private final Map<Long, Double> cost = new HashMap<>();
+        private final Map<Long, Long> parent = new HashMap<>();
+
+        // Vrai si la recherche a été abandonnée faute de budget : inutile d'agrandir la fenêtre
+        private boolean exhausted;
+
+        Search(Box source, Box target, Box window) {
+            this.source = source;
+            this.target = target;
+
+            // Les bords hors de la fenêtre sont ramenés sur son pourtour : la recherche reste dans la fenêtre,
+            // où toute classe qui la touche a ses bords sur des lignes de la grille
+            List<Box> inWindow = obstacles.query(window);
+            double[] xValues = new double[inWindow.size() * 2 + 4];
+            double[] yValues = new double[inWindow.size() * 2 + 4];
+            int k = 0;
+            for (Box obstacle : inWindow) {
+                xValues[k] = window.clampX(obstacle.x);
+                yValues[k++] = window.clampY(obstacle.y);
+                xValues[k] = window.clampX(obstacle.x + obstacle.width);
+                yValues[k++] = window.clampY(obstacle.y + obstacle.height);
+            }
+            xValues[k] = window.x;
+            yValues[k++] = window.y;
+            xValues[k] = window.x + window.width;
+            yValues[k++] = window.y + window.height;
+            xValues[k] = source.centreX();
+            yValues[k++] = source.centreY();
+            xValues[k] = target.centreX();
+            yValues[k] = target.centreY();
+            this.xs = sortedDistinct(xValues);
+            this.ys = sortedDistinct(yValues);
+
+            this.goals = ports(target);
+            this.goalDirections = new int[goals.length];
+            for (int g = 0; g < goals.length; g++) {
+                // Entrée dans la classe cible : sens opposé à la sortie du côté d'arrivée
+                goalDirections[g] = goals[g] == null ? -1 : (goals[g][2] + 2) % 4;
+            }
+        }
+
+        List<RelationshipElement.Point> run() {
+            // Tri par coût estimé, puis par coût parcouru décroissant : parmi les chemins aussi courts,
+            // les plus avancés sont explorés d'abord, ce qui évite de balayer tout le rectangle entre les classes
+            PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> a[0] != b[0]
+                    ? Double.compare(a[0], b[0])
+                    : Double.compare(b[1], a[1]));
+            for (int[] start : ports(source)) {
+                if (start != null) {
+                    long state = state(start[0], start[1], start[2]);
+                    cost.put(state, 0.0);
+                    open.add(new double[] {heuristic(start[0], start[1], start[2]), 0, state});
+                }
+            }
+
+            long bestGoal = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            int expanded = 0;
+            while (!open.isEmpty()) {
+                double[] entry = open.poll();
+                if (entry[0] >= bestCost) {
+                    break;
+                }
+                long state = (long) entry[2];
+                double g = entry[1];
+                if (g > cost.get(state)) {
+                    continue;
+                }
+                if (++expanded > MAX_EXPANDED_STATES) {
+                    exhausted = true;
+                    return null;
+                }
+
+                int direction = (int) (state % 4);
+                int i = (int) (state / 4 % xs.length);
+                int j = (int) (state / 4 / xs.length);
+
+                for (int p = 0; p < goals.length; p++) {
+                    if (goals[p] != null && goals[p][0] == i && goals[p][1] == j) {
+                        double total = g + (direction == goalDirections[p] ? 0 : BEND_PENALTY);
+                        if (total < bestCost) {
+                            bestCost = total;
+                            bestGoal = state;
+                        }
+                    }
+                }
+
+                for (int next = 0; next < 4; next++) {
+                    if (next == (direction + 2) % 4) {
+                        continue;
+                    }
+                    int ni = i + DX[next];
+                    int nj = j + DY[next];
+                    if (ni < 0 || nj < 0 || ni >= xs.length || nj >= ys.length
+                            || obstacles.blocks((xs[i] + xs[ni]) / 2, (ys[j] + ys[nj]) / 2)
+                            || obstacles.blocks(xs[ni], ys[nj])) {
+                        continue;
+                    }
+                    double newCost = g + Math.abs(xs[ni] - xs[i]) + Math.abs(ys[nj] - ys[j])
+                            + (next == direction ? 0 : BEND_PENALTY);
+                    long nextState = state(ni, nj, next);
+                    Double known = cost.get(nextState);
+                    if (known == null || newCost < known) {
+                        cost.put(nextState, newCost);
+                        parent.put(nextState, state);
+                        open.add(new double[] {newCost + heuristic(ni, nj, next), newCost, nextState});
+                    }
+                }
+            }
+            return bestGoal < 0 ? null : bends(bestGoal);
+        }
+
+        /**
+         * Points de départ sur le pourtour élargi d'une classe, au milieu de chaque côté, avec la direction
+         * qui s'éloigne de la classe ; {@code null} pour un côté bloqué par une classe voisine
+         */
+        private int[][] ports(Box box) {
+            int centreX = Arrays.binarySearch(xs, box.centreX());
+            int centreY = Arrays.binarySearch(ys, box.centreY());
+            Box inflated = box.inflated();
+            int left = Arrays.binarySearch(xs, inflated.x);
+            int right = Arrays.binarySearch(xs, inflated.x + inflated.width);
+            int top = Arrays.binarySearch(ys, inflated.y);
+            int bottom = Arrays.binarySearch(ys, inflated.y + inflated.height);
+            int[][] ports = {
+                    {right, centreY, 0},
+                    {centreX, bottom, 1},
+                    {left, centreY, 2},
+                    {centreX, top, 3}
+            };
+            for (int p = 0; p < ports.length; p++) {
+                if (obstacles.blocks(xs[ports[p][0]], ys[ports[p][1]])) {
+                    ports[p] = null;
+                }
+            }
+            return ports;
+        }
+
+        /**
+         * Distance de Manhattan jusqu'à l'entrée la plus proche, plus un virage si l'état n'est pas déjà
+         * dans l'axe de cette entrée ; pondérée pour aller droit au but plutôt que de prouver l'optimalité
+         */
+        private double heuristic(int i, int j, int direction) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int p = 0; p < goals.length; p++) {
+                int[] goal = goals[p];
+                if (goal == null) {
+                    continue;
+                }
+                double estimate = Math.abs(xs[goal[0]] - xs[i]) + Math.abs(ys[goal[1]] - ys[j]);
+                if (direction != goalDirections[p] || (goal[0] != i && goal[1] != j)) {
+                    estimate += BEND_PENALTY;
+                }
+                best = Math.min(best, estimate);
+            }
+            return best * HEURISTIC_WEIGHT;
+        }
+
+        private long state(int i, int j, int direction) {
+            return ((long) j * xs.length + i) * 4 + direction;
+        }
+
+        /**
+         * Remonte le chemin et ne garde que les coudes, points d'attache exclus
+         */
+        private List<RelationshipElement.Point> bends(long goal) {
+            List<RelationshipElement.Point> points = new ArrayList<>();
+            for (Long state = goal; state != null; state = parent.get(state)) {
+                int i = (int) (state / 4 % xs.length);
+                int j = (int) (state / 4 / xs.length);
+                points.add(new RelationshipElement.Point(xs[i], ys[j]));
+            }
+            Collections.reverse(points);
+
+            List<RelationshipElement.Point> bends = new ArrayList<>();
+            for (int p = 0; p < points.size(); p++) {
+                RelationshipElement.Point point = points.get(p);
+                boolean corner = p == 0 || p == points.size() - 1;
+                if (!corner) {
+                    RelationshipElement.Point before = points.get(p - 1);
+                    RelationshipElement.Point after = points.get(p + 1);
+                    corner = (before.getX() == point.getX()) != (point.getX() == after.getX());
+                }
+                if (corner) {
+                    bends.add(point);
+                }
+            }
+            // Les extrémités du chemin prolongent les segments d'attache : elles ne restent que si elles tournent
+            removeIfAligned(bends, 0, source);
+            removeIfAligned(bends, bends.size() - 1, target);
+            return bends;
+        }
+
+        private void removeIfAligned(List<RelationshipElement.Point> bends, int position, Box box) {
+            if (bends.size() < 2) {
+                return;
+            }
+            RelationshipElement.Point neighbour = bends.get(position == 0 ? 1 : position - 1);
+            if (attachmentPoint(box.x, box.y, box.width, box.height, neighbour) != null) {
+                bends.remove(position);
+            }
+        }
+    }
+
+    /**
+     * Tracés en attente, calculés sur une copie de la géométrie : {@link #compute()} peut tourner sur un autre
+     * thread pendant que le diagramme continue d'être modifié ; le résultat s'applique par {@link #apply}
+     */
+    public static final class PendingRoutes {
+
+        private final Map<ClassElement, Box> geometry;
+        private final List<RelationshipElement> relationships;
+        private final ClassElement[] sources;
+        private final ClassElement[] targets;
+        private final List<RelationshipElement.Point>[] bends;
+
+        @SuppressWarnings("unchecked")
+        private PendingRoutes(Map<ClassElement, Box> boxes, Collection<RelationshipElement> pending) {
+            this.geometry = new IdentityHashMap<>(boxes);
+            this.relationships = new ArrayList<>(pending);
+            this.sources = new ClassElement[relationships.size()];
+            this.targets = new ClassElement[relationships.size()];
+            this.bends = new List[relationships.size()];
+            for (int i = 0; i < relationships.size(); i++) {
+                sources[i] = relationships.get(i).getSourceElement();
+                targets[i] = relationships.get(i).getTargetElement();
+            }
+        }
+
+        /**
+         * Nombre de relations à tracer
+         */
+        public int size() {
+            return relationships.size();
+        }
+
+        /**
+         * Calcule les tracés, en parallèle ; sans accès au diagramme
+         */
+        public PendingRoutes compute() {
+            OrthogonalRouter worker = new OrthogonalRouter();
+            worker.obstacles = new ObstacleIndex(geometry.values());
+            IntStream.range(0, relationships.size()).parallel().forEach(i -> {
+                Box source = geometry.get(sources[i]);
+                Box target = geometry.get(targets[i]);
+                if (source != null && target != null && source != target) {
+                    bends[i] = worker.findPath(source, target);
+                }
+            });
+            return this;
+        }
+    }
+
+    private static double[] sortedDistinct(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[count - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Index des classes élargies de la marge : grille régulière sur la boîte englobante du diagramme,
+     * dont les cases sont au moins aussi grandes que la plus grande classe. Un point n'est donc couvert
+     * que par des classes dont le coin supérieur gauche est dans sa case ou dans les cases voisines
+     * à gauche et au-dessus. Les coordonnées sont rangées à plat, quatre valeurs par classe.
+     */
+    private static final class ObstacleIndex {
+
+        // Nombre moyen de cases par classe au plus, pour borner la mémoire des diagrammes très étalés
+        private static final int CELLS_PER_BOX = 4;
+
+        private final double originX;
+        private final double originY;
+        private final double cell;
+        private final int columns;
+        private final int rows;
+        private final double[][] cells;
+
+        ObstacleIndex(Collection<Box> boxes) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            double size = 1;
+            for (Box box : boxes) {
+                Box inflated = box.inflated();
+                minX = Math.min(minX, inflated.x);
+                minY = Math.min(minY, inflated.y);
+                maxX = Math.max(maxX, inflated.x + inflated.width);
+                maxY = Math.max(maxY, inflated.y + inflated.height);
+                size = Math.max(size, Math.max(inflated.width, inflated.height));
+            }
+            if (boxes.isEmpty()) {
+                minX = minY = maxX = maxY = 0;
+            }
+            double area = (maxX - minX) * (maxY - minY);
+            this.cell = Math.max(size, Math.sqrt(area / ((double) CELLS_PER_BOX * Math.max(1, boxes.size()))));
+            this.originX = minX;
+            this.originY = minY;
+            this.columns = (int) ((maxX - minX) / cell) + 1;
+            this.rows = (int) ((maxY - minY) / cell) + 1;
+
+            int[] counts = new int[columns * rows];
+            for (Box box : boxes) {
+                counts[cellIndex(box.x - MARGIN, box.y - MARGIN)]++;
+            }
+            this.cells = new double[columns * rows][];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = new double[counts[c] * 4];
+                counts[c] = 0;
+            }
+            for (Box box : boxes) {
+                Box inflated = box.inflated();
+                int c = cellIndex(inflated.x, inflated.y);
+                double[] bucket = cells[c];
+                int offset = counts[c]++ * 4;
+                bucket[offset] = inflated.x;
+                bucket[offset + 1] = inflated.y;
+                bucket[offset + 2] = inflated.x + inflated.width;
+                bucket[offset + 3] = inflated.y + inflated.height;
+            }
+        }
+
+        /**
+         * Vrai si le point est strictement à l'intérieur d'une classe élargie
+         */
+        boolean blocks(double x, double y) {
+            int cx = column(x);
+            int cy = row(y);
+            for (int gx = Math.max(0, cx - 1); gx <= Math.min(columns - 1, cx); gx++) {
+                for (int gy = Math.max(0, cy - 1); gy <= Math.min(rows - 1, cy); gy++) {
+                    double[] bucket = cells[gy * columns + gx];
+                    for (int o = 0; o < bucket.length; o += 4) {
+                        if (x > bucket[o] && x < bucket[o + 2] && y > bucket[o + 1] && y < bucket[o + 3]) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Classes élargies qui touchent une zone
+         */
+        List<Box> query(Box area) {
+            List<Box> result = new ArrayList<>();
+            int lastColumn = Math.min(columns - 1, column(area.x + area.width));
+            int lastRow = Math.min(rows - 1, row(area.y + area.height));
+            for (int gx = Math.max(0, column(area.x) - 1); gx <= lastColumn; gx++) {
+                for (int gy = Math.max(0, row(area.y) - 1); gy <= lastRow; gy++) {
+                    double[] bucket = cells[gy * columns + gx];
+                    for (int o = 0; o < bucket.length; o += 4) {
+                        Box box = new Box(bucket[o], bucket[o + 1], bucket[o + 2] - bucket[o], bucket[o + 3] - bucket[o + 1]);
+                        if (box.intersects(area)) {
+                            result.add(box);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private int cellIndex(double x, double y) {
+            return row(y) * columns + column(x);
+        }
+
+        // Hors de la grille, les coordonnées sont ramenées sur la case la plus proche
+        private int column(double x) {
+            return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - originX) / cell)));
+        }
+
+        private int row(double y) {
+            return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - originY) / cell)));
+        }
+    }
+
+    /**
+     * Rectangle d'une classe
+     */
+    private record Box(double x, double y, double width, double height) {
+
+        static Box of(ClassElement element) {
+            return new Box(element.getX(), element.getY(), element.getWidth(), element.getHeight());
+        }
+
+        Box inflated() {
+            return new Box(x - MARGIN, y - MARGIN, width + 2 * MARGIN, height + 2 * MARGIN);
+        }
+
+        double centreX() {
+            return x + width / 2;
+        }
+
+        double centreY() {
+            return y + height / 2;
+        }
+
+        double clampX(double value) {
+            return Math.max(x, Math.min(x + width, value));
+        }
+
+        double clampY(double value) {
+            return Math.max(y, Math.min(y + height, value));
+        }
+
+        boolean intersects(Box other) {
+            return x < other.x + other.width && other.x < x + width
+                    && y < other.y + other.height && other.y < y + height;
+        }
+
+        /**
+         * Vrai si le segment touche le rectangle, bords compris
+         */
+        boolean touches(double x1, double y1, double x2, double y2) {
+            return Math.min(x1, x2) <= x + width && Math.max(x1, x2) >= x
+                    && Math.min(y1, y2) <= y + height && Math.max(y1, y2) >= y;
+        }
+    }
+
+    /**
+     * Route en cache : extrémités au moment du calcul et tracé, des centres des classes aux coudes
+     */
+    private record Route(ClassElement sourceElement, ClassElement targetElement, double[] polyline) {
+
+        /**
+         * Vrai si la route doit être recalculée : extrémité remplacée ou déplacée, ou segment qui longe
+         * ou traverse une classe modifiée, à son ancienne ou à sa nouvelle place
+         */
+        boolean isStale(RelationshipElement relationship, Set<ClassElement> changed, List<Box> dirty) {
+            if (relationship.getSourceElement() != sourceElement || relationship.getTargetElement() != targetElement
+                    || changed.contains(sourceElement) || changed.contains(targetElement) || polyline == null) {
+                return true;
+            }
+            for (int p = 2; p < polyline.length; p += 2) {
+                for (Box box : dirty) {
+                    if (box.touches(polyline[p - 2], polyline[p - 1], polyline[p], polyline[p + 1])) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
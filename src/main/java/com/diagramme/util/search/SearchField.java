@@ -0,0 +1,41 @@
+package com.diagramme.util.search;
+
+import java.util.Locale;
+
+/**
+ * Champ d'un terme de l'index de recherche, et son préfixe dans une requête (type:Order, retour:Optional)
+ */
+public enum SearchField {
+    CLASS("classe"),
+    PACKAGE("paquetage"),
+    ATTRIBUTE("attribut"),
+    METHOD("methode"),
+    // Types des attributs, des paramètres et des retours de méthodes
+    TYPE("type"),
+    RETURNS("retour");
+
+    private final String prefix;
+
+    SearchField(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Champ désigné par un préfixe de requête, en français ou par son nom
+     *
+     * @return null si le préfixe n'est pas reconnu
+     */
+    public static SearchField fromPrefix(String prefix) {
+        String normalized = prefix.toLowerCase(Locale.ROOT).replace('é', 'e');
+        for (SearchField field : values()) {
+            if (field.prefix.equals(normalized) || field.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.diagramme.util.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Découpage en termes de l'index de recherche : noms en minuscules, types décomposés en identifiants
+ * (Map&lt;String, java.util.List&lt;Order&gt;&gt; donne map, string, java.util.list, list et order),
+ * et analyse des requêtes.
+ */
+public final class SearchTerms {
+
+    /**
+     * Longueur maximale d'un terme (colonne search_terms.term)
+     */
+    public static final int MAX_LENGTH = 255;
+
+    // Mots-clés des bornes de génériques (List<? extends T>), qui ne sont pas des types
+    private static final Set<String> KEYWORDS = Set.of("extends", "super");
+
+    private SearchTerms() {
+    }
+
+    /**
+     * Terme d'un nom (classe, attribut, méthode, paquetage)
+     */
+    public static String name(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String term = name.trim().toLowerCase(Locale.ROOT);
+        return term.length() > MAX_LENGTH ? term.substring(0, MAX_LENGTH) : term;
+    }
+
+    /**
+     * Identifiants d'une expression de type, qualifiés ou non, sans doublon
+     */
+    public static Set<String> type(String type) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (type == null) {
+            return terms;
+        }
+        for (String token : type.split("[^\\p{L}\\p{N}_$.]+")) {
+            String term = name(token.replaceAll("^\\.+|\\.+$", ""));
+            if (term == null || KEYWORDS.contains(term)) {
+                continue;
+            }
+            terms.add(term);
+            int dot = term.lastIndexOf('.');
+            if (dot >= 0) {
+                terms.add(term.substring(dot + 1));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Analyse une requête : critères séparés par des espaces, chacun de la forme champ:valeur ou valeur
+     * (tous les champs). Une valeur terminée par * cherche un préfixe. Un diagramme doit satisfaire tous les critères.
+     */
+    public static List<Criterion> parse(String query) {
+        List<Criterion> criteria = new ArrayList<>();
+        if (query == null) {
+            return criteria;
+        }
+        for (String token : query.trim().split("\\s+")) {
+            SearchField field = null;
+            String value = token;
+            int colon = token.indexOf(':');
+            if (colon > 0) {
+                field = SearchField.fromPrefix(token.substring(0, colon));
+                if (field != null) {
+                    value = token.substring(colon + 1);
+                }
+            }
+
+            boolean prefix = value.endsWith("*");
+            value = value.replaceAll("\\*+$", "");
+            // Seuls les types sont décomposés : List<Order> cherche list et order
+            Set<String> terms = field == SearchField.TYPE || field == SearchField.RETURNS
+                    ? type(value) : nameOrEmpty(value);
+            for (String term : terms) {
+                criteria.add(new Criterion(field, term, prefix));
+            }
+        }
+        return criteria;
+    }
+
+    private static Set<String> nameOrEmpty(String value) {
+        String term = name(value);
+        return term == null ? Set.of() : Set.of(term);
+    }
+
+    /**
+     * Critère d'une requête
+     *
+     * @param field  null pour tous les champs
+     * @param term   Terme en minuscules
+     * @param prefix Le terme est un préfixe
+     */
+    public record Criterion(SearchField field, String term, boolean prefix) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.diagramme.util.template;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Modèle compilé : plan de rendu fait de segments littéraux précalculés et d'accesseurs.
+ * Un modèle compilé peut être partagé entre threads.
+ *
+ * @param <T> Type du contexte de rendu
+ */
+public final class Template<T> {
+
+    // Au-delà, le tampon d'un rendu n'est pas conservé pour le suivant
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    // Tampon de rendu de chaque thread, réutilisé d'un rendu à l'autre : seul le texte final est alloué.
+    // Retiré pendant un rendu, un rendu imbriqué sur le même thread en prend un neuf.
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<>();
+
+    private final Segment<T>[] segments;
+
+    Template(List<Segment<T>> segments) {
+        @SuppressWarnings("unchecked")
+        Segment<T>[] array = segments.toArray(new Segment[0]);
+        this.segments = array;
+    }
+
+    /**
+     * Rend le modèle pour un contexte
+     */
+    public String render(T context) {
+        StringBuilder out = BUFFER.get();
+        if (out == null) {
+            out = new StringBuilder(1024);
+        } else {
+            BUFFER.set(null);
+        }
+        try {
+            renderTo(context, out);
+            return out.toString();
+        } finally {
+            if (out.capacity() <= MAX_RETAINED_CAPACITY) {
+                out.setLength(0);
+                BUFFER.set(out);
+            }
+        }
+    }
+
+    /**
+     * Rend le modèle à la suite d'un tampon existant
+     */
+    public void renderTo(T context, StringBuilder out) {
+        for (Segment<T> segment : segments) {
+            segment.render(context, out);
+        }
+    }
+
+    /**
+     * Élément du plan de rendu
+     */
+    interface Segment<T> {
+        void render(T context, StringBuilder out);
+    }
+
+    /**
+     * Texte fixe
+     */
+    record Literal<T>(String text) implements Segment<T> {
+        @Override
+        public void render(T context, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    /**
+     * Valeur lue sur le contexte ; une valeur nulle ne produit rien
+     */
+    record Value<T>(Function<? super T, ?> accessor) implements Segment<T> {
+        @Override
+        public void render(T context, StringBuilder out) {
+            Object value = accessor.apply(context);
+            if (value instanceof String text) {
+                out.append(text);
+            } else if (value != null) {
+                out.append(value);
+            }
+        }
+    }
+
+    /**
+     * Bloc conditionnel avec branche alternative facultative
+     */
+    record Conditional<T>(Predicate<? super T> predicate, Template<T> then, Template<T> otherwise) implements Segment<T> {
+        @Override
+        public void render(T context, StringBuilder out) {
+            if (predicate.test(context)) {
+                then.renderTo(context, out);
+            } else if (otherwise != null) {
+                otherwise.renderTo(context, out);
+            }
+        }
+    }
+
+    /**
+     * Bloc répété pour chaque élément d'une liste, avec séparateur facultatif
+     */
+    record Each<T, U>(Function<? super T, ? extends List<U>> accessor, Template<U> body, String separator)
+            implements Segment<T> {
+        @Override
+        public void render(T context, StringBuilder out) {
+            List<U> items = accessor.apply(context);
+            if (items == null) {
+                return;
+            }
+            // Parcours indexé : pas d'itérateur alloué
+            for (int i = 0, size = items.size(); i < size; i++) {
+                if (i > 0 && separator != null) {
+                    out.append(separator);
+                }
+                body.renderTo(items.get(i), out);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.diagramme.util.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compile le texte d'un modèle en {@link Template}.
+ *
+ * Syntaxe :
+ * <ul>
+ *   <li>{@code {{nom}}} : valeur du contexte ({@code {{.}}} désigne le contexte lui-même)</li>
+ *   <li>{@code {{#if nom}}...{{else}}...{{/if}}} : condition, {@code !nom} pour la négation</li>
+ *   <li>{@code {{#each nom separator=", "}}...{{/each}}} : liste, le séparateur est facultatif</li>
+ * </ul>
+ * Le texte hors balises est reproduit tel quel, espaces et retours à la ligne compris.
+ */
+public final class TemplateCompiler {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private TemplateCompiler() {
+    }
+
+    /**
+     * Compile un modèle ; les noms inconnus du modèle de données sont rejetés immédiatement
+     */
+    public static <T> Template<T> compile(String source, TemplateModel<T> model) {
+        Parser parser = new Parser(source);
+        List<Template.Segment<T>> segments = parser.parse(model);
+        if (parser.stopTag != null) {
+            throw parser.error("Balise inattendue {{" + parser.stopTag + "}}", parser.stopOffset);
+        }
+        return new Template<>(segments);
+    }
+
+    /**
+     * Compile un modèle lu depuis une ressource du classpath (UTF-8)
+     */
+    public static <T> Template<T> compileResource(String resourcePath, TemplateModel<T> model) {
+        try (InputStream in = TemplateCompiler.class.getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Modèle introuvable: " + resourcePath);
+            }
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8), model);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de la lecture du modèle " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Analyseur descendant : chaque bloc s'arrête sur la balise qui le ferme
+     */
+    private static final class Parser {
+
+        private final String source;
+        private int pos;
+        private String stopTag;
+        private int stopOffset;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        <T> List<Template.Segment<T>> parse(TemplateModel<T> model) {
+            List<Template.Segment<T>> segments = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            stopTag = null;
+
+            while (true) {
+                int open = source.indexOf(OPEN, pos);
+                if (open < 0) {
+                    literal.append(source, pos, source.length());
+                    pos = source.length();
+                    break;
+                }
+
+                literal.append(source, pos, open);
+                int close = source.indexOf(CLOSE, open + OPEN.length());
+                if (close < 0) {
+                    throw error("Balise non fermée", open);
+                }
+                String tag = source.substring(open + OPEN.length(), close).trim();
+                pos = close + CLOSE.length();
+
+                if (tag.equals("else") || tag.startsWith("/")) {
+                    stopTag = tag;
+                    stopOffset = open;
+                    break;
+                }
+
+                flush(literal, segments);
+                if (tag.startsWith("#if ")) {
+                    segments.add(parseIf(tag.substring(4).trim(), model, open));
+                } else if (tag.startsWith("#each ")) {
+                    segments.add(parseEach(tag.substring(6).trim(), model, open));
+                } else {
+                    segments.add(parseValue(tag, model, open));
+                }
+            }
+
+            flush(literal, segments);
+            return segments;
+        }
+
+        private <T> Template.Segment<T> parseIf(String name, TemplateModel<T> model, int offset) {
+            boolean negated = name.startsWith("!");
+            String flagName = negated ? name.substring(1).trim() : name;
+            Predicate<? super T> predicate = model.getFlag(flagName);
+            if (predicate == null) {
+                throw error("Condition inconnue: " + flagName, offset);
+            }
+            if (negated) {
+                Predicate<? super T> positive = predicate;
+                predicate = context -> !positive.test(context);
+            }
+
+            Template<T> then = new Template<>(parse(model));
+            Template<T> otherwise = null;
+            if ("else".equals(stopTag)) {
+                otherwise = new Template<>(parse(model));
+            }
+            expectStop("/if", offset);
+            return new Template.Conditional<>(predicate, then, otherwise);
+        }
+
+        private <T> Template.Segment<T> parseEach(String arguments, TemplateModel<T> model, int offset) {
+            String name = arguments;
+            String separator = null;
+
+            int space = arguments.indexOf(' ');
+            if (space > 0) {
+                name = arguments.substring(0, space);
+                String option = arguments.substring(space + 1).trim();
+                if (!option.startsWith("separator=\"") || !option.endsWith("\"") || option.length() < 12) {
+                    throw error("Option de liste invalide: " + option, offset);
+                }
+                separator = option.substring(11, option.length() - 1);
+            }
+
+            TemplateModel.ListBinding<T, ?> binding = model.getList(name);
+            if (binding == null) {
+                throw error("Liste inconnue: " + name, offset);
+            }
+            return each(binding, separator, offset);
+        }
+
+        private <T, U> Template.Segment<T> each(TemplateModel.ListBinding<T, U> binding, String separator, int offset) {
+            Template<U> body = new Template<>(parse(binding.itemModel()));
+            expectStop("/each", offset);
+            return new Template.Each<>(binding.accessor(), body, separator);
+        }
+
+        private <T> Template.Segment<T> parseValue(String name, TemplateModel<T> model, int offset) {
+            if (name.equals(".")) {
+                return new Template.Value<T>(Function.identity());
+            }
+            Function<? super T, ?> accessor = model.getValue(name);
+            if (accessor == null) {
+                throw error("Valeur inconnue: " + name, offset);
+            }
+            return new Template.Value<>(accessor);
+        }
+
+        private void expectStop(String expected, int offset) {
+            if (!expected.equals(stopTag)) {
+                throw error("Balise {{" + expected + "}} attendue", stopTag != null ? stopOffset : offset);
+            }
+            stopTag = null;
+        }
+
+        private <T> void flush(StringBuilder literal, List<Template.Segment<T>> segments) {
+            if (!literal.isEmpty()) {
+                segments.add(new Template.Literal<>(literal.toString()));
+                literal.setLength(0);
+            }
+        }
+
+        IllegalArgumentException error(String message, int offset) {
+            int line = 1;
+            for (int i = 0; i < offset && i < source.length(); i++) {
+                if (source.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            return new IllegalArgumentException(message + " (ligne " + line + ")");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.diagramme.util.template;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Décrit les noms utilisables dans un modèle pour un type de contexte donné :
+ * valeurs, conditions et listes. Les noms sont résolus une seule fois, à la compilation du modèle.
+ *
+ * @param <T> Type du contexte de rendu
+ */
+public final class TemplateModel<T> {
+
+    private final Map<String, Function<? super T, ?>> values = new HashMap<>();
+    private final Map<String, Predicate<? super T>> flags = new HashMap<>();
+    private final Map<String, ListBinding<T, ?>> lists = new HashMap<>();
+
+    /**
+     * Déclare une valeur insérée par {@code {{nom}}}
+     */
+    public TemplateModel<T> value(String name, Function<? super T, ?> accessor) {
+        values.put(name, accessor);
+        return this;
+    }
+
+    /**
+     * Déclare une condition utilisable par {@code {{#if nom}}}
+     */
+    public TemplateModel<T> flag(String name, Predicate<? super T> predicate) {
+        flags.put(name, predicate);
+        return this;
+    }
+
+    /**
+     * Déclare une liste parcourue par {@code {{#each nom}}}, dont chaque élément est rendu avec son propre modèle
+     */
+    public <U> TemplateModel<T> list(String name, Function<? super T, ? extends List<U>> accessor, TemplateModel<U> itemModel) {
+        lists.put(name, new ListBinding<>(accessor, itemModel));
+        return this;
+    }
+
+    Function<? super T, ?> getValue(String name) {
+        return values.get(name);
+    }
+
+    Predicate<? super T> getFlag(String name) {
+        return flags.get(name);
+    }
+
+    ListBinding<T, ?> getList(String name) {
+        return lists.get(name);
+    }
+
+    record ListBinding<T, U>(Function<? super T, ? extends List<U>> accessor, TemplateModel<U> itemModel) {
+    }
+}
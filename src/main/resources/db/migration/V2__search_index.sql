@@ -0,0 +1,21 @@
+-- Index inversé de la recherche (SearchIndexService) : un terme par nom ou type, rattaché à la classe qui le porte.
+-- Les termes d'un diagramme disparaissent avec lui ; ceux d'une classe supprimée en bloc, avec elle (BulkElementDeleter).
+
+CREATE TABLE IF NOT EXISTS search_terms (
+    term VARCHAR(255) NOT NULL,
+    field VARCHAR(16) NOT NULL,
+    diagram_id BIGINT NOT NULL,
+    element_id BIGINT NOT NULL,
+    detail VARCHAR(1024),
+    CONSTRAINT fk_search_terms_diagram FOREIGN KEY (diagram_id) REFERENCES class_diagrams (id) ON DELETE CASCADE
+);
+-- Terme seul (tous les champs), terme et champ, préfixe de terme
+CREATE INDEX IF NOT EXISTS idx_search_terms_term_field ON search_terms (term, field);
+CREATE INDEX IF NOT EXISTS idx_search_terms_element ON search_terms (element_id);
+
+-- Date de la dernière indexation de chaque diagramme : au démarrage, les diagrammes modifiés depuis sont réindexés
+CREATE TABLE IF NOT EXISTS search_index_state (
+    diagram_id BIGINT NOT NULL PRIMARY KEY,
+    indexed_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_search_index_state_diagram FOREIGN KEY (diagram_id) REFERENCES class_diagrams (id) ON DELETE CASCADE
+);
@@ -0,0 +1,13 @@
+-- Index spatial des éléments pour le chargement par fenêtre (ElementWindowReader) : H2 n'indexe pas deux dimensions
+-- hors géométries. Les éléments sont rangés par bandes horizontales de 512 px (tile_y), puis par abscisse ;
+-- une fenêtre se lit alors sur quelques bandes et un intervalle de x. Un élément ne déborde de sa bande et de son
+-- abscisse que de sa taille : au-delà de 512 px (oversized), il est cherché à part.
+-- Colonnes calculées, maintenues par la base à chaque écriture et ignorées par les entités.
+
+ALTER TABLE diagram_elements ADD COLUMN IF NOT EXISTS tile_y INT GENERATED ALWAYS AS (CAST(FLOOR(y / 512) AS INT));
+ALTER TABLE diagram_elements ADD COLUMN IF NOT EXISTS oversized BOOLEAN GENERATED ALWAYS AS (width > 512 OR height > 512);
+CREATE INDEX IF NOT EXISTS idx_diagram_elements_tile ON diagram_elements (diagram_id, tile_y, x);
+CREATE INDEX IF NOT EXISTS idx_diagram_elements_oversized ON diagram_elements (diagram_id, oversized);
+
+-- Chargement par paquetage
+CREATE INDEX IF NOT EXISTS idx_class_elements_package_name ON class_elements (package_name);
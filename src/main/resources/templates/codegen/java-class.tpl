@@ -0,0 +1,32 @@
+{{#if hasPackage}}package {{packageName}};
+
+{{/if}}{{imports}}
+/**
+ * {{name}}
+ */
+{{#if interface}}public interface {{name}}{{#if hasParents}} extends {{#each parents separator=", "}}{{.}}{{/each}}{{/if}} {
+
+{{else}}{{#if enum}}public enum {{name}} {
+
+	// TODO: Ajouter les valeurs de l'énumération
+
+{{else}}public {{#if abstract}}abstract {{/if}}class {{name}}{{#if hasParentClass}} extends {{parentClass}}{{/if}}{{#if hasInterfaces}} implements {{#each interfaces separator=", "}}{{.}}{{/each}}{{/if}} {
+
+{{/if}}{{/if}}{{#each attributes}}	/**
+	 * {{name}}
+	 */
+	{{visibility}} {{#if static}}static {{/if}}{{#if final}}final {{/if}}{{type}} {{name}}{{#if hasDefaultValue}} = {{defaultValue}}{{/if}};
+
+{{/each}}{{#each methods}}	/**
+	 * {{name}}
+{{#each parameters}}	 * @param {{name}} Description du paramètre
+{{/each}}{{#if documentsReturn}}	 * @return Description de la valeur de retour
+{{/if}}	 */
+	{{visibility}} {{#if static}}static {{/if}}{{#if abstract}}abstract {{/if}}{{#if final}}final {{/if}}{{returnType}} {{name}}({{#each parameters separator=", "}}{{type}} {{name}}{{#if hasDefaultValue}} /* = {{defaultValue}} */{{/if}}{{/each}}) {{#if declarationOnly}};
+
+{{else}}{
+		// TODO: Implémentation de la méthode
+{{#if returnsValue}}		return {{defaultReturnValue}};
+{{/if}}	}
+
+{{/if}}{{/each}}}
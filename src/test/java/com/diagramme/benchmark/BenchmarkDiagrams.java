@@ -0,0 +1,128 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.DiagrammeDesktopApplication;
+import com.diagramme.model.*;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.model.enums.Visibility;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Génération de diagrammes synthétiques et de contextes Spring pour les benchmarks
+ */
+public final class BenchmarkDiagrams {
+
+    /**
+     * Nombre de paquetages ; la classe i appartient au paquetage i % PACKAGE_COUNT
+     */
+    public static final int PACKAGE_COUNT = 50;
+
+    private static final String[] TYPES = {
+            "String", "int", "long", "boolean", "double", "List<String>", "Map<String, Object>", "LocalDateTime"
+    };
+
+    private BenchmarkDiagrams() {
+    }
+
+    /**
+     * Génère un diagramme réaliste : paquetages, interfaces, arbre d'héritage,
+     * associations avec multiplicités, attributs et méthodes aux types répétés
+     */
+    public static ClassDiagram generate(int classCount) {
+        Random random = new Random(42);
+        ClassDiagram diagram = new ClassDiagram("Benchmark " + classCount);
+        List<ClassElement> classes = new ArrayList<>(classCount);
+        List<ClassElement> interfaces = new ArrayList<>();
+
+        for (int i = 0; i < classCount; i++) {
+            ClassElement element = new ClassElement("Type" + i);
+            element.setPackageName("com.bench.module" + (i % PACKAGE_COUNT));
+            element.setX((i % 40) * 250.0);
+            element.setY((i / 40) * 200.0);
+            element.setWidth(200);
+            element.setHeight(150);
+
+            if (i % 10 == 0) {
+                element.setType(ClassElement.ClassType.INTERFACE);
+                interfaces.add(element);
+            }
+
+            for (int a = 0; a < 5; a++) {
+                Attribute attribute = new Attribute("field" + a, TYPES[random.nextInt(TYPES.length)], Visibility.PRIVATE);
+                element.addAttribute(attribute);
+            }
+            for (int m = 0; m < 5; m++) {
+                Method method = new Method("operation" + m, TYPES[random.nextInt(TYPES.length)]);
+                method.addParameter(new Parameter("arg0", TYPES[random.nextInt(TYPES.length)]));
+                method.addParameter(new Parameter("arg1", TYPES[random.nextInt(TYPES.length)]));
+                element.addMethod(method);
+            }
+
+            classes.add(element);
+            diagram.addElement(element);
+        }
+
+        for (int i = 1; i < classCount; i++) {
+            ClassElement element = classes.get(i);
+            if (element.getType() == ClassElement.ClassType.INTERFACE) {
+                continue;
+            }
+
+            // Arbre d'héritage entre classes concrètes
+            ClassElement parent = classes.get((i - 1) / 2);
+            if (parent.getType() != ClassElement.ClassType.INTERFACE) {
+                diagram.addElement(new RelationshipElement("extends" + i, element, parent, RelationshipType.INHERITANCE));
+            }
+
+            if (!interfaces.isEmpty() && i % 3 == 0) {
+                ClassElement contract = interfaces.get(random.nextInt(interfaces.size()));
+                diagram.addElement(new RelationshipElement("implements" + i, element, contract, RelationshipType.IMPLEMENTATION));
+            }
+
+            ClassElement other = classes.get(random.nextInt(classCount));
+            if (other != element) {
+                RelationshipElement association = new RelationshipElement("uses" + i, element, other, RelationshipType.ASSOCIATION);
+                association.setSourceMultiplicity("1");
+                association.setTargetMultiplicity("0..*");
+                diagram.addElement(association);
+            }
+        }
+
+        return diagram;
+    }
+
+    /**
+     * Démarre le contexte Spring sans interface sur une base H2 en mémoire
+     */
+    public static ConfigurableApplicationContext startHeadlessContext(String databaseName) {
+        return startHeadlessContext("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1", new String[0]);
+    }
+
+    /**
+     * Démarre le contexte Spring sans interface sur la base donnée, avec des propriétés supplémentaires
+     */
+    public static ConfigurableApplicationContext startHeadlessContext(String datasourceUrl, String... properties) {
+        // En arguments de ligne de commande : les propriétés par défaut ne l'emporteraient pas sur application.properties
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + datasourceUrl,
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.com.diagramme=WARN",
+                "--logging.file.name=",
+                "--app.journal.enabled=false"));
+        for (String property : properties) {
+            // Une propriété donnée remplace la valeur par défaut de même nom
+            String key = "--" + property.substring(0, property.indexOf('=') + 1);
+            arguments.removeIf(argument -> argument.startsWith(key));
+            arguments.add("--" + property);
+        }
+        return new SpringApplicationBuilder(DiagrammeDesktopApplication.class)
+                .web(WebApplicationType.NONE)
+                .headless(true)
+                .run(arguments.toArray(new String[0]));
+    }
+}
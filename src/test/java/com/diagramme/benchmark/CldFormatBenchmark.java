@@ -0,0 +1,84 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.service.DiagramService;
+import com.diagramme.util.CldFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare l'enregistrement et le chargement d'un diagramme au format .cld
+ * avec le chemin JPA/H2 utilisé par l'éditeur
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CldFormatBenchmark {
+
+    @Param({"1000", "5000"})
+    private int classCount;
+
+    private ConfigurableApplicationContext context;
+    private DiagramService diagramService;
+    private ClassDiagram diagram;
+    private File cldFile;
+    private Long storedDiagramId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        diagram = BenchmarkDiagrams.generate(classCount);
+
+        cldFile = File.createTempFile("benchmark", ".cld");
+        cldFile.deleteOnExit();
+        CldFormat.write(diagram, cldFile);
+
+        context = BenchmarkDiagrams.startHeadlessContext("cld-benchmark");
+        diagramService = context.getBean(DiagramService.class);
+        storedDiagramId = diagramService.saveDiagram(BenchmarkDiagrams.generate(classCount)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Diagramme neuf pour chaque enregistrement JPA (un diagramme déjà persisté serait fusionné)
+     */
+    @State(Scope.Thread)
+    public static class FreshDiagram {
+        ClassDiagram diagram;
+
+        @Setup(Level.Invocation)
+        public void setUp(CldFormatBenchmark benchmark) {
+            diagram = BenchmarkDiagrams.generate(benchmark.classCount);
+        }
+    }
+
+    @Benchmark
+    public void cldSave() throws IOException {
+        CldFormat.write(diagram, cldFile);
+    }
+
+    @Benchmark
+    public ClassDiagram cldLoad() throws IOException {
+        return CldFormat.read(cldFile);
+    }
+
+    @Benchmark
+    public ClassDiagram h2Save(FreshDiagram fresh) {
+        return diagramService.saveDiagram(fresh.diagram);
+    }
+
+    @Benchmark
+    public ClassDiagram h2Load() {
+        return diagramService.getDiagramWithElementsById(storedDiagramId).orElseThrow();
+    }
+}
@@ -0,0 +1,46 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.service.JavaCodeGeneratorService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le rendu en mémoire de toutes les classes d'un diagramme par modèle compilé avec l'ancien
+ * générateur à base de StringBuilder, sans écriture de fichiers.
+ * Avec -prof gc, la colonne gc.alloc.rate.norm donne l'allocation par rendu du diagramme.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodeGenerationBenchmark {
+
+    @Param({"1000", "5000"})
+    private int classCount;
+
+    private ClassDiagram diagram;
+    private JavaCodeGeneratorService templateGenerator;
+    private LegacyJavaCodeRenderer legacyGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        diagram = BenchmarkDiagrams.generate(classCount);
+        templateGenerator = new JavaCodeGeneratorService();
+        legacyGenerator = new LegacyJavaCodeRenderer();
+    }
+
+    @Benchmark
+    public List<String> templateRender() {
+        return templateGenerator.renderClasses(diagram);
+    }
+
+    @Benchmark
+    public List<String> legacyRender() {
+        return legacyGenerator.renderClasses(diagram);
+    }
+}
@@ -0,0 +1,75 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.repository.BulkDiagramWriter;
+import com.diagramme.service.DiagramService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrement d'un diagramme importé (classes, membres, relations) dans une base H2 fichier :
+ * par JPA avec ou sans insertions JDBC par lots, ou en bloc par {@link BulkDiagramWriter}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    @Param({"1000", "5000"})
+    private int classCount;
+
+    /**
+     * hibernate.jdbc.batch_size ; 1 désactive les lots
+     */
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private DiagramService diagramService;
+    private BulkDiagramWriter bulkDiagramWriter;
+    private ClassDiagram diagram;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("import-benchmark");
+        context = BenchmarkDiagrams.startHeadlessContext(
+                "jdbc:h2:file:" + directory.resolve("diagrams").toAbsolutePath(),
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        diagramService = context.getBean(DiagramService.class);
+        bulkDiagramWriter = context.getBean(BulkDiagramWriter.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void generate() {
+        diagram = BenchmarkDiagrams.generate(classCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ClassDiagram importDiagram() {
+        return diagramService.saveDiagram(diagram);
+    }
+
+    /**
+     * Écriture en bloc ; batchSize n'a pas d'effet, renvoie le nombre de lignes écrites
+     */
+    @Benchmark
+    public long bulkImport() {
+        return bulkDiagramWriter.insert(diagram);
+    }
+}
@@ -0,0 +1,114 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.util.layout.ComponentLayout;
+import com.diagramme.util.layout.ForceDirectedLayout;
+import com.diagramme.util.layout.HierarchicalLayout;
+import com.diagramme.util.layout.IncrementalLayout;
+import com.diagramme.util.layout.LayoutGraph;
+import com.diagramme.util.layout.LayoutOptions;
+import com.diagramme.util.layout.LayoutReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le temps de disposition d'un diagramme selon son nombre de classes
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LayoutBenchmark {
+
+    @Param({"1000", "2000", "5000"})
+    private int classCount;
+
+    // Nombre de classes ajoutées pour la disposition incrémentale
+    private static final int ADDED_COUNT = 20;
+
+    private ClassDiagram diagram;
+    private List<ClassElement> withAdded;
+    private List<RelationshipElement> withAddedRelationships;
+    private List<RelationshipElement> packageRelationships;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        diagram = BenchmarkDiagrams.generate(classCount);
+
+        // Classes importées dans un coin du diagramme, chacune reliée à une classe existante
+        Random random = new Random(7);
+        withAdded = new ArrayList<>(diagram.getClasses());
+        withAddedRelationships = new ArrayList<>(diagram.getRelationships());
+        for (int i = 0; i < ADDED_COUNT; i++) {
+            ClassElement added = new ClassElement("Added" + i);
+            withAddedRelationships.add(new RelationshipElement("added" + i, added,
+                    withAdded.get(random.nextInt(classCount)), RelationshipType.DEPENDENCY));
+            withAdded.add(added);
+        }
+
+        // Diagramme importé sans relation entre paquetages : une composante par paquetage (classes i, i + 50…),
+        // chaque classe reliée à deux classes plus anciennes de son paquetage
+        List<ClassElement> classes = diagram.getClasses();
+        packageRelationships = new ArrayList<>();
+        for (int i = BenchmarkDiagrams.PACKAGE_COUNT; i < classCount; i++) {
+            int older = i / BenchmarkDiagrams.PACKAGE_COUNT;
+            for (int r = 0; r < 2; r++) {
+                ClassElement target = classes.get(i - BenchmarkDiagrams.PACKAGE_COUNT * (1 + random.nextInt(older)));
+                packageRelationships.add(new RelationshipElement("package" + i + "-" + r, classes.get(i), target,
+                        RelationshipType.ASSOCIATION));
+            }
+        }
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public LayoutReport forceDirected() {
+        // Budget de temps très large : on mesure le coût des itérations demandées
+        LayoutGraph graph = LayoutGraph.of(diagram.getClasses(), diagram.getRelationships());
+        return new ForceDirectedLayout().layout(graph, new LayoutOptions(LayoutOptions.DEFAULT_MAX_ITERATIONS, 60_000));
+    }
+
+    @Benchmark
+    public LayoutReport hierarchical() {
+        LayoutGraph graph = LayoutGraph.of(diagram.getClasses(), diagram.getRelationships());
+        return new HierarchicalLayout().layout(graph, new LayoutOptions(LayoutOptions.DEFAULT_MAX_ITERATIONS, 60_000));
+    }
+
+    @Benchmark
+    public LayoutReport packagesWhole() {
+        LayoutGraph graph = LayoutGraph.of(diagram.getClasses(), packageRelationships);
+        return new ForceDirectedLayout().layout(graph, new LayoutOptions(LayoutOptions.DEFAULT_MAX_ITERATIONS, 60_000));
+    }
+
+    @Benchmark
+    public LayoutReport packagesByComponent() {
+        LayoutGraph graph = LayoutGraph.of(diagram.getClasses(), packageRelationships);
+        return new ComponentLayout(ForceDirectedLayout::new, pool)
+                .layout(graph, new LayoutOptions(LayoutOptions.DEFAULT_MAX_ITERATIONS, 60_000));
+    }
+
+    @Benchmark
+    public LayoutReport incremental() {
+        LayoutGraph graph = LayoutGraph.of(withAdded, withAddedRelationships);
+        for (int i = 0; i < classCount; i++) {
+            graph.setPinned(i, true);
+        }
+        return new IncrementalLayout().layout(graph, LayoutOptions.defaults());
+    }
+}
@@ -0,0 +1,57 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.util.Multiplicity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la validation d'une multiplicité par {@code String.matches}, qui recompile l'expression
+ * régulière à chaque appel, avec l'analyseur écrit à la main
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiplicityBenchmark {
+
+    private static final String[] SAMPLES = {"1", "*", "0..1", "0..*", "1..*", "2..5", "10..20", "5..2", "a..b", ""};
+
+    private static final String LEGACY_PATTERN = "(\\d+|\\*)|(\\d+)\\.\\.(\\d+|\\*)";
+
+    @Benchmark
+    public int legacyMatches() {
+        int valid = 0;
+        for (String sample : SAMPLES) {
+            if (sample.matches(LEGACY_PATTERN)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int isValid() {
+        int valid = 0;
+        for (String sample : SAMPLES) {
+            if (Multiplicity.isValid(sample)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int parse() {
+        int bounds = 0;
+        for (String sample : SAMPLES) {
+            Multiplicity multiplicity = Multiplicity.parse(sample);
+            if (multiplicity != null) {
+                bounds += multiplicity.upper();
+            }
+        }
+        return bounds;
+    }
+}
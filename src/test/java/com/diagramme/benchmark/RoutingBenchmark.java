@@ -0,0 +1,50 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.util.routing.OrthogonalRouter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le routage de toutes les relations d'un diagramme au re-routage après le déplacement d'une classe
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+
+    @Param({"1000", "5000"})
+    private int classCount;
+
+    private ClassDiagram diagram;
+    private OrthogonalRouter router;
+    private ClassElement moved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        diagram = BenchmarkDiagrams.generate(classCount);
+        router = new OrthogonalRouter();
+        router.update(diagram);
+        moved = diagram.getClasses().get(classCount / 2);
+    }
+
+    @Benchmark
+    public int routeAll() {
+        OrthogonalRouter fresh = new OrthogonalRouter();
+        return fresh.update(diagram).size();
+    }
+
+    @Benchmark
+    public int rerouteAfterMove() {
+        // Aller-retour d'une classe d'une demi-colonne, comme un glisser-déposer
+        moved.setX(moved.getX() + 125);
+        int rerouted = router.update(diagram).size();
+        moved.setX(moved.getX() - 125);
+        return rerouted + router.update(diagram).size();
+    }
+}
@@ -0,0 +1,35 @@
+package com.diagramme.benchmark;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.util.UmlValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure l'évolution du temps de validation d'un diagramme avec son nombre de classes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UmlValidatorBenchmark {
+
+    @Param({"1000", "3000", "10000"})
+    private int classCount;
+
+    private ClassDiagram diagram;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        diagram = BenchmarkDiagrams.generate(classCount);
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return UmlValidator.validateDiagram(diagram);
+    }
+}
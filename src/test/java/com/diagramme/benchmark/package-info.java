@@ -0,0 +1,11 @@
+/**
+ * Benchmarks JMH de l'éditeur.
+ *
+ * Ces classes ne sont pas exécutées par {@code mvn test}. Pour les lancer :
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main CldFormatBenchmark"
+ * </pre>
+ * Le dernier argument est une expression régulière sur le nom des benchmarks à exécuter.
+ */
+package com.diagramme.benchmark;
@@ -0,0 +1,51 @@
+package com.diagramme.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdSequenceAlignerTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource("jdbc:h2:mem:", "sa", "", true));
+        for (String table : new String[]{"class_diagrams", "diagram_elements", "attributes", "methods", "parameters"}) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY)");
+            jdbcTemplate.execute("CREATE SEQUENCE " + table + "_seq START WITH 1 INCREMENT BY 50");
+        }
+    }
+
+    @Test
+    public void testSequenceRestartsAfterExistingIds() {
+        // Base créée avec des identifiants IDENTITY
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.execute("INSERT INTO attributes DEFAULT VALUES");
+        }
+
+        new IdSequenceAligner(jdbcTemplate, null).align();
+
+        // Le premier bloc tiré commence après le plus grand identifiant
+        long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR attributes_seq", Long.class);
+        assertEquals(120 + IdSequenceAligner.ALLOCATION_SIZE, next);
+        assertTrue(next - IdSequenceAligner.ALLOCATION_SIZE + 1 > 120);
+    }
+
+    @Test
+    public void testAlignedSequenceIsLeftAlone() {
+        jdbcTemplate.execute("INSERT INTO methods DEFAULT VALUES");
+        IdSequenceAligner aligner = new IdSequenceAligner(jdbcTemplate, null);
+        aligner.align();
+        long first = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR methods_seq", Long.class);
+
+        aligner.align();
+
+        assertEquals(first + 50, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR methods_seq", Long.class));
+        // Table vide : séquence neuve inchangée
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR parameters_seq", Long.class));
+    }
+}
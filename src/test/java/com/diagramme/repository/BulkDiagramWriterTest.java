@@ -0,0 +1,85 @@
+package com.diagramme.repository;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.service.DiagramService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkDiagramWriterTest {
+
+    private static ConfigurableApplicationContext context;
+    private static BulkDiagramWriter writer;
+    private static DiagramService diagramService;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("bulk-writer-test");
+        writer = context.getBean(BulkDiagramWriter.class);
+        diagramService = context.getBean(DiagramService.class);
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testBulkInsertReadsBackThroughJpa() {
+        ClassDiagram diagram = BenchmarkDiagrams.generate(200);
+        RelationshipElement.Point point = new RelationshipElement.Point();
+        point.setX(10);
+        point.setY(20);
+        diagram.getRelationships().get(0).getControlPoints().add(point);
+
+        long rows = writer.insert(diagram);
+
+        assertNotNull(diagram.getId());
+        ClassDiagram loaded = diagramService.getDiagramWithElementsById(diagram.getId()).orElseThrow();
+        assertEquals(diagram.getElements().size(), loaded.getElements().size());
+        ClassElement expected = diagram.getClasses().get(7);
+        ClassElement actual = loaded.getClasses().stream()
+                .filter(element -> element.getId().equals(expected.getId())).findFirst().orElseThrow();
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getUuid(), actual.getUuid());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getAttributes().size(), actual.getAttributes().size());
+        assertEquals(expected.getMethods().get(2).getParameters().get(1).getType(),
+                actual.getMethods().get(2).getParameters().get(1).getType());
+
+        RelationshipElement relationship = loaded.getRelationships().stream()
+                .filter(each -> each.getId().equals(diagram.getRelationships().get(0).getId())).findFirst().orElseThrow();
+        assertEquals(diagram.getRelationships().get(0).getSourceElement().getId(), relationship.getSourceElement().getId());
+        assertEquals(1, context.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM relationship_control_points WHERE relationship_element_id = ?",
+                Integer.class, relationship.getId()));
+        // diagramme + éléments + lignes des sous-tables + point de contrôle + membres (5 + 5 + 10 par classe)
+        assertEquals(1 + 2L * diagram.getElements().size() + 1 + 200 * 20, rows);
+    }
+
+    @Test
+    public void testReservedIdsDoNotCollideWithJpa() {
+        ClassDiagram bulk = BenchmarkDiagrams.generate(120);
+        writer.insert(bulk);
+        ClassDiagram saved = diagramService.saveDiagram(BenchmarkDiagrams.generate(120));
+        ClassDiagram secondBulk = BenchmarkDiagrams.generate(120);
+        writer.insert(secondBulk);
+
+        Set<Long> ids = new HashSet<>();
+        for (ClassDiagram diagram : new ClassDiagram[]{bulk, saved, secondBulk}) {
+            diagram.getElements().forEach(element -> assertTrue(ids.add(element.getId())));
+            diagram.getClasses().forEach(element -> element.getMethods()
+                    .forEach(method -> assertTrue(ids.add(-method.getId()))));
+        }
+    }
+}
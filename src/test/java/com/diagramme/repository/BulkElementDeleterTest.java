@@ -0,0 +1,105 @@
+package com.diagramme.repository;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.service.DiagramService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkElementDeleterTest {
+
+    private static ConfigurableApplicationContext context;
+    private static DiagramService diagramService;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("bulk-deleter-test");
+        diagramService = context.getBean(DiagramService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testDeletesClassesWithDependentRows() {
+        ClassDiagram diagram = BenchmarkDiagrams.generate(300);
+        RelationshipElement.Point point = new RelationshipElement.Point();
+        diagram.getRelationships().get(0).getControlPoints().add(point);
+        context.getBean(BulkDiagramWriter.class).insert(diagram);
+        ClassDiagram other = BenchmarkDiagrams.generate(20);
+        context.getBean(BulkDiagramWriter.class).insert(other);
+
+        // Remplit le cache avant la suppression
+        assertEquals(diagram.getElements().size(),
+                diagramService.getDiagramWithElementsById(diagram.getId()).orElseThrow().getElements().size());
+
+        List<ClassElement> classes = diagram.getClasses().subList(0, 100);
+        Set<Long> classIds = new HashSet<>();
+        classes.forEach(element -> classIds.add(element.getId()));
+        RelationshipElement kept = diagram.getRelationships().stream()
+                .filter(relationship -> !classIds.contains(relationship.getSourceElement().getId())
+                        && !classIds.contains(relationship.getTargetElement().getId()))
+                .findFirst().orElseThrow();
+        diagramService.deleteElements(classIds, List.of(kept.getId()));
+
+        Set<Long> removed = new HashSet<>(classIds);
+        removed.add(kept.getId());
+        diagram.getRelationships().stream()
+                .filter(relationship -> classIds.contains(relationship.getSourceElement().getId())
+                        || classIds.contains(relationship.getTargetElement().getId()))
+                .forEach(relationship -> removed.add(relationship.getId()));
+
+        ClassDiagram loaded = diagramService.getDiagramWithElementsById(diagram.getId()).orElseThrow();
+        assertEquals(diagram.getElements().size() - removed.size(), loaded.getElements().size());
+        assertTrue(loaded.getElements().stream().map(DiagramElement::getId).noneMatch(removed::contains));
+        assertEquals(200, loaded.getClasses().size());
+        assertEquals(diagram.getClasses().get(150).getMethods().size(),
+                loaded.getClasses().stream().filter(element -> element.getId().equals(diagram.getClasses().get(150).getId()))
+                        .findFirst().orElseThrow().getMethods().size());
+
+        // Plus aucune ligne orpheline ; l'autre diagramme est intact
+        assertEquals(0, count("SELECT COUNT(*) FROM methods m LEFT JOIN class_elements c ON m.class_id = c.id "
+                + "WHERE c.id IS NULL"));
+        assertEquals(0, count("SELECT COUNT(*) FROM parameters p LEFT JOIN methods m ON p.method_id = m.id "
+                + "WHERE m.id IS NULL"));
+        assertEquals(0, count("SELECT COUNT(*) FROM relationship_control_points p "
+                + "LEFT JOIN relationship_elements r ON p.relationship_element_id = r.id WHERE r.id IS NULL"));
+        assertEquals(200 * 5, count("SELECT COUNT(*) FROM attributes a JOIN diagram_elements d ON a.class_id = d.id "
+                + "WHERE d.diagram_id = " + diagram.getId()));
+        assertEquals(other.getElements().size(),
+                diagramService.getDiagramWithElementsById(other.getId()).orElseThrow().getElements().size());
+    }
+
+    @Test
+    public void testDeleteClassElementRemovesItsRelationships() {
+        ClassDiagram diagram = diagramService.saveDiagram(BenchmarkDiagrams.generate(10));
+        ClassElement target = diagram.getRelationships().get(0).getTargetElement();
+
+        diagramService.deleteClassElement(target.getId());
+
+        assertTrue(context.getBean(RelationshipElementRepository.class)
+                .findBySourceElementIdOrTargetElementId(target.getId(), target.getId()).isEmpty());
+        assertTrue(context.getBean(ClassElementRepository.class).findById(target.getId()).isEmpty());
+        assertEquals(9, context.getBean(ClassElementRepository.class).findByDiagramId(diagram.getId()).size());
+    }
+
+    private static int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
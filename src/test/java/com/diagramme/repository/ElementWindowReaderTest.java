@@ -0,0 +1,154 @@
+package com.diagramme.repository;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.dto.DiagramBounds;
+import com.diagramme.dto.ElementWindow;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.service.DiagramService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElementWindowReaderTest {
+
+    private static ConfigurableApplicationContext context;
+    private static DiagramService diagramService;
+    private static ClassDiagram diagram;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("element-window-test");
+        diagramService = context.getBean(DiagramService.class);
+
+        diagram = BenchmarkDiagrams.generate(2000);
+        // Éléments plus grands qu'une bande, à cheval sur plusieurs bandes, en coordonnées négatives
+        ClassElement tall = diagram.getClasses().get(5);
+        tall.setHeight(3000);
+        ClassElement wide = diagram.getClasses().get(1500);
+        wide.setWidth(2000);
+        ClassElement negative = diagram.getClasses().get(7);
+        negative.setX(-700);
+        negative.setY(-430);
+        ClassElement subPackage = diagram.getClasses().get(3);
+        subPackage.setPackageName("com.bench.module3.internal");
+        BulkDiagramWriter writer = context.getBean(BulkDiagramWriter.class);
+        writer.insert(diagram);
+        // Un autre diagramme aux mêmes coordonnées et paquetages
+        writer.insert(BenchmarkDiagrams.generate(500));
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testBoxLoadsExactlyTheClassesItTouches() {
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) {
+            double minX = random.nextInt(12000) - 1000;
+            double minY = random.nextInt(12000) - 1000;
+            double maxX = minX + random.nextInt(3000);
+            double maxY = minY + random.nextInt(3000);
+            assertEquals(expectedInBox(minX, minY, maxX, maxY), ids(diagramService.getElementsInBox(diagram.getId(),
+                    minX, minY, maxX, maxY).getClasses()), "[" + minX + ", " + minY + "] - [" + maxX + ", " + maxY + "]");
+        }
+        // Bords : un rectangle réduit à un point sur le coin d'un élément le touche
+        ClassElement corner = diagram.getClasses().get(45);
+        assertTrue(ids(diagramService.getElementsInBox(diagram.getId(), corner.getX() + corner.getWidth(),
+                corner.getY() + corner.getHeight(), corner.getX() + corner.getWidth(),
+                corner.getY() + corner.getHeight()).getClasses()).contains(corner.getId()));
+        assertTrue(diagramService.getElementsInBox(diagram.getId(), -5000, -5000, -4000, -4000).isEmpty());
+    }
+
+    @Test
+    public void testWindowIsUsableOutsideTransaction() {
+        ElementWindow window = diagramService.getElementsInBox(diagram.getId(), 0, 0, 1000, 1000);
+        assertFalse(window.getClasses().isEmpty());
+
+        // Membres chargés : le diagramme n'a plus de session
+        ClassElement loaded = window.getClasses().get(0);
+        ClassElement original = diagram.getClasses().stream()
+                .filter(element -> element.getId().equals(loaded.getId())).findFirst().orElseThrow();
+        assertEquals(original.getAttributes().size(), loaded.getAttributes().size());
+        assertEquals(original.getMethods().size(), loaded.getMethods().size());
+        assertEquals(original.getMethods().get(0).getParameters().size(),
+                loaded.getMethods().get(0).getParameters().size());
+
+        // Toutes les relations d'une classe de la fenêtre, extrémités comprises
+        Set<Long> windowIds = ids(window.getClasses());
+        Set<Long> expected = diagram.getRelationships().stream()
+                .filter(relationship -> windowIds.contains(relationship.getSourceElement().getId())
+                        || windowIds.contains(relationship.getTargetElement().getId()))
+                .map(DiagramElement::getId).collect(Collectors.toSet());
+        assertEquals(expected, ids(window.getRelationships()));
+        RelationshipElement relationship = window.getRelationships().get(0);
+        assertNotNull(relationship.getSourceElement().getName());
+        assertNotNull(relationship.getTargetElement().getName());
+        assertTrue(relationship.getControlPoints().isEmpty());
+
+        // Extrémités hors de la fenêtre : membres chargés elles aussi
+        List<ClassElement> outside = window.getRelationships().stream()
+                .flatMap(each -> Stream.of(each.getSourceElement(), each.getTargetElement()))
+                .filter(endpoint -> !windowIds.contains(endpoint.getId()))
+                .toList();
+        assertFalse(outside.isEmpty());
+        for (ClassElement endpoint : outside) {
+            ClassElement stored = diagram.getClasses().stream()
+                    .filter(element -> element.getId().equals(endpoint.getId())).findFirst().orElseThrow();
+            assertEquals(stored.getAttributes().size(), endpoint.getAttributes().size());
+            assertEquals(stored.getMethods().size(), endpoint.getMethods().size());
+            for (int i = 0; i < stored.getMethods().size(); i++) {
+                assertEquals(stored.getMethods().get(i).getParameters().size(),
+                        endpoint.getMethods().get(i).getParameters().size());
+            }
+        }
+    }
+
+    @Test
+    public void testPackageIncludesSubPackagesOnly() {
+        List<ClassElement> classes = diagramService.getElementsInPackage(diagram.getId(), "com.bench.module3")
+                .getClasses();
+        Set<Long> expected = diagram.getClasses().stream()
+                .filter(element -> element.getPackageName().equals("com.bench.module3")
+                        || element.getPackageName().startsWith("com.bench.module3."))
+                .map(DiagramElement::getId).collect(Collectors.toSet());
+        assertEquals(expected, ids(classes));
+        assertTrue(classes.stream().anyMatch(element -> element.getPackageName().equals("com.bench.module3.internal")));
+        assertTrue(classes.stream().noneMatch(element -> element.getPackageName().equals("com.bench.module30")));
+        assertTrue(diagramService.getElementsInPackage(diagram.getId(), "com.bench.module_").isEmpty());
+    }
+
+    @Test
+    public void testBounds() {
+        DiagramBounds bounds = diagramService.getDiagramBounds(diagram.getId());
+        assertEquals(diagram.getClasses().size(), bounds.getClassCount());
+        assertEquals(-700, bounds.getMinX());
+        assertEquals(-430, bounds.getMinY());
+        assertEquals(diagram.getClasses().stream().mapToDouble(element -> element.getY() + element.getHeight())
+                .max().orElseThrow(), bounds.getMaxY());
+    }
+
+    private static Set<Long> expectedInBox(double minX, double minY, double maxX, double maxY) {
+        return diagram.getClasses().stream()
+                .filter(element -> element.getX() <= maxX && element.getX() + element.getWidth() >= minX
+                        && element.getY() <= maxY && element.getY() + element.getHeight() >= minY)
+                .map(DiagramElement::getId).collect(Collectors.toSet());
+    }
+
+    private static Set<Long> ids(List<? extends DiagramElement> elements) {
+        return elements.stream().map(DiagramElement::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,152 @@
+package com.diagramme.repository;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.config.SchemaMigrator;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.service.SearchIndexService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryPlanTest {
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbcTemplate;
+    private static ClassDiagram diagram;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("query-plan-test");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Plusieurs diagrammes : un parcours de table ne serait jamais le meilleur plan
+        for (int i = 0; i < 4; i++) {
+            diagram = BenchmarkDiagrams.generate(300);
+            context.getBean(BulkDiagramWriter.class).insert(diagram);
+            context.getBean(SearchIndexService.class).reindex(diagram.getId());
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testRelationshipsOfClassUseBothIndexes() {
+        Long classId = diagram.getClasses().get(10).getId();
+        List<RelationshipElement> relationships = new ArrayList<>();
+        String plan = explainStatement(() -> relationships.addAll(context.getBean(RelationshipElementRepository.class)
+                .findBySourceElementIdOrTargetElementId(classId, classId)), "union", classId, classId);
+        assertUsesIndex(plan, "SOURCE_ID");
+        assertUsesIndex(plan, "TARGET_ID");
+
+        assertFalse(relationships.isEmpty());
+        assertTrue(relationships.stream().allMatch(relationship ->
+                relationship.getSourceElement().getId().equals(classId)
+                        || relationship.getTargetElement().getId().equals(classId)));
+    }
+
+    @Test
+    public void testElementsAndMembersUseForeignKeyIndexes() {
+        ClassElementRepository classes = context.getBean(ClassElementRepository.class);
+        List<Long> classIds = List.of(diagram.getClasses().get(0).getId(), diagram.getClasses().get(1).getId());
+        Long relationshipId = diagram.getRelationships().get(0).getId();
+
+        assertUsesIndex(explainStatement(() -> classes.findByDiagramId(diagram.getId()), "class_elements",
+                diagram.getId()), "DIAGRAM_ID");
+        assertUsesIndex(explainStatement(() -> classes.findWithAttributesByIdIn(classIds), "attributes",
+                classIds.toArray()), "CLASS_ID");
+        String methods = explainStatement(() -> classes.findMethodsWithParametersByClassIdIn(classIds), "methods",
+                classIds.toArray());
+        assertUsesIndex(methods, "CLASS_ID");
+        assertUsesIndex(methods, "METHOD_ID");
+        assertUsesIndex(explainStatement(() -> context.getBean(RelationshipElementRepository.class)
+                        .findWithEndpointsByIdIn(List.of(relationshipId)), "relationship_control_points", relationshipId),
+                "RELATIONSHIP_ELEMENT_ID");
+    }
+
+    @Test
+    public void testSearchTermsUseIndex() {
+        SearchIndexService searchIndexService = context.getBean(SearchIndexService.class);
+        assertUsesIndex(explainStatement(() -> searchIndexService.search("type:order", 10), "search_terms",
+                "order", "TYPE", 10), "TERM");
+        assertUsesIndex(explainStatement(() -> searchIndexService.search("opt*", 10), "search_terms",
+                "opt%", 10), "TERM");
+        assertUsesIndex(explainStatement(() -> searchIndexService.findDiagrams("opt*"), "group by", "opt%"), "TERM");
+    }
+
+    @Test
+    public void testElementWindowsUseTileAndPackageIndexes() {
+        ElementWindowReader reader = context.getBean(ElementWindowReader.class);
+        long diagramId = diagram.getId();
+        double minX = 500;
+        double minY = 600;
+        double maxX = 2500;
+        double maxY = 1800;
+        String plan = explainStatement(() -> reader.findClassIdsInBox(diagramId, minX, minY, maxX, maxY),
+                "tile_y", diagramId, ElementWindowReader.tile(minY - ElementWindowReader.TILE_SIZE),
+                ElementWindowReader.tile(maxY), minX - ElementWindowReader.TILE_SIZE, maxX, maxY, minY, minX,
+                diagramId, maxX, minX, maxY, minY);
+        assertUsesIndex(plan, "TILE_Y");
+        assertUsesIndex(plan, "OVERSIZED");
+        assertUsesIndex(explainStatement(() -> reader.findClassIdsInPackage(diagramId, "com.bench.module3"),
+                "package_name", "com.bench.module3", diagramId, "com.bench.module3.%", diagramId), "PACKAGE_NAME");
+    }
+
+    @Test
+    public void testMigrationsAppliedOnceWithoutDuplicateIndexes() {
+        context.getBean(SchemaMigrator.class).migrate();
+        // Référence (base créée par Hibernate), puis chaque migration une seule fois
+        assertEquals(List.of("0", "1", "2", "3"), jdbcTemplate.queryForList("SELECT \"version\" FROM "
+                + "\"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"",
+                String.class));
+
+        // Les index des contraintes créées par Hibernate suffisent : pas de second index sur la même colonne
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                + "WHERE TABLE_NAME = 'ATTRIBUTES' AND COLUMN_NAME = 'CLASS_ID' AND ORDINAL_POSITION = 1", Integer.class));
+    }
+
+    /**
+     * Plan de la requête qu'un appel envoie réellement à la base, relevée par les statistiques de requêtes de H2
+     * (toutes connexions confondues : Hibernate comme JdbcTemplate)
+     *
+     * @param fragment Texte qui distingue la requête parmi celles de l'appel
+     * @param params   Valeurs des paramètres, dans l'ordre de la requête
+     */
+    private static synchronized String explainStatement(Runnable call, String fragment, Object... params) {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        List<String> statements;
+        try {
+            call.run();
+            statements = jdbcTemplate.queryForList("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS",
+                    String.class);
+        } finally {
+            jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        }
+        String sql = statements.stream()
+                .filter(statement -> statement.regionMatches(true, 0, "select", 0, 6)
+                        && statement.toLowerCase().contains(fragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Aucune requête avec " + fragment + " parmi " + statements));
+        assertEquals(params.length, sql.chars().filter(c -> c == '?').count(), sql);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, params);
+    }
+
+    private static void assertUsesIndex(String plan, String column) {
+        // H2 indique l'index choisi en commentaire : /* PUBLIC.NOM_INDEX: COLONNE = ... */
+        assertTrue(Pattern.compile("/\\* PUBLIC\\.\\w+: [^*]*\\b" + column + "\\b").matcher(plan).find(),
+                "Index non utilisé pour " + column + " :\n" + plan);
+    }
+}
@@ -0,0 +1,102 @@
+package com.diagramme.repository;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.service.CacheStatisticsService;
+import com.diagramme.service.DiagramService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecondLevelCacheTest {
+
+    private static ConfigurableApplicationContext context;
+    private static DiagramService diagramService;
+    private static ClassElementRepository classElementRepository;
+    private static CacheStatisticsService statistics;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("second-level-cache-test");
+        diagramService = context.getBean(DiagramService.class);
+        classElementRepository = context.getBean(ClassElementRepository.class);
+        statistics = context.getBean(CacheStatisticsService.class);
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @BeforeEach
+    public void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    public void testRepeatedLookupsHitTheCache() {
+        ClassDiagram diagram = diagramService.saveDiagram(BenchmarkDiagrams.generate(20));
+
+        classElementRepository.findByDiagramId(diagram.getId());
+        classElementRepository.findByDiagramId(diagram.getId());
+        diagramService.getDiagramWithElementsById(diagram.getId());
+        diagramService.getDiagramWithElementsById(diagram.getId());
+
+        assertEquals(1, statistics.getQueryTotals().hits());
+        assertTrue(statistics.getSecondLevelTotals().hitRate() > 0.5);
+        assertTrue(statistics.getSummary().contains(ClassElement.class.getName() + ".methods"));
+    }
+
+    @Test
+    public void testDeletedElementLeavesCachedResults() {
+        ClassDiagram diagram = diagramService.saveDiagram(BenchmarkDiagrams.generate(20));
+        assertEquals(20, classElementRepository.findByDiagramId(diagram.getId()).size());
+        diagramService.getDiagramWithElementsById(diagram.getId());
+
+        // La classe et ses relations disparaissent des résultats et de la collection du diagramme
+        ClassElement removed = diagram.getClasses().get(3);
+        diagramService.deleteClassElement(removed.getId());
+
+        assertEquals(19, classElementRepository.findByDiagramId(diagram.getId()).size());
+        ClassDiagram loaded = diagramService.getDiagramWithElementsById(diagram.getId()).orElseThrow();
+        List<Long> ids = loaded.getElements().stream().map(DiagramElement::getId).toList();
+        assertFalse(ids.contains(removed.getId()));
+        assertTrue(loaded.getRelationships().stream().noneMatch(relationship ->
+                relationship.getSourceElement().getId().equals(removed.getId())
+                        || relationship.getTargetElement().getId().equals(removed.getId())));
+    }
+
+    @Test
+    public void testUpdatedRelationshipIsReloaded() {
+        ClassDiagram diagram = diagramService.saveDiagram(BenchmarkDiagrams.generate(10));
+        RelationshipElement relationship = diagramService.getDiagramWithElementsById(diagram.getId()).orElseThrow()
+                .getRelationships().get(0);
+
+        relationship.setSourceMultiplicity("0..*");
+        diagramService.updateRelationship(relationship.getId(), relationship);
+
+        RelationshipElement reloaded = diagramService.getDiagramWithElementsById(diagram.getId()).orElseThrow()
+                .getRelationships().stream().filter(each -> each.getId().equals(relationship.getId()))
+                .findFirst().orElseThrow();
+        assertEquals("0..*", reloaded.getSourceMultiplicity());
+    }
+
+    @Test
+    public void testBulkInsertEvictsCachedDiagramList() {
+        int before = diagramService.getAllDiagrams().size();
+        diagramService.getAllDiagrams();
+
+        context.getBean(BulkDiagramWriter.class).insert(BenchmarkDiagrams.generate(5));
+
+        assertEquals(before + 1, diagramService.getAllDiagrams().size());
+    }
+}
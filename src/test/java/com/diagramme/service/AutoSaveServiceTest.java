@@ -0,0 +1,203 @@
+package com.diagramme.service;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.ui.DiagramEditorController;
+import com.diagramme.util.DiagramSnapshot;
+import com.diagramme.util.GeneratedIds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AutoSaveServiceTest {
+
+    @Mock
+    private DiagramService diagramService;
+
+    @Mock
+    private PreferenceService preferenceService;
+
+    @Mock
+    private EditJournalService editJournalService;
+
+    @Mock
+    private DiagramEditorController editor;
+
+    private AutoSaveService autoSaveService;
+    private ClassDiagram diagram;
+    private ClassElement existing;
+    private ClassElement added;
+    private final List<ClassDiagram> savedCopies = new ArrayList<>();
+    private final AtomicLong nextId = new AtomicLong(100);
+
+    @BeforeEach
+    public void setUp() {
+        // Diagramme enregistré, auquel on a ajouté une classe avec un attribut et une méthode
+        diagram = new ClassDiagram("Autosave");
+        diagram.setId(1L);
+        existing = new ClassElement("Existing");
+        existing.setId(10L);
+        diagram.addElement(existing);
+        added = new ClassElement("Added");
+        added.addAttribute(new Attribute("name", "String"));
+        Method method = new Method("rename", "void");
+        method.addParameter(new Parameter("name", "String"));
+        added.addMethod(method);
+        diagram.addElement(added);
+        diagram.addElement(new RelationshipElement("uses", added, existing, RelationshipType.DEPENDENCY));
+
+        when(preferenceService.isAutoSaveEnabled()).thenReturn(true);
+        lenient().when(preferenceService.getAutoSaveInterval()).thenReturn(60_000);
+        when(editor.getDiagram()).thenReturn(diagram);
+        lenient().when(editor.hasUnsavedChanges()).thenReturn(true);
+        // Sans journal, sauf mention contraire : le diagramme est copié
+        lenient().when(editJournalService.checkpoint(diagram)).thenReturn(-1L);
+
+        // Enregistrement simulé : comme une fusion JPA, renvoie un autre graphe où les nouveaux objets ont un identifiant
+        lenient().when(diagramService.saveDiagram(any())).thenAnswer(invocation -> {
+            ClassDiagram copy = invocation.getArgument(0);
+            savedCopies.add(copy);
+            return withGeneratedIds(DiagramSnapshot.of(copy).getCopy());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        autoSaveService.shutdown();
+    }
+
+    @Test
+    public void testJournalIsReplayedWithoutCopy() throws Exception {
+        autoSaveService = new AutoSaveService(diagramService, preferenceService, editJournalService, Runnable::run);
+        when(editor.getChangeCount()).thenReturn(3L);
+        when(editJournalService.checkpoint(diagram)).thenReturn(7L);
+        // Rejeu simulé : la version en base reçoit les identifiants des objets créés
+        ClassDiagram stored = DiagramSnapshot.of(diagram).getCopy();
+        Set<String> unsaved = GeneratedIds.unsaved(stored);
+        when(editJournalService.compact(1L, 7L)).thenReturn(Optional.of(GeneratedIds.of(withGeneratedIds(stored), unsaved)));
+        autoSaveService.startAutoSave(editor);
+
+        autoSaveService.saveModifiedDiagrams();
+
+        // Ni copie ni fusion du graphe complet
+        verify(diagramService, never()).saveDiagram(any());
+        assertEquals(10L, existing.getId());
+        assertEquals(stored.getClasses().get(1).getId(), added.getId());
+        assertEquals(stored.getClasses().get(1).getMethods().get(0).getParameters().get(0).getId(),
+                added.getMethods().get(0).getParameters().get(0).getId());
+        assertNotNull(diagram.getRelationships().get(0).getId());
+        verify(editor).setUnsavedChanges(false);
+    }
+
+    @Test
+    public void testSnapshotIsSavedAndIdsAppliedBack() throws Exception {
+        autoSaveService = new AutoSaveService(diagramService, preferenceService, editJournalService, Runnable::run);
+        when(editor.getChangeCount()).thenReturn(3L);
+        autoSaveService.startAutoSave(editor);
+
+        autoSaveService.saveModifiedDiagrams();
+
+        // Pas de journal à rejouer
+        verify(editJournalService, never()).compact(anyLong(), anyLong());
+
+        // La copie enregistrée ne partage aucun objet avec le diagramme affiché
+        assertEquals(1, savedCopies.size());
+        ClassDiagram copy = savedCopies.get(0);
+        assertNotSame(diagram, copy);
+        for (DiagramElement element : copy.getElements()) {
+            assertTrue(diagram.getElements().stream().noneMatch(original -> original == element));
+        }
+        RelationshipElement copiedRelationship = copy.getRelationships().get(0);
+        assertSame(copy.getClasses().get(1), copiedRelationship.getSourceElement());
+
+        // Les identifiants générés sont reportés, sans recharger l'éditeur
+        assertEquals(10L, existing.getId());
+        assertNotNull(added.getId());
+        assertNotNull(added.getAttributes().get(0).getId());
+        assertNotNull(added.getMethods().get(0).getId());
+        assertNotNull(added.getMethods().get(0).getParameters().get(0).getId());
+        assertNotNull(diagram.getRelationships().get(0).getId());
+        verify(editor).setUnsavedChanges(false);
+        verify(editor, never()).setDiagram(any());
+
+        // Rien de modifié depuis : pas de nouvel enregistrement
+        when(editor.hasUnsavedChanges()).thenReturn(false);
+        autoSaveService.saveModifiedDiagrams();
+        assertEquals(1, savedCopies.size());
+    }
+
+    @Test
+    public void testChangesAfterSnapshotStayUnsaved() {
+        autoSaveService = new AutoSaveService(diagramService, preferenceService, editJournalService, Runnable::run);
+        // Une modification a lieu pendant l'enregistrement de la copie
+        when(editor.getChangeCount()).thenReturn(3L, 4L);
+        autoSaveService.startAutoSave(editor);
+
+        autoSaveService.saveModifiedDiagrams();
+
+        assertEquals(1, savedCopies.size());
+        assertNotNull(added.getId());
+        verify(editor, never()).setUnsavedChanges(false);
+    }
+
+    @Test
+    public void testDirectWriteDiscardsOlderSnapshot() throws Exception {
+        // Une suppression directe en base a lieu entre la copie et son enregistrement
+        AtomicBoolean firstTask = new AtomicBoolean(true);
+        autoSaveService = new AutoSaveService(diagramService, preferenceService, editJournalService, task -> {
+            task.run();
+            if (firstTask.getAndSet(false)) {
+                autoSaveService.writeExclusively(() -> diagramService.deleteClassElement(10L));
+            }
+        });
+        when(editor.getChangeCount()).thenReturn(3L);
+        autoSaveService.startAutoSave(editor);
+
+        autoSaveService.saveModifiedDiagrams();
+
+        verify(diagramService).deleteClassElement(10L);
+        assertTrue(savedCopies.isEmpty());
+        assertNull(added.getId());
+        verify(editJournalService, never()).compact(anyLong(), anyLong());
+    }
+
+    private ClassDiagram withGeneratedIds(ClassDiagram saved) {
+        for (DiagramElement element : saved.getElements()) {
+            if (element.getId() == null) {
+                element.setId(nextId.getAndIncrement());
+            }
+            if (element instanceof ClassElement classElement) {
+                for (Attribute attribute : classElement.getAttributes()) {
+                    attribute.setId(nextId.getAndIncrement());
+                }
+                for (Method method : classElement.getMethods()) {
+                    method.setId(nextId.getAndIncrement());
+                    method.getParameters().forEach(parameter -> parameter.setId(nextId.getAndIncrement()));
+                }
+            }
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,116 @@
+package com.diagramme.service;
+
+import com.diagramme.dto.BatchExportOptions;
+import com.diagramme.dto.BatchExportReport;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.repository.ClassDiagramRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchExportServiceTest {
+
+    @Mock
+    private ClassDiagramRepository diagramRepository;
+
+    @Mock
+    private DiagramService diagramService;
+
+    @Mock
+    private ExportService exportService;
+
+    @InjectMocks
+    private BatchExportService batchExportService;
+
+    @TempDir
+    Path outputDir;
+
+    private final AtomicInteger runningPng = new AtomicInteger();
+    private final AtomicInteger maxRunningPng = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // 250 diagrammes répartis sur plusieurs pages d'identifiants
+        List<Long> ids = LongStream.rangeClosed(1, 250).boxed().toList();
+        when(diagramRepository.count()).thenReturn(250L);
+        when(diagramRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return ids.stream().filter(id -> id > afterId).limit(pageable.getPageSize()).toList();
+        });
+        when(diagramService.getDiagramWithElementsById(anyLong())).thenAnswer(invocation -> {
+            ClassDiagram diagram = new ClassDiagram("Diagramme / " + invocation.getArgument(0));
+            diagram.setId(invocation.getArgument(0));
+            return Optional.of(diagram);
+        });
+        lenient().when(exportService.getExtensionForFormat("SVG")).thenReturn(".svg");
+        lenient().when(exportService.getExtensionForFormat("PNG")).thenReturn(".png");
+        when(exportService.exportDiagram(any(ClassDiagram.class), anyString(), any(File.class))).thenAnswer(invocation -> {
+            String format = invocation.getArgument(1);
+            File file = invocation.getArgument(2);
+            if ("PNG".equals(format)) {
+                int running = runningPng.incrementAndGet();
+                maxRunningPng.accumulateAndGet(running, Math::max);
+                Thread.sleep(1);
+                runningPng.decrementAndGet();
+            }
+            Files.writeString(file.toPath(), format);
+            return file;
+        });
+    }
+
+    @Test
+    public void testExportAllDiagramsInAllFormats() throws Exception {
+        BatchExportOptions options = new BatchExportOptions();
+        options.setOutputDir(outputDir.toFile());
+        options.setFormats(List.of("SVG", "PNG"));
+        options.setThreads(8);
+        options.setFormatLimits(Map.of("PNG", 2));
+
+        BatchExportReport report = batchExportService.exportAll(options);
+
+        assertEquals(250, report.getTotalDiagrams());
+        assertEquals(250, report.getExportedDiagrams());
+        assertEquals(0, report.getFailedDiagrams());
+        assertEquals(500, report.getFilesWritten());
+        assertTrue(Files.exists(outputDir.resolve("Diagramme_1-1.svg")));
+        assertTrue(Files.exists(outputDir.resolve("Diagramme_250-250.png")));
+
+        // La limite de concurrence du format PNG est respectée
+        assertTrue(maxRunningPng.get() <= 2, "Exports PNG simultanés: " + maxRunningPng.get());
+    }
+
+    @Test
+    public void testFailedDiagramIsReported() throws Exception {
+        when(diagramService.getDiagramWithElementsById(7L)).thenThrow(new IllegalStateException("échec"));
+
+        BatchExportOptions options = new BatchExportOptions();
+        options.setOutputDir(outputDir.toFile());
+        options.setFormats(List.of("SVG"));
+        options.setThreads(4);
+
+        BatchExportReport report = batchExportService.exportAll(options);
+
+        assertEquals(249, report.getExportedDiagrams());
+        assertEquals(1, report.getFailedDiagrams());
+    }
+}
@@ -0,0 +1,130 @@
+package com.diagramme.service;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.repository.BulkDiagramWriter;
+import com.diagramme.service.DatabaseMaintenanceService.CompactionResult;
+import com.diagramme.service.DatabaseMaintenanceService.StorageStatistics;
+import com.diagramme.service.DatabaseMaintenanceService.TableRowCount;
+import org.h2.Driver;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseMaintenanceServiceTest {
+
+    @TempDir
+    static Path directory;
+
+    private static ConfigurableApplicationContext context;
+    private static DatabaseMaintenanceService maintenanceService;
+    private static DiagramService diagramService;
+    private static JdbcTemplate jdbcTemplate;
+    private static ClassDiagram kept;
+
+    @BeforeAll
+    public static void startContext() {
+        // Base fichier : une base en mémoire n'a rien à compacter
+        context = BenchmarkDiagrams.startHeadlessContext("jdbc:h2:file:" + directory.resolve("maintenance"),
+                // Compacte à chaque passage inactif, quel que soit le remplissage
+                "app.maintenance.enabled=false", "app.maintenance.min-fill-rate=101");
+        maintenanceService = context.getBean(DatabaseMaintenanceService.class);
+        diagramService = context.getBean(DiagramService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        kept = BenchmarkDiagrams.generate(100);
+        context.getBean(BulkDiagramWriter.class).insert(kept);
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testCompactionShrinksFragmentedFile() {
+        // Écritures puis suppressions répétées : le fichier garde des blocs morts
+        for (int round = 0; round < 5; round++) {
+            ClassDiagram diagram = BenchmarkDiagrams.generate(1000);
+            context.getBean(BulkDiagramWriter.class).insert(diagram);
+            diagramService.deleteElements(diagram.getClasses().stream().map(DiagramElement::getId).toList(), List.of());
+        }
+        jdbcTemplate.execute("CHECKPOINT");
+
+        StorageStatistics before = maintenanceService.getStorageStatistics();
+        assertTrue(before.fileSize() > 0);
+        assertTrue(before.fillRate() < 100, before.format());
+        assertEquals(100 - before.fillRate(), before.fragmentation());
+
+        CompactionResult result = maintenanceService.compact();
+        assertTrue(result.sizeAfter() < result.sizeBefore(), result.toString());
+        assertTrue(maintenanceService.getStorageStatistics().fillRate() > before.fillRate());
+
+        // Les données restent lisibles
+        assertEquals(kept.getClasses().size(),
+                diagramService.getDiagramWithElementsById(kept.getId()).orElseThrow().getClasses().size());
+    }
+
+    @Test
+    public void testCompactsOnlyWhenIdle() {
+        // Premier passage : pas de référence, la base est considérée active
+        assertFalse(maintenanceService.compactIfIdle());
+        diagramService.saveDiagram(new ClassDiagram("Activité"));
+        context.getBean(SearchIndexService.class).awaitIndexing();
+        // Écriture du fichier sans attendre l'enregistrement différé de H2
+        jdbcTemplate.execute("CHECKPOINT");
+        assertFalse(maintenanceService.compactIfIdle());
+
+        assertTrue(maintenanceService.compactIfIdle());
+        // Le compactage ne compte pas comme une activité
+        assertTrue(maintenanceService.compactIfIdle());
+    }
+
+    @Test
+    public void testServerDatabaseIsOnlyReported() throws SQLException {
+        // Connexion à un serveur H2 : pas de moteur embarqué à compacter
+        Server server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        try {
+            DataSource remote = new SimpleDriverDataSource(new Driver(),
+                    "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:maintenance-remote", "sa", "");
+            DatabaseMaintenanceService remoteMaintenance = new DatabaseMaintenanceService(
+                    new MockEnvironment().withProperty("app.maintenance.enabled", "false"), remote,
+                    new JdbcTemplate(remote));
+            try {
+                CompactionResult result = remoteMaintenance.compact();
+                assertEquals(result.sizeBefore(), result.sizeAfter());
+                assertEquals(0, result.reclaimed());
+            } finally {
+                remoteMaintenance.shutdown();
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testRowCountsPerTable() {
+        List<TableRowCount> counts = maintenanceService.getTableRowCounts();
+        assertEquals(kept.getClasses().size(), counts.stream().filter(count -> count.table().equals("CLASS_ELEMENTS"))
+                .findFirst().orElseThrow().rows());
+        assertTrue(counts.stream().anyMatch(count -> count.table().equals("flyway_schema_history")));
+        for (int i = 1; i < counts.size(); i++) {
+            assertTrue(counts.get(i - 1).rows() >= counts.get(i).rows());
+        }
+        assertTrue(maintenanceService.getSummary().contains("CLASS_ELEMENTS"));
+    }
+}
@@ -5,8 +5,11 @@ import com.diagramme.model.ClassDiagram;
 import com.diagramme.model.ClassElement;
 import com.diagramme.model.RelationshipElement;
 import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.repository.BulkDiagramWriter;
+import com.diagramme.repository.BulkElementDeleter;
 import com.diagramme.repository.ClassDiagramRepository;
 import com.diagramme.repository.ClassElementRepository;
+import com.diagramme.repository.ElementWindowReader;
 import com.diagramme.repository.RelationshipElementRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,9 +38,24 @@ public class DiagramServiceTest {
     @Mock
     private RelationshipElementRepository relationshipRepository;
 
+    @Mock
+    private BulkDiagramWriter bulkDiagramWriter;
+
+    @Mock
+    private BulkElementDeleter bulkElementDeleter;
+
+    @Mock
+    private ElementWindowReader elementWindowReader;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
     @Mock
     private JavaParserService javaParserService;
 
+    @Mock
+    private LayoutService layoutService;
+
     @Mock
     private RecentProjectsService recentProjectsService;
 
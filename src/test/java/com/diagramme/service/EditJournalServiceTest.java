@@ -0,0 +1,80 @@
+package com.diagramme.service;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.util.GeneratedIds;
+import com.diagramme.util.journal.EditJournal;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EditJournalServiceTest {
+
+    @TempDir
+    static Path directory;
+
+    private static ConfigurableApplicationContext context;
+    private static EditJournalService journalService;
+    private static DiagramService diagramService;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("jdbc:h2:mem:journal;DB_CLOSE_DELAY=-1",
+                "app.journal.enabled=true", "app.journal.dir=" + directory);
+        journalService = context.getBean(EditJournalService.class);
+        diagramService = context.getBean(DiagramService.class);
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testCompactReplaysClosedSegmentsOntoStoredDiagram() throws Exception {
+        ClassDiagram displayed = diagramService.getDiagramWithElementsById(
+                diagramService.saveDiagram(BenchmarkDiagrams.generate(50)).getId()).orElseThrow();
+        Long diagramId = displayed.getId();
+
+        // Une classe ajoutée et une classe déplacée, puis le point de contrôle
+        ClassElement added = new ClassElement("Ajoutée");
+        added.addAttribute(new Attribute("valeur", "int"));
+        displayed.addElement(added);
+        journalService.recordElement(displayed, added);
+        ClassElement moved = displayed.getClasses().get(0);
+        moved.setX(4321);
+        journalService.recordGeometry(displayed, List.of(moved));
+        long segment = journalService.checkpoint(displayed);
+
+        // Modification après le point de contrôle : elle reste dans le journal
+        moved.setY(1234);
+        journalService.recordGeometry(displayed, List.of(moved));
+
+        GeneratedIds ids = journalService.compact(diagramId, segment).orElseThrow();
+        assertEquals(1, ids.size());
+        assertEquals(2, ids.applyTo(displayed));
+        assertNotNull(added.getId());
+        assertNotNull(added.getAttributes().get(0).getId());
+
+        ClassDiagram stored = diagramService.getDiagramWithElementsById(diagramId).orElseThrow();
+        assertEquals(51, stored.getClasses().size());
+        ClassElement storedMoved = stored.getClasses().stream()
+                .filter(element -> element.getId().equals(moved.getId())).findFirst().orElseThrow();
+        assertEquals(4321, storedMoved.getX());
+        assertNotEquals(1234, storedMoved.getY());
+        assertTrue(stored.getClasses().stream().anyMatch(element -> element.getId().equals(added.getId())));
+
+        // Seul le segment ouvert reste, avec la dernière modification
+        assertEquals(1, EditJournal.readAll(directory, diagramId).size());
+        journalService.discard(diagramId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.diagramme.service;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MockEnvironment env;
+    private ExportCacheService exportCache;
+    private ExportService exportService;
+
+    @BeforeEach
+    public void setUp() {
+        env = new MockEnvironment()
+                .withProperty("app.export.temp.dir", tempDir.resolve("temp").toString());
+        exportCache = new ExportCacheService(env);
+        exportService = new ExportService(env, exportCache);
+    }
+
+    @Test
+    public void testContentHashIsStable() {
+        ClassDiagram first = createDiagram("Test", "A", "B");
+        ClassDiagram second = createDiagram("Test", "A", "B");
+        second.setId(42L);
+
+        assertEquals(exportService.computeContentHash(first), exportService.computeContentHash(second));
+
+        second.getClasses().get(0).setX(10);
+        assertNotEquals(exportService.computeContentHash(first), exportService.computeContentHash(second));
+    }
+
+    @Test
+    public void testUnchangedDiagramIsServedFromCache() throws Exception {
+        ClassDiagram diagram = createDiagram("Test", "A", "B");
+        File firstFile = tempDir.resolve("first.svg").toFile();
+        File secondFile = tempDir.resolve("second.svg").toFile();
+
+        exportService.exportDiagram(diagram, "SVG", firstFile);
+        exportService.exportDiagram(diagram, "SVG", secondFile);
+
+        assertEquals(1, exportCache.getMissCount());
+        assertEquals(1, exportCache.getHitCount());
+        assertArrayEquals(Files.readAllBytes(firstFile.toPath()), Files.readAllBytes(secondFile.toPath()));
+
+        // Un autre format ou un contenu modifié ne réutilise pas l'entrée
+        exportService.exportDiagram(diagram, "CLD", tempDir.resolve("first.cld").toFile());
+        diagram.addElement(createClass("C"));
+        exportService.exportDiagram(diagram, "SVG", secondFile);
+
+        assertEquals(3, exportCache.getMissCount());
+        assertEquals(3, exportCache.getEntryCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        ClassDiagram first = createDiagram("Premier", "A");
+        ClassDiagram second = createDiagram("Second", "B");
+        ClassDiagram third = createDiagram("Troisième", "C");
+        File output = tempDir.resolve("out.svg").toFile();
+
+        exportService.exportDiagram(first, "SVG", output);
+        long entrySize = Files.size(output.toPath());
+
+        // Place pour deux rendus seulement
+        env.setProperty("app.export.cache.max-bytes", String.valueOf(entrySize * 2 + entrySize / 2));
+        exportCache = new ExportCacheService(env);
+        exportService = new ExportService(env, exportCache);
+
+        exportService.exportDiagram(second, "SVG", output);
+        exportService.exportDiagram(first, "SVG", output);
+        exportService.exportDiagram(third, "SVG", output);
+
+        assertEquals(2, exportCache.getEntryCount());
+        assertTrue(exportCache.getTotalBytes() <= entrySize * 2 + entrySize / 2);
+
+        // "second" était le moins récemment utilisé
+        exportService.exportDiagram(first, "SVG", output);
+        exportService.exportDiagram(second, "SVG", output);
+        assertEquals(2, exportCache.getHitCount());
+        assertEquals(3, exportCache.getMissCount());
+    }
+
+    private ClassDiagram createDiagram(String name, String... classNames) {
+        ClassDiagram diagram = new ClassDiagram(name);
+        for (String className : classNames) {
+            diagram.addElement(createClass(className));
+        }
+        return diagram;
+    }
+
+    private ClassElement createClass(String name) {
+        ClassElement classElement = new ClassElement();
+        classElement.setName(name);
+        return classElement;
+    }
+}
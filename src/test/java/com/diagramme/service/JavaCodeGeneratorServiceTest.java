@@ -0,0 +1,211 @@
+package com.diagramme.service;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.model.enums.Visibility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JavaCodeGeneratorServiceTest {
+
+    private static final FileTime OLD_TIME = FileTime.fromMillis(1_000_000_000L);
+    private static final String GOLDEN_FILE = "/codegen/golden-classes.txt";
+
+    @TempDir
+    Path outputDir;
+
+    private JavaCodeGeneratorService generator;
+    private ClassDiagram diagram;
+    private ClassElement animal;
+    private ClassElement dog;
+
+    @BeforeEach
+    public void setUp() {
+        generator = new JavaCodeGeneratorService();
+        diagram = new ClassDiagram("Test");
+
+        animal = new ClassElement("Animal");
+        animal.setPackageName("com.zoo.base");
+        ClassElement pet = new ClassElement("Pet");
+        pet.setPackageName("com.zoo.base");
+        pet.setType(ClassElement.ClassType.INTERFACE);
+        dog = new ClassElement("Dog");
+        dog.setPackageName("com.zoo");
+
+        diagram.addElement(animal);
+        diagram.addElement(pet);
+        diagram.addElement(dog);
+        diagram.addElement(new RelationshipElement("extends", dog, animal, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("implements", dog, pet, RelationshipType.IMPLEMENTATION));
+    }
+
+    @Test
+    public void testGeneratesClassesWithRelationships() throws Exception {
+        assertEquals(3, generator.generateJavaCode(diagram, outputDir.toFile()));
+
+        String dogCode = Files.readString(outputDir.resolve("com/zoo/Dog.java"));
+        assertTrue(dogCode.contains("public class Dog extends Animal implements Pet {"));
+        assertTrue(dogCode.contains("import com.zoo.base.Animal;"));
+        assertTrue(dogCode.contains("import com.zoo.base.Pet;"));
+
+        String animalCode = Files.readString(outputDir.resolve("com/zoo/base/Animal.java"));
+        assertTrue(animalCode.contains("public class Animal {"));
+    }
+
+    @Test
+    public void testUnchangedFilesAreNotRewritten() throws Exception {
+        generator.generateJavaCode(diagram, outputDir.toFile());
+
+        Path animalFile = outputDir.resolve("com/zoo/base/Animal.java");
+        Path dogFile = outputDir.resolve("com/zoo/Dog.java");
+        Files.setLastModifiedTime(animalFile, OLD_TIME);
+        Files.setLastModifiedTime(dogFile, OLD_TIME);
+
+        // Seule la classe modifiée doit être réécrite
+        dog.addAttribute(new Attribute("name", "String"));
+        generator.generateJavaCode(diagram, outputDir.toFile());
+
+        assertEquals(OLD_TIME, Files.getLastModifiedTime(animalFile));
+        assertNotEquals(OLD_TIME, Files.getLastModifiedTime(dogFile));
+        assertTrue(Files.readString(dogFile).contains("String name;"));
+    }
+
+    @Test
+    public void testOutputMatchesGoldenFile() throws Exception {
+        String golden;
+        try (InputStream in = getClass().getResourceAsStream(GOLDEN_FILE)) {
+            golden = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(golden, renderGoldenDiagram());
+    }
+
+    /**
+     * Rend chaque classe du diagramme de référence, précédée de son nom
+     */
+    static String renderGoldenDiagram() {
+        ClassDiagram golden = goldenDiagram();
+        List<String> code = new JavaCodeGeneratorService().renderClasses(golden);
+
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < code.size(); i++) {
+            out.append("// ===== ").append(golden.getClasses().get(i).getName()).append(" =====\n");
+            out.append(code.get(i));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Diagramme de référence du fichier attendu : chaque forme de classe, de membre et d'import y figure
+     */
+    private static ClassDiagram goldenDiagram() {
+        ClassDiagram golden = new ClassDiagram("Golden");
+
+        // Interfaces, dont une qui en étend deux autres
+        ClassElement identified = new ClassElement("Identified");
+        identified.setPackageName("com.shop.base");
+        identified.setType(ClassElement.ClassType.INTERFACE);
+        identified.addMethod(new Method("getId", "long"));
+        ClassElement auditable = new ClassElement("Auditable");
+        auditable.setPackageName("com.shop.base");
+        auditable.setType(ClassElement.ClassType.INTERFACE);
+        Method touch = new Method("touch", "void");
+        touch.addParameter(new Parameter("at", "java.time.Instant"));
+        auditable.addMethod(touch);
+        ClassElement named = new ClassElement("Named");
+        named.setPackageName("com.shop.model");
+        named.setType(ClassElement.ClassType.INTERFACE);
+        named.addMethod(new Method("getName", "String"));
+
+        // Classe abstraite : membres statiques, finals, abstraits, valeurs par défaut
+        ClassElement entity = new ClassElement("Entity");
+        entity.setPackageName("com.shop.base");
+        entity.setAbstract(true);
+        Attribute max = new Attribute("MAX", "int", Visibility.PUBLIC);
+        max.setStatic(true);
+        max.setFinal(true);
+        max.setDefaultValue("10");
+        entity.addAttribute(max);
+        entity.addAttribute(new Attribute("id", "long", Visibility.PROTECTED));
+        Method validate = new Method("validate", "boolean");
+        validate.setAbstract(true);
+        entity.addMethod(validate);
+        Method describe = new Method("describe", "");
+        describe.setStatic(true);
+        Parameter prefix = new Parameter("prefix", "char");
+        prefix.setDefaultValue("'-'");
+        describe.addParameter(prefix);
+        describe.addParameter(new Parameter("depth", "int"));
+        entity.addMethod(describe);
+        Method version = new Method("version", "short");
+        version.setFinal(true);
+        entity.addMethod(version);
+
+        ClassElement status = new ClassElement("Status");
+        status.setPackageName("com.shop.model");
+        status.setType(ClassElement.ClassType.ENUM);
+
+        ClassElement category = new ClassElement("Category");
+        category.setPackageName("com.shop.model");
+        category.addAttribute(new Attribute("label", "String", Visibility.PACKAGE));
+
+        // Classe sans paquetage : ni importée, ni précédée d'une déclaration de paquetage
+        ClassElement warehouse = new ClassElement("Warehouse");
+        warehouse.setPackageName("");
+        warehouse.addMethod(new Method("initial", "char"));
+
+        // Résolution des imports : tableaux, types qualifiés, java.lang, classes du projet, génériques imbriqués
+        ClassElement product = new ClassElement("Product");
+        product.setPackageName("com.shop.model");
+        product.addAttribute(new Attribute("name", "String", Visibility.PRIVATE));
+        product.addAttribute(new Attribute("aliases", "String[]", Visibility.PRIVATE));
+        product.addAttribute(new Attribute("created", "java.time.Instant", Visibility.PRIVATE));
+        product.addAttribute(new Attribute("boxed", "java.lang.Integer", Visibility.PRIVATE));
+        product.addAttribute(new Attribute("category", "Category", Visibility.PRIVATE));
+        product.addAttribute(new Attribute("stock", "Warehouse", Visibility.PRIVATE));
+        product.addAttribute(new Attribute("owner", "Identified", Visibility.PRIVATE));
+        Attribute tags = new Attribute("tags", "List<String>", Visibility.PRIVATE);
+        tags.setDefaultValue("new ArrayList<>()");
+        product.addAttribute(tags);
+        product.addMethod(new Method("index", "Map<String, List<Category>>"));
+        Method find = new Method("find", "Optional<Entity>");
+        find.addParameter(new Parameter("key", "UUID"));
+        find.addParameter(new Parameter("statuses", "Set<Status>"));
+        product.addMethod(find);
+        product.addMethod(new Method("price", "double"));
+        product.addMethod(new Method("clear", null));
+
+        ClassElement order = new ClassElement("Order");
+        order.setPackageName("com.shop.sales");
+        order.addAttribute(new Attribute("lines", "List<Product>", Visibility.PRIVATE));
+
+        for (ClassElement element : List.of(identified, auditable, named, entity, status, category, warehouse, product, order)) {
+            golden.addElement(element);
+        }
+        golden.addElement(new RelationshipElement("extendsIdentified", named, identified, RelationshipType.INHERITANCE));
+        golden.addElement(new RelationshipElement("extendsAuditable", named, auditable, RelationshipType.IMPLEMENTATION));
+        golden.addElement(new RelationshipElement("implementsIdentified", entity, identified, RelationshipType.IMPLEMENTATION));
+        golden.addElement(new RelationshipElement("extendsEntity", product, entity, RelationshipType.INHERITANCE));
+        golden.addElement(new RelationshipElement("implementsNamed", product, named, RelationshipType.IMPLEMENTATION));
+        golden.addElement(new RelationshipElement("implementsAuditable", product, auditable, RelationshipType.IMPLEMENTATION));
+        golden.addElement(new RelationshipElement("stockedIn", product, warehouse, RelationshipType.ASSOCIATION));
+        golden.addElement(new RelationshipElement("hasStatus", product, status, RelationshipType.ASSOCIATION));
+        golden.addElement(new RelationshipElement("placedBy", order, identified, RelationshipType.ASSOCIATION));
+        golden.addElement(new RelationshipElement("contains", order, product, RelationshipType.AGGREGATION));
+        return golden;
+    }
+}
@@ -0,0 +1,132 @@
+package com.diagramme.service;
+
+import com.diagramme.benchmark.BenchmarkDiagrams;
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.Method;
+import com.diagramme.model.Parameter;
+import com.diagramme.repository.BulkDiagramWriter;
+import com.diagramme.service.SearchIndexService.DiagramMatch;
+import com.diagramme.service.SearchIndexService.SearchHit;
+import com.diagramme.util.search.SearchField;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexServiceTest {
+
+    private static ConfigurableApplicationContext context;
+    private static DiagramService diagramService;
+    private static SearchIndexService searchIndexService;
+
+    @BeforeAll
+    public static void startContext() {
+        context = BenchmarkDiagrams.startHeadlessContext("search-index-test");
+        diagramService = context.getBean(DiagramService.class);
+        searchIndexService = context.getBean(SearchIndexService.class);
+    }
+
+    @AfterAll
+    public static void closeContext() {
+        context.close();
+    }
+
+    @Test
+    public void testFindsTypesAndReturnTypesAcrossDiagrams() {
+        ClassDiagram shop = diagramService.saveDiagram(shop("Boutique", "Order"));
+        ClassDiagram billing = diagramService.saveDiagram(shop("Facturation", "Invoice"));
+        searchIndexService.awaitIndexing();
+
+        List<DiagramMatch> usingOrder = searchIndexService.findDiagrams("type:Order");
+        assertEquals(List.of(shop.getId()), usingOrder.stream().map(DiagramMatch::diagramId).toList());
+        // Attribut List<Order>, et la méthode findById (retour et paramètre comptent une fois)
+        assertEquals(2, usingOrder.get(0).hits());
+
+        // Les autres tests enregistrent aussi des dépôts dans ce contexte
+        List<SearchHit> returningOptional = searchIndexService.search("retour:Optional", 100);
+        assertTrue(returningOptional.stream().map(SearchHit::diagramId).toList()
+                .containsAll(List.of(shop.getId(), billing.getId())));
+        SearchHit hit = returningOptional.stream().filter(each -> each.diagramId() == shop.getId())
+                .findFirst().orElseThrow();
+        assertEquals("Repository", hit.elementName());
+        assertEquals(SearchField.RETURNS, hit.field());
+        assertEquals("findById(Long, Order) : Optional<Order>", hit.detail());
+
+        // Tous les critères dans le même diagramme
+        assertEquals(List.of(billing.getId()), searchIndexService.findDiagrams("retour:Optional type:Invoice")
+                .stream().map(DiagramMatch::diagramId).toList());
+        assertTrue(searchIndexService.findDiagrams("type:Invoice classe:OrderLine").isEmpty());
+        assertTrue(searchIndexService.findDiagrams("paquetage:com.shop*").stream().map(DiagramMatch::diagramId)
+                .toList().containsAll(List.of(shop.getId(), billing.getId())));
+        assertEquals(List.of("Repository"), searchIndexService.search("classe:repo* type:Invoice", 100).stream()
+                .filter(each -> each.field() == SearchField.CLASS).map(SearchHit::elementName).toList());
+    }
+
+    @Test
+    public void testIndexFollowsSavesAndDeletes() {
+        ClassDiagram diagram = diagramService.saveDiagram(shop("Suivi", "Shipment"));
+        searchIndexService.awaitIndexing();
+        assertEquals(1, searchIndexService.findDiagrams("classe:ShipmentLine").size());
+
+        ClassElement line = diagram.getClasses().stream().filter(element -> element.getName().equals("ShipmentLine"))
+                .findFirst().orElseThrow();
+        line.setName("Parcel");
+        diagram = diagramService.saveDiagram(diagram);
+        searchIndexService.awaitIndexing();
+        assertTrue(searchIndexService.findDiagrams("classe:ShipmentLine").isEmpty());
+        assertEquals(1, searchIndexService.findDiagrams("classe:parcel").size());
+
+        // Suppression en bloc : les termes de la classe partent avec elle
+        diagramService.deleteClassElement(line.getId());
+        assertTrue(searchIndexService.findDiagrams("classe:Parcel").isEmpty());
+
+        diagramService.deleteDiagram(diagram.getId());
+        assertTrue(searchIndexService.findDiagrams("type:Shipment").isEmpty());
+    }
+
+    @Test
+    public void testStaleDiagramsAreIndexedOnStartup() {
+        // Écrit sans passer par le service : jamais indexé
+        ClassDiagram diagram = shop("Import", "Parcel2");
+        context.getBean(BulkDiagramWriter.class).insert(diagram);
+        assertTrue(searchIndexService.findDiagrams("type:Parcel2").isEmpty());
+
+        assertTrue(searchIndexService.indexStaleDiagrams() >= 1);
+        searchIndexService.awaitIndexing();
+        assertEquals(List.of(diagram.getId()), searchIndexService.findDiagrams("type:Parcel2").stream()
+                .map(DiagramMatch::diagramId).toList());
+        assertEquals(0, searchIndexService.indexStaleDiagrams());
+    }
+
+    /**
+     * Un dépôt qui renvoie Optional&lt;entity&gt;, l'entité, et une ligne qui la référence
+     */
+    private static ClassDiagram shop(String name, String entity) {
+        ClassDiagram diagram = new ClassDiagram(name);
+
+        ClassElement type = new ClassElement(entity);
+        type.setPackageName("com.shop.model");
+        type.addAttribute(new Attribute("lines", "List<" + entity + "Line>"));
+        diagram.addElement(type);
+
+        ClassElement line = new ClassElement(entity + "Line");
+        line.setPackageName("com.shop.model");
+        line.addAttribute(new Attribute("owner", "java.util.List<" + entity + ">"));
+        diagram.addElement(line);
+
+        ClassElement repository = new ClassElement("Repository");
+        repository.setPackageName("com.shop.data");
+        Method find = new Method("findById", "Optional<" + entity + ">");
+        find.addParameter(new Parameter("id", "Long"));
+        find.addParameter(new Parameter("example", entity));
+        repository.addMethod(find);
+        diagram.addElement(repository);
+        return diagram;
+    }
+}
@@ -0,0 +1,130 @@
+package com.diagramme.service;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.util.UmlRule;
+import com.diagramme.util.UmlValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationServiceTest {
+
+    private ValidationService validationService;
+
+    // Tient lieu de thread JavaFX : les notifications sont exécutées par le test
+    private BlockingQueue<Runnable> uiQueue;
+
+    private final Map<UmlRule, List<String>> received = new HashMap<>();
+    private boolean completed;
+
+    @BeforeEach
+    public void setUp() {
+        validationService = new ValidationService();
+        uiQueue = new LinkedBlockingQueue<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        validationService.shutdown();
+    }
+
+    @Test
+    public void testPartialResultsMatchFullValidation() throws InterruptedException {
+        ClassDiagram diagram = createInvalidDiagram();
+
+        ValidationService.ValidationRun run = validationService.validateInBackground(diagram, uiQueue::add, listener());
+        drainUntilCompleted();
+
+        assertTrue(run.isCompleted());
+        assertEquals(UmlValidator.getEngine().getRules().size(), received.size());
+        assertEquals(UmlValidator.validateDiagram(diagram), combinedIssues());
+    }
+
+    @Test
+    public void testValidationUsesSnapshot() throws InterruptedException {
+        ClassDiagram diagram = createInvalidDiagram();
+        List<String> expected = UmlValidator.validateDiagram(diagram);
+
+        validationService.validateInBackground(diagram, uiQueue::add, listener());
+        diagram.getElements().clear();
+        drainUntilCompleted();
+
+        assertEquals(expected, combinedIssues());
+    }
+
+    @Test
+    public void testCancelledRunPublishesNothing() throws InterruptedException {
+        ValidationService.ValidationRun stale = validationService.validateInBackground(
+                createInvalidDiagram(), uiQueue::add, listener());
+        stale.cancel();
+
+        // Une nouvelle exécution se termine normalement
+        ClassDiagram valid = new ClassDiagram("Valide");
+        valid.addElement(new ClassElement("A"));
+        validationService.validateInBackground(valid, uiQueue::add, listener());
+        drainUntilCompleted();
+
+        assertTrue(stale.isCancelled());
+        assertFalse(stale.isCompleted());
+        received.values().forEach(issues -> assertTrue(issues.isEmpty()));
+    }
+
+    private ValidationService.ValidationListener listener() {
+        return new ValidationService.ValidationListener() {
+            @Override
+            public void onIssues(UmlRule rule, List<String> issues) {
+                assertNull(received.put(rule, issues), "Règle publiée deux fois: " + rule.getName());
+            }
+
+            @Override
+            public void onComplete() {
+                completed = true;
+            }
+        };
+    }
+
+    private List<String> combinedIssues() {
+        List<String> combined = new ArrayList<>();
+        for (UmlRule rule : UmlValidator.getEngine().getRules()) {
+            combined.addAll(received.get(rule));
+        }
+        return combined;
+    }
+
+    private void drainUntilCompleted() throws InterruptedException {
+        while (!completed) {
+            Runnable task = uiQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(task, "La validation ne s'est pas terminée");
+            task.run();
+        }
+    }
+
+    private ClassDiagram createInvalidDiagram() {
+        ClassDiagram diagram = new ClassDiagram("Test");
+        ClassElement a = new ClassElement("A");
+        ClassElement b = new ClassElement("B");
+        ClassElement c = new ClassElement("C");
+        diagram.addElement(a);
+        diagram.addElement(b);
+        diagram.addElement(c);
+        diagram.addElement(new ClassElement("A"));
+        diagram.addElement(new RelationshipElement("AB", a, b, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("BA", b, a, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("AC", a, c, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("CB", c, b, RelationshipType.IMPLEMENTATION));
+        return diagram;
+    }
+}
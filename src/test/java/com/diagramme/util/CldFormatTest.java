@@ -0,0 +1,178 @@
+package com.diagramme.util;
+
+import com.diagramme.model.*;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.model.enums.Visibility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CldFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ClassDiagram diagram;
+
+    @BeforeEach
+    public void setUp() {
+        diagram = new ClassDiagram("Diagramme binaire");
+        diagram.setDescription("Déscription accentuée");
+        diagram.setAuthor("Test");
+        diagram.setGridSize(25.0);
+        diagram.setShowGrid(false);
+
+        ClassElement order = new ClassElement("Order");
+        order.setPackageName("com.shop");
+        order.setX(10);
+        order.setY(20);
+        order.setWidth(200);
+        order.setHeight(150);
+        order.addAttribute(new Attribute("id", "Long", Visibility.PRIVATE));
+        Attribute total = new Attribute("total", "double");
+        total.setFinal(true);
+        total.setDefaultValue("0.0");
+        order.addAttribute(total);
+
+        Method addLine = new Method("addLine", "void");
+        addLine.addParameter(new Parameter("product", "Product"));
+        addLine.addParameter(new Parameter("quantity", "int"));
+        order.addMethod(addLine);
+
+        ClassElement entity = new ClassElement("Entity");
+        entity.setPackageName("com.shop");
+        entity.setType(ClassElement.ClassType.INTERFACE);
+
+        RelationshipElement implementation = new RelationshipElement("Order_Entity", order, entity, RelationshipType.IMPLEMENTATION);
+        implementation.setTargetMultiplicity("0..*");
+        implementation.getControlPoints().add(new RelationshipElement.Point(50, 60));
+        implementation.getControlPoints().add(new RelationshipElement.Point(70, 80));
+
+        diagram.addElement(order);
+        diagram.addElement(entity);
+        diagram.addElement(implementation);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File file = tempDir.resolve("diagram.cld").toFile();
+        CldFormat.write(diagram, file);
+
+        ClassDiagram loaded = CldFormat.read(file);
+
+        assertEquals("Diagramme binaire", loaded.getName());
+        assertEquals("Déscription accentuée", loaded.getDescription());
+        assertEquals(25.0, loaded.getGridSize());
+        assertFalse(loaded.isShowGrid());
+        assertEquals(2, loaded.getClasses().size());
+        assertEquals(1, loaded.getRelationships().size());
+
+        ClassElement order = loaded.getClasses().get(0);
+        assertEquals("Order", order.getName());
+        assertEquals("com.shop", order.getPackageName());
+        assertEquals(20, order.getY());
+        assertEquals(2, order.getAttributes().size());
+        assertEquals("0.0", order.getAttributes().get(1).getDefaultValue());
+        assertTrue(order.getAttributes().get(1).isFinal());
+        assertNull(order.getAttributes().get(0).getDefaultValue());
+        assertEquals(2, order.getMethods().get(0).getParameters().size());
+        assertEquals("Product", order.getMethods().get(0).getParameters().get(0).getType());
+
+        RelationshipElement relationship = loaded.getRelationships().get(0);
+        assertSame(order, relationship.getSourceElement());
+        assertEquals(ClassElement.ClassType.INTERFACE, relationship.getTargetElement().getType());
+        assertEquals(RelationshipType.IMPLEMENTATION, relationship.getType());
+        assertEquals("0..*", relationship.getTargetMultiplicity());
+        assertEquals(2, relationship.getControlPoints().size());
+        assertEquals(80, relationship.getControlPoints().get(1).getY());
+    }
+
+    @Test
+    public void testRepeatedStringsAreStoredOnce() {
+        for (int i = 0; i < 100; i++) {
+            ClassElement element = new ClassElement("Repeated" + i);
+            element.setPackageName("com.shop");
+            element.addAttribute(new Attribute("name", "String"));
+            diagram.addElement(element);
+        }
+
+        int size = CldFormat.encode(diagram).remaining();
+        int recordsOnly = CldFormat.HEADER_SIZE + CldFormat.DIAGRAM_RECORD_SIZE
+                + 102 * CldFormat.CLASS_RECORD_SIZE + 102 * CldFormat.ATTRIBUTE_RECORD_SIZE;
+
+        // Seuls les noms de classe distincts s'ajoutent à la table des chaînes
+        assertTrue(size - recordsOnly < 100 * 25, "Table des chaînes trop volumineuse: " + (size - recordsOnly));
+    }
+
+    @Test
+    public void testInvalidFileIsRejected() throws IOException {
+        File file = tempDir.resolve("invalid.cld").toFile();
+        Files.write(file.toPath(), new byte[CldFormat.HEADER_SIZE]);
+
+        assertThrows(IOException.class, () -> CldFormat.read(file));
+    }
+
+    @Test
+    public void testTruncatedFileIsRejected() throws IOException {
+        byte[] bytes = encoded();
+        for (int length = CldFormat.HEADER_SIZE; length < bytes.length; length += 7) {
+            File file = tempDir.resolve("truncated.cld").toFile();
+            Files.write(file.toPath(), Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> CldFormat.read(file), "Longueur " + length);
+        }
+    }
+
+    @Test
+    public void testOversizedSectionCountIsRejected() {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded()).order(ByteOrder.LITTLE_ENDIAN);
+        // Nombre de classes : ne doit pas allouer un tableau à sa mesure
+        buffer.putInt(8 + 2 * 4, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> CldFormat.decode(buffer));
+        buffer.putInt(8 + 2 * 4, -1);
+        assertThrows(IOException.class, () -> CldFormat.decode(buffer));
+    }
+
+    @Test
+    public void testCorruptedBytesNeverEscapeAsRuntimeException() {
+        byte[] original = encoded();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            byte[] bytes = original.clone();
+            for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                bytes[random.nextInt(bytes.length)] = (byte) random.nextInt(256);
+            }
+            try {
+                CldFormat.decode(ByteBuffer.wrap(bytes));
+            } catch (IOException expected) {
+                // Fichier rejeté proprement
+            }
+        }
+    }
+
+    @Test
+    public void testEnumsAreStoredByName() {
+        String content = new String(encoded(), StandardCharsets.UTF_8);
+        assertTrue(content.contains("INTERFACE"));
+        assertTrue(content.contains("IMPLEMENTATION"));
+        assertTrue(content.contains("PRIVATE"));
+    }
+
+    private byte[] encoded() {
+        ByteBuffer buffer = CldFormat.encode(diagram);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
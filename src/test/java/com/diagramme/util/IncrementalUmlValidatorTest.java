@@ -0,0 +1,182 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.DiagramElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalUmlValidatorTest {
+
+    private ClassDiagram diagram;
+    private ClassElement classA;
+    private ClassElement classB;
+    private IncrementalUmlValidator validator;
+
+    @BeforeEach
+    public void setUp() {
+        diagram = new ClassDiagram("Test");
+        classA = new ClassElement("ClassA");
+        classB = new ClassElement("ClassB");
+        diagram.addElement(classA);
+        diagram.addElement(classB);
+        validator = new IncrementalUmlValidator(diagram);
+    }
+
+    @Test
+    public void testDuplicateNameAfterRename() {
+        classB.setName("ClassA");
+        Set<DiagramElement> changed = validator.elementUpdated(classB);
+
+        assertSameElements(changed, classA, classB);
+        assertEquals(List.of("Nom de classe en double: ClassA"), validator.getIssues(classA));
+
+        classB.setName("ClassB");
+        changed = validator.elementUpdated(classB);
+
+        assertSameElements(changed, classA, classB);
+        assertTrue(validator.isValid());
+    }
+
+    @Test
+    public void testCycleAppearsAndDisappears() {
+        RelationshipElement ab = add(new RelationshipElement("AB", classA, classB, RelationshipType.INHERITANCE));
+        assertTrue(validator.isValid());
+
+        RelationshipElement ba = new RelationshipElement("BA", classB, classA, RelationshipType.INHERITANCE);
+        diagram.addElement(ba);
+        Set<DiagramElement> changed = validator.elementAdded(ba);
+
+        assertSameElements(changed, classA, classB);
+        assertEquals(List.of("Cycle d'héritage détecté impliquant ClassA"), validator.getIssues(classA));
+
+        diagram.removeElement(ab);
+        changed = validator.elementRemoved(ab);
+
+        assertSameElements(changed, classA, classB);
+        assertTrue(validator.isValid());
+    }
+
+    @Test
+    public void testRelationshipUpdateIsRechecked() {
+        RelationshipElement association = add(new RelationshipElement("AB", classA, classB, RelationshipType.ASSOCIATION));
+
+        association.setTargetMultiplicity("abc");
+        assertSameElements(validator.elementUpdated(association), association);
+        assertEquals(1, validator.getIssues(association).size());
+
+        // Changement de type : la règle d'implémentation s'applique désormais
+        association.setTargetMultiplicity(null);
+        association.setType(RelationshipType.IMPLEMENTATION);
+        validator.elementUpdated(association);
+        assertTrue(validator.getIssues(association).get(0).contains("relation d'implémentation"));
+
+        // La cible devient une interface : la relation redevient valide
+        classB.setType(ClassElement.ClassType.INTERFACE);
+        assertSameElements(validator.elementUpdated(classB), association);
+        assertTrue(validator.isValid());
+    }
+
+    @Test
+    public void testRemovingClassClearsItsRelationships() {
+        RelationshipElement implementation = add(new RelationshipElement("AB", classA, classB, RelationshipType.IMPLEMENTATION));
+        assertFalse(validator.isValid());
+
+        diagram.removeElement(implementation);
+        diagram.removeElement(classB);
+        Set<DiagramElement> changed = validator.elementRemoved(classB);
+
+        assertTrue(changed.contains(implementation));
+        assertTrue(validator.isValid());
+    }
+
+    @Test
+    public void testMatchesFullValidationAfterRandomEdits() {
+        Random random = new Random(7);
+        String[] names = {"A", "B", "C", "D", "E", "F"};
+        RelationshipType[] types = RelationshipType.values();
+        String[] multiplicities = {"1", "0..*", "x", "1..", null};
+
+        for (int step = 0; step < 2000; step++) {
+            List<ClassElement> classes = diagram.getClasses();
+            List<RelationshipElement> relationships = diagram.getRelationships();
+            int operation = random.nextInt(6);
+
+            if (operation == 0 || classes.size() < 2) {
+                ClassElement added = new ClassElement(names[random.nextInt(names.length)]);
+                diagram.addElement(added);
+                validator.elementAdded(added);
+            } else if (operation <= 2) {
+                RelationshipElement added = new RelationshipElement("r" + step,
+                        classes.get(random.nextInt(classes.size())),
+                        classes.get(random.nextInt(classes.size())),
+                        types[random.nextInt(types.length)]);
+                added.setTargetMultiplicity(multiplicities[random.nextInt(multiplicities.length)]);
+                diagram.addElement(added);
+                validator.elementAdded(added);
+            } else if (operation == 3 && !relationships.isEmpty()) {
+                RelationshipElement removed = relationships.get(random.nextInt(relationships.size()));
+                remove(removed);
+                validator.elementRemoved(removed);
+            } else if (operation == 4) {
+                ClassElement removed = classes.get(random.nextInt(classes.size()));
+                for (RelationshipElement relationship : relationships) {
+                    if (relationship.getSourceElement() == removed || relationship.getTargetElement() == removed) {
+                        remove(relationship);
+                    }
+                }
+                remove(removed);
+                validator.elementRemoved(removed);
+            } else {
+                ClassElement updated = classes.get(random.nextInt(classes.size()));
+                updated.setName(names[random.nextInt(names.length)]);
+                updated.setType(random.nextBoolean() ? ClassElement.ClassType.CLASS : ClassElement.ClassType.INTERFACE);
+                validator.elementUpdated(updated);
+            }
+
+            assertEquals(normalize(UmlValidator.validateDiagram(diagram)), normalize(allIssues()), "étape " + step);
+        }
+    }
+
+    private RelationshipElement add(RelationshipElement relationship) {
+        diagram.addElement(relationship);
+        validator.elementAdded(relationship);
+        return relationship;
+    }
+
+    /**
+     * Retrait par identité : removeElement s'appuie sur equals, qui compare les champs des entités
+     */
+    private void remove(DiagramElement element) {
+        diagram.getElements().removeIf(e -> e == element);
+    }
+
+    private List<String> allIssues() {
+        List<String> all = new ArrayList<>();
+        for (DiagramElement element : diagram.getElements()) {
+            all.addAll(validator.getIssues(element));
+        }
+        return all;
+    }
+
+    /**
+     * La validation complète ne signale un doublon qu'à partir de la deuxième occurrence,
+     * la validation incrémentale marque toutes les classes concernées : on compare les ensembles
+     */
+    private Set<String> normalize(List<String> issues) {
+        return new TreeSet<>(issues);
+    }
+
+    private void assertSameElements(Set<DiagramElement> actual, DiagramElement... expected) {
+        assertEquals(expected.length, actual.size());
+        for (DiagramElement element : expected) {
+            assertTrue(actual.stream().anyMatch(e -> e == element), element.getName());
+        }
+    }
+}
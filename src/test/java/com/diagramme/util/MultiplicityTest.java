@@ -0,0 +1,92 @@
+package com.diagramme.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiplicityTest {
+
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    public void testCommonForms() {
+        assertSame(Multiplicity.ONE, Multiplicity.parse("1"));
+        assertSame(Multiplicity.MANY, Multiplicity.parse("*"));
+        assertSame(Multiplicity.MANY, Multiplicity.parse("0..*"));
+        assertSame(Multiplicity.OPTIONAL, Multiplicity.parse("0..1"));
+        assertSame(Multiplicity.ONE_OR_MORE, Multiplicity.parse(" 1..* "));
+        assertEquals(new Multiplicity(2, 5), Multiplicity.parse("2..5"));
+        assertEquals(new Multiplicity(3, 3), Multiplicity.parse("3"));
+    }
+
+    @Test
+    public void testInvalidForms() {
+        for (String text : new String[] {null, "", "  ", "..", "1..", "..1", "*..1", "*..*", "5..2", "1...2",
+                "a", "-1", "1..-2", "0x1", "1 .. 2", "99999999999", "1..99999999999"}) {
+            assertFalse(Multiplicity.isValid(text), "Accepté à tort: " + text);
+            assertNull(Multiplicity.parse(text));
+        }
+    }
+
+    @Test
+    public void testInvalidBoundsRejectedByConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> new Multiplicity(3, 2));
+        assertThrows(IllegalArgumentException.class, () -> new Multiplicity(-1, 2));
+    }
+
+    @Test
+    public void testAllows() {
+        assertTrue(Multiplicity.parse("1..*").allows(1000));
+        assertFalse(Multiplicity.parse("1..*").allows(0));
+        assertTrue(Multiplicity.parse("2..4").allows(3));
+        assertFalse(Multiplicity.parse("2..4").allows(5));
+    }
+
+    @Test
+    public void testPropertyCanonicalFormRoundTrips() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            int lower = random.nextInt(random.nextBoolean() ? 3 : Integer.MAX_VALUE);
+            int upper = random.nextInt(4) == 0
+                    ? Multiplicity.UNBOUNDED
+                    : random.nextInt(lower, Integer.MAX_VALUE);
+            Multiplicity multiplicity = Multiplicity.of(lower, upper);
+
+            assertEquals(multiplicity, Multiplicity.parse(multiplicity.toString()));
+            String explicit = lower + ".." + (upper == Multiplicity.UNBOUNDED ? "*" : Integer.toString(upper));
+            assertEquals(multiplicity, Multiplicity.parse(explicit));
+        }
+    }
+
+    @Test
+    public void testPropertyAgreesWithReferenceGrammar() {
+        // Oracle : la grammaire d'origine par expression régulière, complétée par la contrainte inférieure ≤ supérieure
+        Pattern reference = Pattern.compile("\\s*(?:(\\d+|\\*)|(\\d+)\\.\\.(\\d+|\\*))\\s*");
+        char[] alphabet = {'0', '1', '2', '9', '*', '.', '.', ' ', '-', 'n'};
+        Random random = new Random(7);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(7);
+            for (int k = 0; k < length; k++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            Matcher matcher = reference.matcher(text);
+            boolean expected = matcher.matches() && boundsOrdered(matcher);
+            assertEquals(expected, Multiplicity.isValid(text), "Désaccord sur '" + text + "'");
+            assertEquals(expected, Multiplicity.parse(text) != null);
+        }
+    }
+
+    private static boolean boundsOrdered(Matcher matcher) {
+        if (matcher.group(2) == null || matcher.group(3).equals("*")) {
+            return true;
+        }
+        return Long.parseLong(matcher.group(2)) <= Long.parseLong(matcher.group(3));
+    }
+}
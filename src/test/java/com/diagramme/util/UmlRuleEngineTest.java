@@ -0,0 +1,265 @@
+package com.diagramme.util;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UmlRuleEngineTest {
+
+    private ClassDiagram diagram;
+
+    @BeforeEach
+    public void setUp() {
+        diagram = new ClassDiagram("Test");
+        ClassElement a = new ClassElement("A");
+        ClassElement b = new ClassElement("b");
+        diagram.addElement(a);
+        diagram.addElement(b);
+        diagram.addElement(new RelationshipElement("AB", a, b, RelationshipType.INHERITANCE));
+    }
+
+    @Test
+    public void testCustomRuleRunsAfterBuiltInRules() {
+        RuleMetrics metrics = new RuleMetrics();
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(UmlValidator.DUPLICATE_NAMES, new LowerCaseNameRule()), metrics);
+
+        List<String> issues = engine.validate(diagram);
+
+        assertEquals(List.of("Nom de classe en minuscule: b"), issues);
+    }
+
+    @Test
+    public void testRegisteredRuleExtendsEngine() {
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(UmlValidator.DUPLICATE_NAMES), new RuleMetrics());
+        assertTrue(engine.validate(diagram).isEmpty());
+
+        engine.register(new LowerCaseNameRule());
+        engine.register(new InheritanceDepthRule(1));
+
+        assertEquals(3, engine.getRules().size());
+        assertEquals(List.of("Nom de classe en minuscule: b", "Héritage trop profond: A"), engine.validate(diagram));
+        // Le contexte partagé couvre les données des règles enregistrées
+        ValidationContext context = engine.createContext(diagram);
+        assertEquals(1, engine.validate(context, engine.getRules().get(2)).size());
+    }
+
+    @Test
+    public void testRegisteringSameNameReplacesRule() {
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(new LowerCaseNameRule(), UmlValidator.DUPLICATE_NAMES),
+                new RuleMetrics());
+        UmlRule silent = new LowerCaseNameRule() {
+            @Override
+            public void check(ValidationContext context, List<String> issues) {
+            }
+        };
+
+        engine.register(silent);
+
+        assertEquals(List.of(silent, UmlValidator.DUPLICATE_NAMES), engine.getRules());
+        assertTrue(engine.validate(diagram).isEmpty());
+    }
+
+    @Test
+    public void testMetricsPerRule() {
+        RuleMetrics metrics = new RuleMetrics();
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(UmlValidator.DUPLICATE_NAMES, new LowerCaseNameRule()), metrics);
+
+        engine.validate(diagram);
+        engine.validate(diagram);
+        engine.validate(diagram, UmlValidator.DUPLICATE_NAMES);
+
+        List<RuleMetrics.RuleStatistics> statistics = metrics.getStatistics();
+        assertEquals(2, statistics.size());
+
+        RuleMetrics.RuleStatistics lowerCase = find(statistics, "Minuscules");
+        assertEquals(2, lowerCase.executions());
+        assertEquals(2, lowerCase.issueCount());
+        assertTrue(lowerCase.maxNanos() <= lowerCase.totalNanos());
+
+        RuleMetrics.RuleStatistics duplicates = find(statistics, UmlValidator.DUPLICATE_NAMES.getName());
+        assertEquals(3, duplicates.executions());
+        assertEquals(0, duplicates.issueCount());
+
+        String summary = metrics.getSummary();
+        assertEquals(2, summary.lines().count());
+        assertTrue(summary.contains("Minuscules : "), summary);
+        assertTrue(summary.contains("(2 exécutions, 2 problèmes)"), summary);
+
+        metrics.reset();
+        assertTrue(metrics.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void testUndeclaredScopeIsRejected() {
+        UmlRule sneaky = new UmlRule() {
+            @Override
+            public String getName() {
+                return "Non déclarée";
+            }
+
+            @Override
+            public Set<Scope> getScopes() {
+                return EnumSet.of(Scope.CLASSES);
+            }
+
+            @Override
+            public void check(ValidationContext context, List<String> issues) {
+                context.getRelationships();
+            }
+        };
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(sneaky), new RuleMetrics());
+
+        assertThrows(IllegalStateException.class, () -> engine.validate(diagram));
+    }
+
+    @Test
+    public void testSharedContextAcrossRules() {
+        // Les règles déclarant les mêmes données reçoivent la même liste extraite
+        List<List<ClassElement>> seen = new ArrayList<>();
+        UmlRule recorder = new LowerCaseNameRule() {
+            @Override
+            public void check(ValidationContext context, List<String> issues) {
+                seen.add(context.getClasses());
+            }
+        };
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(recorder, recorder), new RuleMetrics());
+
+        engine.validate(diagram);
+
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+    }
+
+    @Test
+    public void testExternalRuleReadsInheritanceGraph() {
+        ClassElement c = new ClassElement("C");
+        diagram.addElement(c);
+        diagram.addElement(new RelationshipElement("CA", c, diagram.getClasses().get(0), RelationshipType.INHERITANCE));
+        UmlRuleEngine engine = new UmlRuleEngine(List.of(new InheritanceDepthRule(2)), new RuleMetrics());
+
+        assertEquals(List.of("Héritage trop profond: C"), engine.validate(diagram));
+
+        // Cycle : la profondeur n'est pas calculée
+        diagram.addElement(new RelationshipElement("bC", diagram.getClasses().get(1), c, RelationshipType.INHERITANCE));
+        assertEquals(List.of("Cycle ignoré: A", "Cycle ignoré: b", "Cycle ignoré: C"), engine.validate(diagram));
+    }
+
+    @Test
+    public void testSharedContextBuildsInheritanceGraphOnce() throws Exception {
+        // Deux règles du même parcours, évaluées en parallèle sur un même contexte
+        Set<InheritanceGraph> seen = ConcurrentHashMap.newKeySet();
+        List<UmlRule> rules = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            rules.add(new InheritanceDepthRule(2) {
+                @Override
+                public void check(ValidationContext context, List<String> issues) {
+                    seen.add(context.getInheritanceGraph());
+                }
+            });
+        }
+        UmlRuleEngine engine = new UmlRuleEngine(rules, new RuleMetrics());
+        ValidationContext context = engine.createContext(diagram);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (Future<List<String>> result : executor.invokeAll(rules.stream()
+                    .map(rule -> (Callable<List<String>>) () -> engine.validate(context, rule)).toList())) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, seen.size());
+    }
+
+    private static RuleMetrics.RuleStatistics find(List<RuleMetrics.RuleStatistics> statistics, String name) {
+        return statistics.stream()
+                .filter(statistic -> statistic.ruleName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Règle externe : les noms de classes doivent commencer par une majuscule
+     */
+    private static class LowerCaseNameRule implements UmlRule {
+
+        @Override
+        public String getName() {
+            return "Minuscules";
+        }
+
+        @Override
+        public Set<Scope> getScopes() {
+            return EnumSet.of(Scope.CLASSES);
+        }
+
+        @Override
+        public void check(ValidationContext context, List<String> issues) {
+            for (ClassElement element : context.getClasses()) {
+                if (Character.isLowerCase(element.getName().charAt(0))) {
+                    issues.add("Nom de classe en minuscule: " + element.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Règle externe sur le graphe d'héritage : chaînes d'héritage plus longues que la limite
+     */
+    private static class InheritanceDepthRule implements UmlRule {
+
+        private final int maxDepth;
+
+        InheritanceDepthRule(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        @Override
+        public String getName() {
+            return "Profondeur d'héritage";
+        }
+
+        @Override
+        public Set<Scope> getScopes() {
+            return EnumSet.of(Scope.CLASSES, Scope.INHERITANCE_GRAPH);
+        }
+
+        @Override
+        public void check(ValidationContext context, List<String> issues) {
+            InheritanceGraph graph = context.getInheritanceGraph();
+            List<ClassElement> classes = context.getClasses();
+            for (int i = 0; i < graph.getClassCount(); i++) {
+                if (graph.isInCycle(i)) {
+                    issues.add("Cycle ignoré: " + classes.get(i).getName());
+                } else if (depth(graph, i) > maxDepth) {
+                    issues.add("Héritage trop profond: " + classes.get(i).getName());
+                }
+            }
+        }
+
+        private static int depth(InheritanceGraph graph, int classIndex) {
+            int depth = 0;
+            for (int n = 0; n < graph.getParentCount(classIndex); n++) {
+                depth = Math.max(depth, depth(graph, graph.getParent(classIndex, n)));
+            }
+            return depth + 1;
+        }
+    }
+}
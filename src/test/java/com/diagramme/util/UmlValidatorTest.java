@@ -7,6 +7,7 @@ import com.diagramme.model.enums.RelationshipType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -170,4 +171,88 @@ public class UmlValidatorTest {
         assertFalse(issues.isEmpty());
         assertTrue(issues.get(0).contains("Multiplicité"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLongInheritanceCycleOnlyReportsMembers() {
+        // A extends B, B extends C, C extends A ; D extends A sans faire partie du cycle
+        ClassElement classC = new ClassElement("ClassC");
+        ClassElement classD = new ClassElement("ClassD");
+        diagram.addElement(classC);
+        diagram.addElement(classD);
+
+        diagram.addElement(new RelationshipElement("AB", classA, classB, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("BC", classB, classC, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("CA", classC, classA, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("DA", classD, classA, RelationshipType.INHERITANCE));
+
+        List<String> issues = UmlValidator.validateDiagram(diagram);
+
+        assertEquals(List.of(
+                "Cycle d'héritage détecté impliquant ClassA",
+                "Cycle d'héritage détecté impliquant ClassB",
+                "Cycle d'héritage détecté impliquant ClassC"), issues);
+    }
+
+    @Test
+    public void testSelfInheritance() {
+        diagram.addElement(new RelationshipElement("AA", classA, classA, RelationshipType.INHERITANCE));
+
+        List<String> issues = UmlValidator.validateDiagram(diagram);
+
+        assertEquals(List.of("Cycle d'héritage détecté impliquant ClassA"), issues);
+    }
+
+    @Test
+    public void testDeepInheritanceChain() {
+        // Chaîne de 20 000 classes refermée sur elle-même : pas de débordement de pile
+        ClassDiagram chain = new ClassDiagram("Chaîne");
+        ClassElement first = new ClassElement("C0");
+        ClassElement previous = first;
+        chain.addElement(first);
+        for (int i = 1; i < 20_000; i++) {
+            ClassElement current = new ClassElement("C" + i);
+            chain.addElement(current);
+            chain.addElement(new RelationshipElement("r" + i, previous, current, RelationshipType.INHERITANCE));
+            previous = current;
+        }
+
+        assertTrue(UmlValidator.validateDiagram(chain).isEmpty());
+
+        chain.addElement(new RelationshipElement("fermeture", previous, first, RelationshipType.INHERITANCE));
+        assertEquals(20_000, UmlValidator.validateDiagram(chain).size());
+    }
+
+    @Test
+    public void testSnapshotIsDetached() {
+        diagram.addElement(new RelationshipElement("AB", classA, classB, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("BA", classB, classA, RelationshipType.INHERITANCE));
+
+        ClassDiagram snapshot = UmlValidator.snapshot(diagram);
+        List<String> expected = UmlValidator.validateDiagram(diagram);
+
+        // Les modifications ultérieures de l'original n'affectent pas la copie
+        classA.setName("Renamed");
+        diagram.getElements().clear();
+
+        assertEquals(expected, UmlValidator.validateDiagram(snapshot));
+        assertNotSame(classB, snapshot.getRelationships().get(0).getTargetElement());
+    }
+
+    @Test
+    public void testRulesCoverFullValidation() {
+        diagram.addElement(new RelationshipElement("AB", classA, classB, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("AC", classA, interfaceC, RelationshipType.INHERITANCE));
+        diagram.addElement(new RelationshipElement("BA", classB, classA, RelationshipType.IMPLEMENTATION));
+        ClassElement duplicate = new ClassElement("ClassA");
+        duplicate.setPackageName("com.test");
+        diagram.addElement(duplicate);
+
+        List<String> combined = new ArrayList<>();
+        for (UmlRule rule : UmlValidator.getEngine().getRules()) {
+            combined.addAll(UmlValidator.getEngine().validate(diagram, rule));
+        }
+
+        assertEquals(UmlValidator.validateDiagram(diagram), combined);
+        assertEquals(3, combined.size());
+    }
+}
@@ -0,0 +1,169 @@
+package com.diagramme.util.journal;
+
+import com.diagramme.model.Attribute;
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import com.diagramme.util.DiagramSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private ClassDiagram stored;
+    private ClassDiagram edited;
+
+    @BeforeEach
+    public void setUp() {
+        // Version en base, et la copie affichée dans l'éditeur
+        stored = new ClassDiagram("Journal");
+        stored.setId(1L);
+        ClassElement a = new ClassElement("A");
+        a.setId(10L);
+        ClassElement b = new ClassElement("B");
+        b.setId(11L);
+        stored.addElement(a);
+        stored.addElement(b);
+        RelationshipElement ba = new RelationshipElement("BA", b, a, RelationshipType.INHERITANCE);
+        ba.setId(20L);
+        stored.addElement(ba);
+        edited = DiagramSnapshot.of(stored).getCopy();
+    }
+
+    @Test
+    public void testReplayRebuildsEditsOnStoredDiagram() throws IOException {
+        EditJournal journal = new EditJournal(directory, 1L);
+        ClassElement a = edited.getClasses().get(0);
+        ClassElement b = edited.getClasses().get(1);
+
+        // Nouvelle classe, pas encore enregistrée, et une relation vers elle
+        ClassElement c = new ClassElement("C");
+        c.addAttribute(new Attribute("value", "int"));
+        edited.addElement(c);
+        journal.append(JournalCodec.element(c));
+        RelationshipElement ca = new RelationshipElement("CA", c, a, RelationshipType.ASSOCIATION);
+        edited.addElement(ca);
+        journal.append(JournalCodec.element(ca));
+
+        a.setName("Renamed");
+        journal.append(JournalCodec.element(a));
+        a.setX(250);
+        a.setY(120);
+        journal.append(JournalCodec.geometry(List.of(a)));
+        edited.setName("Journal modifié");
+        journal.append(JournalCodec.diagramProperties(edited));
+
+        // Supprimer B retire aussi sa relation
+        edited.removeElement(edited.getRelationships().get(0));
+        edited.removeElement(b);
+        journal.append(JournalCodec.removed(b));
+        journal.flush();
+        journal.close();
+
+        List<byte[]> operations = EditJournal.readAll(directory, 1L);
+        assertEquals(6, operations.size());
+        assertEquals(6, JournalCodec.replay(stored, operations));
+        assertSameContent(edited, stored);
+
+        // Rejouer une seconde fois ne change rien
+        JournalCodec.replay(stored, operations);
+        assertSameContent(edited, stored);
+        assertEquals(10L, stored.getClasses().get(0).getId());
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws IOException {
+        EditJournal journal = new EditJournal(directory, 1L);
+        journal.append(JournalCodec.diagramProperties(edited));
+        journal.append(JournalCodec.element(edited.getClasses().get(0)));
+        journal.flush();
+        journal.close();
+
+        // Arrêt brutal au milieu de l'écriture d'un enregistrement
+        Path segment;
+        try (var files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] content = Files.readAllBytes(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        assertEquals(2, EditJournal.readAll(directory, 1L).size());
+
+        // Enregistrement complet mais corrompu
+        content[content.length - 1] ^= 0x7F;
+        Files.write(segment, content);
+        assertEquals(1, EditJournal.readAll(directory, 1L).size());
+    }
+
+    @Test
+    public void testCompactionDiscardsSavedSegments() throws IOException {
+        EditJournal journal = new EditJournal(directory, 1L);
+        journal.append(JournalCodec.diagramProperties(edited));
+        long saved = journal.roll();
+        journal.append(JournalCodec.element(edited.getClasses().get(0)));
+        journal.flush();
+        assertFalse(journal.hasPending());
+        assertEquals(2, EditJournal.readAll(directory, 1L).size());
+
+        // La copie prise au point de contrôle est en base
+        journal.discardThrough(saved);
+        List<byte[]> remaining = EditJournal.readAll(directory, 1L);
+        assertEquals(1, remaining.size());
+        assertEquals(JournalCodec.CLASS, remaining.get(0)[0]);
+        assertEquals(List.of(1L), EditJournal.diagramsWithJournal(directory));
+
+        journal.discardAll();
+        journal.close();
+        assertTrue(EditJournal.readAll(directory, 1L).isEmpty());
+        assertTrue(EditJournal.diagramsWithJournal(directory).isEmpty());
+    }
+
+    @Test
+    public void testDiscardDropsUnwrittenOperationsOfSavedSegments() throws IOException {
+        EditJournal journal = new EditJournal(directory, 1L);
+        journal.append(JournalCodec.diagramProperties(edited));
+        long saved = journal.roll();
+        journal.append(JournalCodec.element(edited.getClasses().get(0)));
+
+        // Segment mis en base avant d'avoir été écrit : le flush suivant ne le recrée pas
+        journal.discardThrough(saved);
+        journal.flush();
+        journal.close();
+
+        List<byte[]> remaining = EditJournal.readAll(directory, 1L);
+        assertEquals(1, remaining.size());
+        assertEquals(JournalCodec.CLASS, remaining.get(0)[0]);
+        assertTrue(EditJournal.readThrough(directory, 1L, saved).isEmpty());
+    }
+
+    private static void assertSameContent(ClassDiagram expected, ClassDiagram actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getElements().size(), actual.getElements().size());
+        for (int i = 0; i < expected.getClasses().size(); i++) {
+            ClassElement expectedClass = expected.getClasses().get(i);
+            ClassElement actualClass = actual.getClasses().get(i);
+            assertEquals(expectedClass.getUuid(), actualClass.getUuid());
+            assertEquals(expectedClass.getName(), actualClass.getName());
+            assertEquals(expectedClass.getX(), actualClass.getX());
+            assertEquals(expectedClass.getY(), actualClass.getY());
+            assertEquals(expectedClass.getAttributes().size(), actualClass.getAttributes().size());
+        }
+        RelationshipElement expectedRelationship = expected.getRelationships().get(0);
+        RelationshipElement actualRelationship = actual.getRelationships().get(0);
+        assertEquals(expectedRelationship.getUuid(), actualRelationship.getUuid());
+        assertEquals(expectedRelationship.getSourceElement().getUuid(), actualRelationship.getSourceElement().getUuid());
+        assertEquals(expectedRelationship.getTargetElement().getUuid(), actualRelationship.getTargetElement().getUuid());
+    }
+}
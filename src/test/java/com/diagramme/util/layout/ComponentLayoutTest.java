@@ -0,0 +1,97 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentLayoutTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testComponentsAreFoundLargestFirst() {
+        // Chaînes de 10, une chaîne de 3 et 5 classes isolées
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(108);
+        List<RelationshipElement> relationships = ForceDirectedLayoutTest.createChains(classes.subList(0, 100), 10);
+        relationships.add(new RelationshipElement("a", classes.get(100), classes.get(101), RelationshipType.ASSOCIATION));
+        relationships.add(new RelationshipElement("b", classes.get(102), classes.get(101), RelationshipType.ASSOCIATION));
+
+        int[][] components = ComponentLayout.components(LayoutGraph.of(classes, relationships));
+
+        assertEquals(16, components.length);
+        for (int c = 0; c < 10; c++) {
+            assertEquals(10, components[c].length);
+        }
+        assertArrayEquals(new int[] {100, 101, 102}, components[10]);
+        for (int c = 11; c < 16; c++) {
+            assertEquals(1, components[c].length);
+        }
+    }
+
+    @Test
+    public void testComponentsArePackedWithoutOverlap() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(220);
+        List<RelationshipElement> relationships =
+                new ArrayList<>(ForceDirectedLayoutTest.createChains(classes.subList(0, 200), 20));
+        LayoutGraph graph = LayoutGraph.of(classes, relationships);
+
+        LayoutReport report = new ComponentLayout(ForceDirectedLayout::new, pool).layout(graph, LayoutOptions.defaults());
+
+        assertEquals(30, report.details().get("composantes").intValue());
+        assertEquals(20, report.details().get("plus grande composante").intValue());
+        assertEquals(0, report.remainingOverlaps());
+        assertEquals(0, OverlapRemoval.countOverlaps(graph));
+
+        // Chaque composante garde sa disposition : les classes reliées restent voisines
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            int s = graph.edgeSource[e];
+            int t = graph.edgeTarget[e];
+            double distance = Math.hypot(graph.getX(s) - graph.getX(t), graph.getY(s) - graph.getY(t));
+            assertTrue(distance < 800, "Relation longue de " + distance);
+        }
+
+        // Le rangement reste à peu près aussi large que haut
+        double maxX = 0;
+        double maxY = 0;
+        for (int i = 0; i < graph.getNodeCount(); i++) {
+            assertTrue(graph.getX(i) >= ForceDirectedLayout.MARGIN - 1e-6);
+            assertTrue(graph.getY(i) >= ForceDirectedLayout.MARGIN - 1e-6);
+            maxX = Math.max(maxX, graph.getX(i) + graph.getWidth(i));
+            maxY = Math.max(maxY, graph.getY(i) + graph.getHeight(i));
+        }
+        assertTrue(maxX < 4 * maxY && maxY < 4 * maxX, "Rangement de " + maxX + " x " + maxY);
+    }
+
+    @Test
+    public void testSingleComponentIsLaidOutDirectly() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(30);
+        List<RelationshipElement> relationships = ForceDirectedLayoutTest.createChains(classes, 30);
+        LayoutGraph graph = LayoutGraph.of(classes, relationships);
+
+        LayoutReport report = new ComponentLayout(HierarchicalLayout::new, pool).layout(graph, LayoutOptions.defaults());
+
+        assertEquals(new HierarchicalLayout().getName(), report.algorithm());
+        assertFalse(report.details().containsKey("composantes"));
+        assertTrue(report.details().containsKey("couches"));
+        assertEquals(0, OverlapRemoval.countOverlaps(graph));
+    }
+}
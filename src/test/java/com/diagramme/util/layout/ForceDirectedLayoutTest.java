@@ -0,0 +1,139 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ForceDirectedLayoutTest {
+
+    @Test
+    public void testNoOverlapsAndConnectedClassesCloser() {
+        List<ClassElement> classes = createClasses(300);
+        List<RelationshipElement> relationships = createChains(classes, 10);
+        LayoutGraph graph = LayoutGraph.of(classes, relationships);
+
+        LayoutReport report = new ForceDirectedLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(300, report.nodeCount());
+        assertEquals(0, report.remainingOverlaps());
+        assertEquals(0, OverlapRemoval.countOverlaps(graph));
+
+        // Les classes reliées sont plus proches que la moyenne des paires
+        double linked = 0;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            linked += distance(graph, graph.edgeSource[e], graph.edgeTarget[e]);
+        }
+        linked /= graph.getEdgeCount();
+
+        double any = 0;
+        Random random = new Random(3);
+        for (int s = 0; s < 2000; s++) {
+            any += distance(graph, random.nextInt(300), random.nextInt(300));
+        }
+        any /= 2000;
+        assertTrue(linked < any / 2, "Relations trop longues: " + linked + " pour une moyenne de " + any);
+    }
+
+    @Test
+    public void testStackedClassesAreSpread() {
+        // Toutes les classes au même endroit, comme après un import
+        List<ClassElement> classes = createClasses(200);
+        classes.forEach(element -> {
+            element.setX(0);
+            element.setY(0);
+        });
+        LayoutGraph graph = LayoutGraph.of(classes, List.of());
+
+        LayoutReport report = new ForceDirectedLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(0, report.remainingOverlaps());
+        graph.applyTo();
+        for (ClassElement element : classes) {
+            assertTrue(element.getX() >= ForceDirectedLayout.MARGIN - 1e-6);
+            assertTrue(element.getY() >= ForceDirectedLayout.MARGIN - 1e-6);
+        }
+    }
+
+    @Test
+    public void testIterationBudget() {
+        List<ClassElement> classes = createClasses(100);
+        LayoutGraph graph = LayoutGraph.of(classes, createChains(classes, 5));
+
+        LayoutReport report = new ForceDirectedLayout().layout(graph, new LayoutOptions(5, 10_000));
+
+        assertTrue(report.iterations() <= 5);
+        assertFalse(report.converged());
+    }
+
+    @Test
+    public void testBarnesHutMatchesExactRepulsionWhenFullyOpened() {
+        Random random = new Random(11);
+        int n = 500;
+        double[] px = new double[n];
+        double[] py = new double[n];
+        for (int i = 0; i < n; i++) {
+            px[i] = random.nextDouble() * 10_000;
+            py[i] = random.nextDouble() * 10_000;
+        }
+        QuadTree tree = new QuadTree(n);
+        tree.build(px, py, n);
+
+        for (int i = 0; i < n; i += 37) {
+            double[] exact = new double[2];
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    double dx = px[i] - px[j];
+                    double dy = py[i] - py[j];
+                    double d2 = dx * dx + dy * dy;
+                    exact[0] += dx / d2;
+                    exact[1] += dy / d2;
+                }
+            }
+            double[] approx = new double[2];
+            tree.accumulateRepulsion(i, px[i], py[i], 1, 0, approx);
+            assertEquals(exact[0], approx[0], 1e-9 * n);
+            assertEquals(exact[1], approx[1], 1e-9 * n);
+        }
+    }
+
+    private static double distance(LayoutGraph graph, int a, int b) {
+        double dx = graph.getX(a) - graph.getX(b);
+        double dy = graph.getY(a) - graph.getY(b);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    static List<ClassElement> createClasses(int count) {
+        Random random = new Random(5);
+        List<ClassElement> classes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ClassElement element = new ClassElement("C" + i);
+            element.setX(random.nextDouble() * 3000);
+            element.setY(random.nextDouble() * 3000);
+            element.setWidth(120 + random.nextInt(100));
+            element.setHeight(80 + random.nextInt(100));
+            classes.add(element);
+        }
+        return classes;
+    }
+
+    /**
+     * Relie les classes en chaînes de longueur donnée
+     */
+    static List<RelationshipElement> createChains(List<ClassElement> classes, int chainLength) {
+        List<RelationshipElement> relationships = new ArrayList<>();
+        for (int i = 1; i < classes.size(); i++) {
+            if (i % chainLength != 0) {
+                relationships.add(new RelationshipElement("r" + i, classes.get(i), classes.get(i - 1),
+                        RelationshipType.ASSOCIATION));
+            }
+        }
+        return relationships;
+    }
+}
@@ -0,0 +1,118 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HierarchicalLayoutTest {
+
+    @Test
+    public void testParentsAboveChildren() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(500);
+        List<RelationshipElement> relationships = createHierarchy(classes, new Random(7));
+        LayoutGraph graph = LayoutGraph.of(classes, relationships);
+
+        LayoutReport report = new HierarchicalLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(500, report.nodeCount());
+        assertEquals(0, report.remainingOverlaps());
+        assertEquals(0, report.details().get("relations inversées").intValue());
+        for (RelationshipElement relationship : relationships) {
+            ClassElement child = relationship.getSourceElement();
+            ClassElement parent = relationship.getTargetElement();
+            int c = classes.indexOf(child);
+            int p = classes.indexOf(parent);
+            assertTrue(graph.getY(p) + graph.getHeight(p) < graph.getY(c),
+                    parent.getName() + " devrait être au-dessus de " + child.getName());
+        }
+    }
+
+    @Test
+    public void testCrossingsReduced() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(400);
+        LayoutGraph graph = LayoutGraph.of(classes, createHierarchy(classes, new Random(13)));
+
+        LayoutReport report = new HierarchicalLayout().layout(graph, LayoutOptions.defaults());
+
+        long initial = report.details().get("croisements initiaux").longValue();
+        long result = report.details().get("croisements").longValue();
+        assertTrue(result <= initial, result + " croisements pour " + initial + " au départ");
+    }
+
+    @Test
+    public void testTreeHasNoCrossings() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(255);
+        List<RelationshipElement> relationships = new ArrayList<>();
+        for (int i = 1; i < classes.size(); i++) {
+            relationships.add(new RelationshipElement("h" + i, classes.get(i), classes.get((i - 1) / 2),
+                    RelationshipType.INHERITANCE));
+        }
+        LayoutGraph graph = LayoutGraph.of(classes, relationships);
+
+        LayoutReport report = new HierarchicalLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(8, report.details().get("couches").intValue());
+        assertEquals(0, report.details().get("croisements").longValue());
+        assertTrue(report.converged());
+    }
+
+    @Test
+    public void testCyclesAndIsolatedClasses() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(6);
+        List<RelationshipElement> relationships = List.of(
+                new RelationshipElement("ab", classes.get(0), classes.get(1), RelationshipType.INHERITANCE),
+                new RelationshipElement("bc", classes.get(1), classes.get(2), RelationshipType.INHERITANCE),
+                new RelationshipElement("ca", classes.get(2), classes.get(0), RelationshipType.IMPLEMENTATION),
+                // Les associations ne participent pas aux couches
+                new RelationshipElement("de", classes.get(3), classes.get(4), RelationshipType.ASSOCIATION));
+        LayoutGraph graph = LayoutGraph.of(classes, relationships);
+
+        LayoutReport report = new HierarchicalLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(1, report.details().get("relations inversées").intValue());
+        assertEquals(3, report.details().get("couches").intValue());
+        assertEquals(0, report.remainingOverlaps());
+
+        // Les classes hors hiérarchie sont rangées sous le dessin
+        double bottom = 0;
+        for (int i = 0; i < 3; i++) {
+            bottom = Math.max(bottom, graph.getY(i) + graph.getHeight(i));
+        }
+        for (int i = 3; i < 6; i++) {
+            assertTrue(graph.getY(i) > bottom);
+            assertTrue(graph.getX(i) >= HierarchicalLayout.MARGIN - 1e-6);
+        }
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        LayoutReport report = new HierarchicalLayout().layout(LayoutGraph.of(List.of(), List.of()),
+                LayoutOptions.defaults());
+
+        assertEquals(0, report.nodeCount());
+        assertEquals(0, report.remainingOverlaps());
+    }
+
+    /**
+     * Hiérarchie aléatoire : chaque classe hérite d'une classe précédente, une sur cinq implémente en plus une interface
+     */
+    private static List<RelationshipElement> createHierarchy(List<ClassElement> classes, Random random) {
+        List<RelationshipElement> relationships = new ArrayList<>();
+        for (int i = 1; i < classes.size(); i++) {
+            relationships.add(new RelationshipElement("h" + i, classes.get(i), classes.get(random.nextInt(i)),
+                    RelationshipType.INHERITANCE));
+            if (i % 5 == 0 && i > 10) {
+                relationships.add(new RelationshipElement("i" + i, classes.get(i), classes.get(random.nextInt(10)),
+                        RelationshipType.IMPLEMENTATION));
+            }
+        }
+        return relationships;
+    }
+}
@@ -0,0 +1,104 @@
+package com.diagramme.util.layout;
+
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalLayoutTest {
+
+    @Test
+    public void testExistingClassesKeepTheirPositions() {
+        // Diagramme existant déjà disposé, sans superposition
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(500);
+        List<RelationshipElement> relationships = ForceDirectedLayoutTest.createChains(classes, 10);
+        LayoutGraph existing = LayoutGraph.of(classes, relationships);
+        new ForceDirectedLayout().layout(existing, LayoutOptions.defaults());
+        existing.applyTo();
+
+        // Vingt classes importées, toutes au même endroit et reliées à des classes existantes
+        Random random = new Random(17);
+        List<ClassElement> all = new ArrayList<>(classes);
+        List<RelationshipElement> allRelationships = new ArrayList<>(relationships);
+        for (int i = 0; i < 20; i++) {
+            ClassElement added = new ClassElement("N" + i);
+            all.add(added);
+            allRelationships.add(new RelationshipElement("n" + i, added, classes.get(random.nextInt(500)),
+                    RelationshipType.DEPENDENCY));
+        }
+        LayoutGraph graph = LayoutGraph.of(all, allRelationships);
+        for (int i = 0; i < 500; i++) {
+            graph.setPinned(i, true);
+        }
+
+        LayoutReport report = new IncrementalLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(20, report.details().get("classes placées").intValue());
+        assertEquals(0, report.remainingOverlaps());
+        assertEquals(0, OverlapRemoval.countOverlaps(graph));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(classes.get(i).getX(), graph.getX(i));
+            assertEquals(classes.get(i).getY(), graph.getY(i));
+        }
+
+        // Chaque nouvelle classe est posée près de la classe à laquelle elle est reliée
+        for (int e = graph.getEdgeCount() - 20; e < graph.getEdgeCount(); e++) {
+            int added = graph.edgeSource[e];
+            int neighbour = graph.edgeTarget[e];
+            double distance = Math.hypot(graph.getX(added) - graph.getX(neighbour),
+                    graph.getY(added) - graph.getY(neighbour));
+            assertTrue(distance < 1000, "Classe " + graph.getNode(added).getName() + " posée à " + distance);
+        }
+    }
+
+    @Test
+    public void testClassWithoutRelationshipStaysWhenFree() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(3);
+        classes.get(0).setX(0);
+        classes.get(0).setY(0);
+        classes.get(1).setX(1000);
+        classes.get(1).setY(0);
+        // Posée sur la première classe
+        classes.get(2).setX(50);
+        classes.get(2).setY(50);
+        LayoutGraph graph = LayoutGraph.of(classes, List.of());
+        graph.setPinned(0, true);
+        graph.setPinned(1, true);
+
+        new IncrementalLayout().layout(graph, LayoutOptions.defaults());
+        assertEquals(0, OverlapRemoval.countOverlaps(graph));
+        double moved = Math.hypot(graph.getX(2) - 50, graph.getY(2) - 50);
+        assertTrue(moved < 500, "Déplacement trop important: " + moved);
+
+        // Une classe déjà à une place libre ne bouge pas
+        graph.setPinned(0, false);
+        graph.setPinned(2, true);
+        double x = graph.getX(0);
+        double y = graph.getY(0);
+        new IncrementalLayout().layout(graph, LayoutOptions.defaults());
+        assertEquals(x, graph.getX(0));
+        assertEquals(y, graph.getY(0));
+    }
+
+    @Test
+    public void testNothingToPlace() {
+        List<ClassElement> classes = ForceDirectedLayoutTest.createClasses(10);
+        LayoutGraph graph = LayoutGraph.of(classes, List.of());
+        for (int i = 0; i < 10; i++) {
+            graph.setPinned(i, true);
+        }
+
+        LayoutReport report = new IncrementalLayout().layout(graph, LayoutOptions.defaults());
+
+        assertEquals(0, report.iterations());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(classes.get(i).getX(), graph.getX(i));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.diagramme.util.routing;
+
+import com.diagramme.model.ClassDiagram;
+import com.diagramme.model.ClassElement;
+import com.diagramme.model.RelationshipElement;
+import com.diagramme.model.enums.RelationshipType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrthogonalRouterTest {
+
+    @Test
+    public void testRouteAvoidsClassInBetween() {
+        ClassDiagram diagram = new ClassDiagram("Test");
+        ClassElement a = createClass(diagram, "A", 0, 0);
+        createClass(diagram, "B", 300, 0);
+        ClassElement c = createClass(diagram, "C", 600, 0);
+        RelationshipElement ac = new RelationshipElement("AC", a, c, RelationshipType.ASSOCIATION);
+        diagram.addElement(ac);
+
+        new OrthogonalRouter().update(diagram);
+
+        assertFalse(ac.getControlPoints().isEmpty(), "La ligne directe traverse B");
+        assertValidRoute(diagram, ac);
+    }
+
+    @Test
+    public void testAlignedClassesNeedNoBend() {
+        ClassDiagram diagram = new ClassDiagram("Test");
+        ClassElement a = createClass(diagram, "A", 0, 0);
+        ClassElement b = createClass(diagram, "B", 0, 400);
+        RelationshipElement ab = new RelationshipElement("AB", a, b, RelationshipType.INHERITANCE);
+        diagram.addElement(ab);
+
+        new OrthogonalRouter().update(diagram);
+
+        List<RelationshipElement.Point> polyline = polyline(ab);
+        assertValidRoute(diagram, ab);
+        assertEquals(polyline.get(0).getX(), polyline.get(polyline.size() - 1).getX());
+    }
+
+    @Test
+    public void testOnlyAffectedRoutesAreRecomputed() {
+        ClassDiagram diagram = new ClassDiagram("Test");
+        ClassElement a = createClass(diagram, "A", 0, 0);
+        ClassElement b = createClass(diagram, "B", 600, 0);
+        ClassElement c = createClass(diagram, "C", 0, 2000);
+        ClassElement d = createClass(diagram, "D", 600, 2000);
+        ClassElement far = createClass(diagram, "Far", 3000, 3000);
+        RelationshipElement ab = new RelationshipElement("AB", a, b, RelationshipType.ASSOCIATION);
+        RelationshipElement cd = new RelationshipElement("CD", c, d, RelationshipType.ASSOCIATION);
+        diagram.addElement(ab);
+        diagram.addElement(cd);
+
+        OrthogonalRouter router = new OrthogonalRouter();
+        assertEquals(Set.of(ab, cd), router.update(diagram));
+        assertTrue(router.update(diagram).isEmpty());
+
+        // Classe éloignée déplacée : aucune route touchée
+        far.setX(3500);
+        assertTrue(router.update(diagram).isEmpty());
+
+        // Extrémité déplacée
+        b.setY(100);
+        assertEquals(Set.of(ab), router.update(diagram));
+
+        // Classe posée dans le couloir de CD
+        far.setX(300);
+        far.setY(2000);
+        Set<RelationshipElement> rerouted = router.update(diagram);
+        assertTrue(rerouted.contains(cd));
+        assertFalse(rerouted.contains(ab));
+        assertValidRoute(diagram, cd);
+    }
+
+    @Test
+    public void testRandomDiagramRoutesAvoidAllClasses() {
+        Random random = new Random(21);
+        ClassDiagram diagram = new ClassDiagram("Test");
+        List<ClassElement> classes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            classes.add(createClass(diagram, "C" + i, (i % 10) * 320 + random.nextInt(60),
+                    (i / 10) * 260 + random.nextInt(40)));
+        }
+        List<RelationshipElement> relationships = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            ClassElement source = classes.get(random.nextInt(100));
+            ClassElement target = classes.get(random.nextInt(100));
+            if (source != target) {
+                RelationshipElement relationship = new RelationshipElement("r" + i, source, target,
+                        RelationshipType.DEPENDENCY);
+                diagram.addElement(relationship);
+                relationships.add(relationship);
+            }
+        }
+
+        new OrthogonalRouter().update(diagram);
+
+        int routed = 0;
+        for (RelationshipElement relationship : relationships) {
+            if (!relationship.getControlPoints().isEmpty()) {
+                assertValidRoute(diagram, relationship);
+                routed++;
+            }
+        }
+        // Seules les classes alignées se passent de coude
+        assertTrue(routed > relationships.size() * 9 / 10, routed + " routes sur " + relationships.size());
+    }
+
+    @Test
+    public void testPersistedRoutesAreReusedAndStaleOnesRoutedInBackground() {
+        ClassDiagram diagram = new ClassDiagram("Test");
+        ClassElement a = createClass(diagram, "A", 0, 0);
+        createClass(diagram, "B", 300, 0);
+        ClassElement c = createClass(diagram, "C", 600, 0);
+        ClassElement d = createClass(diagram, "D", 0, 600);
+        RelationshipElement ac = new RelationshipElement("AC", a, c, RelationshipType.ASSOCIATION);
+        RelationshipElement cd = new RelationshipElement("CD", c, d, RelationshipType.ASSOCIATION);
+        diagram.addElement(ac);
+        diagram.addElement(cd);
+        new OrthogonalRouter().update(diagram);
+        List<RelationshipElement.Point> saved = new ArrayList<>(ac.getControlPoints());
+
+        // Diagramme rechargé : C a été déplacée sans que les tracés soient recalculés
+        c.setX(1000);
+        c.setY(400);
+        OrthogonalRouter router = new OrthogonalRouter();
+        Set<RelationshipElement> pending = router.seed(diagram);
+        assertEquals(2, pending.size());
+
+        // Remis dans l'état enregistré : les tracés sont repris sans recherche
+        c.setX(600);
+        c.setY(0);
+        assertTrue(router.seed(diagram).isEmpty());
+        assertEquals(0, router.getRoutedCount());
+        assertTrue(router.update(diagram).isEmpty());
+        assertEquals(saved, ac.getControlPoints());
+
+        // Déplacée à nouveau : calcul hors du routeur, puis application
+        c.setX(1000);
+        c.setY(400);
+        assertEquals(Set.of(ac, cd), router.seed(diagram));
+        OrthogonalRouter.PendingRoutes computed = router.pendingRoutes();
+        assertTrue(router.update(diagram).isEmpty(), "Les relations en attente ne sont pas tracées par update");
+        assertEquals(Set.of(ac, cd), router.apply(computed.compute()));
+        assertEquals(2, router.getRoutedCount());
+        assertValidRoute(diagram, ac);
+        assertValidRoute(diagram, cd);
+        assertTrue(router.update(diagram).isEmpty());
+    }
+
+    @Test
+    public void testBackgroundRouteMadeStaleDuringComputationIsRecomputed() {
+        ClassDiagram diagram = new ClassDiagram("Test");
+        ClassElement a = createClass(diagram, "A", 0, 0);
+        ClassElement b = createClass(diagram, "B", 600, 0);
+        ClassElement c = createClass(diagram, "C", 0, 2000);
+        ClassElement d = createClass(diagram, "D", 600, 2000);
+        RelationshipElement ab = new RelationshipElement("AB", a, b, RelationshipType.ASSOCIATION);
+        RelationshipElement cd = new RelationshipElement("CD", c, d, RelationshipType.ASSOCIATION);
+        diagram.addElement(ab);
+        diagram.addElement(cd);
+        ab.getControlPoints().add(new RelationshipElement.Point(-1, -1));
+        cd.getControlPoints().add(new RelationshipElement.Point(-1, -1));
+
+        OrthogonalRouter router = new OrthogonalRouter();
+        assertEquals(Set.of(ab, cd), router.seed(diagram));
+        OrthogonalRouter.PendingRoutes computed = router.pendingRoutes().compute();
+
+        // Extrémité de AB déplacée pendant le calcul
+        b.setY(300);
+        assertTrue(router.update(diagram).isEmpty());
+        int routed = router.getRoutedCount();
+        router.apply(computed);
+
+        // AB recalculée sur la géométrie actuelle, CD reprise du calcul
+        assertEquals(routed + 2, router.getRoutedCount());
+        assertValidRoute(diagram, ab);
+        assertValidRoute(diagram, cd);
+        assertTrue(router.update(diagram).isEmpty());
+    }
+
+    private static ClassElement createClass(ClassDiagram diagram, String name, double x, double y) {
+        ClassElement element = new ClassElement(name);
+        element.setX(x);
+        element.setY(y);
+        element.setWidth(200);
+        element.setHeight(150);
+        diagram.addElement(element);
+        return element;
+    }
+
+    /**
+     * Tracé complet : points d'attache et coudes
+     */
+    private static List<RelationshipElement.Point> polyline(RelationshipElement relationship) {
+        List<RelationshipElement.Point> bends = relationship.getControlPoints();
+        ClassElement source = relationship.getSourceElement();
+        ClassElement target = relationship.getTargetElement();
+        RelationshipElement.Point start = OrthogonalRouter.attachmentPoint(source.getX(), source.getY(),
+                source.getWidth(), source.getHeight(), bends.get(0));
+        RelationshipElement.Point end = OrthogonalRouter.attachmentPoint(target.getX(), target.getY(),
+                target.getWidth(), target.getHeight(), bends.get(bends.size() - 1));
+        if (start == null || end == null) {
+            return null;
+        }
+        List<RelationshipElement.Point> points = new ArrayList<>();
+        points.add(start);
+        points.addAll(bends);
+        points.add(end);
+        return points;
+    }
+
+    /**
+     * Segments horizontaux ou verticaux, qui ne traversent aucune classe
+     */
+    private static void assertValidRoute(ClassDiagram diagram, RelationshipElement relationship) {
+        List<RelationshipElement.Point> points = polyline(relationship);
+        assertNotNull(points, "Coudes hors de l'axe des classes: " + relationship.getName());
+        for (int i = 1; i < points.size(); i++) {
+            RelationshipElement.Point from = points.get(i - 1);
+            RelationshipElement.Point to = points.get(i);
+            assertTrue(from.getX() == to.getX() || from.getY() == to.getY(), "Segment oblique");
+            for (ClassElement element : diagram.getClasses()) {
+                assertFalse(crosses(element, from, to),
+                        relationship.getName() + " traverse " + element.getName());
+            }
+        }
+    }
+
+    private static boolean crosses(ClassElement element, RelationshipElement.Point from, RelationshipElement.Point to) {
+        double minX = Math.min(from.getX(), to.getX());
+        double maxX = Math.max(from.getX(), to.getX());
+        double minY = Math.min(from.getY(), to.getY());
+        double maxY = Math.max(from.getY(), to.getY());
+        return minX < element.getX() + element.getWidth() && maxX > element.getX()
+                && minY < element.getY() + element.getHeight() && maxY > element.getY();
+    }
+}
@@ -0,0 +1,40 @@
+package com.diagramme.util.search;
+
+import com.diagramme.util.search.SearchTerms.Criterion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTermsTest {
+
+    @Test
+    public void testTypeIsSplitIntoIdentifiers() {
+        assertEquals(Set.of("map", "string", "java.util.list", "list", "order"),
+                SearchTerms.type("Map<String, java.util.List<Order>>"));
+        assertEquals(Set.of("order"), SearchTerms.type("Order[]"));
+        assertEquals(Set.of("optional", "t"), SearchTerms.type("Optional<? extends T>"));
+        assertTrue(SearchTerms.type(null).isEmpty());
+    }
+
+    @Test
+    public void testQueryCriteria() {
+        assertEquals(List.of(new Criterion(SearchField.TYPE, "order", false),
+                        new Criterion(SearchField.RETURNS, "optional", true)),
+                SearchTerms.parse("type:Order  retour:Optional*"));
+
+        // Un type générique donne un critère par identifiant, un nom reste entier
+        assertEquals(List.of(new Criterion(SearchField.TYPE, "list", false),
+                        new Criterion(SearchField.TYPE, "order", false)),
+                SearchTerms.parse("type:List<Order>"));
+        assertEquals(List.of(new Criterion(SearchField.PACKAGE, "com.shop", true)),
+                SearchTerms.parse("paquetage:com.shop*"));
+        assertEquals(List.of(new Criterion(SearchField.METHOD, "find", false)), SearchTerms.parse("méthode:find"));
+
+        // Préfixe inconnu : la valeur entière, dans tous les champs
+        assertEquals(List.of(new Criterion(null, "foo:bar", false)), SearchTerms.parse("foo:bar"));
+        assertTrue(SearchTerms.parse("   ").isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.diagramme.util.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateCompilerTest {
+
+    record Item(String name, boolean optional) {
+    }
+
+    record Group(String title, List<Item> items) {
+    }
+
+    private final TemplateModel<Group> model = new TemplateModel<Group>()
+            .value("title", Group::title)
+            .flag("empty", g -> g.items().isEmpty())
+            .list("items", Group::items, new TemplateModel<Item>()
+                    .value("name", Item::name)
+                    .flag("optional", Item::optional));
+
+    @Test
+    public void testValuesConditionsAndLists() {
+        Template<Group> template = TemplateCompiler.compile(
+                "{{title}}: {{#if empty}}aucun{{else}}{{#each items separator=\", \"}}{{name}}{{#if optional}}?{{/if}}{{/each}}{{/if}}.",
+                model);
+
+        assertEquals("Liste: a, b?, c.", template.render(new Group("Liste",
+                List.of(new Item("a", false), new Item("b", true), new Item("c", false)))));
+        assertEquals("Vide: aucun.", template.render(new Group("Vide", List.of())));
+    }
+
+    @Test
+    public void testNegationAndNullValue() {
+        Template<Group> template = TemplateCompiler.compile("[{{title}}]{{#if !empty}} plein{{/if}}", model);
+
+        assertEquals("[]", template.render(new Group(null, List.of())));
+        assertEquals("[x] plein", template.render(new Group("x", List.of(new Item("a", false)))));
+    }
+
+    @Test
+    public void testTemplateIsReusable() {
+        Template<Group> template = TemplateCompiler.compile("{{#each items}}<{{name}}>{{/each}}", model);
+        Group group = new Group("g", List.of(new Item("a", false), new Item("b", false)));
+
+        StringBuilder out = new StringBuilder();
+        template.renderTo(group, out);
+        template.renderTo(group, out);
+        assertEquals("<a><b><a><b>", out.toString());
+    }
+
+    @Test
+    public void testInvalidTemplatesAreRejected() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> TemplateCompiler.compile("ligne\n{{inconnu}}", model));
+        assertTrue(unknown.getMessage().contains("ligne 2"));
+
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("{{#if empty}}oui", model));
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("{{#each items}}x{{/if}}", model));
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("texte{{/each}}", model));
+        assertThrows(IllegalArgumentException.class, () -> TemplateCompiler.compile("{{title", model));
+    }
+}